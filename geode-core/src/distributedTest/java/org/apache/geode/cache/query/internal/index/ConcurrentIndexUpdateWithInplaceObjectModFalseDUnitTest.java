@@ -32,8 +32,8 @@ import org.apache.geode.cache.query.IndexStatistics;
 import org.apache.geode.cache.query.data.Portfolio;
 import org.apache.geode.cache.query.data.Position;
 import org.apache.geode.cache.query.internal.index.AbstractIndex.RegionEntryToValuesMap;
+import org.apache.geode.cache.query.internal.index.AbstractMemoryIndexStore.MemoryIndexStoreEntry;
 import org.apache.geode.cache.query.internal.index.IndexStore.IndexStoreEntry;
-import org.apache.geode.cache.query.internal.index.MemoryIndexStore.MemoryIndexStoreEntry;
 import org.apache.geode.cache.query.partitioned.PRQueryDUnitHelper;
 import org.apache.geode.cache30.CacheSerializableRunnable;
 import org.apache.geode.cache30.CacheTestCase;
@@ -0,0 +1,136 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.cache.query.internal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.IntPredicate;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import org.apache.geode.cache.Cache;
+import org.apache.geode.cache.Region;
+import org.apache.geode.cache.RegionShortcut;
+import org.apache.geode.cache.query.QueryService;
+import org.apache.geode.cache.query.SelectResults;
+import org.apache.geode.pdx.PdxInstance;
+import org.apache.geode.test.junit.categories.OQLQueryTest;
+import org.apache.geode.test.junit.rules.ServerStarterRule;
+
+@Category({OQLQueryTest.class})
+public class PdxFieldComparisonIntegrationTest {
+
+  private static final int NUM_VALUES = 100;
+
+  @Rule
+  public ServerStarterRule serverStarterRule =
+      new ServerStarterRule().withPDXReadSerialized().withAutoStart();
+
+  private Cache cache;
+
+  private Region<Integer, PdxInstance> region;
+
+  private QueryService queryService;
+
+  @Before
+  public void setup() {
+    this.cache = serverStarterRule.getCache();
+    this.region =
+        cache.<Integer, PdxInstance>createRegionFactory(RegionShortcut.REPLICATE).create("values");
+    for (int n = 0; n < NUM_VALUES; n++) {
+      this.region.put(n,
+          cache.createPdxInstanceFactory("test.Value").writeInt("id", n)
+              .writeByte("b", (byte) (n % 7)).writeShort("s", (short) (n * 3)).writeInt("i", n)
+              .writeLong("l", n * 1_000_000_000L).writeFloat("f", n / 4f)
+              .writeDouble("d", n / 8d).writeString("str", n % 10 == 0 ? null : "v" + (n % 5))
+              .writeBoolean("flag", n % 2 == 0).create());
+    }
+    this.queryService = cache.getQueryService();
+  }
+
+  @Test
+  public void numericFieldsAreComparedWithLiterals() throws Exception {
+    assertQuery("v.i >= 90", n -> n >= 90);
+    assertQuery("95 <= v.i", n -> n >= 95);
+    assertQuery("v.i > 10.5", n -> n > 10);
+    assertQuery("v.l > 50000000000L", n -> n > 50);
+    assertQuery("v.l = 7000000000L", n -> n == 7);
+    assertQuery("v.d < 2.5", n -> n < 20);
+    assertQuery("v.f = 2.25", n -> n == 9);
+    assertQuery("v.f >= 20", n -> n >= 80);
+    assertQuery("v.b <> 3", n -> n % 7 != 3);
+    assertQuery("30 > v.s", n -> n < 10);
+  }
+
+  @Test
+  public void stringFieldsAreComparedWithLiterals() throws Exception {
+    assertQuery("v.str = 'v3'", n -> n % 10 != 0 && n % 5 == 3);
+    assertQuery("v.str > 'v2'", n -> n % 10 != 0 && n % 5 > 2);
+    assertQuery("v.str = null", n -> n % 10 == 0);
+  }
+
+  @Test
+  public void fieldsAreComparedWithQueryParameters() throws Exception {
+    assertThat(ids("v.i < $1", 5)).isEqualTo(expectedIds(n -> n < 5));
+    assertThat(ids("v.d >= $1", 12L)).isEqualTo(expectedIds(n -> n >= 96));
+    assertThat(ids("$1 = v.str", "v4")).isEqualTo(expectedIds(n -> n % 5 == 4));
+  }
+
+  @Test
+  public void otherFieldsAreComparedOnTheirValues() throws Exception {
+    assertQuery("v.flag = true", n -> n % 2 == 0);
+    assertQuery("v.missing = 1", n -> false);
+  }
+
+  @Test
+  public void fieldsMissingFromAVersionOfTheTypeHaveTheirDefaultValue() throws Exception {
+    this.region.put(NUM_VALUES,
+        cache.createPdxInstanceFactory("test.Value").writeInt("id", NUM_VALUES).create());
+
+    Set<Integer> expected = expectedIds(n -> n == 0);
+    expected.add(NUM_VALUES);
+    assertThat(ids("v.i = 0")).isEqualTo(expected);
+    assertThat(ids("v.i > 98")).containsExactly(99);
+  }
+
+  private void assertQuery(String condition, IntPredicate predicate) throws Exception {
+    assertThat(ids(condition)).as(condition).isEqualTo(expectedIds(predicate));
+  }
+
+  private Set<Integer> ids(String condition, Object... parameters) throws Exception {
+    SelectResults results = (SelectResults) this.queryService
+        .newQuery("select * from /values v where " + condition).execute(parameters);
+    Set<Integer> ids = new TreeSet<>();
+    for (Object result : results) {
+      ids.add((Integer) ((PdxInstance) result).getField("id"));
+    }
+    return ids;
+  }
+
+  private static Set<Integer> expectedIds(IntPredicate predicate) {
+    Set<Integer> ids = new TreeSet<>();
+    for (int n = 0; n < NUM_VALUES; n++) {
+      if (predicate.test(n)) {
+        ids.add(n);
+      }
+    }
+    return ids;
+  }
+}
@@ -382,5 +382,10 @@ public class QueryObserverCallbackJUnitTest {
     public void orderByColumnsEqual() {
       // nothing
     }
+
+    @Override
+    public void afterFilterSelection(Filter filter, Index index, int sizeEstimate) {
+      // nothing
+    }
   }
 }
@@ -0,0 +1,307 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.cache.query.internal;
+
+import static org.apache.geode.test.awaitility.GeodeAwaitility.await;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.contrib.java.lang.system.RestoreSystemProperties;
+import org.junit.experimental.categories.Category;
+
+import org.apache.geode.cache.CacheTransactionManager;
+import org.apache.geode.cache.Region;
+import org.apache.geode.cache.RegionShortcut;
+import org.apache.geode.cache.query.QueryService;
+import org.apache.geode.cache.query.SelectResults;
+import org.apache.geode.cache.query.data.Portfolio;
+import org.apache.geode.internal.cache.CachePerfStats;
+import org.apache.geode.internal.cache.InternalCache;
+import org.apache.geode.internal.cache.LocalRegion;
+import org.apache.geode.test.junit.categories.OQLQueryTest;
+import org.apache.geode.test.junit.rules.ServerStarterRule;
+
+@Category({OQLQueryTest.class})
+public class QueryResultCacheIntegrationTest {
+
+  private static final String QUERY = "select * from /portfolios p where p.ID < $1";
+
+  @Rule
+  public RestoreSystemProperties restoreSystemProperties = new RestoreSystemProperties();
+
+  @Rule
+  public ServerStarterRule serverStarterRule = new ServerStarterRule();
+
+  private InternalCache cache;
+
+  private QueryService queryService;
+
+  private CachePerfStats stats;
+
+  @Test
+  public void repeatedQueryReturnsTheCachedResult() throws Exception {
+    startServer(10, 0);
+    createPortfolios(RegionShortcut.REPLICATE, 20);
+
+    Set<Integer> first = execute(QUERY, 10);
+    Set<Integer> second = execute(QUERY, 10);
+    Set<Integer> other = execute(QUERY, 5);
+
+    assertThat(second).isEqualTo(first).hasSize(10);
+    assertThat(other).hasSize(5);
+    assertThat(this.stats.getQueryResultCacheMisses()).isEqualTo(2);
+    assertThat(this.stats.getQueryResultCacheHits()).isEqualTo(1);
+  }
+
+  @Test
+  public void cachedResultIsInvalidatedByChangesToTheRegion() throws Exception {
+    startServer(10, 0);
+    Region<Integer, Portfolio> region = createPortfolios(RegionShortcut.REPLICATE, 20);
+    execute(QUERY, 10);
+
+    region.put(20, new Portfolio(3));
+    assertThat(execute(QUERY, 10)).hasSize(10);
+    region.destroy(4);
+    assertThat(execute(QUERY, 10)).hasSize(9).doesNotContain(4);
+    region.invalidate(5);
+    assertThat(execute(QUERY, 10)).hasSize(8).doesNotContain(5);
+    CacheTransactionManager txManager = this.cache.getCacheTransactionManager();
+    txManager.begin();
+    region.put(4, new Portfolio(4));
+    txManager.commit();
+    assertThat(execute(QUERY, 10)).hasSize(9).contains(4);
+    region.clear();
+    assertThat(execute(QUERY, 10)).isEmpty();
+
+    assertThat(this.stats.getQueryResultCacheHits()).isEqualTo(0);
+    assertThat(this.stats.getQueryResultCacheInvalidations()).isEqualTo(5);
+  }
+
+  @Test
+  public void changesToAnotherRegionDoNotInvalidateTheCachedResult() throws Exception {
+    startServer(10, 0);
+    createPortfolios(RegionShortcut.REPLICATE, 20);
+    Region<Integer, Portfolio> other =
+        this.cache.<Integer, Portfolio>createRegionFactory(RegionShortcut.LOCAL).create("other");
+    execute(QUERY, 10);
+
+    other.put(1, new Portfolio(1));
+
+    assertThat(execute(QUERY, 10)).hasSize(10);
+    assertThat(this.stats.getQueryResultCacheHits()).isEqualTo(1);
+  }
+
+  @Test
+  public void cachedResultExpires() throws Exception {
+    startServer(10, 1);
+    createPortfolios(RegionShortcut.REPLICATE, 20);
+    execute(QUERY, 10);
+
+    await().untilAsserted(() -> {
+      execute(QUERY, 10);
+      assertThat(this.stats.getQueryResultCacheInvalidations()).isGreaterThan(0);
+    });
+  }
+
+  @Test
+  public void resultsLargerThanTheMaximumResultSizeAreNotCached() throws Exception {
+    System.setProperty(QueryResultCache.MAX_RESULT_SIZE_PROPERTY, "5");
+    startServer(10, 0);
+    createPortfolios(RegionShortcut.REPLICATE, 20);
+
+    execute(QUERY, 10);
+    execute(QUERY, 10);
+    execute(QUERY, 5);
+    execute(QUERY, 5);
+
+    assertThat(this.stats.getQueryResultCacheHits()).isEqualTo(1);
+    assertThat(this.cache.getQueryResultCache().size()).isEqualTo(1);
+  }
+
+  @Test
+  public void resultsNotUsedSinceTheCacheWasLastFullAreEvicted() throws Exception {
+    startServer(2, 0);
+    createPortfolios(RegionShortcut.REPLICATE, 20);
+
+    execute(QUERY, 1);
+    execute(QUERY, 2);
+    // full, every result is marked unused
+    execute(QUERY, 3);
+    execute(QUERY, 1);
+    // full again, only the results used or added since are kept
+    execute(QUERY, 4);
+
+    assertThat(this.cache.getQueryResultCache().size()).isEqualTo(3);
+    execute(QUERY, 1);
+    execute(QUERY, 2);
+    assertThat(this.stats.getQueryResultCacheHits()).isEqualTo(2);
+  }
+
+  @Test
+  public void cachedResultCannotBeModified() throws Exception {
+    startServer(10, 0);
+    createPortfolios(RegionShortcut.REPLICATE, 20);
+    SelectResults<Object> first =
+        (SelectResults<Object>) this.queryService.newQuery(QUERY).execute(10);
+
+    assertThat(first.isModifiable()).isFalse();
+    assertThatThrownBy(() -> first.add(new Portfolio(30)))
+        .isInstanceOf(UnsupportedOperationException.class);
+    assertThatThrownBy(() -> first.clear()).isInstanceOf(UnsupportedOperationException.class);
+    assertThatThrownBy(() -> first.iterator().remove())
+        .isInstanceOf(UnsupportedOperationException.class);
+    first.asList().clear();
+
+    assertThat(execute(QUERY, 10)).hasSize(10);
+    assertThat(this.stats.getQueryResultCacheHits()).isEqualTo(1);
+  }
+
+  @Test
+  public void resultsAreRemovedWhenTheirRegionIsDestroyed() throws Exception {
+    startServer(10, 0);
+    Region<Integer, Portfolio> region = createPortfolios(RegionShortcut.REPLICATE, 20);
+    Region<Integer, Portfolio> other =
+        this.cache.<Integer, Portfolio>createRegionFactory(RegionShortcut.LOCAL).create("other");
+    execute(QUERY, 10);
+    execute("select * from /other", new Object[0]);
+    assertThat(this.cache.getQueryResultCache().size()).isEqualTo(2);
+
+    region.destroyRegion();
+
+    assertThat(this.cache.getQueryResultCache().size()).isEqualTo(1);
+    other.localDestroyRegion();
+    assertThat(this.cache.getQueryResultCache().size()).isEqualTo(0);
+  }
+
+  @Test
+  public void partitionedRegionQueriesAreNotCached() throws Exception {
+    startServer(10, 0);
+    createPortfolios(RegionShortcut.PARTITION, 20);
+
+    assertThat(execute(QUERY, 10)).hasSize(10);
+    assertThat(execute(QUERY, 10)).hasSize(10);
+
+    assertThat(this.stats.getQueryResultCacheHits()).isEqualTo(0);
+    assertThat(this.stats.getQueryResultCacheMisses()).isEqualTo(0);
+  }
+
+  @Test
+  public void doesNotCacheIfDisabled() throws Exception {
+    startServer(0, 0);
+    Region<Integer, Portfolio> region = createPortfolios(RegionShortcut.REPLICATE, 20);
+
+    execute(QUERY, 10);
+    execute(QUERY, 10);
+
+    assertThat(this.stats.getQueryResultCacheHits()).isEqualTo(0);
+    assertThat(this.stats.getQueryResultCacheMisses()).isEqualTo(0);
+    assertThat(((LocalRegion) region).getModificationCount()).isEqualTo(0);
+  }
+
+  @Test
+  public void regionsMaintainingTheirIndexesAsynchronouslyAreNotCached() throws Exception {
+    startServer(10, 0);
+    Region<Integer, Portfolio> region = this.cache.<Integer, Portfolio>createRegionFactory(
+        RegionShortcut.REPLICATE).setIndexMaintenanceSynchronous(false).create("portfolios");
+    region.put(1, new Portfolio(1));
+
+    assertThat(execute(QUERY, 10)).hasSize(1);
+    assertThat(execute(QUERY, 10)).hasSize(1);
+
+    assertThat(this.stats.getQueryResultCacheHits()).isEqualTo(0);
+    assertThat(this.stats.getQueryResultCacheMisses()).isEqualTo(0);
+  }
+
+  @Test
+  public void modificationIsCountedOnceTheIndexesAreUpdated() throws Exception {
+    startServer(10, 0);
+    Region<Integer, IndexedValue> region =
+        this.cache.<Integer, IndexedValue>createRegionFactory(RegionShortcut.REPLICATE)
+            .create("values");
+    this.queryService.createIndex("id", "v.id", "/values v");
+    IndexedValue.region = (LocalRegion) region;
+
+    region.put(1, new IndexedValue(1));
+    assertThat(IndexedValue.modificationCountWhenIndexed).isEqualTo(0);
+    assertThat(((LocalRegion) region).getModificationCount()).isEqualTo(1);
+
+    CacheTransactionManager txManager = this.cache.getCacheTransactionManager();
+    txManager.begin();
+    region.put(2, new IndexedValue(2));
+    txManager.commit();
+    assertThat(IndexedValue.modificationCountWhenIndexed).isEqualTo(1);
+    assertThat(((LocalRegion) region).getModificationCount()).isEqualTo(2);
+  }
+
+  private void startServer(int size, int ttl) {
+    System.setProperty(QueryResultCache.SIZE_PROPERTY, String.valueOf(size));
+    System.setProperty(QueryResultCache.TTL_PROPERTY, String.valueOf(ttl));
+    this.serverStarterRule.startServer();
+    this.cache = this.serverStarterRule.getCache();
+    this.queryService = this.cache.getQueryService();
+    this.stats = this.cache.getCachePerfStats();
+  }
+
+  private Region<Integer, Portfolio> createPortfolios(RegionShortcut shortcut, int count) {
+    Region<Integer, Portfolio> region =
+        this.cache.<Integer, Portfolio>createRegionFactory(shortcut).create("portfolios");
+    for (int i = 0; i < count; i++) {
+      region.put(i, new Portfolio(i));
+    }
+    return region;
+  }
+
+  private Set<Integer> execute(String query, Object... parameters) throws Exception {
+    return ids((SelectResults) this.queryService.newQuery(query).execute(parameters));
+  }
+
+  /**
+   * Records the modification count of its region when its id is read to index it
+   */
+  public static class IndexedValue implements Serializable {
+
+    static volatile LocalRegion region;
+
+    static volatile long modificationCountWhenIndexed = -1;
+
+    private final int id;
+
+    IndexedValue(int id) {
+      this.id = id;
+    }
+
+    public int getId() {
+      if (region != null) {
+        modificationCountWhenIndexed = region.getModificationCount();
+      }
+      return this.id;
+    }
+  }
+
+  private static Set<Integer> ids(Collection<?> results) {
+    Set<Integer> ids = new TreeSet<>();
+    for (Object result : results) {
+      ids.add(((Portfolio) result).ID);
+    }
+    return ids;
+  }
+}
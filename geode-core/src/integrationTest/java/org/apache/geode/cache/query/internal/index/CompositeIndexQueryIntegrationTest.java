@@ -0,0 +1,223 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.cache.query.internal.index;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import org.apache.geode.cache.Cache;
+import org.apache.geode.cache.Region;
+import org.apache.geode.cache.RegionShortcut;
+import org.apache.geode.cache.query.Index;
+import org.apache.geode.cache.query.IndexInvalidException;
+import org.apache.geode.cache.query.QueryService;
+import org.apache.geode.cache.query.SelectResults;
+import org.apache.geode.cache.query.data.Portfolio;
+import org.apache.geode.cache.query.internal.QueryObserverAdapter;
+import org.apache.geode.cache.query.internal.QueryObserverHolder;
+import org.apache.geode.test.junit.categories.OQLIndexTest;
+import org.apache.geode.test.junit.rules.ServerStarterRule;
+
+@Category({OQLIndexTest.class})
+public class CompositeIndexQueryIntegrationTest {
+
+  private static final int NUM_PORTFOLIOS = 200;
+
+  private static final String[] QUERIES = {
+      "select * from /portfolios p where p.status = 'active' and p.getType() = 'type1'",
+      "select * from /portfolios p where p.getType() = 'type2' and p.status = 'inactive'",
+      "select * from /portfolios p where p.status = 'active' and p.getType() = 'type1' and p.ID > 10"
+          + " and p.ID <= 140",
+      "select * from /portfolios p where p.status = 'active' and p.getType() = 'type0' and p.ID >= 30",
+      "select * from /portfolios p where p.status = 'inactive' and p.getType() = 'type2' and 90 > p.ID",
+      "select * from /portfolios p where p.status = 'active' and p.ID < 50",
+      "select * from /portfolios p where p.status = 'active' and p.getType() = 'type1' and p.ID = 4",
+      "select * from /portfolios p where p.status = 'active' and p.getType() = 'type1' and p.ID > 4"
+          + " and p.ID < 4",
+      "select * from /portfolios p where p.status = 'active' and p.getType() = 'type1'"
+          + " and p.pkid <> '4'",
+      "select * from /portfolios p where p.status = 'active' and p.getType() = 'type1'"
+          + " and p.getType() = 'type2'",
+      "select * from /portfolios p where p.description = null and p.ID < 60",
+      "select * from /portfolios p where p.description = 'XXXX' and p.ID >= 150",
+      "select * from /portfolios p where p.description > 'A' and p.ID >= 150",
+      "select * from /portfolios p where p.status = 'active' and p.description < 'Z'",
+      "select * from /portfolios p where (p.status = 'active' and p.getType() = 'type2')"
+          + " or p.ID < 3",
+      "select * from /portfolios p where p.status = 'active' and p.getType() = 'type1'"
+          + " order by p.ID desc limit 5"};
+
+  @Rule
+  public ServerStarterRule serverStarterRule = new ServerStarterRule().withAutoStart();
+
+  private final IndexRecordingObserver observer = new IndexRecordingObserver();
+
+  @After
+  public void resetObserver() {
+    QueryObserverHolder.reset();
+  }
+
+  @Test
+  public void queryOnAReplicateRegionReturnsTheSameResultsWithACompositeIndex() throws Exception {
+    queryReturnsTheSameResultsWithACompositeIndex(RegionShortcut.REPLICATE);
+  }
+
+  @Test
+  public void queryOnAPartitionedRegionReturnsTheSameResultsWithACompositeIndex()
+      throws Exception {
+    queryReturnsTheSameResultsWithACompositeIndex(RegionShortcut.PARTITION);
+  }
+
+  @Test
+  public void queryUsesTheCompositeIndexForAllTheMatchedConditions() throws Exception {
+    Cache cache = serverStarterRule.getCache();
+    createPortfolios(cache, RegionShortcut.REPLICATE);
+    QueryService qs = cache.getQueryService();
+    qs.createIndex("statusIndex", "p.status", "/portfolios p");
+    qs.createIndex("typeIndex", "p.getType()", "/portfolios p");
+    qs.createIndex("compositeIndex", "p.status, p.getType(), p.ID", "/portfolios p");
+    QueryObserverHolder.setInstance(observer);
+
+    SelectResults results = (SelectResults) qs.newQuery("select * from /portfolios p"
+        + " where p.status = 'active' and p.getType() = 'type1' and p.ID > 10").execute();
+
+    assertThat(observer.indexesUsed).containsExactly("compositeIndex");
+    assertThat(ids(results))
+        .isEqualTo(ids(cache, "p.ID % 2 = 0 and p.ID % 3 = 1 and p.ID > 10"));
+  }
+
+  @Test
+  public void queryBindsTheParametersOfTheMatchedConditions() throws Exception {
+    Cache cache = serverStarterRule.getCache();
+    createPortfolios(cache, RegionShortcut.REPLICATE);
+    QueryService qs = cache.getQueryService();
+    qs.createIndex("compositeIndex", "p.status, p.ID", "/portfolios p");
+    QueryObserverHolder.setInstance(observer);
+    String query = "select * from /portfolios p where p.status = $1 and p.ID > $2";
+
+    SelectResults results = (SelectResults) qs.newQuery(query).execute("inactive", 100);
+    assertThat(observer.indexesUsed).containsOnly("compositeIndex");
+    assertThat(ids(results)).isEqualTo(ids(cache, "p.ID % 2 = 1 and p.ID > 100"));
+
+    results = (SelectResults) qs.newQuery(query).execute("inactive", null);
+    assertThat(results).isEmpty();
+  }
+
+  @Test
+  public void compositeIndexIsMaintainedOnUpdatesAndDestroys() throws Exception {
+    Cache cache = serverStarterRule.getCache();
+    Region<Integer, Portfolio> region = createPortfolios(cache, RegionShortcut.REPLICATE);
+    QueryService qs = cache.getQueryService();
+    qs.createIndex("compositeIndex", "p.status, p.ID", "/portfolios p");
+    for (int i = 0; i < NUM_PORTFOLIOS; i += 4) {
+      Portfolio portfolio = new Portfolio(i);
+      portfolio.status = "closed";
+      region.put(i, portfolio);
+    }
+    region.destroy(2);
+    QueryObserverHolder.setInstance(observer);
+
+    SelectResults results = (SelectResults) qs
+        .newQuery("select * from /portfolios p where p.status = 'active' and p.ID < 20")
+        .execute();
+
+    assertThat(observer.indexesUsed).containsOnly("compositeIndex");
+    assertThat(ids(results)).containsExactly(6, 10, 14, 18);
+  }
+
+  @Test
+  public void compositeIndexOnAllTheKeysOfAMapIsInvalid() {
+    Cache cache = serverStarterRule.getCache();
+    createPortfolios(cache, RegionShortcut.REPLICATE);
+    QueryService qs = cache.getQueryService();
+
+    assertThatThrownBy(
+        () -> qs.createIndex("compositeIndex", "p.status, p.positions[*]", "/portfolios p"))
+            .isInstanceOf(IndexInvalidException.class);
+  }
+
+  private void queryReturnsTheSameResultsWithACompositeIndex(RegionShortcut shortcut)
+      throws Exception {
+    Cache cache = serverStarterRule.getCache();
+    createPortfolios(cache, shortcut);
+    QueryService qs = cache.getQueryService();
+    List<Set<Integer>> expected = new ArrayList<>();
+    for (String query : QUERIES) {
+      expected.add(ids((SelectResults) qs.newQuery(query).execute()));
+    }
+
+    qs.createIndex("compositeIndex", "p.status, p.getType(), p.ID", "/portfolios p");
+    qs.createIndex("nullableIndex", "p.description, p.ID", "/portfolios p");
+
+    for (int i = 0; i < QUERIES.length; i++) {
+      SelectResults results = (SelectResults) qs.newQuery(QUERIES[i]).execute();
+      assertThat(ids(results)).as(QUERIES[i]).isEqualTo(expected.get(i));
+    }
+
+    QueryObserverHolder.setInstance(observer);
+    qs.newQuery(QUERIES[2]).execute();
+    assertThat(observer.indexesUsed).containsOnly("compositeIndex");
+  }
+
+  private static Region<Integer, Portfolio> createPortfolios(Cache cache,
+      RegionShortcut shortcut) {
+    Region<Integer, Portfolio> region =
+        cache.<Integer, Portfolio>createRegionFactory(shortcut).create("portfolios");
+    for (int i = 0; i < NUM_PORTFOLIOS; i++) {
+      region.put(i, new Portfolio(i));
+    }
+    return region;
+  }
+
+  private static Set<Integer> ids(Cache cache, String condition) throws Exception {
+    return ids((SelectResults) cache.getQueryService()
+        .newQuery("select * from /portfolios p where " + condition).execute());
+  }
+
+  private static Set<Integer> ids(Collection<?> results) {
+    Set<Integer> ids = new TreeSet<>();
+    for (Object result : results) {
+      ids.add(((Portfolio) result).ID);
+    }
+    return ids;
+  }
+
+  private static class IndexRecordingObserver extends QueryObserverAdapter {
+
+    private final Set<String> indexesUsed = new TreeSet<>();
+
+    @Override
+    public synchronized void beforeIndexLookup(Index index, int oper, Object key) {
+      indexesUsed.add(index.getName());
+    }
+
+    @Override
+    public synchronized void beforeIndexLookup(Index index, int lowerBoundOperator,
+        Object lowerBoundKey, int upperBoundOperator, Object upperBoundKey, Set NotEqualKeys) {
+      indexesUsed.add(index.getName());
+    }
+  }
+}
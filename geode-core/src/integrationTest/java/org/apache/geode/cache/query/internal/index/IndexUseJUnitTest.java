@@ -14,8 +14,10 @@
  */
 package org.apache.geode.cache.query.internal.index;
 
+import static org.apache.geode.test.awaitility.GeodeAwaitility.await;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
@@ -26,6 +28,7 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
 
 import org.junit.After;
 import org.junit.Before;
@@ -47,6 +50,7 @@ import org.apache.geode.cache.query.SelectResults;
 import org.apache.geode.cache.query.Struct;
 import org.apache.geode.cache.query.data.Portfolio;
 import org.apache.geode.cache.query.functional.StructSetOrResultsSet;
+import org.apache.geode.cache.query.internal.Filter;
 import org.apache.geode.cache.query.internal.QueryObserverAdapter;
 import org.apache.geode.cache.query.internal.QueryObserverHolder;
 import org.apache.geode.cache.query.internal.index.IndexManager.TestHook;
@@ -137,6 +141,44 @@ public class IndexUseJUnitTest {
     }
   }
 
+  @Test
+  public void testMoreSelectiveRangeConditionIsPreferredToEquality() throws Exception {
+    for (int i = 4; i < 1000; i++) {
+      region.put("" + i, new Portfolio(i));
+    }
+    Query q = qs.newQuery("SELECT DISTINCT * FROM /pos where status = 'active' AND ID < 10");
+    // the first estimate builds the histogram of idIndex in the background
+    q.execute();
+    AbstractIndex idIndex = (AbstractIndex) qs.getIndex(region, "idIndex");
+    await().untilAsserted(() -> assertNotNull(idIndex.getHistogram()));
+    QueryObserverImpl observer = new QueryObserverImpl();
+    QueryObserverHolder.setInstance(observer);
+    SelectResults results = (SelectResults) q.execute();
+
+    assertEquals(5, results.size());
+    assertEquals("Wrong Index use " + observer.indexesUsed, 1, observer.indexesUsed.size());
+    assertEquals("idIndex", observer.indexesUsed.get(0));
+    assertEquals("idIndex", observer.selectedIndex);
+    assertTrue("Wrong estimate " + observer.selectedSizeEstimate,
+        observer.selectedSizeEstimate >= 9 && observer.selectedSizeEstimate <= 11);
+  }
+
+  @Test
+  public void testHistogramBuilderIsShutdownWhenTheRegionIsClosed() throws Exception {
+    for (int i = 4; i < 1000; i++) {
+      region.put("" + i, new Portfolio(i));
+    }
+    qs.newQuery("SELECT DISTINCT * FROM /pos where status = 'active' AND ID < 10").execute();
+    AbstractIndex idIndex = (AbstractIndex) qs.getIndex(region, "idIndex");
+    await().untilAsserted(() -> assertNotNull(idIndex.getHistogram()));
+    ExecutorService histogramBuilder =
+        ((LocalRegion) region).getIndexManager().getHistogramBuilder();
+
+    region.close();
+
+    assertTrue(histogramBuilder.isShutdown());
+  }
+
   /**
    * Test to check if Region object is passed as bind argument, the index utilization occurs or not
    */
@@ -1364,6 +1406,14 @@ public class IndexUseJUnitTest {
   private static class QueryObserverImpl extends QueryObserverAdapter {
     boolean isIndexesUsed = false;
     ArrayList indexesUsed = new ArrayList();
+    String selectedIndex;
+    int selectedSizeEstimate = -1;
+
+    @Override
+    public void afterFilterSelection(Filter filter, Index index, int sizeEstimate) {
+      selectedIndex = index.getName();
+      selectedSizeEstimate = sizeEstimate;
+    }
 
     @Override
     public void beforeIndexLookup(Index index, int oper, Object key) {
@@ -0,0 +1,165 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.cache.query.internal.index;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import org.apache.geode.cache.Cache;
+import org.apache.geode.cache.PartitionAttributesFactory;
+import org.apache.geode.cache.Region;
+import org.apache.geode.cache.RegionFactory;
+import org.apache.geode.cache.RegionShortcut;
+import org.apache.geode.cache.query.Index;
+import org.apache.geode.cache.query.QueryService;
+import org.apache.geode.cache.query.SelectResults;
+import org.apache.geode.cache.query.data.Portfolio;
+import org.apache.geode.test.junit.categories.OQLIndexTest;
+import org.apache.geode.test.junit.rules.ServerStarterRule;
+
+@Category({OQLIndexTest.class})
+public class ParallelIndexCreationIntegrationTest {
+
+  private static final int NUM_BUCKETS = 23;
+
+  private static final int NUM_PORTFOLIOS = 500;
+
+  @Rule
+  public ServerStarterRule serverStarterRule = new ServerStarterRule().withAutoStart();
+
+  @Before
+  public void setIndexCreationThreads() {
+    IndexManager.TEST_INDEX_CREATION_THREADS = 4;
+  }
+
+  @After
+  public void resetIndexCreationThreads() {
+    IndexManager.TEST_INDEX_CREATION_THREADS = 0;
+  }
+
+  @Test
+  public void indexIsCreatedOnAllTheBucketsOfAPartitionedRegion() throws Exception {
+    Cache cache = serverStarterRule.getCache();
+    createPortfolios(cache, RegionShortcut.PARTITION);
+    QueryService qs = cache.getQueryService();
+    String query = "select * from /portfolios p where p.ID >= 100 and p.ID < 300";
+    Set<Integer> expected = ids((SelectResults) qs.newQuery(query).execute());
+
+    PartitionedIndex index =
+        (PartitionedIndex) qs.createIndex("idIndex", "p.ID", "/portfolios p");
+
+    assertThat(index.isPopulated()).isTrue();
+    assertThat(index.getNumberOfIndexedBuckets()).isEqualTo(NUM_BUCKETS);
+    assertThat(index.getStatistics().getNumberOfValues()).isEqualTo(NUM_PORTFOLIOS);
+    assertThat(ids((SelectResults) qs.newQuery(query).execute())).isEqualTo(expected);
+  }
+
+  @Test
+  public void definedIndexesArePopulatedOnAReplicateRegion() throws Exception {
+    definedIndexesArePopulated(RegionShortcut.REPLICATE);
+  }
+
+  @Test
+  public void definedIndexesArePopulatedOnAPartitionedRegion() throws Exception {
+    definedIndexesArePopulated(RegionShortcut.PARTITION);
+  }
+
+  @Test
+  public void indexCreationTasksReportTheFirstFailure() {
+    List<Callable<Void>> tasks = new ArrayList<>();
+    List<Integer> completed = new ArrayList<>();
+    for (int i = 0; i < 8; i++) {
+      int task = i;
+      tasks.add(() -> {
+        if (task == 3) {
+          throw new IllegalStateException("task " + task);
+        }
+        synchronized (completed) {
+          completed.add(task);
+        }
+        return null;
+      });
+    }
+
+    assertThatThrownBy(() -> IndexManager.invokeIndexCreationTasks(tasks))
+        .isInstanceOf(ExecutionException.class).hasCauseInstanceOf(IllegalStateException.class);
+    assertThat(completed).hasSize(7);
+  }
+
+  private void definedIndexesArePopulated(RegionShortcut shortcut) throws Exception {
+    Cache cache = serverStarterRule.getCache();
+    createPortfolios(cache, shortcut);
+    QueryService qs = cache.getQueryService();
+    String[] queries = {"select * from /portfolios p where p.ID < 50",
+        "select * from /portfolios p where p.status = 'active' and p.ID >= 450",
+        "select * from /portfolios p where p.pkid = '7'"};
+    List<Set<Integer>> expected = new ArrayList<>();
+    for (String query : queries) {
+      expected.add(ids((SelectResults) qs.newQuery(query).execute()));
+    }
+
+    qs.defineIndex("idIndex", "p.ID", "/portfolios p");
+    qs.defineIndex("statusIndex", "p.status", "/portfolios p");
+    qs.defineIndex("pkidIndex", "p.pkid", "/portfolios p");
+    qs.defineIndex("typeIndex", "p.getType()", "/portfolios p");
+    List<Index> indexes = qs.createDefinedIndexes();
+
+    assertThat(indexes).hasSize(4);
+    for (Index index : indexes) {
+      assertThat(((AbstractIndex) index).isPopulated()).isTrue();
+      assertThat(index.getStatistics().getNumberOfValues()).as(index.getName())
+          .isEqualTo(NUM_PORTFOLIOS);
+    }
+    for (int i = 0; i < queries.length; i++) {
+      assertThat(ids((SelectResults) qs.newQuery(queries[i]).execute())).as(queries[i])
+          .isEqualTo(expected.get(i));
+    }
+  }
+
+  private static void createPortfolios(Cache cache, RegionShortcut shortcut) {
+    RegionFactory<Integer, Portfolio> factory = cache.createRegionFactory(shortcut);
+    if (shortcut == RegionShortcut.PARTITION) {
+      factory.setPartitionAttributes(
+          new PartitionAttributesFactory<Integer, Portfolio>().setTotalNumBuckets(NUM_BUCKETS)
+              .create());
+    }
+    Region<Integer, Portfolio> region = factory.create("portfolios");
+    for (int i = 0; i < NUM_PORTFOLIOS; i++) {
+      region.put(i, new Portfolio(i));
+    }
+  }
+
+  private static Set<Integer> ids(Collection<?> results) {
+    Set<Integer> ids = new TreeSet<>();
+    for (Object result : results) {
+      ids.add(((Portfolio) result).ID);
+    }
+    return ids;
+  }
+}
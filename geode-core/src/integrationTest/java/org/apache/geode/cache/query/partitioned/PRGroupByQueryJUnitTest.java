@@ -0,0 +1,129 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.cache.query.partitioned;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import org.apache.geode.cache.Cache;
+import org.apache.geode.cache.Region;
+import org.apache.geode.cache.RegionShortcut;
+import org.apache.geode.cache.query.QueryService;
+import org.apache.geode.cache.query.SelectResults;
+import org.apache.geode.cache.query.Struct;
+import org.apache.geode.cache.query.data.Portfolio;
+import org.apache.geode.internal.cache.PRQueryProcessor;
+import org.apache.geode.test.junit.categories.OQLQueryTest;
+import org.apache.geode.test.junit.rules.ServerStarterRule;
+
+/**
+ * Verifies that the group by queries on a PartitionedRegion, whose partial aggregates are merged
+ * on the data store before they are sent to the query node, return the same results as on a
+ * replicated region
+ */
+@Category({OQLQueryTest.class})
+public class PRGroupByQueryJUnitTest {
+
+  private static final int NUM_PORTFOLIOS = 300;
+
+  private static final String[] QUERIES = {
+      "select p.status, count(*), sum(p.ID), avg(p.ID), min(p.ID), max(p.ID) from /REGION p"
+          + " group by p.status",
+      "select p.description, min(p.pkid), max(p.pkid) from /REGION p where p.ID > 20"
+          + " group by p.description",
+      "select p.status, count(distinct p.getType()), sum(distinct p.ID),"
+          + " avg(distinct p.ID) from /REGION p group by p.status",
+      "select count(*), avg(p.ID), max(p.ID) from /REGION p where p.ID < 250",
+      "select p.pkid, max(p.ID) from /REGION p group by p.pkid limit 7",
+      "select p.pkid, sum(p.ID) from /REGION p group by p.pkid order by p.pkid desc limit 5",
+      "select p.status, p.pkid, count(*) from /REGION p group by p.status, p.pkid"
+          + " order by p.status desc, p.pkid limit 4",
+      "select p.status, p.pkid, count(*) from /REGION p group by p.status, p.pkid"
+          + " order by p.pkid limit 3",
+      "select p.status as s, sum(p.ID) as total from /REGION p group by p.status"
+          + " order by total desc limit 1",
+      "select p.pkid, count(*) from /REGION p where p.ID < 0 group by p.pkid limit 2"};
+
+  @Rule
+  public ServerStarterRule serverStarterRule = new ServerStarterRule().withAutoStart();
+
+  private QueryService queryService;
+
+  @Before
+  public void setUp() {
+    Cache cache = serverStarterRule.getCache();
+    Region<Integer, Portfolio> replicate =
+        cache.<Integer, Portfolio>createRegionFactory(RegionShortcut.REPLICATE)
+            .create("replicate");
+    Region<Integer, Portfolio> partitioned =
+        cache.<Integer, Portfolio>createRegionFactory(RegionShortcut.PARTITION)
+            .create("partitioned");
+    for (int i = 0; i < NUM_PORTFOLIOS; i++) {
+      Portfolio portfolio = new Portfolio(i);
+      replicate.put(i, portfolio);
+      partitioned.put(i, portfolio);
+    }
+    this.queryService = cache.getQueryService();
+  }
+
+  @After
+  public void tearDown() {
+    PRQueryProcessor.TEST_NUM_THREADS = 0;
+    PRQueryProcessor.TEST_PARALLELISM = 0;
+  }
+
+  @Test
+  public void sequentialQueryReturnsTheResultsOfAReplicatedRegion() throws Exception {
+    assertResultsOfAReplicatedRegion();
+  }
+
+  @Test
+  public void threadPoolQueryReturnsTheResultsOfAReplicatedRegion() throws Exception {
+    PRQueryProcessor.TEST_NUM_THREADS = 4;
+    assertResultsOfAReplicatedRegion();
+  }
+
+  @Test
+  public void workStealingQueryReturnsTheResultsOfAReplicatedRegion() throws Exception {
+    PRQueryProcessor.TEST_PARALLELISM = 4;
+    assertResultsOfAReplicatedRegion();
+  }
+
+  private void assertResultsOfAReplicatedRegion() throws Exception {
+    for (String query : QUERIES) {
+      assertThat(rows(query, "partitioned")).as(query).isEqualTo(rows(query, "replicate"));
+    }
+  }
+
+  private List<List<Object>> rows(String query, String regionName) throws Exception {
+    SelectResults results = (SelectResults) this.queryService
+        .newQuery(query.replace("REGION", regionName)).execute();
+    List<List<Object>> rows = new ArrayList<>();
+    for (Object result : results) {
+      rows.add(result instanceof Struct ? Arrays.asList(((Struct) result).getFieldValues())
+          : Arrays.asList(result));
+    }
+    return rows;
+  }
+}
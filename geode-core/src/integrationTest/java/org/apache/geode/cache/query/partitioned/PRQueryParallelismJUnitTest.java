@@ -0,0 +1,92 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.cache.query.partitioned;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import org.apache.geode.cache.Region;
+import org.apache.geode.cache.query.SelectResults;
+import org.apache.geode.cache.query.data.PortfolioData;
+import org.apache.geode.internal.cache.PRQueryProcessor;
+import org.apache.geode.internal.cache.PartitionedRegionTestHelper;
+import org.apache.geode.test.junit.categories.OQLQueryTest;
+
+/**
+ * Verifies queries on a PartitionedRegion whose buckets are queried on the work-stealing pool
+ */
+@Category({OQLQueryTest.class})
+public class PRQueryParallelismJUnitTest {
+
+  private Region region;
+
+  @Before
+  public void setUp() {
+    PRQueryProcessor.TEST_PARALLELISM = 4;
+    this.region = PartitionedRegionTestHelper.createPartitionedRegion("portfolios", "100", 0);
+    for (int i = 0; i < 500; i++) {
+      this.region.put(i, new PortfolioData(i));
+    }
+  }
+
+  @After
+  public void tearDown() {
+    PRQueryProcessor.TEST_PARALLELISM = 0;
+    this.region.close();
+  }
+
+  @Test
+  public void queriesEveryBucket() throws Exception {
+    assertThat(query("select * from /portfolios p where p.ID < 100").size()).isEqualTo(100);
+    assertThat(query("select * from /portfolios p").size()).isEqualTo(500);
+  }
+
+  @Test
+  public void mergesOrderedResultsOfTheBuckets() throws Exception {
+    SelectResults results =
+        query("select distinct p.ID from /portfolios p where p.ID >= 100 order by p.ID desc");
+
+    List ids = results.asList();
+    assertThat(ids).hasSize(400);
+    for (int i = 0; i < ids.size(); i++) {
+      assertThat(ids.get(i)).isEqualTo(499 - i);
+    }
+  }
+
+  @Test
+  public void appliesTheLimit() throws Exception {
+    assertThat(query("select * from /portfolios p limit 7").size()).isEqualTo(7);
+    assertThat(query("select distinct p.ID from /portfolios p order by p.ID limit 3").asList())
+        .containsExactly(0, 1, 2);
+  }
+
+  @Test
+  public void aggregatesAcrossBuckets() throws Exception {
+    assertThat(query("select count(*) from /portfolios p where p.ID < 250").asList())
+        .containsExactly(250);
+    assertThat(query("select max(p.ID) from /portfolios p").asList()).containsExactly(499);
+  }
+
+  private SelectResults query(String queryString) throws Exception {
+    return (SelectResults) this.region.getCache().getQueryService().newQuery(queryString)
+        .execute();
+  }
+}
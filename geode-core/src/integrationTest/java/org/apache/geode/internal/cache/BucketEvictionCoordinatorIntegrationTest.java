@@ -0,0 +1,138 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.internal.cache;
+
+import static org.apache.geode.internal.lang.SystemPropertyHelper.EVICTION_BALANCE_BUCKETS;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.contrib.java.lang.system.RestoreSystemProperties;
+import org.junit.experimental.categories.Category;
+
+import org.apache.geode.cache.EvictionAction;
+import org.apache.geode.cache.EvictionAttributes;
+import org.apache.geode.test.junit.categories.EvictionTest;
+import org.apache.geode.test.junit.rules.ServerStarterRule;
+
+@Category({EvictionTest.class})
+public class BucketEvictionCoordinatorIntegrationTest {
+
+  private static final int MAX_ENTRIES = 20;
+
+  private static final int BUCKETS = 4;
+
+  @Rule
+  public RestoreSystemProperties restoreSystemProperties = new RestoreSystemProperties();
+
+  @Rule
+  public ServerStarterRule server = new ServerStarterRule().withNoCacheServer();
+
+  @Before
+  public void setUp() {
+    server.startServer();
+  }
+
+  @Test
+  public void evictsFromTheLargerBucketsWhenEnabled() {
+    System.setProperty("geode." + EVICTION_BALANCE_BUCKETS, "true");
+    PartitionedRegion region = createRegion();
+    assertThat(region.getBucketEvictionCoordinator()).isNotNull();
+
+    fillUnevenly(region);
+    for (int i = 0; i < 30; i++) {
+      region.put(1 + BUCKETS * (100 + i), "hot");
+    }
+
+    assertThat(bucketSize(region, 0)).isLessThan(14);
+    assertThat(totalSize(region)).isEqualTo(MAX_ENTRIES);
+    assertThat(region.getTotalEvictions()).isEqualTo(30);
+  }
+
+  @Test
+  public void samplesTheLocalBucketsWhenFewOfTheBucketsAreCreated() {
+    System.setProperty("geode." + EVICTION_BALANCE_BUCKETS, "true");
+    int totalBuckets = 113;
+    PartitionedRegion region = createRegion(totalBuckets);
+    for (int i = 0; i < 16; i++) {
+      region.put(totalBuckets * i, "cold");
+    }
+    for (int i = 0; i < 4; i++) {
+      region.put(1 + totalBuckets * i, "cold");
+    }
+    assertThat(region.getDataStore().getAllLocalBucketRegions()).hasSize(2);
+
+    for (int i = 0; i < 30; i++) {
+      region.put(1 + totalBuckets * (100 + i), "hot");
+    }
+
+    assertThat(bucketSize(region, 0)).isLessThan(16);
+    assertThat(totalSize(region)).isEqualTo(MAX_ENTRIES);
+  }
+
+  @Test
+  public void bucketsEvictTheirOwnEntriesByDefault() {
+    PartitionedRegion region = createRegion();
+    assertThat(region.getBucketEvictionCoordinator()).isNull();
+
+    fillUnevenly(region);
+    for (int i = 0; i < 30; i++) {
+      region.put(1 + BUCKETS * (100 + i), "hot");
+    }
+
+    assertThat(bucketSize(region, 0)).isEqualTo(14);
+    assertThat(totalSize(region)).isEqualTo(MAX_ENTRIES);
+  }
+
+  private PartitionedRegion createRegion() {
+    return createRegion(BUCKETS);
+  }
+
+  private PartitionedRegion createRegion(int totalBuckets) {
+    return (PartitionedRegion) server.createPartitionRegion("region",
+        f -> f.setEvictionAttributes(
+            EvictionAttributes.createLRUEntryAttributes(MAX_ENTRIES, EvictionAction.LOCAL_DESTROY)),
+        f -> f.setRedundantCopies(0).setTotalNumBuckets(totalBuckets));
+  }
+
+  /**
+   * Puts 14 entries in bucket 0 and 2 in each of the other buckets, assuming mod-based hashing
+   */
+  private void fillUnevenly(PartitionedRegion region) {
+    for (int i = 0; i < 14; i++) {
+      region.put(BUCKETS * i, "cold");
+    }
+    for (int bucket = 1; bucket < BUCKETS; bucket++) {
+      for (int i = 0; i < 2; i++) {
+        region.put(bucket + BUCKETS * i, "cold");
+      }
+    }
+    assertThat(bucketSize(region, 0)).isEqualTo(14);
+    assertThat(region.getTotalEvictions()).isZero();
+  }
+
+  private int bucketSize(PartitionedRegion region, int bucketId) {
+    return region.getDataStore().getLocalBucketById(bucketId).size();
+  }
+
+  private int totalSize(PartitionedRegion region) {
+    int size = 0;
+    for (BucketRegion bucket : region.getDataStore().getAllLocalBucketRegions()) {
+      size += bucket.size();
+    }
+    return size;
+  }
+}
@@ -0,0 +1,73 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.internal.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TestName;
+
+import org.apache.geode.cache.CacheFactory;
+import org.apache.geode.cache.RegionShortcut;
+
+public class RegionPerfStatsIntegrationTest {
+
+  private InternalCache cache;
+
+  private CachePerfStats regionStats;
+
+  private CachePerfStats cacheStats;
+
+  @Rule
+  public TestName testName = new TestName();
+
+  @Before
+  public void setUp() {
+    cache = (InternalCache) new CacheFactory().set("locators", "").set("mcast-port", "0").create();
+    LocalRegion region = (LocalRegion) cache.createRegionFactory(RegionShortcut.REPLICATE)
+        .create(testName.getMethodName());
+    regionStats = region.getRegionPerfStats();
+    cacheStats = cache.getCachePerfStats();
+    assertThat(regionStats).isInstanceOf(LocalRegion.RegionPerfStats.class);
+  }
+
+  @After
+  public void tearDown() {
+    cache.close();
+  }
+
+  @Test
+  public void deltaGetInitialImageKeysReceivedIsCountedForRegionAndCache() {
+    regionStats.incDeltaGetInitialImageKeysReceived(3);
+    regionStats.incDeltaGetInitialImageKeysReceived(2);
+
+    assertThat(regionStats.getDeltaGetInitialImageKeysReceived()).isEqualTo(5);
+    assertThat(cacheStats.getDeltaGetInitialImageKeysReceived()).isEqualTo(5);
+  }
+
+  @Test
+  public void getInitialImageBytesSentIsCountedForRegionAndCache() {
+    regionStats.incGetInitialImageBytesSent(100, false);
+    regionStats.incGetInitialImageBytesSent(40, true);
+
+    assertThat(regionStats.getGetInitialImageBytesSent()).isEqualTo(140);
+    assertThat(regionStats.getDeltaGetInitialImageBytesSent()).isEqualTo(40);
+    assertThat(cacheStats.getGetInitialImageBytesSent()).isEqualTo(140);
+    assertThat(cacheStats.getDeltaGetInitialImageBytesSent()).isEqualTo(40);
+  }
+}
@@ -0,0 +1,231 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.internal.offheap;
+
+import static org.apache.geode.distributed.ConfigurationProperties.LOCATORS;
+import static org.apache.geode.distributed.ConfigurationProperties.MCAST_PORT;
+import static org.apache.geode.distributed.ConfigurationProperties.OFF_HEAP_MEMORY_SIZE;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.rules.TemporaryFolder;
+import org.junit.rules.TestName;
+
+import org.apache.geode.cache.CacheFactory;
+import org.apache.geode.cache.Region;
+import org.apache.geode.cache.RegionShortcut;
+import org.apache.geode.distributed.internal.DistributionConfig;
+import org.apache.geode.internal.cache.InternalCache;
+import org.apache.geode.internal.cache.LocalRegion;
+import org.apache.geode.internal.cache.entries.OffHeapKeyRegionEntry;
+import org.apache.geode.internal.cache.entries.VMThinRegionEntryOffHeapOffHeapStringKey;
+import org.apache.geode.internal.lang.SystemPropertyHelper;
+import org.apache.geode.test.junit.categories.OffHeapTest;
+
+/**
+ * Puts, gets and destroys entries whose String keys are stored off-heap and checks that neither the
+ * keys nor the values are leaked, and that the keys of a persistent region are recovered.
+ */
+@Category({OffHeapTest.class})
+public class OffHeapKeysIntegrationTest {
+
+  private static final String OFF_HEAP_KEYS_PROPERTY =
+      DistributionConfig.GEMFIRE_PREFIX + SystemPropertyHelper.OFF_HEAP_KEYS;
+
+  private static final int ENTRY_COUNT = 100;
+
+  private InternalCache cache;
+
+  private Region<String, byte[]> region;
+
+  private MemoryAllocatorImpl allocator;
+
+  @Rule
+  public TestName testName = new TestName();
+
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  @BeforeClass
+  public static void enableOffHeapKeys() {
+    System.setProperty(OFF_HEAP_KEYS_PROPERTY, "true");
+  }
+
+  @AfterClass
+  public static void clearOffHeapKeys() {
+    System.clearProperty(OFF_HEAP_KEYS_PROPERTY);
+  }
+
+  @Before
+  public void setUp() {
+    assertThat(OffHeapRegionEntryHelper.OFF_HEAP_KEYS)
+        .as("OffHeapRegionEntryHelper was initialized before " + OFF_HEAP_KEYS_PROPERTY
+            + " was set")
+        .isTrue();
+    cache = createCache();
+    region = cache.<String, byte[]>createRegionFactory(RegionShortcut.LOCAL)
+        .setConcurrencyChecksEnabled(false).setOffHeap(true).create(testName.getMethodName());
+  }
+
+  @After
+  public void tearDown() {
+    cache.close();
+  }
+
+  @Test
+  public void putStoresKeysOffHeap() {
+    long usedMemoryBeforePuts = allocator.getUsedMemory();
+
+    putEntries();
+
+    for (int i = 0; i < ENTRY_COUNT; i++) {
+      OffHeapKeyRegionEntry entry = getOffHeapKeyEntry(keyOf(i));
+      assertThat(entry).isInstanceOf(VMThinRegionEntryOffHeapOffHeapStringKey.class);
+      assertThat(entry.getKeyAddress()).isNotEqualTo(OffHeapRegionEntryHelper.HEAP_KEY_ADDRESS);
+    }
+    assertThat(allocator.getStats().getObjects()).isEqualTo(2 * ENTRY_COUNT);
+    assertThat(allocator.getUsedMemory()).isGreaterThan(usedMemoryBeforePuts);
+  }
+
+  @Test
+  public void getFindsEntriesWithoutCopyingTheirKeysToTheHeap() {
+    putEntries();
+
+    for (int i = 0; i < ENTRY_COUNT; i++) {
+      assertThat(region.get(keyOf(i))).isEqualTo(valueOf(i));
+      assertThat(region.containsKey(keyOf(i))).isTrue();
+      assertThat(getOffHeapKeyEntry(keyOf(i)).getKeyAddress())
+          .isNotEqualTo(OffHeapRegionEntryHelper.HEAP_KEY_ADDRESS);
+    }
+    assertThat(region.get("a key that was never put into the region")).isNull();
+  }
+
+  @Test
+  public void destroyReleasesOffHeapKeys() {
+    long usedMemoryBeforePuts = allocator.getUsedMemory();
+    putEntries();
+
+    for (int i = 0; i < ENTRY_COUNT; i++) {
+      region.destroy(keyOf(i));
+    }
+
+    assertThat(region).isEmpty();
+    assertThat(allocator.getStats().getObjects()).isZero();
+    assertThat(allocator.getUsedMemory()).isEqualTo(usedMemoryBeforePuts);
+  }
+
+  @Test
+  public void readingKeysDoesNotCopyThemBackToTheHeap() {
+    long usedMemoryBeforePuts = allocator.getUsedMemory();
+    putEntries();
+
+    for (String key : region.keySet()) {
+      assertThat(key).startsWith("a key that is too long to be inlined ");
+    }
+    assertThat(allocator.getStats().getObjects()).isEqualTo(2 * ENTRY_COUNT);
+    for (int i = 0; i < ENTRY_COUNT; i++) {
+      assertThat(getOffHeapKeyEntry(keyOf(i)).getKeyAddress())
+          .isNotEqualTo(OffHeapRegionEntryHelper.HEAP_KEY_ADDRESS);
+      region.destroy(keyOf(i));
+    }
+
+    assertThat(allocator.getStats().getObjects()).isZero();
+    assertThat(allocator.getUsedMemory()).isEqualTo(usedMemoryBeforePuts);
+  }
+
+  @Test
+  public void persistedKeysAreRecovered() throws Exception {
+    File diskDir = temporaryFolder.newFolder();
+    String name = testName.getMethodName() + "Persistent";
+    region = createPersistentRegion(name, diskDir);
+    putEntries();
+    for (int i = 0; i < ENTRY_COUNT; i++) {
+      assertThat(getOffHeapKeyEntry(keyOf(i)).getKeyAddress())
+          .isNotEqualTo(OffHeapRegionEntryHelper.HEAP_KEY_ADDRESS);
+    }
+
+    cache.close();
+    cache = createCache();
+    region = createPersistentRegion(name, diskDir);
+
+    assertThat(region).hasSize(ENTRY_COUNT);
+    for (int i = 0; i < ENTRY_COUNT; i++) {
+      assertThat(region.get(keyOf(i))).isEqualTo(valueOf(i));
+    }
+  }
+
+  @Test
+  public void putOverExistingEntriesDoesNotLeakKeys() {
+    putEntries();
+    long usedMemoryAfterPuts = allocator.getUsedMemory();
+
+    putEntries();
+
+    assertThat(allocator.getStats().getObjects()).isEqualTo(2 * ENTRY_COUNT);
+    assertThat(allocator.getUsedMemory()).isEqualTo(usedMemoryAfterPuts);
+  }
+
+  @Test
+  public void destroyRegionReleasesOffHeapKeys() {
+    long usedMemoryBeforePuts = allocator.getUsedMemory();
+    putEntries();
+
+    region.destroyRegion();
+
+    assertThat(allocator.getStats().getObjects()).isZero();
+    assertThat(allocator.getUsedMemory()).isEqualTo(usedMemoryBeforePuts);
+  }
+
+  private InternalCache createCache() {
+    InternalCache cache = (InternalCache) new CacheFactory().set(LOCATORS, "").set(MCAST_PORT, "0")
+        .set(OFF_HEAP_MEMORY_SIZE, "2m").create();
+    allocator = MemoryAllocatorImpl.getAllocator();
+    return cache;
+  }
+
+  private Region<String, byte[]> createPersistentRegion(String name, File diskDir) {
+    cache.createDiskStoreFactory().setDiskDirs(new File[] {diskDir}).create(name);
+    return cache.<String, byte[]>createRegionFactory(RegionShortcut.LOCAL_PERSISTENT)
+        .setDiskStoreName(name).setOffHeap(true).create(name);
+  }
+
+  private void putEntries() {
+    for (int i = 0; i < ENTRY_COUNT; i++) {
+      region.put(keyOf(i), valueOf(i));
+    }
+  }
+
+  private OffHeapKeyRegionEntry getOffHeapKeyEntry(String key) {
+    return (OffHeapKeyRegionEntry) ((LocalRegion) region).getRegionEntry(key);
+  }
+
+  private static String keyOf(int i) {
+    return "a key that is too long to be inlined " + i;
+  }
+
+  private static byte[] valueOf(int i) {
+    byte[] value = new byte[64];
+    value[0] = (byte) i;
+    return value;
+  }
+}
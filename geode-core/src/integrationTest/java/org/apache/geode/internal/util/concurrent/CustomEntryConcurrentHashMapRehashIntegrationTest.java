@@ -0,0 +1,118 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.internal.util.concurrent;
+
+import static org.apache.geode.distributed.ConfigurationProperties.LOCATORS;
+import static org.apache.geode.distributed.ConfigurationProperties.MCAST_PORT;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TestName;
+
+import org.apache.geode.cache.CacheFactory;
+import org.apache.geode.cache.Region;
+import org.apache.geode.cache.RegionShortcut;
+import org.apache.geode.internal.cache.AbstractRegionMap;
+import org.apache.geode.internal.cache.InternalCache;
+import org.apache.geode.internal.cache.LocalRegion;
+
+/**
+ * Grows the entry map of a heap region through several rehashes and checks that the copies a
+ * rehash leaves in the old tables, which read their keys from the entries they wrap, still return
+ * the keys that were put. The map has a single segment so that an iterator started before the
+ * rehashes walks the old table.
+ */
+public class CustomEntryConcurrentHashMapRehashIntegrationTest {
+
+  private static final int INITIAL_ENTRY_COUNT = 100;
+
+  private static final int ADDED_ENTRY_COUNT = 10000;
+
+  private InternalCache cache;
+
+  private Region<String, Integer> region;
+
+  @Rule
+  public TestName testName = new TestName();
+
+  @Before
+  public void setUp() {
+    cache = (InternalCache) new CacheFactory().set(LOCATORS, "").set(MCAST_PORT, "0").create();
+    region = cache.<String, Integer>createRegionFactory(RegionShortcut.LOCAL)
+        .setInitialCapacity(16).setConcurrencyLevel(1).setConcurrencyChecksEnabled(false)
+        .create(testName.getMethodName());
+  }
+
+  @After
+  public void tearDown() {
+    cache.close();
+  }
+
+  @Test
+  public void iteratorStartedBeforeRehashReturnsTheKeysThatWerePut() {
+    List<String> keys = putEntries(0, INITIAL_ENTRY_COUNT);
+    Iterator<Object> iterator = getEntryMap().keySet().iterator();
+
+    putEntries(INITIAL_ENTRY_COUNT, ADDED_ENTRY_COUNT);
+
+    Set<Object> iteratedKeys = Collections.newSetFromMap(new IdentityHashMap<>());
+    while (iterator.hasNext()) {
+      iteratedKeys.add(iterator.next());
+    }
+    assertThat(iteratedKeys).containsAll(keys);
+  }
+
+  @Test
+  public void entriesAreFoundByTheirKeysAfterRehash() {
+    List<String> keys = putEntries(0, INITIAL_ENTRY_COUNT);
+
+    putEntries(INITIAL_ENTRY_COUNT, ADDED_ENTRY_COUNT);
+
+    assertThat(region).hasSize(INITIAL_ENTRY_COUNT + ADDED_ENTRY_COUNT);
+    for (int i = 0; i < INITIAL_ENTRY_COUNT; i++) {
+      String key = keys.get(i);
+      assertThat(region.get(new String(key))).isEqualTo(i);
+      assertThat(region.containsKey(new String(key))).isTrue();
+      assertThat(((LocalRegion) region).getRegionEntry(key).getKey()).isSameAs(key);
+    }
+    assertThat(region.keySet()).containsAll(keys);
+  }
+
+  private List<String> putEntries(int from, int count) {
+    List<String> keys = new ArrayList<>(count);
+    for (int i = from; i < from + count; i++) {
+      // long enough not to be inlined in the entry, so that the entry keeps the key that was put
+      String key = "a key that is too long to be inlined " + i;
+      region.put(key, i);
+      keys.add(key);
+    }
+    return keys;
+  }
+
+  private ConcurrentMapWithReusableEntries<Object, Object> getEntryMap() {
+    return ((AbstractRegionMap) ((LocalRegion) region).getRegionMap())
+        .getCustomEntryConcurrentHashMap();
+  }
+}
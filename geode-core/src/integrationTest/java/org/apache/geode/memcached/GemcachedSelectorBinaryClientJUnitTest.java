@@ -0,0 +1,139 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.memcached;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.DataInputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import net.spy.memcached.MemcachedClient;
+import org.junit.Test;
+
+import org.apache.geode.internal.memcached.Reply;
+import org.apache.geode.internal.memcached.ResponseStatus;
+
+/**
+ * Runs the binary protocol tests against a server that serves connections from selector threads,
+ * and checks the replies to a run of quiet gets that the server coalesces
+ */
+public class GemcachedSelectorBinaryClientJUnitTest extends GemcachedBinaryClientJUnitTest {
+
+  private static final int HEADER_LENGTH = 24;
+
+  @Override
+  protected int getNumSelectorThreads() {
+    return 2;
+  }
+
+  @Test
+  public void testQuietGetRun() throws Exception {
+    MemcachedClient client = createMemcachedClient();
+    assertTrue(client.set("k1", 0, "v1").get());
+    assertTrue(client.set("k2", 0, "v2").get());
+
+    ByteBuffer requests = ByteBuffer.allocate(4 * HEADER_LENGTH + 64);
+    putRequest(requests, (byte) 0x0d, "k1", 1); // GETKQ
+    putRequest(requests, (byte) 0x09, "missing", 2); // GETQ
+    putRequest(requests, (byte) 0x09, "k2", 3); // GETQ
+    putRequest(requests, (byte) 0x0a, "", 4); // NOOP
+
+    try (Socket socket = new Socket(InetAddress.getLocalHost(), PORT)) {
+      socket.getOutputStream().write(requests.array(), 0, requests.position());
+      DataInputStream in = new DataInputStream(socket.getInputStream());
+      assertEquals("k1v1", readReply(in, (byte) 0x0d, 1));
+      assertEquals("v2", readReply(in, (byte) 0x09, 3));
+      assertEquals("", readReply(in, (byte) 0x0a, 4));
+    }
+  }
+
+  @Test
+  public void testQuietGetRunWithFailingGetAll() throws Exception {
+    MemcachedClient client = createMemcachedClient();
+    assertTrue(client.set("k1", 0, "v1").get());
+
+    ByteBuffer requests = ByteBuffer.allocate(3 * HEADER_LENGTH + 64);
+    putRequest(requests, (byte) 0x0d, "k1", 1); // GETKQ
+    // GETQ announcing a longer key than its body holds, which fails the getAll of the run
+    requests.put((byte) 0x80).put((byte) 0x09).putShort((short) 10);
+    requests.putInt(0).putInt(2).putInt(2).putLong(0).put("k2".getBytes(StandardCharsets.US_ASCII));
+    putRequest(requests, (byte) 0x0a, "", 3); // NOOP
+
+    try (Socket socket = new Socket(InetAddress.getLocalHost(), PORT)) {
+      socket.getOutputStream().write(requests.array(), 0, requests.position());
+      DataInputStream in = new DataInputStream(socket.getInputStream());
+      assertEquals(ResponseStatus.INTERNAL_ERROR.asShort(), readReplyStatus(in, (byte) 0x0d, 1));
+      byte[] error = new byte[Reply.ERROR.toString().length()];
+      in.readFully(error);
+      assertEquals(Reply.ERROR.toString(), new String(error, StandardCharsets.US_ASCII));
+      assertEquals("", readReply(in, (byte) 0x0a, 3));
+    }
+  }
+
+  @Test
+  public void testOversizedBodyClosesConnection() throws Exception {
+    ByteBuffer request = ByteBuffer.allocate(HEADER_LENGTH);
+    request.put((byte) 0x80).put((byte) 0x01).putShort((short) 1);
+    request.putInt(0).putInt(Integer.MAX_VALUE - HEADER_LENGTH).putInt(1).putLong(0);
+
+    try (Socket socket = new Socket(InetAddress.getLocalHost(), PORT)) {
+      socket.getOutputStream().write(request.array());
+      assertEquals(-1, socket.getInputStream().read());
+    }
+  }
+
+  private static void putRequest(ByteBuffer requests, byte opCode, String key, int opaque) {
+    byte[] keyBytes = key.getBytes(StandardCharsets.US_ASCII);
+    requests.put((byte) 0x80).put(opCode).putShort((short) keyBytes.length);
+    requests.putInt(0).putInt(keyBytes.length).putInt(opaque).putLong(0).put(keyBytes);
+  }
+
+  /**
+   * @return the key and value of the reply, without the extras
+   */
+  private static String readReply(DataInputStream in, byte opCode, int opaque) throws Exception {
+    ByteBuffer reply = readHeader(in, opCode, opaque);
+    assertEquals(0, reply.getShort(6));
+    byte[] body = new byte[reply.getInt(8)];
+    in.readFully(body);
+    int extrasLength = reply.get(4);
+    return new String(body, extrasLength, body.length - extrasLength, StandardCharsets.US_ASCII);
+  }
+
+  /**
+   * @return the status of the reply, after skipping its body
+   */
+  private static short readReplyStatus(DataInputStream in, byte opCode, int opaque)
+      throws Exception {
+    ByteBuffer reply = readHeader(in, opCode, opaque);
+    in.readFully(new byte[reply.getInt(8)]);
+    return reply.getShort(6);
+  }
+
+  private static ByteBuffer readHeader(DataInputStream in, byte opCode, int opaque)
+      throws Exception {
+    byte[] header = new byte[HEADER_LENGTH];
+    in.readFully(header);
+    ByteBuffer reply = ByteBuffer.wrap(header);
+    assertEquals((byte) 0x81, reply.get(0));
+    assertEquals(opCode, reply.get(1));
+    assertEquals(opaque, reply.getInt(12));
+    return reply;
+  }
+}
@@ -0,0 +1,73 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.memcached;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.DataInputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+/**
+ * Runs the ASCII protocol tests against a server that serves connections from selector threads, and
+ * checks that commands pipelined by a client are answered in order
+ */
+public class GemcachedSelectorJUnitTest extends GemcachedDevelopmentJUnitTest {
+
+  @Override
+  protected int getNumSelectorThreads() {
+    return 2;
+  }
+
+  @Test
+  public void testPipelinedCommands() throws Exception {
+    try (Socket socket = new Socket(InetAddress.getLocalHost(), PORT)) {
+      OutputStream out = socket.getOutputStream();
+      // the second data block is split across writes
+      out.write("set a 0 0 1\r\nx\r\nset b 0 0 2\r\ny".getBytes(StandardCharsets.US_ASCII));
+      out.flush();
+      Thread.sleep(100);
+      out.write("z\r\nget a\r\nget b\r\nbogus\r\nget c\r\n".getBytes(StandardCharsets.US_ASCII));
+      out.flush();
+
+      String expected = "STORED\r\nSTORED\r\n" + "VALUE a 0 1\r\nx\r\nEND\r\n"
+          + "VALUE b 0 2\r\nyz\r\nEND\r\n" + "ERROR\r\n" + "END\r\n";
+      byte[] reply = new byte[expected.length()];
+      new DataInputStream(socket.getInputStream()).readFully(reply);
+      assertEquals(expected, new String(reply, StandardCharsets.US_ASCII));
+    }
+  }
+
+  @Test
+  public void testDataBlockTooLongIsRejected() throws Exception {
+    try (Socket socket = new Socket(InetAddress.getLocalHost(), PORT)) {
+      OutputStream out = socket.getOutputStream();
+      out.write("set a 0 0 2147000000\r\nx".getBytes(StandardCharsets.US_ASCII));
+      out.flush();
+
+      String expected = "CLIENT_ERROR client error in the input line\r\n";
+      DataInputStream in = new DataInputStream(socket.getInputStream());
+      byte[] reply = new byte[expected.length()];
+      in.readFully(reply);
+      assertEquals(expected, new String(reply, StandardCharsets.US_ASCII));
+      // the connection is closed after the reply
+      assertEquals(-1, in.read());
+    }
+  }
+}
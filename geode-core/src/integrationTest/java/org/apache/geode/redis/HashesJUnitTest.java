@@ -22,12 +22,16 @@ import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.apache.commons.lang.RandomStringUtils;
 import org.junit.After;
@@ -169,6 +173,32 @@ public class HashesJUnitTest {
     assertNotNull(ex);
   }
 
+  @Test
+  public void concurrentHSetsToANewKeyAreNotLost() throws Exception {
+    String key = randString();
+    int numClients = 4;
+    int fieldsPerClient = 500;
+    ExecutorService executor = Executors.newFixedThreadPool(numClients);
+    try {
+      List<Future<?>> futures = new ArrayList<Future<?>>();
+      for (int c = 0; c < numClients; c++) {
+        final int client = c;
+        futures.add(executor.submit(() -> {
+          try (Jedis clientJedis = new Jedis("localhost", port, 10000000)) {
+            for (int i = 0; i < fieldsPerClient; i++)
+              clientJedis.hset(key, client + "-" + i, "value");
+          }
+        }));
+      }
+      for (Future<?> future : futures)
+        future.get();
+    } finally {
+      executor.shutdownNow();
+    }
+
+    assertEquals(numClients * fieldsPerClient, (long) jedis.hlen(key));
+  }
+
   private String randString() {
     int length = rand.nextInt(8) + 5;
     return RandomStringUtils.randomAlphanumeric(length);
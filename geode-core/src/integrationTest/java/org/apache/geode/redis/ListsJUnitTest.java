@@ -24,6 +24,9 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.junit.After;
 import org.junit.AfterClass;
@@ -230,6 +233,32 @@ public class ListsJUnitTest {
     }
   }
 
+  @Test
+  public void concurrentPushesToANewKeyAreNotLost() throws Exception {
+    String key = randString();
+    int numClients = 4;
+    int elementsPerClient = 500;
+    ExecutorService executor = Executors.newFixedThreadPool(numClients);
+    try {
+      List<Future<?>> futures = new ArrayList<Future<?>>();
+      for (int c = 0; c < numClients; c++) {
+        final int client = c;
+        futures.add(executor.submit(() -> {
+          try (Jedis clientJedis = new Jedis("localhost", port, 10000000)) {
+            for (int i = 0; i < elementsPerClient; i++)
+              clientJedis.rpush(key, client + "-" + i);
+          }
+        }));
+      }
+      for (Future<?> future : futures)
+        future.get();
+    } finally {
+      executor.shutdownNow();
+    }
+
+    assertEquals(numClients * elementsPerClient, (long) jedis.llen(key));
+  }
+
   private String randString() {
     int length = rand.nextInt(8) + 5;
     StringBuilder rString = new StringBuilder();
@@ -33,6 +33,9 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Random;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.junit.After;
 import org.junit.AfterClass;
@@ -414,6 +417,32 @@ public class SortedSetsJUnitTest {
     }
   }
 
+  @Test
+  public void concurrentZAddsToANewKeyAreNotLost() throws Exception {
+    String key = randString();
+    int numClients = 4;
+    int membersPerClient = 500;
+    ExecutorService executor = Executors.newFixedThreadPool(numClients);
+    try {
+      List<Future<?>> futures = new ArrayList<Future<?>>();
+      for (int c = 0; c < numClients; c++) {
+        final int client = c;
+        futures.add(executor.submit(() -> {
+          try (Jedis clientJedis = new Jedis("localhost", port, 10000000)) {
+            for (int i = 0; i < membersPerClient; i++)
+              clientJedis.zadd(key, i, client + "-" + i);
+          }
+        }));
+      }
+      for (Future<?> future : futures)
+        future.get();
+    } finally {
+      executor.shutdownNow();
+    }
+
+    assertEquals(numClients * membersPerClient, (long) jedis.zcard(key));
+  }
+
   private String randString() {
     return Long.toHexString(Double.doubleToLongBits(Math.random()));
   }
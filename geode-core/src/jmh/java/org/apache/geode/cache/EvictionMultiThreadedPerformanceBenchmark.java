@@ -16,6 +16,7 @@ package org.apache.geode.cache;
 
 import static org.apache.geode.distributed.ConfigurationProperties.LOG_LEVEL;
 
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -41,8 +42,8 @@ import org.apache.geode.internal.lang.SystemPropertyHelper;
 public class EvictionMultiThreadedPerformanceBenchmark {
   private static final int MAX_ENTRIES = 1_000_000;
 
-  @Param({"true", "false"})
-  public String useAsync;
+  @Param({"async", "sync", "sampled"})
+  public String evictionList;
 
   Cache cache;
   Region<String, String> region;
@@ -50,7 +51,10 @@ public class EvictionMultiThreadedPerformanceBenchmark {
 
   @Setup(Level.Trial)
   public void setup() {
-    System.setProperty("geode." + SystemPropertyHelper.EVICTION_SCAN_ASYNC, useAsync);
+    System.setProperty("geode." + SystemPropertyHelper.EVICTION_SCAN_ASYNC,
+        String.valueOf(evictionList.equals("async")));
+    System.setProperty("geode." + SystemPropertyHelper.EVICTION_SAMPLED,
+        String.valueOf(evictionList.equals("sampled")));
     cache = new CacheFactory().set(LOG_LEVEL, "warn").create();
     region = createRegion(cache, MAX_ENTRIES);
   }
@@ -115,6 +119,17 @@ public class EvictionMultiThreadedPerformanceBenchmark {
     return region.put(key, "value");
   }
 
+  @Benchmark
+  @Measurement(time = 5, iterations = 10)
+  @Warmup(iterations = 5)
+  @BenchmarkMode(Mode.Throughput)
+  @Threads(8)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public String get8Threads() {
+    String key = Integer.toString(ThreadLocalRandom.current().nextInt(MAX_ENTRIES));
+    return region.get(key);
+  }
+
   private Region<String, String> createRegion(Cache cache, int maxSize) {
     Region<String, String> region = cache.<String, String>createRegionFactory(RegionShortcut.LOCAL)
         .setEvictionAttributes(
@@ -26,12 +26,15 @@ import org.openjdk.jmh.annotations.Level;
 import org.openjdk.jmh.annotations.Measurement;
 import org.openjdk.jmh.annotations.Mode;
 import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
 import org.openjdk.jmh.annotations.Scope;
 import org.openjdk.jmh.annotations.Setup;
 import org.openjdk.jmh.annotations.State;
 import org.openjdk.jmh.annotations.TearDown;
 import org.openjdk.jmh.annotations.Warmup;
 
+import org.apache.geode.internal.lang.SystemPropertyHelper;
+
 /**
  * This benchmark measures the raw throughput of get actions on a region
  */
@@ -40,11 +43,16 @@ import org.openjdk.jmh.annotations.Warmup;
 public class GetOnRegionBenchmark {
   private static final int ENTRIES = 1_000_000;
 
+  @Param({"chained", "openAddressing"})
+  public String entryMap;
+
   Cache cache;
   Region<String, String> region;
 
   @Setup(Level.Trial)
   public void setup() {
+    System.setProperty("geode." + SystemPropertyHelper.OPEN_ADDRESSING_ENTRY_MAP,
+        String.valueOf(entryMap.equals("openAddressing")));
     cache = new CacheFactory().set(LOG_LEVEL, "warn").create();
     region = createRegion(cache);
   }
@@ -21,6 +21,7 @@ import java.util.stream.IntStream;
 import org.openjdk.jmh.annotations.Benchmark;
 import org.openjdk.jmh.annotations.Fork;
 import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
 import org.openjdk.jmh.annotations.Scope;
 import org.openjdk.jmh.annotations.Setup;
 import org.openjdk.jmh.annotations.State;
@@ -33,12 +34,16 @@ import org.apache.geode.cache.query.QueryInvocationTargetException;
 import org.apache.geode.cache.query.SelectResults;
 import org.apache.geode.cache.query.TypeMismatchException;
 import org.apache.geode.cache.query.internal.index.AbstractIndex;
+import org.apache.geode.cache.query.internal.index.IndexManager;
 
 @Fork(3)
 public class RangeQueryWithIndexBenchmark {
 
   @State(Scope.Benchmark)
   public static class CacheState {
+    @Param({"MemoryIndexStore", "PrimitiveIndexStore"})
+    public String indexStore;
+
     private Region region;
     private Query query;
 
@@ -46,6 +51,7 @@ public class RangeQueryWithIndexBenchmark {
 
     @Setup
     public void setup() {
+      IndexManager.TEST_PRIMITIVE_INDEX_STORE = "PrimitiveIndexStore".equals(indexStore);
       Cache cache = new CacheFactory().set("mcast-port", "0").set("locators", "").create();
 
       region = cache.createRegionFactory(RegionShortcut.REPLICATE).create("region");
@@ -0,0 +1,169 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.memcached;
+
+import static org.apache.geode.distributed.ConfigurationProperties.LOG_LEVEL;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.apache.geode.cache.CacheFactory;
+import org.apache.geode.internal.AvailablePort;
+import org.apache.geode.memcached.GemFireMemcachedServer.Protocol;
+
+/**
+ * This benchmark compares the throughput and latency of binary protocol get requests served with
+ * one thread per client connection (numSelectorThreads 0) against connections served by selector
+ * threads, both for one request at a time and for pipelined requests. Every benchmark thread is a
+ * client with its own connection, use -t to simulate more clients.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Threads(32)
+public class MemcachedServerBenchmark {
+  private static final byte[] KEY = "key".getBytes(StandardCharsets.US_ASCII);
+  private static final int VALUE_SIZE = 100;
+  private static final int PIPELINE_DEPTH = 16;
+
+  private static final int HEADER_LENGTH = 24;
+  private static final byte OPCODE_GET = 0x00;
+  private static final byte OPCODE_SET = 0x01;
+  private static final int SET_EXTRAS_LENGTH = 8;
+  private static final int GET_EXTRAS_LENGTH = 4;
+
+  private static final byte[] GET_REQUEST = request(OPCODE_GET, 0, new byte[0]);
+  private static final int GET_REPLY_LENGTH = HEADER_LENGTH + GET_EXTRAS_LENGTH + VALUE_SIZE;
+
+  @Param({"0", "4"})
+  int numSelectorThreads;
+
+  GemFireMemcachedServer server;
+  InetAddress address;
+  int port;
+
+  @Setup(Level.Trial)
+  public void setup() throws IOException {
+    new CacheFactory().set(LOG_LEVEL, "warn").create();
+    address = InetAddress.getLoopbackAddress();
+    port = AvailablePort.getRandomAvailablePort(AvailablePort.SOCKET);
+    server = new GemFireMemcachedServer(address.getHostAddress(), port, Protocol.BINARY,
+        numSelectorThreads);
+    server.start();
+
+    try (Client client = new Client()) {
+      client.connect(this);
+      client.out.write(request(OPCODE_SET, SET_EXTRAS_LENGTH, new byte[VALUE_SIZE]));
+      client.out.flush();
+      client.read(HEADER_LENGTH);
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    server.shutdown();
+  }
+
+  /**
+   * @return a request for {@link #KEY} with zeroed extras followed by the value
+   */
+  private static byte[] request(byte opCode, int extrasLength, byte[] value) {
+    int bodyLength = extrasLength + KEY.length + value.length;
+    ByteBuffer request = ByteBuffer.allocate(HEADER_LENGTH + bodyLength);
+    request.put((byte) 0x80);
+    request.put(opCode);
+    request.putShort((short) KEY.length);
+    request.put((byte) extrasLength);
+    request.position(8);
+    request.putInt(bodyLength);
+    request.position(HEADER_LENGTH + extrasLength);
+    request.put(KEY);
+    request.put(value);
+    return request.array();
+  }
+
+  @State(Scope.Thread)
+  public static class Client implements AutoCloseable {
+    Socket socket;
+    OutputStream out;
+    DataInputStream in;
+    byte[] replies = new byte[GET_REPLY_LENGTH * PIPELINE_DEPTH];
+    byte[] pipelinedGets = new byte[GET_REQUEST.length * PIPELINE_DEPTH];
+
+    @Setup(Level.Trial)
+    public void connect(MemcachedServerBenchmark benchmark) throws IOException {
+      socket = new Socket(benchmark.address, benchmark.port);
+      socket.setTcpNoDelay(true);
+      out = socket.getOutputStream();
+      in = new DataInputStream(socket.getInputStream());
+      for (int i = 0; i < PIPELINE_DEPTH; i++) {
+        System.arraycopy(GET_REQUEST, 0, pipelinedGets, i * GET_REQUEST.length,
+            GET_REQUEST.length);
+      }
+    }
+
+    @TearDown(Level.Trial)
+    public void close() throws IOException {
+      socket.close();
+    }
+
+    byte[] read(int length) throws IOException {
+      in.readFully(replies, 0, length);
+      return replies;
+    }
+  }
+
+  @Benchmark
+  @Measurement(iterations = 10)
+  @Warmup(iterations = 5)
+  @BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public byte[] get(Client client) throws IOException {
+    client.out.write(GET_REQUEST);
+    client.out.flush();
+    return client.read(GET_REPLY_LENGTH);
+  }
+
+  @Benchmark
+  @Measurement(iterations = 10)
+  @Warmup(iterations = 5)
+  @BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public byte[] pipelinedGets(Client client) throws IOException {
+    client.out.write(client.pipelinedGets);
+    client.out.flush();
+    return client.read(GET_REPLY_LENGTH * PIPELINE_DEPTH);
+  }
+}
@@ -18,7 +18,6 @@
  */
 package org.apache.geode.cache.query.internal;
 
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Iterator;
@@ -34,6 +33,7 @@ import org.apache.geode.cache.query.TypeMismatchException;
 import org.apache.geode.cache.query.internal.parse.OQLLexerTokenTypes;
 import org.apache.geode.cache.query.internal.types.StructTypeImpl;
 import org.apache.geode.cache.query.types.ObjectType;
+import org.apache.geode.cache.query.types.StructType;
 import org.apache.geode.distributed.internal.DistributionConfig;
 import org.apache.geode.internal.Assert;
 
@@ -146,6 +146,11 @@ public abstract class AbstractGroupOrRangeJunction extends AbstractCompiledValue
     OrganizedOperands newOperands = organizeOperands(context);
     SelectResults result = intermediateResults;
     Support.Assert(newOperands.filterOperand != null);
+    if (newOperands.filterOperand instanceof CompiledLiteral) {
+      // A RangeJunction replaces conditions no value can satisfy, like a > 4 and a < 4, with a
+      // false literal, which is not a condition that can be evaluated with an index
+      return createEmptyResults(context);
+    }
     if (newOperands.isSingleFilter) {
       // The below assertion used to hold true previously that if there used to be only
       // a RangeJunction & all iter operands , then GroupJunction would never be formed
@@ -224,28 +229,28 @@ public abstract class AbstractGroupOrRangeJunction extends AbstractCompiledValue
     // have ensured that all the operands are of type ComparisonQueryInfo
     // and of the form var = constant. Also need for sorting will not arise
     // if there are only two operands
+    return CompiledJunction.sortOnIncreasingEstimatedIndexResultSize(this._operands,
+        _operator == LITERAL_and, context);
+  }
 
-    List sortedList = new ArrayList(this._operands.length);
-    int len = this._operands.length;
-    for (int i = 0; i < len; ++i) {
-      Filter toSort = (Filter) this._operands[i];
-      int indxRsltToSort = toSort.getSizeEstimate(context);
-      int sortedListLen = sortedList.size();
-      int j = 0;
-      for (; j < sortedListLen; ++j) {
-        Filter currSorted = (Filter) sortedList.get(j);
-        if (currSorted.getSizeEstimate(context) > indxRsltToSort) {
-          break;
-        }
-      }
-      sortedList.add(j, toSort);
+  /**
+   * Returns an empty result of the type the filter evaluation of this junction would have returned
+   */
+  private SelectResults createEmptyResults(ExecutionContext context) {
+    List iterators = this.completeExpansion ? context.getCurrentIterators()
+        : QueryUtils.getDependentItrChainForIndpndntItrs(this.indpndntItr, context);
+    if (iterators.size() > 1) {
+      StructType type = QueryUtils.createStructTypeForRuntimeIterators(iterators);
+      return QueryUtils.createStructCollection(context, (StructTypeImpl) type);
     }
-    return sortedList;
-
+    ObjectType type = ((RuntimeIterator) iterators.get(0)).getElementType();
+    if (type instanceof StructType) {
+      return QueryUtils.createStructCollection(context, (StructTypeImpl) type);
+    }
+    return QueryUtils.createResultCollection(context, type);
   }
 
 
-
   /**
    * Asif : This function is always invoked on a DummyGroupJunction object formed as a part of
    * organization of operands of a GroupJunction . This also guranatees that the operands are all of
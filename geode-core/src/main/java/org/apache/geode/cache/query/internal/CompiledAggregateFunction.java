@@ -14,6 +14,7 @@
  */
 package org.apache.geode.cache.query.internal;
 
+import org.apache.geode.cache.query.Aggregator;
 import org.apache.geode.cache.query.AmbiguousNameException;
 import org.apache.geode.cache.query.FunctionDomainException;
 import org.apache.geode.cache.query.NameResolutionException;
@@ -21,6 +22,7 @@ import org.apache.geode.cache.query.QueryInvocationTargetException;
 import org.apache.geode.cache.query.TypeMismatchException;
 import org.apache.geode.cache.query.internal.aggregate.Avg;
 import org.apache.geode.cache.query.internal.aggregate.AvgBucketNode;
+import org.apache.geode.cache.query.internal.aggregate.AvgBucketResultsCombiner;
 import org.apache.geode.cache.query.internal.aggregate.AvgDistinct;
 import org.apache.geode.cache.query.internal.aggregate.AvgDistinctPRQueryNode;
 import org.apache.geode.cache.query.internal.aggregate.AvgPRQueryNode;
@@ -29,6 +31,7 @@ import org.apache.geode.cache.query.internal.aggregate.CountDistinct;
 import org.apache.geode.cache.query.internal.aggregate.CountDistinctPRQueryNode;
 import org.apache.geode.cache.query.internal.aggregate.CountPRQueryNode;
 import org.apache.geode.cache.query.internal.aggregate.DistinctAggregator;
+import org.apache.geode.cache.query.internal.aggregate.DistinctBucketResultsCombiner;
 import org.apache.geode.cache.query.internal.aggregate.MaxMin;
 import org.apache.geode.cache.query.internal.aggregate.Sum;
 import org.apache.geode.cache.query.internal.aggregate.SumDistinct;
@@ -64,6 +67,9 @@ public class CompiledAggregateFunction extends AbstractCompiledValue {
       TypeMismatchException, NameResolutionException, QueryInvocationTargetException {
     boolean isPRQueryNode = context.getIsPRQueryNode();
     boolean isBucketNode = context.getBucketList() != null;
+    if (context.getIsCombiningBucketResults()) {
+      return createBucketResultsCombiner();
+    }
     switch (this.aggFuncType) {
 
       case OQLLexerTokenTypes.SUM:
@@ -103,6 +109,35 @@ public class CompiledAggregateFunction extends AbstractCompiledValue {
 
   }
 
+  /**
+   * Creates the aggregator which merges the partial results of the bucket nodes of a data store
+   * into a partial result of the same form, to be sent to the PR query node.
+   */
+  private Aggregator createBucketResultsCombiner() {
+    switch (this.aggFuncType) {
+
+      case OQLLexerTokenTypes.SUM:
+        return this.distinctOnly ? new DistinctBucketResultsCombiner() : new Sum();
+
+      case OQLLexerTokenTypes.MAX:
+        return new MaxMin(true);
+
+      case OQLLexerTokenTypes.MIN:
+        return new MaxMin(false);
+
+      case OQLLexerTokenTypes.AVG:
+        return this.distinctOnly ? new DistinctBucketResultsCombiner()
+            : new AvgBucketResultsCombiner();
+
+      case OQLLexerTokenTypes.COUNT:
+        return this.distinctOnly ? new DistinctBucketResultsCombiner() : new CountPRQueryNode();
+
+      default:
+        throw new UnsupportedOperationException("Aggregate function not implemented");
+
+    }
+  }
+
   private String getStringRep() {
     switch (this.aggFuncType) {
 
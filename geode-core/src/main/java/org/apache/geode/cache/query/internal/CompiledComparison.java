@@ -38,7 +38,9 @@ import org.apache.geode.cache.query.types.ObjectType;
 import org.apache.geode.cache.query.types.StructType;
 import org.apache.geode.internal.offheap.annotations.Retained;
 import org.apache.geode.pdx.PdxInstance;
+import org.apache.geode.pdx.internal.PdxInstanceImpl;
 import org.apache.geode.pdx.internal.PdxString;
+import org.apache.geode.pdx.internal.WritablePdxInstanceImpl;
 
 /**
  * Comparison value: <, >, <=, >=, <>, =
@@ -52,6 +54,8 @@ public class CompiledComparison extends AbstractCompiledValue
   public final CompiledValue _right;
   private int _operator;
 
+  private final Object pdxFieldComparisonKey = new Object();
+
   // List groupRuntimeItrs = null;
   // List definitions = null;
   CompiledComparison(CompiledValue left, CompiledValue right, int op) {
@@ -79,6 +83,10 @@ public class CompiledComparison extends AbstractCompiledValue
 
   public Object evaluate(ExecutionContext context) throws FunctionDomainException,
       TypeMismatchException, NameResolutionException, QueryInvocationTargetException {
+    Object result = evaluateOnPdxField(context);
+    if (result != null) {
+      return result;
+    }
     Object left = _left.evaluate(context);
     Object right = _right.evaluate(context);
 
@@ -135,6 +143,46 @@ public class CompiledComparison extends AbstractCompiledValue
     return TypeUtils.compare(left, right, _operator);
   }
 
+  /**
+   * Compares a path with a constant directly on the serialized form of a PDX value, when the
+   * receiver of the path evaluates to one. The comparison is set up once for each execution.
+   *
+   * @return the result of the comparison, or null if it has to be evaluated on the path value
+   */
+  private Object evaluateOnPdxField(ExecutionContext context) throws FunctionDomainException,
+      TypeMismatchException, NameResolutionException, QueryInvocationTargetException {
+    if (!(context instanceof QueryExecutionContext) || context.isCqQueryContext()) {
+      return null;
+    }
+    Object comparison = context.cacheGet(pdxFieldComparisonKey);
+    if (comparison == null) {
+      comparison = createPdxFieldComparison(context);
+      context.cachePut(pdxFieldComparisonKey, comparison);
+    }
+    if (comparison == Boolean.FALSE) {
+      return null;
+    }
+    CompiledPath path = (CompiledPath) (_left.getType() == PATH ? _left : _right);
+    Object receiver = path.getReceiver().evaluate(context);
+    if (receiver instanceof PdxInstanceImpl && !(receiver instanceof WritablePdxInstanceImpl)) {
+      return ((PdxFieldComparison) comparison).compare((PdxInstanceImpl) receiver);
+    }
+    // the values are not PDX serialized, do not evaluate their paths twice
+    context.cachePut(pdxFieldComparisonKey, Boolean.FALSE);
+    return null;
+  }
+
+  private Object createPdxFieldComparison(ExecutionContext context) {
+    PdxFieldComparison comparison = null;
+    if (_left.getType() == PATH) {
+      comparison = PdxFieldComparison.create((CompiledPath) _left, _right, _operator, context);
+    } else if (_right.getType() == PATH) {
+      comparison = PdxFieldComparison.create((CompiledPath) _right, _left,
+          reflectOperator(_operator), context);
+    }
+    return comparison != null ? comparison : Boolean.FALSE;
+  }
+
   /**
    * Asif : Evaluates as a filter taking advantage of indexes if appropriate. This function has a
    * meaningful implementation only in CompiledComparison & CompiledUndefined . It is unsupported in
@@ -652,6 +700,15 @@ public class CompiledComparison extends AbstractCompiledValue
     return getPathAndKey(context)._key;
   }
 
+  /**
+   * @return the operand dependent on the current scope, or null if neither or both operands are
+   */
+  CompiledValue getPath(ExecutionContext context)
+      throws AmbiguousNameException, TypeMismatchException {
+    PathAndKey pAndK = getPathAndKey(context);
+    return pAndK == null ? null : pAndK._path;
+  }
+
   /**
    * get the path to see if there's an index for, and also determine which CompiledValue is the key
    * while we're at it
@@ -776,6 +833,13 @@ public class CompiledComparison extends AbstractCompiledValue
       return thisSize <= thatSize;
     }
 
+    // The sizes of equality and range conditions are both estimated from the statistics of their
+    // indexes, so go with the lowest cost and only rely on the rules below when the estimates are
+    // the same. The size of a RangeJunction is not estimated from its index.
+    if (thatOperator != LITERAL_and && thisSize != thatSize) {
+      return thisSize < thatSize;
+    }
+
     // There may be some hard rules that give unoptimal selections based on these switch cases.
     if (this._operator == TOK_EQ || this._operator == TOK_NE || this._operator == TOK_NE_ALT) {
       switch (thatOperator) {
@@ -0,0 +1,189 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.cache.query.internal;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.geode.cache.query.AmbiguousNameException;
+import org.apache.geode.cache.query.FunctionDomainException;
+import org.apache.geode.cache.query.NameResolutionException;
+import org.apache.geode.cache.query.QueryInvocationTargetException;
+import org.apache.geode.cache.query.QueryService;
+import org.apache.geode.cache.query.TypeMismatchException;
+import org.apache.geode.cache.query.internal.index.CompositeIndexKey;
+import org.apache.geode.cache.query.internal.index.IndexManager;
+import org.apache.geode.cache.query.internal.types.TypeUtils;
+
+/**
+ * The indexed expression of a composite index, and the keys to look it up with. It evaluates its
+ * components to a {@link CompositeIndexKey}.
+ * <p>
+ * A composite index is created with a comma separated list of expressions, like
+ * {@code "p.status, p.region, p.ts"}. A CompiledJunction replaces the conditions of an AND
+ * junction matching a prefix of these expressions with comparisons of a CompiledCompositeKey, so
+ * they are all evaluated with a single lookup of the index.
+ */
+public class CompiledCompositeKey extends AbstractCompiledValue {
+
+  private final CompiledValue[] components;
+
+  private final int bound;
+
+  /**
+   * The canonicalized expression of the composite index a lookup path stands for, as the path may
+   * have fewer components than the index
+   */
+  private final String canonicalizedExpression;
+
+  /**
+   * The bound to use instead when the last component of a range lookup key evaluates to null or
+   * UNDEFINED, which no value is greater or less than
+   */
+  private final int emptyBound;
+
+  /**
+   * Creates the indexed expression of a composite index
+   */
+  public CompiledCompositeKey(CompiledValue[] components) {
+    this(components, 0, null, 0);
+  }
+
+  private CompiledCompositeKey(CompiledValue[] components, int bound,
+      String canonicalizedExpression, int emptyBound) {
+    this.components = components;
+    this.bound = bound;
+    this.canonicalizedExpression = canonicalizedExpression;
+    this.emptyBound = emptyBound;
+  }
+
+  /**
+   * Creates the path of a comparison looking up the composite index with the given canonicalized
+   * expression
+   *
+   * @param paths the paths matching the first indexed expressions of the index
+   */
+  static CompiledCompositeKey createPath(CompiledValue[] paths, String canonicalizedExpression) {
+    return new CompiledCompositeKey(paths, 0, canonicalizedExpression, 0);
+  }
+
+  /**
+   * Creates a key to look up a composite index with
+   *
+   * @param bound -1, 0 or +1 to sort before, with or after the index keys having the values of
+   *        these components as a prefix
+   * @param emptyBound if not 0, the last component is the bound of a range and the bound to use
+   *        without it if it evaluates to null or UNDEFINED
+   */
+  static CompiledCompositeKey createKey(CompiledValue[] keys, int bound, int emptyBound) {
+    return new CompiledCompositeKey(keys, bound, null, emptyBound);
+  }
+
+  public CompiledValue[] getComponents() {
+    return this.components;
+  }
+
+  @Override
+  public List getChildren() {
+    return Arrays.asList(this.components);
+  }
+
+  @Override
+  public int getType() {
+    return COMPOSITE_KEY;
+  }
+
+  @Override
+  public Object evaluate(ExecutionContext context) throws FunctionDomainException,
+      TypeMismatchException, NameResolutionException, QueryInvocationTargetException {
+    int length = this.components.length;
+    Object[] values = new Object[length];
+    for (int i = 0; i < length; i++) {
+      Object value = TypeUtils.indexKeyFor(this.components[i].evaluate(context));
+      values[i] = value == null ? IndexManager.NULL : value;
+    }
+    if (this.emptyBound != 0) {
+      Object last = values[length - 1];
+      if (last == IndexManager.NULL || last == QueryService.UNDEFINED) {
+        return new CompositeIndexKey(Arrays.copyOf(values, length - 1), this.emptyBound);
+      }
+    }
+    return new CompositeIndexKey(values, this.bound);
+  }
+
+  @Override
+  public Set computeDependencies(ExecutionContext context)
+      throws TypeMismatchException, AmbiguousNameException, NameResolutionException {
+    for (CompiledValue component : this.components) {
+      context.addDependencies(this, component.computeDependencies(context));
+    }
+    return context.getDependencySet(this, true);
+  }
+
+  /**
+   * All the components depend on the same iterator, so the first one stands for the receiver the
+   * iterator is found from.
+   */
+  @Override
+  public CompiledValue getReceiver() {
+    return this.components[0];
+  }
+
+  @Override
+  public void generateCanonicalizedExpression(StringBuilder clauseBuffer, ExecutionContext context)
+      throws AmbiguousNameException, TypeMismatchException, NameResolutionException {
+    if (this.canonicalizedExpression != null) {
+      clauseBuffer.insert(0, this.canonicalizedExpression);
+      return;
+    }
+    for (int i = this.components.length - 1; i > 0; i--) {
+      this.components[i].generateCanonicalizedExpression(clauseBuffer, context);
+      clauseBuffer.insert(0, ", ");
+    }
+    this.components[0].generateCanonicalizedExpression(clauseBuffer, context);
+  }
+
+  /**
+   * Splits an indexed expression on the commas which are not nested in parentheses, brackets,
+   * braces or string literals.
+   *
+   * @return the trimmed expressions, a single one if the expression is not a composite one
+   */
+  public static List<String> splitExpressions(String expression) {
+    List<String> expressions = new ArrayList<>();
+    int depth = 0;
+    boolean inLiteral = false;
+    int start = 0;
+    for (int i = 0; i < expression.length(); i++) {
+      char c = expression.charAt(i);
+      if (c == '\'') {
+        inLiteral = !inLiteral;
+      } else if (inLiteral) {
+        continue;
+      } else if (c == '(' || c == '[' || c == '{') {
+        depth++;
+      } else if (c == ')' || c == ']' || c == '}') {
+        depth--;
+      } else if (c == ',' && depth == 0) {
+        expressions.add(expression.substring(start, i).trim());
+        start = i + 1;
+      }
+    }
+    expressions.add(expression.substring(start).trim());
+    return expressions;
+  }
+}
@@ -14,6 +14,7 @@
  */
 package org.apache.geode.cache.query.internal;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.BitSet;
 import java.util.Comparator;
@@ -164,7 +165,8 @@ public class CompiledGroupBySelect extends CompiledSelect {
       QueryInvocationTargetException {
     ObjectType elementType = baseResults.getCollectionType().getElementType();
     boolean isStruct = elementType != null && elementType.isStructType();
-    boolean isBucketNodes = context.getBucketList() != null;
+    boolean isBucketNodes =
+        context.getBucketList() != null || context.getIsCombiningBucketResults();
     boolean createOrderedResultSet = isBucketNodes && this.orderByAttrs != null;
     boolean[] objectChangedMarker = new boolean[] {false};
     int limitValue = evaluateLimitValue(context, limit);
@@ -192,6 +194,68 @@ public class CompiledGroupBySelect extends CompiledSelect {
     return newResults;
   }
 
+  /**
+   * Merges the partial aggregates computed by the buckets of a data store into a single partial
+   * aggregate per group, so that the PR query node receives one row per group from each data store
+   * instead of one per group from each bucket. The merged rows remain ordered by the group by
+   * columns.
+   *
+   * If the query has a limit and the groups are ordered by their group by columns only, just the
+   * groups which can make it to the final results are kept.
+   *
+   * @param bucketResults the results of the buckets, merged in the order of the group by columns
+   */
+  public SelectResults combineBucketResults(SelectResults bucketResults, ExecutionContext context)
+      throws FunctionDomainException, TypeMismatchException, NameResolutionException,
+      QueryInvocationTargetException {
+    context.setIsCombiningBucketResults(true);
+    SelectResults combinedResults = this.applyAggregateAndGroupBy(bucketResults, context);
+    int limitValue = evaluateLimitValue(context, limit);
+    if (limitValue <= 0 || limitValue >= combinedResults.size()
+        || this.originalOrderByClause == null || !isOrderedByGroupByColumnsOnly()) {
+      return combinedResults;
+    }
+    // the ordering is total on the groups, so the top groups of the data store are a superset of
+    // its groups in the final results
+    ObjectType elementType = combinedResults.getCollectionType().getElementType();
+    boolean isStruct = elementType != null && elementType.isStructType();
+    Comparator comparator =
+        new OrderByComparator(this.originalOrderByClause, elementType, context);
+    List<Object> sortedRows = new ArrayList<>(combinedResults.size());
+    for (Object row : combinedResults) {
+      sortedRows.add(isStruct ? ((Struct) row).getFieldValues() : row);
+    }
+    sortedRows.sort(comparator);
+    Object lastRow = sortedRows.get(limitValue - 1);
+    SelectResults topResults = new SortedResultsBag(elementType, true);
+    for (Object row : combinedResults) {
+      if (comparator.compare(isStruct ? ((Struct) row).getFieldValues() : row, lastRow) <= 0) {
+        topResults.add(row);
+      }
+    }
+    return topResults;
+  }
+
+  /**
+   * Returns true if the order by clause of the query only uses, and uses all of, the group by
+   * columns, so that no two groups are ordered alike
+   */
+  private boolean isOrderedByGroupByColumnsOnly() {
+    BitSet orderByColsPos = new BitSet(this.projAttrs.size());
+    for (CompiledSortCriterion csc : this.originalOrderByClause) {
+      if (!csc.isProjectionField() || this.aggregateColsPos.get(csc.getColumnIndex())) {
+        return false;
+      }
+      orderByColsPos.set(csc.getColumnIndex());
+    }
+    for (CompiledSortCriterion csc : this.orderByAttrs) {
+      if (!orderByColsPos.get(csc.getColumnIndex())) {
+        return false;
+      }
+    }
+    return true;
+  }
+
   private SelectResults createResultSet(ExecutionContext context, ObjectType elementType,
       boolean isStruct, boolean createOrderedResults) {
     elementType = createNewElementType(elementType, isStruct);
@@ -312,7 +376,8 @@ public class CompiledGroupBySelect extends CompiledSelect {
     }
 
     if (this.originalOrderByClause != null && limitValue > 0
-        && (context.getIsPRQueryNode() || context.getBucketList() == null)) {
+        && (context.getIsPRQueryNode() || context.getBucketList() == null)
+        && !context.getIsCombiningBucketResults()) {
       ((Bag) newResults).applyLimit(limitValue);
     }
   }
@@ -350,8 +415,9 @@ public class CompiledGroupBySelect extends CompiledSelect {
       newResults.add(newObject);
     }
     boolean keepAdding = true;
+    // the groups are added in the order of their group by columns, so even a bucket node can stop
+    // at the limit as the first groups of the final results are among its first groups
     if (this.originalOrderByClause == null && limitValue > 0
-        && (context.getIsPRQueryNode() || context.getBucketList() == null)
         && newResults.size() == limitValue) {
       keepAdding = false;
     }
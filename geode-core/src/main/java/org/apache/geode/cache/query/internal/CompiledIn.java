@@ -710,7 +710,9 @@ public class CompiledIn extends AbstractCompiledValue implements Indexable {
       case TOK_LT:
       case TOK_GE:
       case TOK_GT:
-        // Give preference to this rather than that as this is more deterministic
+        // The size of the range is estimated from the statistics of its index, give preference to
+        // this rather than that as this is more deterministic unless that is cheaper
+        isThisBetter = thisSize <= thatSize;
         break;
       default:
         throw new IllegalArgumentException("The operator type =" + thatOperator + " is unknown");
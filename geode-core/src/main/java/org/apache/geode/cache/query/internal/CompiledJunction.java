@@ -37,6 +37,7 @@ import org.apache.geode.cache.query.Struct;
 import org.apache.geode.cache.query.TypeMismatchException;
 import org.apache.geode.cache.query.internal.index.IndexManager;
 import org.apache.geode.cache.query.internal.index.IndexProtocol;
+import org.apache.geode.cache.query.internal.index.IndexUtils;
 import org.apache.geode.cache.query.internal.parse.OQLLexerTokenTypes;
 import org.apache.geode.cache.query.internal.types.StructTypeImpl;
 import org.apache.geode.cache.query.types.ObjectType;
@@ -98,6 +99,8 @@ public class CompiledJunction extends AbstractCompiledValue implements Negatable
   // not set the place holder
   private static final String PLACEHOLDER_FOR_JOIN = "join";
 
+  private final Object compositeOperandsKey = new Object();
+
   CompiledJunction(CompiledValue[] operands, int operator) {
     // invariant: operator must be LITERAL_and or LITERAL_or
     // invariant: at least two operands
@@ -234,21 +237,45 @@ public class CompiledJunction extends AbstractCompiledValue implements Negatable
     // The checks invoked before this function have ensured that all the
     // operands are of type ComparisonQueryInfo and of the form 'var = constant'.
     // Also need for sorting will not arise if there are only two operands
-    int len = this._operands.length;
+    return sortOnIncreasingEstimatedIndexResultSize(this._operands, _operator == LITERAL_and,
+        context);
+  }
+
+  /**
+   * Sorts filter operands on the estimated size of their index results, so an AND junction starts
+   * with the most selective condition. The operands with the same estimate keep their order.
+   *
+   * @param isAndJunction whether the operands are those of an AND junction, in which case the
+   *        first operand is reported as picked to the QueryObserver
+   */
+  static List sortOnIncreasingEstimatedIndexResultSize(CompiledValue[] operands,
+      boolean isAndJunction, ExecutionContext context) throws FunctionDomainException,
+      TypeMismatchException, NameResolutionException, QueryInvocationTargetException {
+    int len = operands.length;
     List sortedList = new ArrayList(len);
+    int[] sortedSizes = new int[len];
     for (int i = 0; i < len; ++i) {
-      Filter toSort = (Filter) this._operands[i];
+      Filter toSort = (Filter) operands[i];
       int indxRsltToSort = toSort.getSizeEstimate(context);
-      int sortedListLen = sortedList.size();
-      int j = 0;
-      for (; j < sortedListLen; ++j) {
-        Filter currSorted = (Filter) sortedList.get(j);
-        if (currSorted.getSizeEstimate(context) > indxRsltToSort) {
-          break;
-        }
+      int j = sortedList.size();
+      while (j > 0 && sortedSizes[j - 1] > indxRsltToSort) {
+        sortedSizes[j] = sortedSizes[j - 1];
+        --j;
       }
+      sortedSizes[j] = indxRsltToSort;
       sortedList.add(j, toSort);
     }
+    if (isAndJunction && len > 0 && QueryObserverHolder.hasObserver()) {
+      // only the most selective condition is picked, the others are evaluated on its results
+      // unless it returns too many of them
+      Filter filter = (Filter) sortedList.get(0);
+      IndexInfo[] indexInfo =
+          filter instanceof Indexable ? ((Indexable) filter).getIndexInfo(context) : null;
+      if (indexInfo != null && indexInfo.length == 1) {
+        QueryObserverHolder.getInstance().afterFilterSelection(filter, indexInfo[0]._getIndex(),
+            sortedSizes[0]);
+      }
+    }
     return sortedList;
   }
 
@@ -403,6 +430,7 @@ public class CompiledJunction extends AbstractCompiledValue implements Negatable
   @Override
   protected PlanInfo protGetPlanInfo(ExecutionContext context) throws FunctionDomainException,
       TypeMismatchException, NameResolutionException, QueryInvocationTargetException {
+    CompiledValue[] operands = getOperands(context);
     Support.Assert(_operator == LITERAL_or || _operator == LITERAL_and);
     PlanInfo resultPlanInfo = new PlanInfo();
     // set default evalAsFilter depending on operator
@@ -412,8 +440,8 @@ public class CompiledJunction extends AbstractCompiledValue implements Negatable
     // for LITERAL_and operator, if any say yes to filter,
     // then change default evalAsFilter from false to true
     // of LITERAL_or operator, if any say no to filter, change to false
-    for (int i = 0; i < _operands.length; i++) {
-      PlanInfo opPlanInfo = _operands[i].getPlanInfo(context);
+    for (int i = 0; i < operands.length; i++) {
+      PlanInfo opPlanInfo = operands[i].getPlanInfo(context);
       resultPlanInfo.indexes.addAll(opPlanInfo.indexes);
       if (!isOr && opPlanInfo.evalAsFilter) {
         resultPlanInfo.evalAsFilter = true;
@@ -424,6 +452,246 @@ public class CompiledJunction extends AbstractCompiledValue implements Negatable
     return resultPlanInfo;
   }
 
+  /**
+   * Returns the operands to plan and filter evaluate this junction with. For an AND junction, the
+   * conditions on a prefix of the expressions of a composite index are replaced by comparisons
+   * looking up the index with a single range, so the index results of these conditions do not
+   * have to be intersected. The operands are cached in the context, so the plan of the junction,
+   * which holds the locks on the indexes it uses, is made of the operands it is evaluated with.
+   */
+  private CompiledValue[] getOperands(ExecutionContext context) throws FunctionDomainException,
+      TypeMismatchException, NameResolutionException, QueryInvocationTargetException {
+    if (_operator != LITERAL_and || !IndexUtils.indexesEnabled) {
+      return _operands;
+    }
+    CompiledValue[] operands = (CompiledValue[]) context.cacheGet(compositeOperandsKey);
+    if (operands == null) {
+      operands = replaceCompositeIndexConditions(context);
+      context.cachePut(compositeOperandsKey, operands);
+    }
+    return operands;
+  }
+
+  private CompiledValue[] replaceCompositeIndexConditions(ExecutionContext context)
+      throws FunctionDomainException, TypeMismatchException, NameResolutionException,
+      QueryInvocationTargetException {
+    // the comparisons of a single iterator of the current scope with a constant
+    Map<RuntimeIterator, List<CompiledComparison>> iterToConditions = new HashMap<>();
+    for (CompiledValue operand : _operands) {
+      if (operand.getType() != COMPARISON || !operand.isDependentOnCurrentScope(context)) {
+        continue;
+      }
+      CompiledComparison condition = (CompiledComparison) operand;
+      if (condition.getPath(context) == null || getCompositeIndexOperator(condition, context) < 0) {
+        continue;
+      }
+      Set set = QueryUtils.getCurrentScopeUltimateRuntimeIteratorsIfAny(condition, context);
+      if (set.size() == 1) {
+        RuntimeIterator rIter = (RuntimeIterator) set.iterator().next();
+        iterToConditions.computeIfAbsent(rIter, k -> new ArrayList<>()).add(condition);
+      }
+    }
+    List operands = null;
+    for (Map.Entry<RuntimeIterator, List<CompiledComparison>> entry : iterToConditions
+        .entrySet()) {
+      if (entry.getValue().size() < 2) {
+        continue;
+      }
+      CompositeIndexMatch match =
+          getBestCompositeIndexMatch(entry.getKey(), entry.getValue(), context);
+      if (match == null) {
+        continue;
+      }
+      CompiledComparison[] lookups = match.createLookups(context);
+      if (lookups[0].getIndexInfo(context) == null) {
+        continue;
+      }
+      if (operands == null) {
+        operands = new ArrayList(Arrays.asList(_operands));
+      }
+      operands.removeAll(match.getConditions());
+      operands.addAll(Arrays.asList(lookups));
+    }
+    if (operands == null) {
+      return _operands;
+    }
+    return (CompiledValue[]) operands.toArray(new CompiledValue[operands.size()]);
+  }
+
+  /**
+   * @return the operator of the comparison as if its path were on the left, or -1 if a composite
+   *         index can not be used for it
+   */
+  private static int getCompositeIndexOperator(CompiledComparison condition,
+      ExecutionContext context) throws AmbiguousNameException, TypeMismatchException {
+    int operator = condition.reflectOnOperator(condition.getKey(context));
+    switch (operator) {
+      case OQLLexerTokenTypes.TOK_EQ:
+      case OQLLexerTokenTypes.TOK_LT:
+      case OQLLexerTokenTypes.TOK_LE:
+      case OQLLexerTokenTypes.TOK_GT:
+      case OQLLexerTokenTypes.TOK_GE:
+        return operator;
+      default:
+        return -1;
+    }
+  }
+
+  /**
+   * Finds the composite index on the region of the iterator which is looked up by the most
+   * conditions: equality conditions on the first indexed expressions, and at most a lower and an
+   * upper bound on the next one.
+   *
+   * @return the match of the best index, or null if no index matches at least two conditions
+   */
+  private static CompositeIndexMatch getBestCompositeIndexMatch(RuntimeIterator rIter,
+      List<CompiledComparison> conditions, ExecutionContext context)
+      throws AmbiguousNameException, TypeMismatchException, NameResolutionException {
+    Map<String, List<String>> indexedExpressions =
+        QueryUtils.getCompositeIndexedExpressionsIfAny(rIter, context);
+    if (indexedExpressions.isEmpty()) {
+      return null;
+    }
+    int size = conditions.size();
+    String[] paths = new String[size];
+    int[] operators = new int[size];
+    for (int i = 0; i < size; i++) {
+      CompiledComparison condition = conditions.get(i);
+      StringBuilder sb = new StringBuilder();
+      condition.getPath(context).generateCanonicalizedExpression(sb, context);
+      paths[i] = sb.toString();
+      operators[i] = getCompositeIndexOperator(condition, context);
+    }
+    CompositeIndexMatch bestMatch = null;
+    for (Map.Entry<String, List<String>> entry : indexedExpressions.entrySet()) {
+      CompositeIndexMatch match = new CompositeIndexMatch(entry.getKey(), entry.getValue().size());
+      for (String expression : entry.getValue()) {
+        CompiledComparison equality = null;
+        for (int i = 0; i < size && equality == null; i++) {
+          if (operators[i] == OQLLexerTokenTypes.TOK_EQ && paths[i].equals(expression)) {
+            equality = conditions.get(i);
+          }
+        }
+        if (equality != null) {
+          match.equalities.add(equality);
+          continue;
+        }
+        for (int i = 0; i < size; i++) {
+          if (!paths[i].equals(expression)) {
+            continue;
+          }
+          boolean isLowerBound = operators[i] == OQLLexerTokenTypes.TOK_GT
+              || operators[i] == OQLLexerTokenTypes.TOK_GE;
+          if (isLowerBound && match.lowerBound == null) {
+            match.lowerBound = conditions.get(i);
+          } else if (!isLowerBound && match.upperBound == null) {
+            match.upperBound = conditions.get(i);
+          }
+        }
+        break;
+      }
+      int numConditions = match.getConditions().size();
+      if (numConditions >= 2
+          && (bestMatch == null || numConditions > bestMatch.getConditions().size())) {
+        bestMatch = match;
+      }
+    }
+    return bestMatch;
+  }
+
+  /**
+   * The conditions of a junction matching a composite index
+   */
+  private static class CompositeIndexMatch {
+
+    private final String indexedExpression;
+
+    private final int numExpressions;
+
+    private final List<CompiledComparison> equalities = new ArrayList<>();
+
+    private CompiledComparison lowerBound;
+
+    private CompiledComparison upperBound;
+
+    CompositeIndexMatch(String indexedExpression, int numExpressions) {
+      this.indexedExpression = indexedExpression;
+      this.numExpressions = numExpressions;
+    }
+
+    List<CompiledComparison> getConditions() {
+      List<CompiledComparison> conditions = new ArrayList<>(this.equalities);
+      if (this.lowerBound != null) {
+        conditions.add(this.lowerBound);
+      }
+      if (this.upperBound != null) {
+        conditions.add(this.upperBound);
+      }
+      return conditions;
+    }
+
+    /**
+     * Creates the comparisons looking up the index for all the matched conditions: an equality if
+     * there is a condition on every indexed expression, else a lower and an upper bound of the
+     * range of the index keys with the values of the equality conditions as a prefix.
+     */
+    CompiledComparison[] createLookups(ExecutionContext context)
+        throws AmbiguousNameException, TypeMismatchException, NameResolutionException {
+      int numEqualities = this.equalities.size();
+      CompiledComparison range = this.lowerBound != null ? this.lowerBound : this.upperBound;
+      CompiledValue[] paths = new CompiledValue[numEqualities + (range != null ? 1 : 0)];
+      CompiledValue[] prefix = new CompiledValue[numEqualities];
+      for (int i = 0; i < numEqualities; i++) {
+        paths[i] = this.equalities.get(i).getPath(context);
+        prefix[i] = this.equalities.get(i).getKey(context);
+      }
+      if (range != null) {
+        paths[numEqualities] = range.getPath(context);
+      }
+      CompiledValue path = CompiledCompositeKey.createPath(paths, this.indexedExpression);
+
+      CompiledComparison[] lookups;
+      if (numEqualities == this.numExpressions) {
+        lookups = new CompiledComparison[] {new CompiledComparison(path,
+            CompiledCompositeKey.createKey(prefix, 0, 0), OQLLexerTokenTypes.TOK_EQ)};
+      } else {
+        CompiledValue lowerKey;
+        if (this.lowerBound != null) {
+          CompiledValue key = this.lowerBound.getKey(context);
+          int bound = this.lowerBound.reflectOnOperator(key) == OQLLexerTokenTypes.TOK_GT ? 1 : -1;
+          lowerKey = CompiledCompositeKey.createKey(append(prefix, key), bound, 1);
+        } else if (this.upperBound != null) {
+          // null and UNDEFINED are less than no value
+          lowerKey =
+              CompiledCompositeKey.createKey(append(prefix, new CompiledLiteral(null)), 1, 0);
+        } else {
+          lowerKey = CompiledCompositeKey.createKey(prefix, -1, 0);
+        }
+        CompiledValue upperKey;
+        if (this.upperBound != null) {
+          CompiledValue key = this.upperBound.getKey(context);
+          int bound = this.upperBound.reflectOnOperator(key) == OQLLexerTokenTypes.TOK_LT ? -1 : 1;
+          upperKey = CompiledCompositeKey.createKey(append(prefix, key), bound, -1);
+        } else {
+          upperKey = CompiledCompositeKey.createKey(prefix, 1, 0);
+        }
+        lookups = new CompiledComparison[] {
+            new CompiledComparison(path, lowerKey, OQLLexerTokenTypes.TOK_GT),
+            new CompiledComparison(path, upperKey, OQLLexerTokenTypes.TOK_LT)};
+      }
+      for (CompiledComparison lookup : lookups) {
+        lookup.computeDependencies(context);
+      }
+      return lookups;
+    }
+
+    private static CompiledValue[] append(CompiledValue[] prefix, CompiledValue key) {
+      CompiledValue[] keys = Arrays.copyOf(prefix, prefix.length + 1);
+      keys[prefix.length] = key;
+      return keys;
+    }
+  }
+
   /* Package methods */
   public int getOperator() {
     return _operator;
@@ -448,13 +716,14 @@ public class CompiledJunction extends AbstractCompiledValue implements Negatable
    */
   OrganizedOperands organizeOperands(ExecutionContext context) throws FunctionDomainException,
       TypeMismatchException, NameResolutionException, QueryInvocationTargetException {
+    CompiledValue[] operands = getOperands(context);
     // get the list of operands to evaluate, and evaluate operands that can use
     // indexes first.
-    List evalOperands = new ArrayList(_operands.length);
+    List evalOperands = new ArrayList(operands.length);
     int indexCount = 0;
     // TODO: Check if we can defer the creation of this array list only
     // if there exists an eval operand
-    List compositeIterOperands = new ArrayList(_operands.length);
+    List compositeIterOperands = new ArrayList(operands.length);
     // Asif: This Map will contain as key the composite filter operand & as
     // value , the set containing independent RuntimeIterators ( which will
     // necessarily be two )
@@ -464,7 +733,7 @@ public class CompiledJunction extends AbstractCompiledValue implements Negatable
     boolean isJunctionNeeded = false;
     boolean indexExistsOnNonJoinOp = false;
 
-    for (int i = 0; i < _operands.length; i++) {
+    for (int i = 0; i < operands.length; i++) {
       // Asif : If we are inside this function this itself indicates
       // that there exists at least on operand which can be evaluated
       // as an auxFilterEvaluate. If any operand even if its flag of
@@ -481,7 +750,7 @@ public class CompiledJunction extends AbstractCompiledValue implements Negatable
       // We are here itself implies, that any independent operand can be
       // either true or false for an AND junction but always false for an
       // OR Junction.
-      operand = this._operands[i];
+      operand = operands[i];
       if (!operand.isDependentOnCurrentScope(context)) {
         indexCount++;
         // Asif Ensure that independent operands are always at the start
@@ -1047,10 +1316,11 @@ public class CompiledJunction extends AbstractCompiledValue implements Negatable
   public boolean isProjectionEvaluationAPossibility(ExecutionContext context)
       throws FunctionDomainException, TypeMismatchException, NameResolutionException,
       QueryInvocationTargetException {
-    for (int i = 0; i < this._operands.length; ++i) {
+    CompiledValue[] operands = getOperands(context);
+    for (int i = 0; i < operands.length; ++i) {
       // LIKE gives rise to a JUNCTION in CompiledLike whether wildcard is present or not
-      if ((this._operands[i].getType() == JUNCTION || this._operands[i].getType() == LIKE)
-          && this._operands[i].getPlanInfo(context).evalAsFilter) {
+      if ((operands[i].getType() == JUNCTION || operands[i].getType() == LIKE)
+          && operands[i].getPlanInfo(context).evalAsFilter) {
         return false;
       }
     }
@@ -1077,6 +1347,7 @@ public class CompiledJunction extends AbstractCompiledValue implements Negatable
   public boolean isLimitApplicableAtIndexLevel(ExecutionContext context)
       throws FunctionDomainException, TypeMismatchException, NameResolutionException,
       QueryInvocationTargetException {
+    CompiledValue[] operands = getOperands(context);
     if (this._operator == LITERAL_or) {
       // There is a slight inefficiency in the sense that if the subjunction ( say AND) cannot apply
       // limit,
@@ -1084,9 +1355,9 @@ public class CompiledJunction extends AbstractCompiledValue implements Negatable
       // flag
       // governing the behaviour of applying limit at index level, we cannot make it true for
       // specific clauses
-      for (int i = 0; i < this._operands.length; ++i) {
-        if (!this._operands[i].getPlanInfo(context).evalAsFilter
-            || ((Filter) this._operands[i]).isLimitApplicableAtIndexLevel(context)) {
+      for (int i = 0; i < operands.length; ++i) {
+        if (!operands[i].getPlanInfo(context).evalAsFilter
+            || ((Filter) operands[i]).isLimitApplicableAtIndexLevel(context)) {
           return false;
         }
       }
@@ -1102,11 +1373,11 @@ public class CompiledJunction extends AbstractCompiledValue implements Negatable
       // hard coded to use 1 index
       // we can for the time being return true if there exists atleast one indexable condition
       boolean foundIndex = false;
-      for (int i = 0; i < this._operands.length; ++i) {
-        if (this._operands[i].getPlanInfo(context).evalAsFilter
-            && this._operands[i].getType() == JUNCTION) {
+      for (int i = 0; i < operands.length; ++i) {
+        if (operands[i].getPlanInfo(context).evalAsFilter
+            && operands[i].getType() == JUNCTION) {
           return false;
-        } else if (this._operands[i].getPlanInfo(context).evalAsFilter) {
+        } else if (operands[i].getPlanInfo(context).evalAsFilter) {
           foundIndex = true;
         }
       }
@@ -1118,17 +1389,18 @@ public class CompiledJunction extends AbstractCompiledValue implements Negatable
   public boolean isOrderByApplicableAtIndexLevel(ExecutionContext context,
       String canonicalizedOrderByClause) throws FunctionDomainException, TypeMismatchException,
       NameResolutionException, QueryInvocationTargetException {
+    CompiledValue[] operands = getOperands(context);
     if (this._operator == LITERAL_and) {
       // Set<IndexProtocol> usedIndex = new HashSet<IndexProtocol>();
       boolean foundRightIndex = false;
-      for (int i = 0; i < this._operands.length; ++i) {
-        PlanInfo pi = this._operands[i].getPlanInfo(context);
-        if (pi.evalAsFilter && this._operands[i].getType() == JUNCTION) {
+      for (int i = 0; i < operands.length; ++i) {
+        PlanInfo pi = operands[i].getPlanInfo(context);
+        if (pi.evalAsFilter && operands[i].getType() == JUNCTION) {
           return false;
         } else if (pi.evalAsFilter) {
           if (!foundRightIndex) {
             IndexProtocol ip =
-                (IndexProtocol) this._operands[i].getPlanInfo(context).indexes.get(0);
+                (IndexProtocol) operands[i].getPlanInfo(context).indexes.get(0);
             if (ip.getCanonicalizedIndexedExpression().equals(canonicalizedOrderByClause)
                 && pi.isPreferred) {
               foundRightIndex = true;
@@ -0,0 +1,162 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.cache.query.internal;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.geode.cache.query.QueryException;
+import org.apache.geode.cache.query.QueryInvalidException;
+import org.apache.geode.distributed.internal.DistributionConfig;
+import org.apache.geode.internal.cache.CachePerfStats;
+import org.apache.geode.internal.cache.InternalCache;
+
+/**
+ * Caches the compiled form of the query strings of a cache so a query that is run over and over,
+ * usually with different bind arguments, is only parsed and prepared once. A compiled query is
+ * shared by all the {@link DefaultQuery} instances created for its query string, the same way a
+ * {@link DefaultQuery} is shared by all the executions of a parameterized client query.
+ * <p>
+ * Indexes are picked at every execution, so a compiled query does not depend on the indexes that
+ * exist. It does however keep what it resolved against the regions of the query when it was first
+ * prepared, which is why the cache is cleared whenever an index is created or removed or an index
+ * manager is destroyed along with its region.
+ * <p>
+ * The cache holds at most {@link #MAX_SIZE} queries. Once it is full, queries that were not used
+ * since the previous time it was full are removed.
+ */
+public class CompiledQueryCache {
+
+  /**
+   * The maximum number of compiled queries cached. 0 disables the cache.
+   */
+  public static final int MAX_SIZE = Integer
+      .getInteger(DistributionConfig.GEMFIRE_PREFIX + "Query.COMPILED_QUERY_CACHE_SIZE", 1000);
+
+  private final int maxSize;
+
+  private final CachePerfStats stats;
+
+  /**
+   * Queries compiled for a remote execution are prepared differently so they are kept apart
+   */
+  private final ConcurrentMap<String, CompiledQuery> localQueries = new ConcurrentHashMap<>();
+
+  private final ConcurrentMap<String, CompiledQuery> remoteQueries = new ConcurrentHashMap<>();
+
+  public CompiledQueryCache(CachePerfStats stats) {
+    this(MAX_SIZE, stats);
+  }
+
+  CompiledQueryCache(int maxSize, CachePerfStats stats) {
+    this.maxSize = maxSize;
+    this.stats = stats;
+  }
+
+  /**
+   * @return the compiled query for the query string, compiling it if it is not cached
+   * @throws QueryInvalidException if the query string can not be compiled
+   */
+  CompiledQuery get(String queryString, InternalCache cache, boolean isForRemote) {
+    if (this.maxSize <= 0) {
+      return compile(queryString, cache, isForRemote);
+    }
+    ConcurrentMap<String, CompiledQuery> queries =
+        isForRemote ? this.remoteQueries : this.localQueries;
+    CompiledQuery query = queries.get(queryString);
+    if (query != null) {
+      query.used = true;
+      this.stats.incCompiledQueryCacheHits();
+      return query;
+    }
+    this.stats.incCompiledQueryCacheMisses();
+    query = compile(queryString, cache, isForRemote);
+    if (isForRemote && isTransformedOnExecution(query.compiledValue)) {
+      // the first executions of such a query would modify the shared tree concurrently
+      return query;
+    }
+    if (queries.size() >= this.maxSize) {
+      evictUnused(queries);
+    }
+    CompiledQuery existing = queries.putIfAbsent(queryString, query);
+    return existing != null ? existing : query;
+  }
+
+  private void evictUnused(ConcurrentMap<String, CompiledQuery> queries) {
+    for (Iterator<CompiledQuery> it = queries.values().iterator(); it.hasNext();) {
+      CompiledQuery query = it.next();
+      if (query.used) {
+        query.used = false;
+      } else {
+        it.remove();
+      }
+    }
+  }
+
+  private static boolean isTransformedOnExecution(CompiledValue compiledValue) {
+    if (compiledValue instanceof CompiledSelect) {
+      CompiledSelect cs = (CompiledSelect) compiledValue;
+      return cs.isGroupBy() || cs.isOrderBy();
+    }
+    return false;
+  }
+
+  /**
+   * Removes all the compiled queries so they are compiled again the next time they are used
+   */
+  public void clear() {
+    this.localQueries.clear();
+    this.remoteQueries.clear();
+  }
+
+  int size() {
+    return this.localQueries.size() + this.remoteQueries.size();
+  }
+
+  static CompiledQuery compile(String queryString, InternalCache cache, boolean isForRemote) {
+    QCompiler compiler = new QCompiler();
+    CompiledValue compiledValue = compiler.compileQuery(queryString);
+    if (compiledValue instanceof CompiledSelect && !isForRemote) {
+      CompiledSelect cs = (CompiledSelect) compiledValue;
+      if (cs.isGroupBy() || cs.isOrderBy()) {
+        QueryExecutionContext ctx = new QueryExecutionContext(null, cache);
+        try {
+          cs.computeDependencies(ctx);
+        } catch (QueryException qe) {
+          throw new QueryInvalidException("", qe);
+        }
+      }
+    }
+    return new CompiledQuery(compiledValue, compiler.isTraceRequested());
+  }
+
+  static class CompiledQuery {
+
+    final CompiledValue compiledValue;
+
+    final boolean traceRequested;
+
+    /**
+     * Set whenever the query is used and cleared when the cache is full
+     */
+    volatile boolean used = true;
+
+    CompiledQuery(CompiledValue compiledValue, boolean traceRequested) {
+      this.compiledValue = compiledValue;
+      this.traceRequested = traceRequested;
+    }
+  }
+}
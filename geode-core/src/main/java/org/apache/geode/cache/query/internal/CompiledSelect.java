@@ -61,9 +61,6 @@ public class CompiledSelect extends AbstractCompiledValue {
   private boolean count;
   // limits the SelectResults by the number specified.
   private CompiledValue limit;
-  // counts the no of results satisfying where condition for
-  // count(*) non-distinct queries where no indexes are used.
-  private int countStartQueryResult = 0;
 
   protected List<CompiledValue> groupBy = null;
   // Are not serialized and are recreated when compiling the query
@@ -591,6 +588,7 @@ public class CompiledSelect extends AbstractCompiledValue {
         if (this.count) {
           SelectResults res = result;
 
+          int countStartQueryResult = context.getCountStartQueryResult(this)[0];
           if ((this.distinct || evalAsFilters || countStartQueryResult == 0)) {
             // Retrun results as it is as distinct is applied
             // at coordinator node for PR queries.
@@ -816,7 +814,7 @@ public class CompiledSelect extends AbstractCompiledValue {
       if (this.whereClause == null && iterators.size() == 1 && isCount() && !isDistinct()
           && sr instanceof QRegion) {
         QRegion qr = (QRegion) sr;
-        countStartQueryResult = qr.getRegion().size();
+        context.getCountStartQueryResult(this)[0] = qr.getRegion().size();
         return 1;
       }
 
@@ -969,7 +967,7 @@ public class CompiledSelect extends AbstractCompiledValue {
       // Shobhit: If it's a 'COUNT' query and no End processing required Like for 'DISTINCT'
       // we can directly keep count in ResultSet and ResultBag is good enough for that.
       results = new ResultsBag(new ObjectTypeImpl(Integer.class), 1, context.getCachePerfStats());
-      countStartQueryResult = 0;
+      context.getCountStartQueryResult(this)[0] = 0;
       return results;
     }
 
@@ -1187,10 +1185,10 @@ public class CompiledSelect extends AbstractCompiledValue {
       // Shobhit: Add count value to the counter for this select expression.
       // Don't care about Order By for count(*).
       if (isCount() && !this.distinct) {
-        // Counter is local to CompileSelect and not available in ResultSet
+        // Counter is kept in the context and not available in ResultSet
         // until
         // the end of evaluate call to this CompiledSelect object.
-        this.countStartQueryResult++;
+        context.getCountStartQueryResult(this)[0]++;
         occurrence = 1;
       } else {
         // if order by is present
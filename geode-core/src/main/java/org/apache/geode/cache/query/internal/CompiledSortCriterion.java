@@ -94,6 +94,14 @@ public class CompiledSortCriterion extends AbstractCompiledValue {
     return this.columnIndex;
   }
 
+  /**
+   * Returns true if the criterion is the projected field at the column index itself, rather than
+   * an expression evaluated on it
+   */
+  boolean isProjectionField() {
+    return this.expr == ProjectionField.getProjectionField();
+  }
+
   @Override
   public Object evaluate(ExecutionContext context) throws FunctionDomainException,
       TypeMismatchException, NameResolutionException, QueryInvocationTargetException {
@@ -40,8 +40,6 @@ import org.apache.geode.cache.persistence.PartitionOfflineException;
 import org.apache.geode.cache.query.FunctionDomainException;
 import org.apache.geode.cache.query.NameResolutionException;
 import org.apache.geode.cache.query.Query;
-import org.apache.geode.cache.query.QueryException;
-import org.apache.geode.cache.query.QueryInvalidException;
 import org.apache.geode.cache.query.QueryInvocationTargetException;
 import org.apache.geode.cache.query.QueryService;
 import org.apache.geode.cache.query.QueryStatistics;
@@ -174,18 +172,12 @@ public class DefaultQuery implements Query {
    */
   public DefaultQuery(String queryString, InternalCache cache, boolean isForRemote) {
     this.queryString = queryString;
-    QCompiler compiler = new QCompiler();
-    this.compiledQuery = compiler.compileQuery(queryString);
-    CompiledSelect cs = getSimpleSelect();
-    if (cs != null && !isForRemote && (cs.isGroupBy() || cs.isOrderBy())) {
-      QueryExecutionContext ctx = new QueryExecutionContext(null, cache);
-      try {
-        cs.computeDependencies(ctx);
-      } catch (QueryException qe) {
-        throw new QueryInvalidException("", qe);
-      }
-    }
-    this.traceOn = compiler.isTraceRequested() || QUERY_VERBOSE;
+    CompiledQueryCache compiledQueries = cache == null ? null : cache.getCompiledQueryCache();
+    CompiledQueryCache.CompiledQuery compiled = compiledQueries == null
+        ? CompiledQueryCache.compile(queryString, cache, isForRemote)
+        : compiledQueries.get(queryString, cache, isForRemote);
+    this.compiledQuery = compiled.compiledValue;
+    this.traceOn = compiled.traceRequested || QUERY_VERBOSE;
     this.cache = cache;
     this.stats = new DefaultQueryStatistics();
     this.expirationTask = Optional.empty();
@@ -275,7 +267,22 @@ public class DefaultQuery implements Query {
       }
 
       context.setCqQueryContext(this.isCqQuery);
-      result = executeUsingContext(context);
+      QueryResultCache resultCache = this.cache.getQueryResultCache();
+      QueryResultCache.Key resultKey =
+          resultCache == null ? null : resultCache.getKey(this, params, this.cache);
+      QueryResultCache.CachedResult cachedResult =
+          resultKey == null ? null : resultCache.get(resultKey);
+      boolean indexUsed;
+      if (cachedResult != null) {
+        result = cachedResult.result;
+        indexUsed = cachedResult.indexUsed;
+      } else {
+        result = executeUsingContext(context);
+        indexUsed = ((QueryExecutionContext) context).isIndexUsed();
+        if (resultKey != null) {
+          result = resultCache.put(resultKey, result, indexUsed);
+        }
+      }
       // Only wrap/copy results when copy on read is set and an index is used
       // This is because when an index is used, the results are actual references to values in the
       // cache
@@ -293,8 +300,7 @@ public class DefaultQuery implements Query {
       // have the OR condition
       boolean needsCopyOnReadWrapper =
           this.cache.getCopyOnRead() && !DefaultQueryService.COPY_ON_READ_AT_ENTRY_LEVEL
-              || (((QueryExecutionContext) context).isIndexUsed()
-                  && DefaultQueryService.COPY_ON_READ_AT_ENTRY_LEVEL);
+              || (indexUsed && DefaultQueryService.COPY_ON_READ_AT_ENTRY_LEVEL);
       // For local queries returning pdx objects wrap the resultset with
       // ResultsCollectionPdxDeserializerWrapper
       // which deserializes these pdx objects.
@@ -85,12 +85,20 @@ public class ExecutionContext {
    */
   private final Map indpndtItrToRgnMap = new HashMap();
 
+  /**
+   * Counts the no of results satisfying the where condition of each count(*) non-distinct select
+   * where no indexes are used. Kept here rather than in the select as a compiled query can be
+   * evaluated by several threads at once.
+   */
+  private final Map<CompiledSelect, int[]> countStartQueryResults = new HashMap<>();
+
   // used when querying on a PR: Substitute reference to PartitionedRegion with BucketRegion
   private BucketRegion bukRgn = null;
   private PartitionedRegion pr = null;
   private boolean distinct = false;
   private Object currentProjectionField = null;
   private boolean isPRQueryNode = false;
+  private boolean isCombiningBucketResults = false;
 
   /**
    * Param specialIteratorVar name of special variable to use to denote the current iteration
@@ -573,6 +581,10 @@ public class ExecutionContext {
     return this.pr;
   }
 
+  int[] getCountStartQueryResult(CompiledSelect select) {
+    return this.countStartQueryResults.computeIfAbsent(select, k -> new int[1]);
+  }
+
   void cachePut(Object key, Object value) {}
 
   public Object cacheGet(Object key) {
@@ -647,4 +659,16 @@ public class ExecutionContext {
     return this.isPRQueryNode;
   }
 
+  /**
+   * Indicates that the group by results of the buckets of a data store are being merged before they
+   * are sent to the PR query node
+   */
+  public void setIsCombiningBucketResults(boolean isCombiningBucketResults) {
+    this.isCombiningBucketResults = isCombiningBucketResults;
+  }
+
+  public boolean getIsCombiningBucketResults() {
+    return this.isCombiningBucketResults;
+  }
+
 }
@@ -24,6 +24,7 @@ import org.apache.geode.cache.query.FunctionDomainException;
 import org.apache.geode.cache.query.NameResolutionException;
 import org.apache.geode.cache.query.QueryInvocationTargetException;
 import org.apache.geode.cache.query.TypeMismatchException;
+import org.apache.geode.cache.query.internal.index.IndexProtocol;
 
 /**
  * This structure contains the filter evaluable and iter evaluable conditions which are dependent on
@@ -104,6 +105,7 @@ public class GroupJunction extends AbstractGroupOrRangeJunction {
 
         Filter currentBestFilter = null;
         int currentBestFilterSize = -1;
+        IndexProtocol currentBestIndex = null;
         indexCount = 1;
 
         for (int i = 0; i < _operands.length; i++) {
@@ -136,12 +138,14 @@ public class GroupJunction extends AbstractGroupOrRangeJunction {
               // new best
               currentBestFilter = (Filter) _operands[i];
               currentBestFilterSize = ((Filter) _operands[i]).getSizeEstimate(context);
+              currentBestIndex = (IndexProtocol) pi.indexes.get(0);
               foundPreferredCondition = true;
               continue;
             }
             if (currentBestFilter == null) {
               currentBestFilter = (Filter) _operands[i];
               currentBestFilterSize = ((Filter) _operands[i]).getSizeEstimate(context);
+              currentBestIndex = (IndexProtocol) pi.indexes.get(0);
             } else if (foundPreferredCondition || currentBestFilter
                 .isBetterFilter((Filter) _operands[i], context, currentBestFilterSize)) {
               evalOperands.add(_operands[i]);
@@ -151,7 +155,7 @@ public class GroupJunction extends AbstractGroupOrRangeJunction {
               // TODO:Asif: Avoid this call. Let the function which is doing the
               // comparison return some how the size of comparedTo operand.
               currentBestFilterSize = ((Filter) _operands[i]).getSizeEstimate(context);
-
+              currentBestIndex = (IndexProtocol) pi.indexes.get(0);
             }
           } else if (!_operands[i].isDependentOnCurrentScope(context)) {
             // TODO: Asif :Remove this Assert & else if condition after successful
@@ -162,6 +166,8 @@ public class GroupJunction extends AbstractGroupOrRangeJunction {
             evalOperands.add(_operands[i]);
           }
         }
+        QueryObserverHolder.getInstance().afterFilterSelection(currentBestFilter,
+            currentBestIndex, currentBestFilterSize);
         evalOperands.add(0, currentBestFilter);
       }
     } else {
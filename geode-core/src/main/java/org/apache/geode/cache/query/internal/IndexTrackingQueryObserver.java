@@ -42,6 +42,7 @@ public class IndexTrackingQueryObserver extends QueryObserverAdapter {
   private static final ThreadLocal indexInfo = new ThreadLocal();
   private static final ThreadLocal lastKeyUsed = new ThreadLocal();
   private static final ThreadLocal lastIndexUsed = new ThreadLocal();
+  private static final ThreadLocal<Map<Index, Integer>> sizeEstimates = new ThreadLocal<>();
   private volatile TestHook th;
 
   public void beforeIndexLookup(Index index, int oper, Object key) {
@@ -58,6 +59,7 @@ public class IndexTrackingQueryObserver extends QueryObserverAdapter {
       iInfo = new IndexInfo();
     }
     iInfo.addRegionId(index.getRegion().getFullPath());
+    addSizeEstimate(iInfo, index);
     indexMap.put(indexName, iInfo);
     this.lastIndexUsed.set(index);
     this.lastKeyUsed.set(key);
@@ -82,6 +84,7 @@ public class IndexTrackingQueryObserver extends QueryObserverAdapter {
       iInfo = new IndexInfo();
     }
     iInfo.addRegionId(index.getRegion().getFullPath());
+    addSizeEstimate(iInfo, index);
     indexMap.put(index.getName(), iInfo);
     this.lastIndexUsed.set(index);
     if (th != null) {
@@ -89,6 +92,29 @@ public class IndexTrackingQueryObserver extends QueryObserverAdapter {
     }
   }
 
+  /**
+   * remembers the estimated size of the lookup of the index picked by the planner
+   */
+  @Override
+  public void afterFilterSelection(Filter filter, Index index, int sizeEstimate) {
+    Map<Index, Integer> estimates = sizeEstimates.get();
+    if (estimates == null) {
+      estimates = new HashMap<>();
+      sizeEstimates.set(estimates);
+    }
+    estimates.put(index, sizeEstimate);
+  }
+
+  private void addSizeEstimate(IndexInfo iInfo, Index index) {
+    Map<Index, Integer> estimates = sizeEstimates.get();
+    if (estimates != null) {
+      Integer estimate = estimates.remove(index);
+      if (estimate != null) {
+        iInfo.getSizeEstimates().put(index.getRegion().getFullPath(), estimate);
+      }
+    }
+  }
+
   /**
    * appends the size of the lookup to the last index name in the list
    */
@@ -137,6 +163,7 @@ public class IndexTrackingQueryObserver extends QueryObserverAdapter {
       th.hook(4);
     }
     this.indexInfo.set(null);
+    sizeEstimates.set(null);
   }
 
   public void setIndexInfo(Map indexInfoMap) {
@@ -164,10 +191,17 @@ public class IndexTrackingQueryObserver extends QueryObserverAdapter {
     // A {RegionFullPath, results} map for an Index lookup on a Region.
     private Map<String, Integer> results = new Object2ObjectOpenHashMap();
 
+    // A {RegionFullPath, estimated results} map for the lookups picked by the planner.
+    private Map<String, Integer> sizeEstimates = new Object2ObjectOpenHashMap();
+
     public Map getResults() {
       return results;
     }
 
+    public Map<String, Integer> getSizeEstimates() {
+      return sizeEstimates;
+    }
+
     /**
      * Adds a results map (mostly a bucket index lookup results) to the "this" IndexInfo.
      *
@@ -194,11 +228,19 @@ public class IndexTrackingQueryObserver extends QueryObserverAdapter {
       for (Integer i : results.values()) {
         total += i.intValue();
       }
-      return "(Results: " + total + ")";
+      if (sizeEstimates.isEmpty()) {
+        return "(Results: " + total + ")";
+      }
+      long estimated = 0;
+      for (Integer i : sizeEstimates.values()) {
+        estimated += i.intValue();
+      }
+      return "(Results: " + total + ", Estimated: " + estimated + ")";
     }
 
     public void merge(IndexInfo src) {
       this.addResults(src.getResults());
+      this.sizeEstimates.putAll(src.getSizeEstimates());
     }
   }
 
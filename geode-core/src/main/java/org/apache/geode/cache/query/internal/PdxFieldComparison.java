@@ -0,0 +1,164 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.cache.query.internal;
+
+import org.apache.geode.cache.query.TypeMismatchException;
+import org.apache.geode.cache.query.internal.parse.OQLLexerTokenTypes;
+import org.apache.geode.cache.query.internal.types.TypeUtils;
+import org.apache.geode.pdx.FieldType;
+import org.apache.geode.pdx.internal.PdxField;
+import org.apache.geode.pdx.internal.PdxInstanceImpl;
+import org.apache.geode.pdx.internal.PdxString;
+import org.apache.geode.pdx.internal.PdxType;
+
+/**
+ * Compares a field of PDX serialized values with a constant on the serialized form of the values.
+ * The field is looked up once for each PdxType of the values rather than once for each value, and
+ * numeric fields are compared as primitives without being boxed. The comparison follows the rules
+ * of {@link TypeUtils#compare(Object, Object, int)}.
+ *
+ * An instance is created for a single query execution, so it is not thread safe.
+ */
+class PdxFieldComparison implements OQLLexerTokenTypes {
+
+  private final String fieldName;
+
+  /**
+   * Either a Byte, Short, Integer, Long, Float or Double, or a PdxString
+   */
+  private final Object constant;
+
+  /**
+   * The operator with the field on its left hand side
+   */
+  private final int operator;
+
+  private PdxType lastType;
+
+  private PdxField lastField;
+
+  private PdxFieldComparison(String fieldName, Object constant, int operator) {
+    this.fieldName = fieldName;
+    this.constant = constant;
+    this.operator = operator;
+  }
+
+  /**
+   * Creates the comparison of a field path with a literal or a query parameter.
+   *
+   * @param operator the operator with the path on its left hand side
+   * @return null if the constant is neither a number nor a string
+   */
+  static PdxFieldComparison create(CompiledPath path, CompiledValue constant, int operator,
+      ExecutionContext context) {
+    Object value;
+    switch (constant.getType()) {
+      case CompiledValue.LITERAL:
+        value = ((CompiledLiteral) constant)._obj;
+        if (value instanceof String) {
+          value = ((CompiledLiteral) constant).getSavedPdxString();
+        }
+        break;
+      case OQLLexerTokenTypes.QUERY_PARAM:
+        value = ((CompiledBindArgument) constant).evaluate(context);
+        if (value instanceof String) {
+          value = ((CompiledBindArgument) constant).getSavedPdxString(context);
+        }
+        break;
+      default:
+        return null;
+    }
+    if (value instanceof PdxString || value instanceof Integer || value instanceof Long
+        || value instanceof Double || value instanceof Float || value instanceof Short
+        || value instanceof Byte) {
+      return new PdxFieldComparison(path.getTailID(), value, operator);
+    }
+    return null;
+  }
+
+  /**
+   * Compares the field of the value with the constant.
+   *
+   * @return the result of the comparison, or null if the value has no such field or the field is
+   *         not of a type compared here, in which case the field value has to be compared instead
+   */
+  Object compare(PdxInstanceImpl value) throws TypeMismatchException {
+    PdxType type = value.getPdxType();
+    if (type != this.lastType) {
+      this.lastField = type.getPdxField(this.fieldName);
+      this.lastType = type;
+    }
+    PdxField field = this.lastField;
+    if (field == null) {
+      return null;
+    }
+    if (this.constant instanceof PdxString) {
+      if (field.getFieldType() == FieldType.STRING) {
+        return TypeUtils.compare(value.readPdxString(field), this.constant, this.operator);
+      }
+      return null;
+    }
+    Number number = (Number) this.constant;
+    switch (field.getFieldType()) {
+      case BYTE:
+        return compareLong(value.readByte(field), number);
+      case SHORT:
+        return compareLong(value.readShort(field), number);
+      case INT:
+        return compareLong(value.readInt(field), number);
+      case LONG:
+        return compareLong(value.readLong(field), number);
+      case FLOAT:
+        return compareFloat(value.readFloat(field), number);
+      case DOUBLE:
+        return applyOperator(Double.compare(value.readDouble(field), number.doubleValue()));
+      default:
+        return null;
+    }
+  }
+
+  private Boolean compareLong(long fieldValue, Number number) {
+    if (number instanceof Double) {
+      return applyOperator(Double.compare(fieldValue, number.doubleValue()));
+    } else if (number instanceof Float) {
+      return applyOperator(Float.compare((float) (double) fieldValue, number.floatValue()));
+    }
+    return applyOperator(Long.compare(fieldValue, number.longValue()));
+  }
+
+  private Boolean compareFloat(float fieldValue, Number number) {
+    if (number instanceof Double) {
+      return applyOperator(Double.compare(fieldValue, number.doubleValue()));
+    }
+    return applyOperator(Float.compare(fieldValue, (float) number.doubleValue()));
+  }
+
+  private Boolean applyOperator(int result) {
+    switch (this.operator) {
+      case TOK_EQ:
+        return result == 0;
+      case TOK_LT:
+        return result < 0;
+      case TOK_LE:
+        return result <= 0;
+      case TOK_GT:
+        return result > 0;
+      case TOK_GE:
+        return result >= 0;
+      default:
+        return result != 0;
+    }
+  }
+}
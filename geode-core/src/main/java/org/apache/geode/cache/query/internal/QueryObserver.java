@@ -282,4 +282,15 @@ public interface QueryObserver {
    */
   void orderByColumnsEqual();
 
+  /**
+   * Callback issued when a condition is picked to be evaluated using an index because of the
+   * estimated size of its results. It is issued once per junction, only for the condition picked,
+   * and not for the other conditions the junction compared it to.
+   *
+   * @param filter the condition evaluated using the index
+   * @param index the index used to evaluate the condition
+   * @param sizeEstimate the estimated number of results of the condition
+   */
+  void afterFilterSelection(Filter filter, Index index, int sizeEstimate);
+
 }
@@ -278,4 +278,7 @@ public class QueryObserverAdapter implements QueryObserver {
   public void orderByColumnsEqual() {
 
   }
+
+  @Override
+  public void afterFilterSelection(Filter filter, Index index, int sizeEstimate) {}
 }
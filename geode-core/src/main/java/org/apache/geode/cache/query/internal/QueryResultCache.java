@@ -0,0 +1,309 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.cache.query.internal;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.geode.cache.Region;
+import org.apache.geode.cache.query.SelectResults;
+import org.apache.geode.distributed.internal.DistributionConfig;
+import org.apache.geode.internal.cache.CachePerfStats;
+import org.apache.geode.internal.cache.InternalCache;
+import org.apache.geode.internal.cache.LocalRegion;
+import org.apache.geode.internal.cache.PartitionedRegion;
+
+/**
+ * Caches the results of the local queries of a cache, keyed by query string and bind arguments, so
+ * a query run over and over against regions that seldom change is only evaluated once per change.
+ * The cache is disabled unless {@link #SIZE_PROPERTY} is set.
+ * <p>
+ * Every {@link LocalRegion} counts the changes applied to its entries. The counts of the regions
+ * referenced by a query are taken before it is evaluated and kept with its result, and the result
+ * is only returned while none of them changed. Results also expire {@link #TTL_PROPERTY}
+ * milliseconds after they were computed, and results with more than
+ * {@link #MAX_RESULT_SIZE_PROPERTY} elements are not cached.
+ * <p>
+ * Only queries on replicated or local regions without subregions are cached, and only if their
+ * bind arguments are immutable values or regions. Partitioned region queries are not, since most of
+ * their data is on other members, and neither are queries on regions maintaining their indexes
+ * asynchronously, since their indexes lag behind their modification counts. A cached result is
+ * shared by all the executions returning it, so it is returned as an unmodifiable view. The results
+ * of the queries referencing a region are removed when it is destroyed.
+ * <p>
+ * The cache holds at most {@link #SIZE_PROPERTY} results. Once it is full, expired results and
+ * results that were not used since the previous time it was full are removed.
+ */
+public class QueryResultCache {
+
+  /**
+   * The maximum number of query results cached. The default of 0 disables the cache.
+   */
+  public static final String SIZE_PROPERTY =
+      DistributionConfig.GEMFIRE_PREFIX + "Query.RESULT_CACHE_SIZE";
+
+  /**
+   * The number of milliseconds a result is cached for, 60 seconds by default. 0 keeps results until
+   * their regions change.
+   */
+  public static final String TTL_PROPERTY =
+      DistributionConfig.GEMFIRE_PREFIX + "Query.RESULT_CACHE_TTL";
+
+  /**
+   * The maximum number of elements of a cached result, 10000 by default.
+   */
+  public static final String MAX_RESULT_SIZE_PROPERTY =
+      DistributionConfig.GEMFIRE_PREFIX + "Query.RESULT_CACHE_MAX_RESULT_SIZE";
+
+  private final int maxSize;
+
+  private final long ttlNanos;
+
+  private final int maxResultSize;
+
+  private final CachePerfStats stats;
+
+  private final ConcurrentMap<Key, CachedResult> results = new ConcurrentHashMap<>();
+
+  public QueryResultCache(CachePerfStats stats) {
+    this(Integer.getInteger(SIZE_PROPERTY, 0), Long.getLong(TTL_PROPERTY, 60000),
+        Integer.getInteger(MAX_RESULT_SIZE_PROPERTY, 10000), stats);
+  }
+
+  QueryResultCache(int maxSize, long ttlMillis, int maxResultSize, CachePerfStats stats) {
+    this.maxSize = maxSize;
+    this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+    this.maxResultSize = maxResultSize;
+    this.stats = stats;
+  }
+
+  /**
+   * @return false if results are never cached, in which case regions do not count their changes
+   */
+  public boolean isEnabled() {
+    return this.maxSize > 0;
+  }
+
+  /**
+   * Takes the modification counts of the regions of the query, so this must be called before the
+   * query is evaluated.
+   *
+   * @return the key of the result of the query, or null if it can not be cached
+   */
+  Key getKey(DefaultQuery query, Object[] parameters, InternalCache cache) {
+    if (!isEnabled() || query.isCqQuery() || !hasImmutableValues(parameters)) {
+      return null;
+    }
+    Set<String> regionPaths = query.getRegionsInQuery(parameters);
+    LocalRegion[] regions = new LocalRegion[regionPaths.size()];
+    int i = 0;
+    for (String regionPath : regionPaths) {
+      Region region = cache.getRegion(regionPath);
+      if (!(region instanceof LocalRegion) || region instanceof PartitionedRegion
+          || !region.subregions(false).isEmpty()
+          || !region.getAttributes().getIndexMaintenanceSynchronous()) {
+        return null;
+      }
+      regions[i++] = (LocalRegion) region;
+    }
+    return new Key(query.getQueryString(), parameters, query.isRemoteQuery(), regions);
+  }
+
+  private static boolean hasImmutableValues(Object[] parameters) {
+    for (Object parameter : parameters) {
+      if (!(parameter == null || parameter instanceof String || parameter instanceof Boolean
+          || parameter instanceof Character || parameter instanceof Enum
+          || parameter instanceof Region || parameter instanceof Integer
+          || parameter instanceof Long || parameter instanceof Double
+          || parameter instanceof Float || parameter instanceof Short
+          || parameter instanceof Byte || parameter instanceof BigDecimal
+          || parameter instanceof BigInteger)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * @return the cached result for the key, or null if there is none or it is no longer valid
+   */
+  CachedResult get(Key key) {
+    CachedResult cached = this.results.get(key);
+    if (cached != null) {
+      if (!isExpired(cached, System.nanoTime()) && cached.isValidFor(key)) {
+        cached.used = true;
+        this.stats.incQueryResultCacheHits();
+        return cached;
+      }
+      this.results.remove(key, cached);
+      this.stats.incQueryResultCacheInvalidations();
+    }
+    this.stats.incQueryResultCacheMisses();
+    return null;
+  }
+
+  /**
+   * Caches the result evaluated for the key
+   *
+   * @param indexUsed whether the result references the values of the regions instead of copies
+   * @return the result to return to the caller, which is shared with later executions if it was
+   *         cached
+   */
+  Object put(Key key, Object result, boolean indexUsed) {
+    if (result instanceof Collection && ((Collection) result).size() > this.maxResultSize) {
+      return result;
+    }
+    if (result instanceof SelectResults) {
+      result = new UnmodifiableSelectResults((SelectResults) result);
+    }
+    long now = System.nanoTime();
+    if (this.results.size() >= this.maxSize) {
+      evictUnused(now);
+    }
+    this.results.put(key, new CachedResult(key, result, indexUsed, now));
+    return result;
+  }
+
+  /**
+   * Removes the results of the queries referencing a region, so they do not keep it reachable
+   * once it is destroyed
+   */
+  public void removeRegion(LocalRegion region) {
+    for (Iterator<Key> it = this.results.keySet().iterator(); it.hasNext();) {
+      for (LocalRegion keyRegion : it.next().regions) {
+        if (keyRegion == region) {
+          it.remove();
+          break;
+        }
+      }
+    }
+  }
+
+  private boolean isExpired(CachedResult cached, long now) {
+    return this.ttlNanos > 0 && now - cached.computedAt > this.ttlNanos;
+  }
+
+  private void evictUnused(long now) {
+    for (Iterator<CachedResult> it = this.results.values().iterator(); it.hasNext();) {
+      CachedResult cached = it.next();
+      if (cached.used && !isExpired(cached, now)) {
+        cached.used = false;
+      } else {
+        it.remove();
+      }
+    }
+  }
+
+  int size() {
+    return this.results.size();
+  }
+
+  static class Key {
+
+    private final String queryString;
+
+    private final List<Object> parameters;
+
+    private final boolean isRemoteQuery;
+
+    private final int hashCode;
+
+    final LocalRegion[] regions;
+
+    final long[] modificationCounts;
+
+    Key(String queryString, Object[] parameters, boolean isRemoteQuery, LocalRegion[] regions) {
+      this.queryString = queryString;
+      this.parameters = Arrays.asList(parameters.clone());
+      this.isRemoteQuery = isRemoteQuery;
+      this.hashCode = 31 * queryString.hashCode() + this.parameters.hashCode();
+      this.regions = regions;
+      this.modificationCounts = new long[regions.length];
+      for (int i = 0; i < regions.length; i++) {
+        this.modificationCounts[i] = regions[i].getModificationCount();
+      }
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (this == obj) {
+        return true;
+      }
+      if (!(obj instanceof Key)) {
+        return false;
+      }
+      Key other = (Key) obj;
+      return this.isRemoteQuery == other.isRemoteQuery
+          && this.queryString.equals(other.queryString)
+          && this.parameters.equals(other.parameters);
+    }
+
+    @Override
+    public int hashCode() {
+      return this.hashCode;
+    }
+  }
+
+  static class CachedResult {
+
+    final Object result;
+
+    final boolean indexUsed;
+
+    private final LocalRegion[] regions;
+
+    private final long[] modificationCounts;
+
+    private final long computedAt;
+
+    /**
+     * Set whenever the result is used and cleared when the cache is full
+     */
+    volatile boolean used = true;
+
+    CachedResult(Key key, Object result, boolean indexUsed, long computedAt) {
+      this.result = result;
+      this.indexUsed = indexUsed;
+      this.regions = key.regions;
+      this.modificationCounts = key.modificationCounts;
+      this.computedAt = computedAt;
+    }
+
+    /**
+     * @return true if the regions of the key are the ones the result was computed against and
+     *         did not change since
+     */
+    boolean isValidFor(Key key) {
+      if (this.regions.length != key.regions.length) {
+        return false;
+      }
+      for (int i = 0; i < this.regions.length; i++) {
+        if (this.regions[i] != key.regions[i]
+            || this.modificationCounts[i] != key.modificationCounts[i]) {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+}
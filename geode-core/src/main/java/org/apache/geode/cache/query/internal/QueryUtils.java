@@ -25,6 +25,7 @@ import java.util.Set;
 
 import org.apache.logging.log4j.Logger;
 
+import org.apache.geode.cache.Region;
 import org.apache.geode.cache.query.AmbiguousNameException;
 import org.apache.geode.cache.query.FunctionDomainException;
 import org.apache.geode.cache.query.Index;
@@ -944,6 +945,26 @@ public class QueryUtils {
     return indexData;
   }
 
+  /**
+   * Returns the indexed expressions of the composite indexes of the region the independent
+   * iterator iterates over, see {@link IndexManager#getCompositeIndexedExpressions()}. There are
+   * none if the iterator is of a different scope or is not on a region.
+   */
+  static Map<String, List<String>> getCompositeIndexedExpressionsIfAny(RuntimeIterator rIter,
+      ExecutionContext context) {
+    String regionPath = null;
+    if (rIter.getScopeID() != context.currentScope().getScopeID()
+        || (regionPath = context.getRegionPathForIndependentRuntimeIterator(rIter)) == null) {
+      return Collections.emptyMap();
+    }
+    Region region = context.getCache().getRegion(regionPath);
+    IndexManager indexManager = IndexUtils.getIndexManager(context.getCache(), region, false);
+    if (indexManager == null) {
+      return Collections.emptyMap();
+    }
+    return indexManager.getCompositeIndexedExpressions();
+  }
+
   /**
    * Conditions the raw index result obtained on a non composite condition ( i.e a condition with a
    * format of variable = constant . A constant may be either a CompiledLiteral or an expression
@@ -0,0 +1,101 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.cache.query.internal;
+
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.geode.cache.query.SelectResults;
+import org.apache.geode.cache.query.types.CollectionType;
+import org.apache.geode.cache.query.types.ObjectType;
+
+/**
+ * Read only view of a {@link SelectResults} that is shared by several query executions, see
+ * {@link QueryResultCache}. Every operation that would modify the results throws
+ * {@link UnsupportedOperationException}, and {@link #asSet()} and {@link #asList()} return copies.
+ */
+class UnmodifiableSelectResults<E> extends AbstractCollection<E> implements SelectResults<E> {
+
+  private final SelectResults<E> results;
+
+  UnmodifiableSelectResults(SelectResults<E> results) {
+    this.results = results;
+  }
+
+  @Override
+  public Iterator<E> iterator() {
+    final Iterator<E> iterator = this.results.iterator();
+    return new Iterator<E>() {
+      @Override
+      public boolean hasNext() {
+        return iterator.hasNext();
+      }
+
+      @Override
+      public E next() {
+        return iterator.next();
+      }
+    };
+  }
+
+  @Override
+  public int size() {
+    return this.results.size();
+  }
+
+  @Override
+  public boolean contains(Object o) {
+    return this.results.contains(o);
+  }
+
+  @Override
+  public boolean isModifiable() {
+    return false;
+  }
+
+  @Override
+  public int occurrences(E element) {
+    return this.results.occurrences(element);
+  }
+
+  @Override
+  public Set<E> asSet() {
+    return new HashSet<>(this);
+  }
+
+  @Override
+  public List<E> asList() {
+    return new ArrayList<>(this);
+  }
+
+  @Override
+  public CollectionType getCollectionType() {
+    return this.results.getCollectionType();
+  }
+
+  @Override
+  public void setElementType(ObjectType elementType) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public String toString() {
+    return this.results.toString();
+  }
+}
@@ -0,0 +1,44 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.cache.query.internal.aggregate;
+
+/**
+ * Merges the partial averages computed on the bucket nodes of a data store, so that a single
+ * partial average per group is sent to the PR query node.
+ *
+ */
+public class AvgBucketResultsCombiner extends Sum {
+  private int count = 0;
+
+  /**
+   * Takes the two element arrays computed by the bucket nodes. The first element is the number of
+   * values, while the second element is the sum of the values.
+   */
+  @Override
+  public void accumulate(Object value) {
+    Object[] array = (Object[]) value;
+    this.count += ((Integer) array[0]).intValue();
+    super.accumulate(array[1]);
+  }
+
+  /**
+   * Returns a two element array of the total number of values & the computed sum of the values.
+   */
+  @Override
+  public Object terminate() {
+    return new Object[] {Integer.valueOf(count), super.terminate()};
+  }
+
+}
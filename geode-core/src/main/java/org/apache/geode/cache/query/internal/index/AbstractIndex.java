@@ -23,7 +23,11 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
@@ -61,6 +65,7 @@ import org.apache.geode.cache.query.internal.Support;
 import org.apache.geode.cache.query.internal.index.IndexStore.IndexStoreEntry;
 import org.apache.geode.cache.query.internal.parse.OQLLexerTokenTypes;
 import org.apache.geode.cache.query.internal.types.StructTypeImpl;
+import org.apache.geode.cache.query.internal.types.TypeUtils;
 import org.apache.geode.cache.query.types.ObjectType;
 import org.apache.geode.internal.Assert;
 import org.apache.geode.internal.cache.BucketRegion;
@@ -113,7 +118,7 @@ public abstract class AbstractIndex implements IndexProtocol {
 
   final String[] canonicalizedDefinitions;
 
-  private boolean isValid;
+  private volatile boolean isValid;
 
   protected IndexedExpressionEvaluator evaluator;
 
@@ -140,6 +145,18 @@ public abstract class AbstractIndex implements IndexProtocol {
   /** Flag to indicate if the index is populated with data */
   volatile boolean isPopulated = false;
 
+  /** Histogram of the index keys, null until built after the first range lookup estimate */
+  private volatile IndexHistogram histogram;
+
+  /** Number of updates of this index since its histogram was built */
+  private final LongAdder updatesSinceHistogramBuilt = new LongAdder();
+
+  /** Set while the histogram is built, so that only one build of it is scheduled at a time */
+  private final AtomicBoolean buildingHistogram = new AtomicBoolean();
+
+  /** Set once {@link #buildHistogram()} returned null, this index does not keep a histogram */
+  private volatile boolean noHistogram;
+
   AbstractIndex(InternalCache cache, String indexName, Region region, String fromClause,
       String indexedExpression, String projectionAttributes, String originalFromClause,
       String originalIndexedExpression, String[] defintions, IndexStatistics stats) {
@@ -200,6 +217,103 @@ public abstract class AbstractIndex implements IndexProtocol {
     long end = System.nanoTime();
     this.internalIndexStats.incUpdatesInProgress(-1);
     this.internalIndexStats.incUpdateTime(end - start);
+    this.updatesSinceHistogramBuilt.increment();
+  }
+
+  /**
+   * Returns the histogram of the keys of this index used to estimate the size of range lookups. If
+   * it was not built yet or if this index was updated too much since, a new one is built on the
+   * histogram builder thread and the previous histogram is returned meanwhile, so that the query
+   * threads never scan the index keys.
+   *
+   * @return the histogram or null if this index does not keep one or if its first one is not built
+   *         yet
+   */
+  IndexHistogram getHistogram() {
+    IndexHistogram current = this.histogram;
+    if (!this.noHistogram && isValid()
+        && (current == null || current.isStale(this.updatesSinceHistogramBuilt.sum()))
+        && this.buildingHistogram.compareAndSet(false, true)) {
+      try {
+        getHistogramBuilder().execute(this::rebuildHistogram);
+      } catch (RejectedExecutionException e) {
+        this.buildingHistogram.set(false);
+      }
+    }
+    return current;
+  }
+
+  /**
+   * Returns the executor building the histograms, see {@link IndexManager#getHistogramBuilder()}
+   *
+   * @throws RejectedExecutionException if the region of this index was destroyed
+   */
+  Executor getHistogramBuilder() {
+    Region indexedRegion = this.region instanceof BucketRegion
+        ? ((BucketRegion) this.region).getPartitionedRegion() : this.region;
+    IndexManager indexManager = IndexUtils.getIndexManager(this.cache, indexedRegion, false);
+    if (indexManager == null) {
+      throw new RejectedExecutionException(
+          "Region " + indexedRegion.getFullPath() + " has no indexes");
+    }
+    return indexManager.getHistogramBuilder();
+  }
+
+  private void rebuildHistogram() {
+    try {
+      IndexHistogram current = this.histogram;
+      if (current == null || current.isStale(this.updatesSinceHistogramBuilt.sum())) {
+        this.updatesSinceHistogramBuilt.reset();
+        current = buildHistogram();
+        if (!isValid()) {
+          // the index was removed while its histogram was built
+          return;
+        }
+        if (current == null) {
+          this.noHistogram = true;
+          return;
+        }
+        this.internalIndexStats.incNumHistogramBuilds();
+        this.histogram = current;
+      }
+    } catch (RuntimeException e) {
+      // the previous histogram is kept, another one is built on the next estimate
+      if (logger.isDebugEnabled()) {
+        logger.debug("Failed to build the histogram of index {}", getName(), e);
+      }
+    } finally {
+      this.buildingHistogram.set(false);
+    }
+  }
+
+  /**
+   * Must be implemented by the indexes whose range lookups are estimated using a histogram.
+   *
+   * @return a histogram of the current keys of this index
+   */
+  IndexHistogram buildHistogram() {
+    return null;
+  }
+
+  /**
+   * Estimates the number of values a range lookup on this index returns using its histogram.
+   *
+   * @return the estimate, Integer.MAX_VALUE if the lookup can not be estimated or -1 if this index
+   *         does not keep a histogram or does not have one yet
+   */
+  int getHistogramSizeEstimate(Object key, int operator, int matchLevel)
+      throws TypeMismatchException {
+    if (matchLevel > 0 || key == null || key == IndexManager.NULL
+        || key == QueryService.UNDEFINED) {
+      return Integer.MAX_VALUE;
+    }
+    IndexHistogram histogram = getHistogram();
+    if (histogram == null) {
+      return -1;
+    }
+    key = TypeUtils.indexKeyFor(key);
+    key = getPdxStringForIndexedPdxKeys(key);
+    return histogram.getSizeEstimate(key, operator);
   }
 
   long updateIndexUseStats() {
@@ -930,6 +1044,8 @@ public abstract class AbstractIndex implements IndexProtocol {
     public void incReadLockCount(int delta) {}
 
     public void incNumBucketIndexes(int delta) {}
+
+    public void incNumHistogramBuilds() {}
   }
 
   class IMQEvaluator implements IndexedExpressionEvaluator {
@@ -0,0 +1,278 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.cache.query.internal.index;
+
+import java.util.Collection;
+import java.util.Iterator;
+
+import org.apache.geode.cache.EntryDestroyedException;
+import org.apache.geode.cache.Region;
+import org.apache.geode.cache.query.TypeMismatchException;
+import org.apache.geode.cache.query.internal.index.AbstractIndex.InternalIndexStatistics;
+import org.apache.geode.cache.query.internal.parse.OQLLexerTokenTypes;
+import org.apache.geode.cache.query.internal.types.TypeUtils;
+import org.apache.geode.internal.cache.CachedDeserializable;
+import org.apache.geode.internal.cache.InternalCache;
+import org.apache.geode.internal.cache.LocalRegion;
+import org.apache.geode.internal.cache.RegionEntry;
+import org.apache.geode.internal.cache.Token;
+
+/**
+ * The base of the index stores which keep the index keys and the region entries they map to in
+ * memory. It gets the objects of interest from the region entries and wraps them in the entries
+ * returned by the iterators of the store.
+ */
+abstract class AbstractMemoryIndexStore implements IndexStore {
+
+  final InternalIndexStatistics internalIndexStats;
+
+  final InternalCache cache;
+
+  final Region region;
+
+  private boolean indexOnRegionKeys;
+
+  private boolean indexOnValues;
+
+  AbstractMemoryIndexStore(Region region, InternalIndexStatistics internalIndexStats,
+      InternalCache cache) {
+    this.region = region;
+    this.internalIndexStats = internalIndexStats;
+    this.cache = cache;
+  }
+
+  /**
+   * @return an iterator over the keys of this store in ascending order, without the null and
+   *         undefined keys
+   */
+  public abstract Iterator<IndexStoreEntry> getKeysIterator();
+
+  /**
+   * Builds a histogram of the keys of this store
+   */
+  abstract IndexHistogram buildHistogram(int maxBuckets);
+
+  @Override
+  public boolean isIndexOnRegionKeys() {
+    return indexOnRegionKeys;
+  }
+
+  @Override
+  public void setIndexOnRegionKeys(boolean indexOnRegionKeys) {
+    this.indexOnRegionKeys = indexOnRegionKeys;
+  }
+
+  @Override
+  public boolean isIndexOnValues() {
+    return indexOnValues;
+  }
+
+  @Override
+  public void setIndexOnValues(boolean indexOnValues) {
+    this.indexOnValues = indexOnValues;
+  }
+
+  /**
+   * Get the object of interest from the region entry. For now it always gets the deserialized
+   * value.
+   */
+  @Override
+  public Object getTargetObject(RegionEntry entry) {
+    if (indexOnValues) {
+      Object o = entry.getValue((LocalRegion) this.region);
+      try {
+        if (o == Token.INVALID) {
+          return null;
+        }
+        if (o instanceof CachedDeserializable) {
+          return ((CachedDeserializable) o).getDeserializedValue(this.region, entry);
+        }
+      } catch (EntryDestroyedException ignore) {
+        return null;
+      }
+      return o;
+    } else if (indexOnRegionKeys) {
+      return entry.getKey();
+    }
+    return new CachedEntryWrapper(((LocalRegion) this.region).new NonTXEntry(entry));
+  }
+
+  @Override
+  public Object getTargetObjectInVM(RegionEntry entry) {
+    if (indexOnValues) {
+      Object o = entry.getValueInVM((LocalRegion) this.region);
+      try {
+        if (o == Token.INVALID) {
+          return null;
+        }
+        if (o instanceof CachedDeserializable) {
+          return ((CachedDeserializable) o).getDeserializedValue(this.region, entry);
+        }
+      } catch (EntryDestroyedException ede) {
+        return null;
+      }
+      return o;
+    } else if (indexOnRegionKeys) {
+      return entry.getKey();
+    }
+    return ((LocalRegion) this.region).new NonTXEntry(entry);
+  }
+
+  Object getTargetObjectForUpdate(RegionEntry entry) {
+    if (indexOnValues) {
+      Object o = entry.getValue((LocalRegion) this.region);
+      try {
+        if (o == Token.INVALID) {
+          return Token.INVALID;
+        }
+        if (o instanceof CachedDeserializable) {
+          return ((CachedDeserializable) o).getDeserializedValue(this.region, entry);
+        }
+      } catch (EntryDestroyedException ede) {
+        return Token.INVALID;
+      }
+      return o;
+    } else if (indexOnRegionKeys) {
+      return entry.getKey();
+    }
+    return ((LocalRegion) this.region).new NonTXEntry(entry);
+  }
+
+  /**
+   * Removes the key from the keys to remove if it is equal to one of them
+   *
+   * @return true if the key was removed
+   */
+  static boolean removeFromKeysToRemove(Collection keysToRemove, Object key) {
+    Iterator iterator = keysToRemove.iterator();
+    while (iterator.hasNext()) {
+      try {
+        if (TypeUtils.compare(key, iterator.next(), OQLLexerTokenTypes.TOK_EQ)
+            .equals(Boolean.TRUE)) {
+          iterator.remove();
+          return true;
+        }
+      } catch (TypeMismatchException e) {
+        // they are not equals, so we just continue iterating
+      }
+    }
+    return false;
+  }
+
+  class MemoryIndexStoreKey implements IndexStoreEntry {
+    private Object indexKey;
+
+    public MemoryIndexStoreKey(Object indexKey) {
+      this.indexKey = indexKey;
+    }
+
+    @Override
+
+    public Object getDeserializedKey() {
+      return indexKey;
+    }
+
+    @Override
+    public Object getDeserializedValue() {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Object getDeserializedRegionKey() {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean isUpdateInProgress() {
+      throw new UnsupportedOperationException();
+    }
+  }
+
+  /**
+   * A wrapper over an entry of the index. It maps IndexKey -> RegionEntry
+   */
+  class MemoryIndexStoreEntry implements IndexStoreEntry {
+    private Object deserializedIndexKey;
+    private RegionEntry regionEntry;
+    private boolean updateInProgress;
+    private Object value;
+    private long iteratorStartTime;
+
+    MemoryIndexStoreEntry(long iteratorStartTime) {
+      this.iteratorStartTime = iteratorStartTime;
+    }
+
+    public void setMemoryIndexStoreEntry(Object deserializedIndexKey, RegionEntry regionEntry) {
+      this.deserializedIndexKey = deserializedIndexKey;
+      this.regionEntry = regionEntry;
+      this.updateInProgress = regionEntry.isUpdateInProgress();
+      this.value = getTargetObject(regionEntry);
+    }
+
+    @Override
+    public Object getDeserializedKey() {
+      return deserializedIndexKey;
+    }
+
+    @Override
+    public Object getDeserializedValue() {
+      return value;
+    }
+
+    @Override
+    public Object getDeserializedRegionKey() {
+      return regionEntry.getKey();
+    }
+
+    public RegionEntry getRegionEntry() {
+      return regionEntry;
+    }
+
+    @Override
+    public boolean isUpdateInProgress() {
+      return updateInProgress || regionEntry.isUpdateInProgress()
+      // The index update could have started just before the iterator was created. The entry still
+      // needs to be re-evaluated in this case.
+          || IndexManager.needsRecalculation(iteratorStartTime, regionEntry.getLastModified());
+    }
+  }
+
+  class CachedEntryWrapper {
+
+    private Object key, value;
+
+    public CachedEntryWrapper(LocalRegion.NonTXEntry entry) {
+      if (IndexManager.testHook != null) {
+        IndexManager.testHook.hook(201);
+      }
+      this.key = entry.getKey();
+      this.value = entry.getValue();
+    }
+
+    public Object getKey() {
+      return this.key;
+    }
+
+    public Object getValue() {
+      return this.value;
+    }
+
+    public String toString() {
+      return new StringBuilder("CachedEntryWrapper@")
+          .append(Integer.toHexString(System.identityHashCode(this))).append(' ').append(this.key)
+          .append(' ').append(this.value).toString();
+    }
+  }
+}
@@ -56,7 +56,6 @@ import org.apache.geode.cache.query.internal.StructImpl;
 import org.apache.geode.cache.query.internal.Support;
 import org.apache.geode.cache.query.internal.index.IndexManager.TestHook;
 import org.apache.geode.cache.query.internal.index.IndexStore.IndexStoreEntry;
-import org.apache.geode.cache.query.internal.index.MemoryIndexStore.MemoryIndexStoreEntry;
 import org.apache.geode.cache.query.internal.parse.OQLLexerTokenTypes;
 import org.apache.geode.cache.query.internal.types.StructTypeImpl;
 import org.apache.geode.cache.query.internal.types.TypeUtils;
@@ -102,6 +101,9 @@ public class CompactRangeIndex extends AbstractIndex {
     if (IndexManager.IS_TEST_LDM) {
       indexStore = new MapIndexStore(
           ((LocalRegion) region).getIndexMap(indexName, indexedExpression, origFromClause), region);
+    } else if (IndexManager.PRIMITIVE_INDEX_STORE || IndexManager.TEST_PRIMITIVE_INDEX_STORE) {
+      indexStore =
+          new PrimitiveIndexStore(region, internalIndexStats, (InternalCache) region.getCache());
     } else {
       indexStore =
           new MemoryIndexStore(region, internalIndexStats, (InternalCache) region.getCache());
@@ -199,11 +201,11 @@ public class CompactRangeIndex extends AbstractIndex {
     Iterator inner = null;
     try {
       // We will iterate over each of the index Map to obtain the keys
-      outer = ((MemoryIndexStore) indexStore).getKeysIterator();
+      outer = ((AbstractMemoryIndexStore) indexStore).getKeysIterator();
 
       if (indx instanceof CompactRangeIndex) {
         IndexStore indexStore = ((CompactRangeIndex) indx).getIndexStorage();
-        inner = ((MemoryIndexStore) indexStore).getKeysIterator();
+        inner = ((AbstractMemoryIndexStore) indexStore).getKeysIterator();
 
       } else {
         inner = ((RangeIndex) indx).getValueToEntriesMap().entrySet().iterator();
@@ -292,7 +294,7 @@ public class CompactRangeIndex extends AbstractIndex {
     CompactRangeIndex index = (CompactRangeIndex) indexInfo._getIndex();
     RuntimeIterator runtimeItr = index.getRuntimeIteratorForThisIndex(context, indexInfo);
     if (runtimeItr != null) {
-      runtimeItr.setCurrent(((MemoryIndexStoreEntry) entry).getDeserializedValue());
+      runtimeItr.setCurrent(entry.getDeserializedValue());
     }
     return evaluateEntry(indexInfo, context, keyVal);
   }
@@ -322,12 +324,16 @@ public class CompactRangeIndex extends AbstractIndex {
           break;
         case OQLLexerTokenTypes.TOK_LE:
         case OQLLexerTokenTypes.TOK_LT:
+          if (CompactRangeIndex.testHook != null) {
+            CompactRangeIndex.testHook.hook(1);
+          }
+          size = getHistogramSizeEstimate(key, operator, matchLevel);
+          if (size >= 0) {
+            break;
+          }
           if (matchLevel <= 0 && (key instanceof Number)) {
 
             int totalSize = indexStore.size();
-            if (CompactRangeIndex.testHook != null) {
-              CompactRangeIndex.testHook.hook(1);
-            }
             if (totalSize > 1) {
               Number keyAsNum = (Number) key;
               int x = 0;
@@ -371,7 +377,7 @@ public class CompactRangeIndex extends AbstractIndex {
                   iter1.close();
                 }
                 if (iter2 != null) {
-                  iter1.close();
+                  iter2.close();
                 }
               }
 
@@ -386,11 +392,15 @@ public class CompactRangeIndex extends AbstractIndex {
 
         case OQLLexerTokenTypes.TOK_GE:
         case OQLLexerTokenTypes.TOK_GT:
+          if (CompactRangeIndex.testHook != null) {
+            CompactRangeIndex.testHook.hook(2);
+          }
+          size = getHistogramSizeEstimate(key, operator, matchLevel);
+          if (size >= 0) {
+            break;
+          }
           if (matchLevel <= 0 && (key instanceof Number)) {
             int totalSize = indexStore.size();
-            if (CompactRangeIndex.testHook != null) {
-              CompactRangeIndex.testHook.hook(2);
-            }
             if (totalSize > 1) {
               Number keyAsNum = (Number) key;
               int x = 0;
@@ -433,6 +443,9 @@ public class CompactRangeIndex extends AbstractIndex {
                 if (iter1 != null) {
                   iter1.close();
                 }
+                if (iter2 != null) {
+                  iter2.close();
+                }
               }
             } else {
               // not attempting to differentiate between GT & GE
@@ -456,6 +469,15 @@ public class CompactRangeIndex extends AbstractIndex {
     return size;
   }
 
+  @Override
+  IndexHistogram buildHistogram() {
+    if (this.indexStore instanceof AbstractMemoryIndexStore) {
+      return ((AbstractMemoryIndexStore) this.indexStore)
+          .buildHistogram(IndexHistogram.MAX_BUCKETS);
+    }
+    return null;
+  }
+
   /** Method called while appropriate lock held on index */
   private void lockedQueryPrivate(Object key, int operator, Collection results,
       CompiledValue iterOps, RuntimeIterator runtimeItr, ExecutionContext context, Set keysToRemove,
@@ -1018,6 +1040,10 @@ public class CompactRangeIndex extends AbstractIndex {
       this.vsdStats.incReadLockCount(delta);
     }
 
+    public void incNumHistogramBuilds() {
+      this.vsdStats.incNumHistogramBuilds();
+    }
+
     /**
      * Returns the total amount of time (in nanoseconds) spent updating this index.
      */
@@ -0,0 +1,169 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.cache.query.internal.index;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Date;
+
+import org.apache.geode.cache.query.QueryService;
+import org.apache.geode.cache.query.internal.types.TypeUtils;
+import org.apache.geode.pdx.internal.PdxString;
+
+/**
+ * The key of a composite index, an index over more than one expression. The keys are ordered on
+ * their first component, then on their second one and so on, so all the keys sharing a prefix are
+ * next to each other in the index.
+ * <p>
+ * A key used to look up the index may have fewer components than the keys of the index, and a
+ * bound telling where it sorts compared to the keys it is a prefix of: a bound of -1 puts it before
+ * all of them, a bound of +1 after all of them. A lookup key with all the components and a bound of
+ * -1 or +1 sorts just before or just after the key with the same components. This lets a range
+ * lookup on the index find all the keys with a prefix, and all the keys with a prefix and a range
+ * on the next component.
+ * <p>
+ * Within a component UNDEFINED sorts before null, and null sorts before any other value, the same
+ * order the keys of a single expression index have.
+ */
+public class CompositeIndexKey implements Comparable {
+
+  private static final Comparator NUMERIC_COMPARATOR = TypeUtils.getNumericComparator();
+
+  private static final Comparator TEMPORAL_COMPARATOR = TypeUtils.getTemporalComparator();
+
+  private final Object[] components;
+
+  private final int bound;
+
+  /**
+   * Creates the key of an entry of a composite index
+   *
+   * @param components the values of the indexed expressions, with null values replaced by
+   *        {@link IndexManager#NULL}
+   */
+  public CompositeIndexKey(Object[] components) {
+    this(components, 0);
+  }
+
+  /**
+   * Creates a key to look up a composite index
+   *
+   * @param components the values of the first indexed expressions
+   * @param bound -1, 0 or +1 to sort before, with or after the keys having these components as a
+   *        prefix
+   */
+  public CompositeIndexKey(Object[] components, int bound) {
+    this.components = components;
+    this.bound = bound;
+  }
+
+  public Object[] getComponents() {
+    return this.components;
+  }
+
+  public int getBound() {
+    return this.bound;
+  }
+
+  @Override
+  public int compareTo(Object o) {
+    if (!(o instanceof CompositeIndexKey)) {
+      // the UNDEFINED and null keys sort before any other key
+      return 1;
+    }
+    CompositeIndexKey other = (CompositeIndexKey) o;
+    int length = Math.min(this.components.length, other.components.length);
+    for (int i = 0; i < length; i++) {
+      int result = compareComponents(this.components[i], other.components[i]);
+      if (result != 0) {
+        return result;
+      }
+    }
+    if (this.components.length == other.components.length) {
+      return Integer.compare(this.bound, other.bound);
+    } else if (this.components.length < other.components.length) {
+      return this.bound > 0 ? 1 : -1;
+    } else {
+      return other.bound > 0 ? -1 : 1;
+    }
+  }
+
+  static int compareComponents(Object component1, Object component2) {
+    if (component1 == component2) {
+      return 0;
+    }
+    int rank1 = rank(component1);
+    int rank2 = rank(component2);
+    if (rank1 != 2 || rank2 != 2) {
+      return Integer.compare(rank1, rank2);
+    }
+    if (component1 instanceof PdxString && component2 instanceof String) {
+      component2 = new PdxString((String) component2);
+    } else if (component1 instanceof String && component2 instanceof PdxString) {
+      component1 = new PdxString((String) component1);
+    }
+    try {
+      if (component1 instanceof Number && component2 instanceof Number
+          && component1.getClass() != component2.getClass()) {
+        return NUMERIC_COMPARATOR.compare(component1, component2);
+      } else if (component1 instanceof Date && component2 instanceof Date) {
+        return TEMPORAL_COMPARATOR.compare(component1, component2);
+      }
+      return ((Comparable) component1).compareTo(component2);
+    } catch (ClassCastException e) {
+      // values of different types can not be compared, keep them apart ordered on their type
+      return component1.getClass().getName().compareTo(component2.getClass().getName());
+    }
+  }
+
+  private static int rank(Object component) {
+    if (component == null || component == QueryService.UNDEFINED) {
+      return 0;
+    } else if (component == IndexManager.NULL) {
+      return 1;
+    }
+    return 2;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    return this == o || o instanceof CompositeIndexKey && compareTo(o) == 0;
+  }
+
+  @Override
+  public int hashCode() {
+    int result = this.bound;
+    for (Object component : this.components) {
+      int hash;
+      if (component instanceof Number) {
+        hash = Double.hashCode(((Number) component).doubleValue());
+      } else if (component instanceof PdxString) {
+        hash = component.toString().hashCode();
+      } else if (component instanceof Date) {
+        hash = Long.hashCode(((Date) component).getTime());
+      } else {
+        hash = component == null ? 0 : component.hashCode();
+      }
+      result = 31 * result + hash;
+    }
+    return result;
+  }
+
+  @Override
+  public String toString() {
+    String result = Arrays.toString(this.components);
+    return this.bound == 0 ? result : result + (this.bound < 0 ? "-" : "+");
+  }
+}
@@ -26,6 +26,7 @@ import org.apache.geode.cache.query.NameResolutionException;
 import org.apache.geode.cache.query.TypeMismatchException;
 import org.apache.geode.cache.query.internal.CompiledBindArgument;
 import org.apache.geode.cache.query.internal.CompiledComparison;
+import org.apache.geode.cache.query.internal.CompiledCompositeKey;
 import org.apache.geode.cache.query.internal.CompiledFunction;
 import org.apache.geode.cache.query.internal.CompiledID;
 import org.apache.geode.cache.query.internal.CompiledIndexOperation;
@@ -433,20 +434,12 @@ class FunctionalIndexCreationHelper extends IndexCreationHelper {
    * TODO: refactor large method prepareIndexExpression
    */
   private void prepareIndexExpression(String indexedExpression) throws IndexInvalidException {
-    CompiledValue expr = this.compiler.compileQuery(indexedExpression);
-    if (expr == null) {
-      throw new IndexInvalidException(
-          String.format("Invalid indexed expression : ' %s '",
-              indexedExpression));
-    }
-
-    if (expr instanceof CompiledUndefined || expr instanceof CompiledLiteral
-        || expr instanceof CompiledComparison || expr instanceof CompiledBindArgument
-        || expr instanceof CompiledNegation) {
-      throw new IndexInvalidException(
-          String.format("Invalid indexed expression : ' %s '",
-              indexedExpression));
+    List<String> expressions = CompiledCompositeKey.splitExpressions(indexedExpression);
+    if (expressions.size() > 1) {
+      prepareCompositeIndexExpression(indexedExpression, expressions);
+      return;
     }
+    CompiledValue expr = compileIndexedExpression(indexedExpression);
 
     try {
       StringBuilder sb = new StringBuilder();
@@ -511,6 +504,66 @@ class FunctionalIndexCreationHelper extends IndexCreationHelper {
     this.indexedExpr = expr;
   }
 
+  private CompiledValue compileIndexedExpression(String indexedExpression)
+      throws IndexInvalidException {
+    CompiledValue expr = this.compiler.compileQuery(indexedExpression);
+    if (expr == null) {
+      throw new IndexInvalidException(
+          String.format("Invalid indexed expression : ' %s '",
+              indexedExpression));
+    }
+
+    if (expr instanceof CompiledUndefined || expr instanceof CompiledLiteral
+        || expr instanceof CompiledComparison || expr instanceof CompiledBindArgument
+        || expr instanceof CompiledNegation) {
+      throw new IndexInvalidException(
+          String.format("Invalid indexed expression : ' %s '",
+              indexedExpression));
+    }
+    return expr;
+  }
+
+  /**
+   * Prepares the indexed expression of a composite index, a comma separated list of expressions.
+   * Its canonicalized form is the list of the canonicalized expressions, so a query condition on
+   * one of the expressions can be matched with the index.
+   */
+  private void prepareCompositeIndexExpression(String indexedExpression, List<String> expressions)
+      throws IndexInvalidException {
+    CompiledValue[] components = new CompiledValue[expressions.size()];
+    for (int i = 0; i < components.length; i++) {
+      CompiledValue component = compileIndexedExpression(expressions.get(i));
+      // the components are single values, a map index over many keys can not be one of them
+      List<CompiledValue> indexingKeys = component instanceof MapIndexable
+          ? ((MapIndexable) component).getIndexingKeys() : null;
+      if (indexingKeys != null && (indexingKeys.size() != 1
+          || indexingKeys.get(0) == CompiledValue.MAP_INDEX_ALL_KEYS)) {
+        throw new IndexInvalidException(
+            String.format("Invalid indexed expression : ' %s '",
+                indexedExpression));
+      }
+      components[i] = component;
+    }
+    CompiledValue expr = new CompiledCompositeKey(components);
+
+    try {
+      StringBuilder sb = new StringBuilder();
+      expr.generateCanonicalizedExpression(sb, this.context);
+      this.indexedExpression = sb.toString();
+      this.modifiedIndexExpr = expr;
+      if (!this.isFirstIteratorRegionEntry
+          && this.indexedExpression.contains(this.canonicalizedIteratorNames[0])) {
+        this.modifiedIndexExpr = getModifiedDependentCompiledValue(this.context, -1, expr, true);
+      }
+    } catch (Exception e) {
+      throw new IndexInvalidException(
+          String.format("Invalid indexed expression : ' %s '",
+              indexedExpression),
+          e);
+    }
+    this.indexedExpr = expr;
+  }
+
   private void prepareProjectionAttributes(String projectionAttributes)
       throws IndexInvalidException {
     if (projectionAttributes != null && !projectionAttributes.equals("*")) {
@@ -660,6 +713,17 @@ class FunctionalIndexCreationHelper extends IndexCreationHelper {
       }
       return new CompiledFunction(newCvArray, function);
 
+    } else if (cv instanceof CompiledCompositeKey) {
+      CompiledValue[] components = ((CompiledCompositeKey) cv).getComponents();
+      CompiledValue[] newComponents = new CompiledValue[components.length];
+      for (int i = 0; i < components.length; ++i) {
+        StringBuilder sb = new StringBuilder();
+        components[i].generateCanonicalizedExpression(sb, context);
+        newComponents[i] = getModifiedDependentCompiledValue(context, currItrID, components[i],
+            sb.toString().startsWith(this.canonicalizedIteratorNames[0]));
+      }
+      return new CompiledCompositeKey(newComponents);
+
     } else if (cv instanceof CompiledID) {
       CompiledID id = (CompiledID) cv;
       RuntimeIterator rItr0 = (RuntimeIterator) context.getCurrentIterators().get(0);
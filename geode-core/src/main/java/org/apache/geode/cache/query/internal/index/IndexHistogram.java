@@ -0,0 +1,270 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.cache.query.internal.index;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.function.ToIntFunction;
+
+import org.apache.geode.cache.query.QueryService;
+import org.apache.geode.cache.query.internal.parse.OQLLexerTokenTypes;
+import org.apache.geode.distributed.internal.DistributionConfig;
+
+/**
+ * An equi-depth histogram of the keys of a range index, used to estimate how many values a range
+ * lookup on the index returns so the query planner can pick the most selective index.
+ * <p>
+ * The sorted keys of the index are split into at most {@link #MAX_BUCKETS} buckets holding about
+ * the same number of values, so a key which maps to many values gets a bucket of its own and the
+ * estimate of a lookup is off by at most the values of one bucket. Within a bucket the values are
+ * assumed to be spread evenly between its bounds.
+ * <p>
+ * A histogram is a snapshot of the index taken while it is being updated, so it is only an
+ * estimate. It is built again once the index had enough updates, see {@link #isStale(long)}.
+ */
+class IndexHistogram {
+
+  /**
+   * The maximum number of buckets of a histogram
+   */
+  static final int MAX_BUCKETS =
+      Integer.getInteger(DistributionConfig.GEMFIRE_PREFIX + "IndexHistogram.MAX_BUCKETS", 64);
+
+  /**
+   * The fraction of the values of the index which must have been updated for the histogram to be
+   * built again
+   */
+  private static final double STALE_RATIO = 0.1;
+
+  private final Comparator comparator;
+
+  /**
+   * The smallest key and the number of values it maps to
+   */
+  private final Object minKey;
+
+  private final int minKeyValues;
+
+  /**
+   * The largest key of each bucket, the number of values it maps to and the number of values of
+   * this bucket and all the buckets before it
+   */
+  private final Object[] upperKeys;
+
+  private final int[] upperKeyValues;
+
+  private final int[] cumulativeValues;
+
+  private final int numKeys;
+
+  private final int numValues;
+
+  private IndexHistogram(Comparator comparator, Object minKey, int minKeyValues,
+      Object[] upperKeys, int[] upperKeyValues, int[] cumulativeValues, int numKeys) {
+    this.comparator = comparator;
+    this.minKey = minKey;
+    this.minKeyValues = minKeyValues;
+    this.upperKeys = upperKeys;
+    this.upperKeyValues = upperKeyValues;
+    this.cumulativeValues = cumulativeValues;
+    this.numKeys = numKeys;
+    this.numValues =
+        cumulativeValues.length == 0 ? 0 : cumulativeValues[cumulativeValues.length - 1];
+  }
+
+  /**
+   * Builds the histogram of a sorted index map. The null and undefined keys are left out as range
+   * lookups never return their values.
+   *
+   * @param valueToEntriesMap the index key to index values map
+   * @param numValues returns the number of values of an index map value
+   * @param maxBuckets the maximum number of buckets
+   */
+  static IndexHistogram build(NavigableMap<?, ?> valueToEntriesMap, ToIntFunction<Object> numValues,
+      int maxBuckets) {
+    return build(valueToEntriesMap.comparator(), valueToEntriesMap.entrySet(), numValues,
+        maxBuckets);
+  }
+
+  /**
+   * Builds the histogram of the entries of an index, which are iterated twice
+   *
+   * @param comparator the comparator the index keys are sorted with
+   * @param entries the index key to index values entries, in ascending order of the keys
+   * @param numValues returns the number of values of an index map value
+   * @param maxBuckets the maximum number of buckets
+   */
+  static IndexHistogram build(Comparator comparator, Iterable<? extends Map.Entry<?, ?>> entries,
+      ToIntFunction<Object> numValues, int maxBuckets) {
+    long total = 0;
+    for (Map.Entry<?, ?> entry : entries) {
+      if (isRangeKey(entry.getKey())) {
+        total += numValues.applyAsInt(entry.getValue());
+      }
+    }
+    long depth = Math.max(1, (total + maxBuckets - 1) / maxBuckets);
+
+    Object minKey = null;
+    int minKeyValues = 0;
+    List<Object> upperKeys = new ArrayList<>();
+    List<Integer> upperKeyValues = new ArrayList<>();
+    List<Integer> cumulativeValues = new ArrayList<>();
+    int numKeys = 0;
+    int cumulative = 0;
+    int inBucket = 0;
+    Object lastKey = null;
+    int lastKeyValues = 0;
+    for (Map.Entry<?, ?> entry : entries) {
+      Object key = entry.getKey();
+      int values = isRangeKey(key) ? numValues.applyAsInt(entry.getValue()) : 0;
+      if (values <= 0) {
+        continue;
+      }
+      if (numKeys++ == 0) {
+        minKey = key;
+        minKeyValues = values;
+      }
+      cumulative += values;
+      inBucket += values;
+      lastKey = key;
+      lastKeyValues = values;
+      if (inBucket >= depth) {
+        upperKeys.add(key);
+        upperKeyValues.add(values);
+        cumulativeValues.add(cumulative);
+        inBucket = 0;
+      }
+    }
+    if (inBucket > 0) {
+      // the last bucket holds fewer values than the others
+      upperKeys.add(lastKey);
+      upperKeyValues.add(lastKeyValues);
+      cumulativeValues.add(cumulative);
+    }
+    return new IndexHistogram(comparator, minKey, minKeyValues, upperKeys.toArray(),
+        toArray(upperKeyValues), toArray(cumulativeValues), numKeys);
+  }
+
+  private static boolean isRangeKey(Object key) {
+    return key != null && key != IndexManager.NULL && key != QueryService.UNDEFINED;
+  }
+
+  private static int[] toArray(List<Integer> list) {
+    int[] array = new int[list.size()];
+    for (int i = 0; i < array.length; i++) {
+      array[i] = list.get(i);
+    }
+    return array;
+  }
+
+  /**
+   * @return the number of distinct keys of the index when the histogram was built
+   */
+  int getNumKeys() {
+    return this.numKeys;
+  }
+
+  /**
+   * @return the number of values of the index when the histogram was built
+   */
+  int getNumValues() {
+    return this.numValues;
+  }
+
+  /**
+   * @param updates the number of updates of the index since the histogram was built
+   * @return true if the histogram should be built again
+   */
+  boolean isStale(long updates) {
+    return updates > this.numValues * STALE_RATIO;
+  }
+
+  /**
+   * Estimates the number of values a range lookup returns
+   *
+   * @param key the key of the lookup, which must be comparable with the keys of the index
+   * @param operator one of TOK_LT, TOK_LE, TOK_GT and TOK_GE
+   * @throws ClassCastException if the key can not be compared with the keys of the index
+   */
+  int getSizeEstimate(Object key, int operator) {
+    switch (operator) {
+      case OQLLexerTokenTypes.TOK_LT:
+        return countLessThan(key, false);
+      case OQLLexerTokenTypes.TOK_LE:
+        return countLessThan(key, true);
+      case OQLLexerTokenTypes.TOK_GT:
+        return this.numValues - countLessThan(key, true);
+      case OQLLexerTokenTypes.TOK_GE:
+        return this.numValues - countLessThan(key, false);
+      default:
+        throw new IllegalArgumentException("The operator type =" + operator + " is unknown");
+    }
+  }
+
+  private int countLessThan(Object key, boolean inclusive) {
+    if (this.numValues == 0) {
+      return 0;
+    }
+    int result = compare(key, this.minKey);
+    if (result <= 0) {
+      return result == 0 && inclusive ? this.minKeyValues : 0;
+    }
+    // the first bucket whose largest key is not less than the key
+    int low = 0;
+    int high = this.upperKeys.length - 1;
+    while (low <= high) {
+      int mid = (low + high) >>> 1;
+      if (compare(this.upperKeys[mid], key) < 0) {
+        low = mid + 1;
+      } else {
+        high = mid - 1;
+      }
+    }
+    if (low == this.upperKeys.length) {
+      return this.numValues;
+    }
+    int bucket = low;
+    if (compare(this.upperKeys[bucket], key) == 0) {
+      return inclusive ? this.cumulativeValues[bucket]
+          : this.cumulativeValues[bucket] - this.upperKeyValues[bucket];
+    }
+    // the key is between the bounds of the bucket, the values of the lower bound are counted
+    // in the bucket before unless this is the first bucket
+    Object lowerKey = bucket == 0 ? this.minKey : this.upperKeys[bucket - 1];
+    int below = bucket == 0 ? this.minKeyValues : this.cumulativeValues[bucket - 1];
+    int between = this.cumulativeValues[bucket] - this.upperKeyValues[bucket] - below;
+    return below + (int) (between * fractionOfBucket(lowerKey, key, this.upperKeys[bucket]));
+  }
+
+  private static double fractionOfBucket(Object lowerKey, Object key, Object upperKey) {
+    if (lowerKey instanceof Number && key instanceof Number && upperKey instanceof Number) {
+      double lower = ((Number) lowerKey).doubleValue();
+      double range = ((Number) upperKey).doubleValue() - lower;
+      if (range > 0) {
+        double fraction = (((Number) key).doubleValue() - lower) / range;
+        return Math.min(1, Math.max(0, fraction));
+      }
+    }
+    return 0.5;
+  }
+
+  private int compare(Object key1, Object key2) {
+    return this.comparator == null ? ((Comparable) key1).compareTo(key2)
+        : this.comparator.compare(key1, key2);
+  }
+}
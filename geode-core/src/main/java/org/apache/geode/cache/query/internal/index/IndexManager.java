@@ -19,6 +19,7 @@ import static org.apache.geode.internal.lang.SystemUtils.getLineSeparator;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
@@ -29,9 +30,11 @@ import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 import java.util.concurrent.FutureTask;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.logging.log4j.Logger;
@@ -50,7 +53,9 @@ import org.apache.geode.cache.query.MultiIndexCreationException;
 import org.apache.geode.cache.query.NameResolutionException;
 import org.apache.geode.cache.query.QueryException;
 import org.apache.geode.cache.query.TypeMismatchException;
+import org.apache.geode.cache.query.internal.CompiledCompositeKey;
 import org.apache.geode.cache.query.internal.CompiledPath;
+import org.apache.geode.cache.query.internal.CompiledQueryCache;
 import org.apache.geode.cache.query.internal.CompiledValue;
 import org.apache.geode.cache.query.internal.ExecutionContext;
 import org.apache.geode.cache.query.internal.MapIndexable;
@@ -72,6 +77,7 @@ import org.apache.geode.internal.cache.RegionEntry;
 import org.apache.geode.internal.cache.TXManagerImpl;
 import org.apache.geode.internal.cache.TXStateProxy;
 import org.apache.geode.internal.logging.LogService;
+import org.apache.geode.internal.logging.LoggingExecutors;
 import org.apache.geode.internal.logging.LoggingThread;
 
 public class IndexManager {
@@ -103,6 +109,12 @@ public class IndexManager {
   private ConcurrentMap canonicalizedIteratorNameMap = new ConcurrentHashMap();
   private IndexUpdaterThread updater;
 
+  /** Builds the histograms of the indexes, see {@link #getHistogramBuilder()} */
+  private ExecutorService histogramBuilder;
+
+  /** Set once destroyed, no histogram builder is started after */
+  private boolean histogramBuilderStopped;
+
   // Threshold for Queue.
   private final int INDEX_MAINTENANCE_BUFFER =
       Integer.getInteger(DistributionConfig.GEMFIRE_PREFIX + "AsynchIndexMaintenanceThreshold", -1);
@@ -137,6 +149,28 @@ public class IndexManager {
 
   /** For test purpose only */
   public static boolean TEST_RANGEINDEX_ONLY = false;
+
+  /**
+   * System property to keep the keys of compact range indexes in a {@link PrimitiveIndexStore},
+   * which takes much less memory than the default store for indexes on long, int or double values.
+   */
+  public static final boolean PRIMITIVE_INDEX_STORE = Boolean.getBoolean(
+      DistributionConfig.GEMFIRE_PREFIX + "index.PRIMITIVE_INDEX_STORE");
+
+  /** For test purpose only */
+  public static boolean TEST_PRIMITIVE_INDEX_STORE = false;
+
+  /**
+   * System property setting the number of threads an index is populated on: the buckets of a
+   * partitioned region are populated in parallel, and so are the indexes defined together on a
+   * region. The default of 1 populates them on the thread creating the index.
+   */
+  public static final int INDEX_CREATION_THREADS =
+      Integer.getInteger(DistributionConfig.GEMFIRE_PREFIX + "index.CREATION_THREADS", 1);
+
+  /** For test purpose only */
+  public static int TEST_INDEX_CREATION_THREADS = 0;
+
   public static final String INDEX_ELEMARRAY_THRESHOLD_PROP = "index_elemarray_threshold";
   public static final String INDEX_ELEMARRAY_SIZE_PROP = "index_elemarray_size";
   public static final int INDEX_ELEMARRAY_THRESHOLD =
@@ -425,6 +459,17 @@ public class IndexManager {
     }
   }
 
+  private static int getPathRootType(CompiledValue cv) {
+    int nodeType;
+    do {
+      nodeType = cv.getType();
+      if (nodeType == CompiledValue.PATH) {
+        cv = ((CompiledPath) cv).getReceiver();
+      }
+    } while (nodeType == CompiledValue.PATH);
+    return nodeType;
+  }
+
   /**
    * Return true if we should create CompactRangeIndex Required conditions: indexedExpression is a
    * path expression, fromClause has only one iterator and it is directly on the region values.
@@ -448,24 +493,30 @@ public class IndexManager {
 
     // indexedExpression requirement
     CompiledValue cv = helper.getCompiledIndexedExpression();
-    int nodeType;
-    do {
-      nodeType = cv.getType();
-      if (nodeType == CompiledValue.PATH) {
-        cv = ((CompiledPath) cv).getReceiver();
+    if (cv instanceof CompiledCompositeKey) {
+      // each expression of a composite index has to be a path expression
+      for (CompiledValue component : ((CompiledCompositeKey) cv).getComponents()) {
+        int nodeType = getPathRootType(component);
+        if (nodeType != OQLLexerTokenTypes.Identifier
+            && nodeType != OQLLexerTokenTypes.METHOD_INV) {
+          return false;
+        }
       }
-    } while (nodeType == CompiledValue.PATH);
-    // end of path, nodeType at this point should be an Identifier
-    if (nodeType != OQLLexerTokenTypes.Identifier && nodeType != OQLLexerTokenTypes.METHOD_INV) {
-      if (nodeType == OQLLexerTokenTypes.TOK_LBRACK && !helper.isMapTypeIndex()
-          && helper.modifiedIndexExpr instanceof MapIndexable) {
-        if (((MapIndexable) helper.modifiedIndexExpr).getIndexingKeys().size() == 1) {
+    } else {
+      int nodeType = getPathRootType(cv);
+      // end of path, nodeType at this point should be an Identifier
+      if (nodeType != OQLLexerTokenTypes.Identifier
+          && nodeType != OQLLexerTokenTypes.METHOD_INV) {
+        if (nodeType == OQLLexerTokenTypes.TOK_LBRACK && !helper.isMapTypeIndex()
+            && helper.modifiedIndexExpr instanceof MapIndexable) {
+          if (((MapIndexable) helper.modifiedIndexExpr).getIndexingKeys().size() == 1) {
 
+          } else {
+            return false;
+          }
         } else {
           return false;
         }
-      } else {
-        return false;
       }
     }
 
@@ -503,6 +554,7 @@ public class IndexManager {
   public void addIndex(String indexName, Index index) {
     IndexTask indexTask = new IndexTask(cache, indexName);
     this.indexes.put(indexTask, index);
+    invalidateCompiledQueries();
   }
 
   /**
@@ -808,6 +860,45 @@ public class IndexManager {
     return getIndexes(null);
   }
 
+  /**
+   * Get the indexed expressions of the populated composite indexes, indexes over a comma separated
+   * list of expressions.
+   *
+   * @return a map of the canonicalized indexed expression of each composite index to its
+   *         canonicalized expressions, in the order the index is sorted on them
+   */
+  public Map<String, List<String>> getCompositeIndexedExpressions() {
+    Map<String, List<String>> expressions = null;
+    for (Object ind : this.indexes.values()) {
+      // Check if the value is instance of FutureTask, this means
+      // the index is in create phase.
+      if (ind instanceof FutureTask || !((AbstractIndex) ind).isPopulated()) {
+        continue;
+      }
+      Index index = (Index) ind;
+      if (index instanceof PartitionedIndex) {
+        // the bucket indexes hold the canonicalized expression
+        index = ((PartitionedIndex) index).getBucketIndex();
+      }
+      if (index == null || index.getType() != IndexType.FUNCTIONAL) {
+        continue;
+      }
+      String indexedExpression = index.getCanonicalizedIndexedExpression();
+      if (indexedExpression.indexOf(',') < 0
+          || expressions != null && expressions.containsKey(indexedExpression)) {
+        continue;
+      }
+      List<String> components = CompiledCompositeKey.splitExpressions(indexedExpression);
+      if (components.size() > 1) {
+        if (expressions == null) {
+          expressions = new HashMap<>();
+        }
+        expressions.put(indexedExpression, components);
+      }
+    }
+    return expressions == null ? Collections.emptyMap() : expressions;
+  }
+
   /**
    * Remove the specified index.
    *
@@ -830,6 +921,7 @@ public class IndexManager {
     if (this.indexes.remove(indexTask) != null) {
       AbstractIndex indexHandle = (AbstractIndex) index;
       indexHandle.destroy();
+      invalidateCompiledQueries();
     }
   }
 
@@ -853,9 +945,27 @@ public class IndexManager {
       IndexTask indexTask = (IndexTask) entry.getKey();
       this.indexes.remove(indexTask);
     }
+    if (numIndexes > 0) {
+      invalidateCompiledQueries();
+    }
     return numIndexes;
   }
 
+  /**
+   * Compiled queries are dropped whenever the indexes of a region change so they are prepared
+   * again against the current state of the region. The indexes of a bucket are only used through
+   * the index of its partitioned region so they do not need to.
+   */
+  private void invalidateCompiledQueries() {
+    if (this.region instanceof BucketRegion) {
+      return;
+    }
+    CompiledQueryCache compiledQueries = this.cache.getCompiledQueryCache();
+    if (compiledQueries != null) {
+      compiledQueries.clear();
+    }
+  }
+
 
   /**
    * Asif : This function is invoked during clear operation on Region. It causes re execution of
@@ -887,12 +997,60 @@ public class IndexManager {
    * populates all the indexes in the region
    */
   public void populateIndexes(Collection<Index> indexSet) throws MultiIndexCreationException {
+    populateIndexes(indexSet, getIndexCreationThreads());
+  }
+
+  /**
+   * populates all the indexes in the region, splitting them across up to the given number of
+   * threads. Callers that already populate several regions in parallel pass 1, so that the
+   * number of threads populating indexes stays bounded.
+   */
+  public void populateIndexes(Collection<Index> indexSet, int maxThreads)
+      throws MultiIndexCreationException {
     waitBeforeUpdate();
     if (region.getCache().getLogger().infoEnabled()) {
       region.getCache().getLogger().info("Populating indexes for region " + region.getName());
     }
-    boolean throwException = false;
-    HashMap<String, Exception> exceptionsMap = new HashMap<String, Exception>();
+    Map<String, Exception> exceptionsMap = new ConcurrentHashMap<>();
+    try {
+      int numThreads = Math.min(maxThreads, indexSet.size());
+      if (numThreads <= 1) {
+        populateIndexes(indexSet, exceptionsMap);
+      } else {
+        // each thread iterates over the region entries for its share of the indexes
+        List<Callable<Void>> tasks = new ArrayList<>(numThreads);
+        List<Index> indexList = new ArrayList<>(indexSet);
+        for (int i = 0; i < numThreads; i++) {
+          Collection<Index> share = new ArrayList<>();
+          for (int j = i; j < indexList.size(); j += numThreads) {
+            share.add(indexList.get(j));
+          }
+          tasks.add(() -> {
+            populateIndexes(share, exceptionsMap);
+            return null;
+          });
+        }
+        try {
+          invokeIndexCreationTasks(tasks);
+        } catch (ExecutionException e) {
+          Throwable cause = e.getCause();
+          if (cause instanceof RuntimeException) {
+            throw (RuntimeException) cause;
+          }
+          throw new IndexInvalidException(cause);
+        }
+        indexSet.removeIf(index -> exceptionsMap.containsKey(index.getName()));
+      }
+      setPopulateFlagForIndexes(indexSet);
+      if (!exceptionsMap.isEmpty()) {
+        throw new MultiIndexCreationException(new HashMap<>(exceptionsMap));
+      }
+    } finally {
+      notifyAfterUpdate();
+    }
+  }
+
+  private void populateIndexes(Collection<Index> indexSet, Map<String, Exception> exceptionsMap) {
     boolean oldReadSerialized = this.cache.getPdxReadSerializedOverride();
     this.cache.setPdxReadSerializedOverride(true);
     try {
@@ -924,19 +1082,65 @@ public class IndexManager {
               }
               exceptionsMap.put(index.indexName, e);
               indexSetIterator.remove();
-              throwException = true;
             }
             ((AbstractIndex) index).updateIndexUpdateStats(start);
           }
         }
       }
-      setPopulateFlagForIndexes(indexSet);
-      if (throwException) {
-        throw new MultiIndexCreationException(exceptionsMap);
-      }
     } finally {
       this.cache.setPdxReadSerializedOverride(oldReadSerialized);
-      notifyAfterUpdate();
+    }
+  }
+
+  public static int getIndexCreationThreads() {
+    return TEST_INDEX_CREATION_THREADS > 0 ? TEST_INDEX_CREATION_THREADS : INDEX_CREATION_THREADS;
+  }
+
+  /**
+   * Runs the tasks populating indexes on up to {@link #getIndexCreationThreads()} threads, and
+   * waits for all of them to complete. With a single thread the tasks are run in turn on the
+   * calling thread, stopping at the first one that fails.
+   *
+   * @throws ExecutionException wrapping the exception thrown by the first task that failed
+   */
+  public static void invokeIndexCreationTasks(List<Callable<Void>> tasks)
+      throws ExecutionException {
+    int numThreads = Math.min(getIndexCreationThreads(), tasks.size());
+    if (numThreads <= 1) {
+      for (Callable<Void> task : tasks) {
+        try {
+          task.call();
+        } catch (Exception e) {
+          throw new ExecutionException(e);
+        }
+      }
+      return;
+    }
+    ExecutorService executor = LoggingExecutors.newFixedThreadPool("IndexCreation", true,
+        numThreads);
+    boolean interrupted = false;
+    try {
+      ExecutionException failure = null;
+      for (Future<Void> future : executor.invokeAll(tasks)) {
+        try {
+          future.get();
+        } catch (ExecutionException e) {
+          if (failure == null) {
+            failure = e;
+          }
+        }
+      }
+      if (failure != null) {
+        throw failure;
+      }
+    } catch (InterruptedException e) {
+      interrupted = true;
+      throw new ExecutionException(e);
+    } finally {
+      executor.shutdownNow();
+      if (interrupted) {
+        Thread.currentThread().interrupt();
+      }
     }
   }
 
@@ -1288,8 +1492,37 @@ public class IndexManager {
    */
   public void destroy() throws QueryException {
     this.indexes.clear();
+    invalidateCompiledQueries();
     if (!isIndexMaintenanceTypeSynchronous())
       updater.shutdown();
+    stopHistogramBuilder();
+  }
+
+  /**
+   * Returns the executor building the histograms of the indexes of this region, a single daemon
+   * thread started when the first histogram is built and stopped when the region is destroyed or
+   * closed. The indexes of the buckets of a partitioned region use the one of the partitioned
+   * region.
+   *
+   * @throws RejectedExecutionException if this IndexManager was destroyed
+   */
+  synchronized ExecutorService getHistogramBuilder() {
+    if (this.histogramBuilderStopped) {
+      throw new RejectedExecutionException(
+          "The indexes of region " + this.region.getFullPath() + " were destroyed");
+    }
+    if (this.histogramBuilder == null) {
+      this.histogramBuilder = LoggingExecutors
+          .newSingleThreadExecutor("IndexHistogramBuilder:" + this.region.getFullPath(), true);
+    }
+    return this.histogramBuilder;
+  }
+
+  private synchronized void stopHistogramBuilder() {
+    this.histogramBuilderStopped = true;
+    if (this.histogramBuilder != null) {
+      this.histogramBuilder.shutdownNow();
+    }
   }
 
   /**
@@ -1666,6 +1899,7 @@ public class IndexManager {
             }
           }
           indexes.put(this, index);
+          invalidateCompiledQueries();
           if (region instanceof BucketRegion && prIndex != null) {
             prIndex.addToBucketIndexes(region, index);
             prIndex.incNumBucketIndexes();
@@ -1683,6 +1917,7 @@ public class IndexManager {
         // For PrimaryKey index
         ((AbstractIndex) index).setPopulated(true);
         indexes.put(this, index);
+        invalidateCompiledQueries();
         if (region instanceof BucketRegion && prIndex != null) {
           prIndex.addToBucketIndexes(region, index);
         }
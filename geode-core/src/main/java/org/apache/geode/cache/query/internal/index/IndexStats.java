@@ -40,6 +40,7 @@ public class IndexStats {
   private static final int readLockCountId;
   private static final int numMapIndexKeysId;
   private static final int numBucketIndexesId;
+  private static final int numHistogramBuildsId;
 
   /** The Statistics object that we delegate most behavior to */
   private final Statistics stats;
@@ -66,7 +67,10 @@ public class IndexStats {
             f.createIntGauge("readLockCount", "Current number of read locks taken.", "uses"),
             f.createLongGauge("numMapIndexKeys", "Number of keys in this Map index", "keys"),
             f.createIntGauge("numBucketIndexes",
-                "Number of bucket indexes in the partitioned region", "indexes"),});
+                "Number of bucket indexes in the partitioned region", "indexes"),
+            f.createLongCounter("numHistogramBuilds",
+                "Number of times the histogram used to estimate range lookups was built",
+                "operations"),});
 
     // Initialize id fields
     numKeysId = type.nameToId("numKeys");
@@ -80,6 +84,7 @@ public class IndexStats {
     readLockCountId = type.nameToId("readLockCount");
     numMapIndexKeysId = type.nameToId("numMapIndexKeys");
     numBucketIndexesId = type.nameToId("numBucketIndexes");
+    numHistogramBuildsId = type.nameToId("numHistogramBuilds");
   }
 
   /**
@@ -126,6 +131,10 @@ public class IndexStats {
     return stats.getInt(numBucketIndexesId);
   }
 
+  public long getNumHistogramBuilds() {
+    return stats.getLong(numHistogramBuildsId);
+  }
+
   public void incNumUpdates() {
     this.stats.incLong(numUpdatesId, 1);
   }
@@ -182,6 +191,10 @@ public class IndexStats {
     this.stats.incInt(numBucketIndexesId, delta);
   }
 
+  public void incNumHistogramBuilds() {
+    this.stats.incLong(numHistogramBuildsId, 1);
+  }
+
   /**
    * Closes these stats so that they can not longer be used. The stats are closed when the cache is
    * closed.
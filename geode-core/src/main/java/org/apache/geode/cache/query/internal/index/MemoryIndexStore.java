@@ -26,7 +26,6 @@ import java.util.concurrent.ConcurrentNavigableMap;
 import java.util.concurrent.ConcurrentSkipListMap;
 import java.util.concurrent.atomic.AtomicInteger;
 
-import org.apache.geode.cache.EntryDestroyedException;
 import org.apache.geode.cache.Region;
 import org.apache.geode.cache.RegionAttributes;
 import org.apache.geode.cache.query.IndexMaintenanceException;
@@ -35,11 +34,8 @@ import org.apache.geode.cache.query.TypeMismatchException;
 import org.apache.geode.cache.query.internal.CompiledComparison;
 import org.apache.geode.cache.query.internal.DefaultQuery;
 import org.apache.geode.cache.query.internal.index.AbstractIndex.InternalIndexStatistics;
-import org.apache.geode.cache.query.internal.parse.OQLLexerTokenTypes;
 import org.apache.geode.cache.query.internal.types.TypeUtils;
-import org.apache.geode.internal.cache.CachedDeserializable;
 import org.apache.geode.internal.cache.InternalCache;
-import org.apache.geode.internal.cache.LocalRegion;
 import org.apache.geode.internal.cache.RegionEntry;
 import org.apache.geode.internal.cache.Token;
 import org.apache.geode.internal.cache.persistence.query.CloseableIterator;
@@ -49,7 +45,7 @@ import org.apache.geode.internal.cache.persistence.query.CloseableIterator;
  *
  * @since GemFire 8.0
  */
-public class MemoryIndexStore implements IndexStore {
+public class MemoryIndexStore extends AbstractMemoryIndexStore {
   /**
    * Map for valueOf(indexedExpression)=>RegionEntries. SortedMap<Object, (RegionEntry |
    * List<RegionEntry>)>. Package access for unit tests.
@@ -63,16 +59,6 @@ public class MemoryIndexStore implements IndexStore {
   // Map for RegionEntries=>value of indexedExpression (reverse map)
   private ConcurrentMap entryToValuesMap;
 
-  private final InternalIndexStatistics internalIndexStats;
-
-  private final InternalCache cache;
-
-  private final Region region;
-
-  private boolean indexOnRegionKeys;
-
-  private boolean indexOnValues;
-
   // Used as a place holder for an indexkey collection for when a thread is about to change
   // the collection from index elem to concurrent hash set. Solution for #47475 where
   // we could be missing removes due to different threads grabbing occurrences of the same
@@ -83,7 +69,7 @@ public class MemoryIndexStore implements IndexStore {
   private final Object TRANSITIONING_TOKEN = new IndexElemArray(1);
 
   MemoryIndexStore(Region region, InternalIndexStatistics internalIndexStats, InternalCache cache) {
-    this.region = region;
+    super(region, internalIndexStats, cache);
     RegionAttributes ra = region.getAttributes();
     // Initialize the reverse-map if in-place modification is set by the
     // application.
@@ -91,8 +77,6 @@ public class MemoryIndexStore implements IndexStore {
       this.entryToValuesMap = new ConcurrentHashMap(ra.getInitialCapacity(), ra.getLoadFactor(),
           ra.getConcurrencyLevel());
     }
-    this.internalIndexStats = internalIndexStats;
-    this.cache = cache;
   }
 
   @Override
@@ -427,6 +411,7 @@ public class MemoryIndexStore implements IndexStore {
         keysToRemove);
   }
 
+  @Override
   public Iterator<IndexStoreEntry> getKeysIterator() {
     return new MemoryIndexStoreKeyIterator(this.valueToEntriesMap);
   }
@@ -460,92 +445,6 @@ public class MemoryIndexStore implements IndexStore {
     return new MemoryIndexStoreIterator(this.valueToEntriesMap.descendingMap(), null, keysToRemove);
   }
 
-  @Override
-  public boolean isIndexOnRegionKeys() {
-    return indexOnRegionKeys;
-  }
-
-  @Override
-  public void setIndexOnRegionKeys(boolean indexOnRegionKeys) {
-    this.indexOnRegionKeys = indexOnRegionKeys;
-  }
-
-  @Override
-  public boolean isIndexOnValues() {
-    return indexOnValues;
-  }
-
-  @Override
-  public void setIndexOnValues(boolean indexOnValues) {
-    this.indexOnValues = indexOnValues;
-  }
-
-  /**
-   * Get the object of interest from the region entry. For now it always gets the deserialized
-   * value.
-   */
-  @Override
-  public Object getTargetObject(RegionEntry entry) {
-    if (indexOnValues) {
-      Object o = entry.getValue((LocalRegion) this.region);
-      try {
-        if (o == Token.INVALID) {
-          return null;
-        }
-        if (o instanceof CachedDeserializable) {
-          return ((CachedDeserializable) o).getDeserializedValue(this.region, entry);
-        }
-      } catch (EntryDestroyedException ignore) {
-        return null;
-      }
-      return o;
-    } else if (indexOnRegionKeys) {
-      return entry.getKey();
-    }
-    return new CachedEntryWrapper(((LocalRegion) this.region).new NonTXEntry(entry));
-  }
-
-  @Override
-  public Object getTargetObjectInVM(RegionEntry entry) {
-    if (indexOnValues) {
-      Object o = entry.getValueInVM((LocalRegion) this.region);
-      try {
-        if (o == Token.INVALID) {
-          return null;
-        }
-        if (o instanceof CachedDeserializable) {
-          return ((CachedDeserializable) o).getDeserializedValue(this.region, entry);
-        }
-      } catch (EntryDestroyedException ede) {
-        return null;
-      }
-      return o;
-    } else if (indexOnRegionKeys) {
-      return entry.getKey();
-    }
-    return ((LocalRegion) this.region).new NonTXEntry(entry);
-  }
-
-  private Object getTargetObjectForUpdate(RegionEntry entry) {
-    if (indexOnValues) {
-      Object o = entry.getValue((LocalRegion) this.region);
-      try {
-        if (o == Token.INVALID) {
-          return Token.INVALID;
-        }
-        if (o instanceof CachedDeserializable) {
-          return ((CachedDeserializable) o).getDeserializedValue(this.region, entry);
-        }
-      } catch (EntryDestroyedException ede) {
-        return Token.INVALID;
-      }
-      return o;
-    } else if (indexOnRegionKeys) {
-      return entry.getKey();
-    }
-    return ((LocalRegion) this.region).new NonTXEntry(entry);
-  }
-
   @Override
   public boolean clear() {
     this.valueToEntriesMap.clear();
@@ -560,17 +459,26 @@ public class MemoryIndexStore implements IndexStore {
   public int size(Object key) {
     Object obj = valueToEntriesMap.get(key);
     if (obj != null) {
-      return obj instanceof RegionEntry ? 1 : ((Collection) obj).size();
+      return numValues(obj);
     } else {
       return 0;
     }
   }
 
+  private static int numValues(Object regionEntries) {
+    return regionEntries instanceof RegionEntry ? 1 : ((Collection) regionEntries).size();
+  }
+
   @Override
   public int size() {
     return numIndexKeys.get();
   }
 
+  @Override
+  IndexHistogram buildHistogram(int maxBuckets) {
+    return IndexHistogram.build(this.valueToEntriesMap, MemoryIndexStore::numValues, maxBuckets);
+  }
+
   private class MemoryIndexStoreKeyIterator implements Iterator<IndexStoreEntry> {
 
     private final Map valuesToEntriesMap;
@@ -707,22 +615,6 @@ public class MemoryIndexStore implements IndexStore {
     public void close() {
       // do nothing
     }
-
-    public boolean removeFromKeysToRemove(Collection keysToRemove, Object key) {
-      Iterator iterator = keysToRemove.iterator();
-      while (iterator.hasNext()) {
-        try {
-          if (TypeUtils.compare(key, iterator.next(), OQLLexerTokenTypes.TOK_EQ)
-              .equals(Boolean.TRUE)) {
-            iterator.remove();
-            return true;
-          }
-        } catch (TypeMismatchException e) {
-          // they are not equals, so we just continue iterating
-        }
-      }
-      return false;
-    }
   }
 
   public String printAll() {
@@ -746,109 +638,4 @@ public class MemoryIndexStore implements IndexStore {
     }
     return sb.toString();
   }
-
-  class MemoryIndexStoreKey implements IndexStoreEntry {
-    private Object indexKey;
-
-    public MemoryIndexStoreKey(Object indexKey) {
-      this.indexKey = indexKey;
-    }
-
-    @Override
-
-    public Object getDeserializedKey() {
-      return indexKey;
-    }
-
-    @Override
-    public Object getDeserializedValue() {
-      throw new UnsupportedOperationException();
-    }
-
-    @Override
-    public Object getDeserializedRegionKey() {
-      throw new UnsupportedOperationException();
-    }
-
-    @Override
-    public boolean isUpdateInProgress() {
-      throw new UnsupportedOperationException();
-    }
-  }
-  /**
-   * A wrapper over the entry in the CSL index map. It maps IndexKey -> RegionEntry
-   */
-  class MemoryIndexStoreEntry implements IndexStoreEntry {
-    private Object deserializedIndexKey;
-    private RegionEntry regionEntry;
-    private boolean updateInProgress;
-    private Object value;
-    private long iteratorStartTime;
-
-    private MemoryIndexStoreEntry(long iteratorStartTime) {
-      this.iteratorStartTime = iteratorStartTime;
-    }
-
-    public void setMemoryIndexStoreEntry(Object deserializedIndexKey, RegionEntry regionEntry) {
-      this.deserializedIndexKey = deserializedIndexKey;
-      this.regionEntry = regionEntry;
-      this.updateInProgress = regionEntry.isUpdateInProgress();
-      this.value = getTargetObject(regionEntry);
-    }
-
-    @Override
-    public Object getDeserializedKey() {
-      return deserializedIndexKey;
-    }
-
-    @Override
-    public Object getDeserializedValue() {
-      return value;
-    }
-
-    @Override
-    public Object getDeserializedRegionKey() {
-      return regionEntry.getKey();
-    }
-
-    public RegionEntry getRegionEntry() {
-      return regionEntry;
-    }
-
-    @Override
-    public boolean isUpdateInProgress() {
-      return updateInProgress || regionEntry.isUpdateInProgress()
-      // The index update could have started just before the iterator was created. The entry still
-      // needs to be re-evaluated in this case.
-          || IndexManager.needsRecalculation(iteratorStartTime, regionEntry.getLastModified());
-    }
-  }
-
-  class CachedEntryWrapper {
-
-    private Object key, value;
-
-    public CachedEntryWrapper(LocalRegion.NonTXEntry entry) {
-      if (IndexManager.testHook != null) {
-        IndexManager.testHook.hook(201);
-      }
-      this.key = entry.getKey();
-      this.value = entry.getValue();
-    }
-
-    public Object getKey() {
-      return this.key;
-    }
-
-    public Object getValue() {
-      return this.value;
-    }
-
-    public String toString() {
-      return new StringBuilder("CachedEntryWrapper@")
-          .append(Integer.toHexString(System.identityHashCode(this))).append(' ').append(this.key)
-          .append(' ').append(this.value).toString();
-    }
-  }
-
 }
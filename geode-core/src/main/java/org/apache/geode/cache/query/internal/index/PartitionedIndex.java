@@ -481,6 +481,10 @@ public class PartitionedIndex extends AbstractIndex {
       this.vsdStats.incReadLockCount(delta);
     }
 
+    public void incNumHistogramBuilds() {
+      this.vsdStats.incNumHistogramBuilds();
+    }
+
     public void incNumBucketIndexes(int delta) {
       this.vsdStats.incNumBucketIndexes(delta);
     }
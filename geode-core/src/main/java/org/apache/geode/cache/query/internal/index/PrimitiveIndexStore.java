@@ -0,0 +1,1228 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.cache.query.internal.index;
+
+import java.util.AbstractMap;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.geode.cache.Region;
+import org.apache.geode.cache.RegionAttributes;
+import org.apache.geode.cache.query.QueryService;
+import org.apache.geode.cache.query.TypeMismatchException;
+import org.apache.geode.cache.query.internal.CompiledComparison;
+import org.apache.geode.cache.query.internal.DefaultQuery;
+import org.apache.geode.cache.query.internal.NullToken;
+import org.apache.geode.cache.query.internal.Undefined;
+import org.apache.geode.cache.query.internal.index.AbstractIndex.InternalIndexStatistics;
+import org.apache.geode.cache.query.internal.types.TypeUtils;
+import org.apache.geode.internal.cache.InternalCache;
+import org.apache.geode.internal.cache.RegionEntry;
+import org.apache.geode.internal.cache.Token;
+import org.apache.geode.internal.cache.persistence.query.CloseableIterator;
+
+/**
+ * An in-memory index storage which keeps the index keys in leaves of sorted primitive arrays.
+ * <p>
+ * The {@link MemoryIndexStore} keeps a skip list node and a boxed key for every index key, which
+ * is most of the memory an index takes when the indexed values are mostly unique, like ids or
+ * timestamps. This store keeps up to {@link #MAX_LEAF_SIZE} keys in each leaf, in a long, int or
+ * double array when all the keys of the leaf are of that type and in a String or Object array
+ * otherwise. The skip list only holds the leaves, by the lowest key each one may hold. Each key of
+ * a leaf maps to a RegionEntry, to an array of RegionEntry or, once the key has more than
+ * {@link IndexManager#INDEX_ELEMARRAY_THRESHOLD} entries, to an {@link IndexConcurrentHashSet}.
+ * <p>
+ * A leaf is changed under its lock by replacing its arrays, so readers get a consistent copy of a
+ * leaf without locking. A full leaf is split in two and an empty leaf is removed, its keys falling
+ * to the leaf before it. The null and undefined keys are kept apart as they are only ever looked
+ * up by equality.
+ */
+public class PrimitiveIndexStore extends AbstractMemoryIndexStore {
+
+  /**
+   * The maximum number of keys of a leaf
+   */
+  static final int MAX_LEAF_SIZE = 64;
+
+  private static final Comparator COMPARATOR = TypeUtils.getExtendedNumericComparator();
+
+  /**
+   * The lowest key of the first leaf, which is lower than any index key
+   */
+  private static final Object LOWEST = new Object();
+
+  /**
+   * The leaves by the lowest key each one may hold. An index key is held by the leaf with the
+   * greatest lowest key not greater than it. The first leaf is never removed.
+   */
+  private final ConcurrentSkipListMap<Object, Leaf> leaves =
+      new ConcurrentSkipListMap<>(PrimitiveIndexStore::compareLowestKeys);
+
+  private final Leaf nullLeaf = new Leaf(IndexManager.NULL, ObjectKeys.EMPTY);
+
+  private final Leaf undefinedLeaf = new Leaf(QueryService.UNDEFINED, ObjectKeys.EMPTY);
+
+  // number of keys
+  private final AtomicInteger numIndexKeys = new AtomicInteger(0);
+
+  // Map for RegionEntries=>value of indexedExpression (reverse map)
+  private ConcurrentMap entryToValuesMap;
+
+  PrimitiveIndexStore(Region region, InternalIndexStatistics internalIndexStats,
+      InternalCache cache) {
+    super(region, internalIndexStats, cache);
+    // Initialize the reverse-map if in-place modification is set by the
+    // application.
+    if (IndexManager.isObjectModificationInplace()) {
+      RegionAttributes ra = region.getAttributes();
+      this.entryToValuesMap = new ConcurrentHashMap(ra.getInitialCapacity(), ra.getLoadFactor(),
+          ra.getConcurrencyLevel());
+    }
+    this.leaves.put(LOWEST, new Leaf(LOWEST, ObjectKeys.EMPTY));
+  }
+
+  private static int compareLowestKeys(Object key1, Object key2) {
+    if (key1 == LOWEST) {
+      return key2 == LOWEST ? 0 : -1;
+    }
+    return key2 == LOWEST ? 1 : COMPARATOR.compare(key1, key2);
+  }
+
+  private Leaf leafFor(Object key) {
+    if (key instanceof NullToken) {
+      return this.nullLeaf;
+    }
+    if (key instanceof Undefined) {
+      return this.undefinedLeaf;
+    }
+    return this.leaves.floorEntry(key).getValue();
+  }
+
+  @Override
+  public void updateMapping(Object indexKey, Object oldKey, RegionEntry re, Object oldValue)
+      throws IMQException {
+    boolean added;
+    try {
+      if (DefaultQuery.testHook != null) {
+        DefaultQuery.testHook.doTestHook(
+            DefaultQuery.TestHook.SPOTS.BEFORE_ADD_OR_UPDATE_MAPPING_OR_DESERIALIZING_NTH_STREAMINGOPERATION,
+            null);
+      }
+
+      // Check if reverse-map is present.
+      if (IndexManager.isObjectModificationInplace()) {
+        // If reverse map get the old index key from reverse map.
+        if (this.entryToValuesMap.containsKey(re)) {
+          oldKey = this.entryToValuesMap.get(re);
+        }
+      } else if (oldValue != null && oldValue == getTargetObjectInVM(re)) {
+        // The value got updated in place, find the old index key from the leaves
+        oldKey = getOldKey(indexKey, re);
+      }
+
+      // No need to update the index if new and old index key are same. The old key is normalized
+      // too, as a key mapping an entry once would otherwise lose it when the old key is removed.
+      indexKey = TypeUtils.indexKeyFor(indexKey);
+      if (oldKey != null && TypeUtils.indexKeyFor(oldKey).equals(indexKey)) {
+        return;
+      }
+
+      if (indexKey.equals(QueryService.UNDEFINED)) {
+        Object targetObject = getTargetObjectForUpdate(re);
+        if (Token.isInvalidOrRemoved(targetObject)) {
+          if (oldKey != null) {
+            basicRemoveMapping(oldKey, re, false);
+          }
+          return;
+        }
+      }
+
+      added = add(indexKey, re);
+
+      // remove the old key in case of update
+      if (oldKey != null) {
+        basicRemoveMapping(oldKey, re, false);
+      }
+      if (IndexManager.isObjectModificationInplace()) {
+        this.entryToValuesMap.put(re, indexKey);
+      }
+    } catch (TypeMismatchException ex) {
+      throw new IMQException("Could not add object of type " + indexKey.getClass().getName(), ex);
+    }
+    if (added) {
+      this.internalIndexStats.incNumValues(1);
+    }
+  }
+
+  /**
+   * @return true if the entry was added, false if the key already mapped to it
+   */
+  private boolean add(Object key, RegionEntry entry) {
+    while (true) {
+      Leaf leaf = leafFor(key);
+      synchronized (leaf) {
+        if (leaf.removed || leafFor(key) != leaf) {
+          // the leaf was removed or split since it was looked up
+          continue;
+        }
+        Keys keys = leaf.keys;
+        int index = keys.indexOf(key);
+        if (index >= 0) {
+          Object entries = keys.entries[index];
+          Object newEntries = addEntry(entries, entry);
+          if (newEntries == null) {
+            return false;
+          }
+          if (newEntries != entries) {
+            leaf.keys = keys.replace(index, newEntries);
+          }
+          return true;
+        }
+        keys = keys.insert(-(index + 1), key, entry);
+        if (keys.size() > MAX_LEAF_SIZE) {
+          split(leaf, keys);
+        } else {
+          leaf.keys = keys;
+        }
+        this.numIndexKeys.incrementAndGet();
+        this.internalIndexStats.incNumKeys(1);
+        return true;
+      }
+    }
+  }
+
+  /**
+   * @return the entries of a key with the entry added, the same set if the entry was added to it
+   *         or null if the entry was already there
+   */
+  private static Object addEntry(Object entries, RegionEntry entry) {
+    if (entries instanceof RegionEntry) {
+      return entries == entry ? null : new RegionEntry[] {(RegionEntry) entries, entry};
+    }
+    if (entries instanceof RegionEntry[]) {
+      RegionEntry[] array = (RegionEntry[]) entries;
+      for (RegionEntry e : array) {
+        if (e == entry) {
+          return null;
+        }
+      }
+      if (array.length < IndexManager.INDEX_ELEMARRAY_THRESHOLD) {
+        RegionEntry[] newArray = Arrays.copyOf(array, array.length + 1);
+        newArray[array.length] = entry;
+        return newArray;
+      }
+      IndexConcurrentHashSet set =
+          new IndexConcurrentHashSet(IndexManager.INDEX_ELEMARRAY_THRESHOLD + 20, 0.75f, 1);
+      Collections.addAll(set, array);
+      set.add(entry);
+      return set;
+    }
+    return ((IndexConcurrentHashSet) entries).add(entry) ? entries : null;
+  }
+
+  /**
+   * Moves the upper half of the keys to a new leaf. The new leaf is added before the keys are
+   * removed from the full leaf so readers looking at the full leaf in between see them twice rather
+   * than not at all, see {@link KeyCursor}.
+   */
+  private void split(Leaf leaf, Keys keys) {
+    int half = keys.size() / 2;
+    Keys upperKeys = keys.copy(half, keys.size());
+    Leaf upperLeaf = new Leaf(upperKeys.get(0), upperKeys);
+    this.leaves.put(upperLeaf.lowestKey, upperLeaf);
+    leaf.keys = keys.copy(0, half);
+  }
+
+  /**
+   * Find the old key by traversing the leaves in case of in-place update modification If not found
+   * it means the value object was modified with same value. So oldKey is same as newKey.
+   */
+  private Object getOldKey(Object newKey, RegionEntry entry) throws TypeMismatchException {
+    for (Map.Entry<Object, Object> mapEntry : entries(true)) {
+      Object indexKey = mapEntry.getKey();
+      // if more than one index key maps to the same RegionEntry that
+      // means there has been an in-place modification
+      if (TypeUtils.compare(indexKey, newKey, CompiledComparison.TOK_NE).equals(Boolean.TRUE)
+          && contains(mapEntry.getValue(), entry)) {
+        return indexKey;
+      }
+    }
+    return newKey;
+  }
+
+  private static boolean contains(Object entries, RegionEntry entry) {
+    if (entries instanceof RegionEntry) {
+      return entries == entry;
+    }
+    if (entries instanceof RegionEntry[]) {
+      for (RegionEntry e : (RegionEntry[]) entries) {
+        if (e == entry) {
+          return true;
+        }
+      }
+      return false;
+    }
+    return ((Collection) entries).contains(entry);
+  }
+
+  @Override
+  public void addMapping(Object indexKey, RegionEntry re) throws IMQException {
+    // for add, oldkey is null
+    updateMapping(indexKey, null, re, null);
+  }
+
+  @Override
+  public void removeMapping(Object indexKey, RegionEntry re) throws IMQException {
+    boolean found = basicRemoveMapping(indexKey, re, true);
+    if (found && IndexManager.isObjectModificationInplace()) {
+      this.entryToValuesMap.remove(re);
+    }
+  }
+
+  private boolean basicRemoveMapping(Object key, RegionEntry entry, boolean findOldKey)
+      throws IMQException {
+    boolean found;
+    try {
+      Object newKey;
+      if (IndexManager.isObjectModificationInplace() && this.entryToValuesMap.containsKey(entry)) {
+        newKey = this.entryToValuesMap.get(entry);
+      } else {
+        newKey = TypeUtils.indexKeyFor(key);
+      }
+      if (DefaultQuery.testHook != null) {
+        DefaultQuery.testHook.doTestHook(DefaultQuery.TestHook.SPOTS.ATTEMPT_REMOVE, null);
+      }
+      found = remove(newKey, entry);
+    } catch (TypeMismatchException ex) {
+      throw new IMQException("Could not add object of type " + key.getClass().getName(), ex);
+    }
+    if (found) {
+      // Update stats if entry was actually removed
+      this.internalIndexStats.incNumValues(-1);
+    } else if (findOldKey && !IndexManager.isObjectModificationInplace() && key != null) {
+      // if there is an inplace-modification find old key by iterating
+      // over the leaves and then remove the mapping
+      try {
+        Object oldKey = getOldKey(key, entry);
+        found = basicRemoveMapping(oldKey, entry, false);
+      } catch (TypeMismatchException e) {
+        throw new IMQException("Could not find old key: " + key.getClass().getName(), e);
+      }
+    }
+    return found;
+  }
+
+  /**
+   * @return true if the entry was removed, false if the key did not map to it
+   */
+  private boolean remove(Object key, RegionEntry entry) {
+    while (true) {
+      Leaf leaf = leafFor(key);
+      synchronized (leaf) {
+        if (leaf.removed || leafFor(key) != leaf) {
+          // the leaf was removed or split since it was looked up
+          continue;
+        }
+        Keys keys = leaf.keys;
+        int index = keys.indexOf(key);
+        if (index < 0) {
+          return false;
+        }
+        Object entries = keys.entries[index];
+        Object newEntries = null;
+        if (entries instanceof IndexConcurrentHashSet) {
+          IndexConcurrentHashSet set = (IndexConcurrentHashSet) entries;
+          if (!set.remove(entry)) {
+            return false;
+          }
+          if (!set.isEmpty()) {
+            return true;
+          }
+        } else {
+          newEntries = removeEntry(entries, entry);
+          if (newEntries == entries) {
+            return false;
+          }
+        }
+        if (newEntries != null) {
+          leaf.keys = keys.replace(index, newEntries);
+          return true;
+        }
+        keys = keys.remove(index);
+        leaf.keys = keys;
+        this.numIndexKeys.decrementAndGet();
+        this.internalIndexStats.incNumKeys(-1);
+        if (keys.size() == 0 && leaf.lowestKey != LOWEST && leaf != this.nullLeaf
+            && leaf != this.undefinedLeaf) {
+          leaf.removed = true;
+          this.leaves.remove(leaf.lowestKey, leaf);
+        }
+        return true;
+      }
+    }
+  }
+
+  /**
+   * @return the entries of a key with the entry removed, the same entries if the entry was not
+   *         there or null if the entry was the only one
+   */
+  private static Object removeEntry(Object entries, RegionEntry entry) {
+    if (entries instanceof RegionEntry) {
+      return entries == entry ? null : entries;
+    }
+    RegionEntry[] array = (RegionEntry[]) entries;
+    for (int i = 0; i < array.length; i++) {
+      if (array[i] == entry) {
+        if (array.length == 2) {
+          return array[1 - i];
+        }
+        RegionEntry[] newArray = new RegionEntry[array.length - 1];
+        System.arraycopy(array, 0, newArray, 0, i);
+        System.arraycopy(array, i + 1, newArray, i, array.length - i - 1);
+        return newArray;
+      }
+    }
+    return entries;
+  }
+
+  /**
+   * @return the entries of a key or null if the index does not have the key
+   */
+  private Object getEntries(Object key) {
+    while (true) {
+      Leaf leaf = leafFor(key);
+      Keys keys = leaf.keys;
+      // a split or a removal since the leaf was looked up may have moved the key to another leaf
+      if (leafFor(key) == leaf) {
+        int index = keys.indexOf(key);
+        return index < 0 ? null : keys.entries[index];
+      }
+    }
+  }
+
+  private static int numValues(Object entries) {
+    if (entries instanceof RegionEntry) {
+      return 1;
+    }
+    if (entries instanceof RegionEntry[]) {
+      return ((RegionEntry[]) entries).length;
+    }
+    return ((Collection) entries).size();
+  }
+
+  @Override
+  public CloseableIterator<IndexStoreEntry> get(Object indexKey) {
+    return new PrimitiveIndexStoreIterator(indexKey, getEntries(indexKey));
+  }
+
+  @Override
+  public CloseableIterator<IndexStoreEntry> iterator(Object start, boolean startInclusive,
+      Object end, boolean endInclusive, Collection keysToRemove) {
+    return new PrimitiveIndexStoreIterator(
+        new KeyCursor(start, startInclusive, end, endInclusive, false), keysToRemove);
+  }
+
+  @Override
+  public CloseableIterator<IndexStoreEntry> iterator(Object start, boolean startInclusive,
+      Collection keysToRemove) {
+    return new PrimitiveIndexStoreIterator(new KeyCursor(start, startInclusive, null, false, false),
+        keysToRemove);
+  }
+
+  @Override
+  public CloseableIterator<IndexStoreEntry> iterator(Collection keysToRemove) {
+    return new PrimitiveIndexStoreIterator(new KeyCursor(null, false, null, false, false),
+        keysToRemove);
+  }
+
+  @Override
+  public CloseableIterator<IndexStoreEntry> descendingIterator(Object start, boolean startInclusive,
+      Object end, boolean endInclusive, Collection keysToRemove) {
+    return new PrimitiveIndexStoreIterator(
+        new KeyCursor(start, startInclusive, end, endInclusive, true), keysToRemove);
+  }
+
+  @Override
+  public CloseableIterator<IndexStoreEntry> descendingIterator(Object start, boolean startInclusive,
+      Collection keysToRemove) {
+    return new PrimitiveIndexStoreIterator(new KeyCursor(start, startInclusive, null, false, true),
+        keysToRemove);
+  }
+
+  @Override
+  public CloseableIterator<IndexStoreEntry> descendingIterator(Collection keysToRemove) {
+    return new PrimitiveIndexStoreIterator(new KeyCursor(null, false, null, false, true),
+        keysToRemove);
+  }
+
+  @Override
+  public Iterator<IndexStoreEntry> getKeysIterator() {
+    Iterator<Map.Entry<Object, Object>> iterator = entries(false).iterator();
+    return new Iterator<IndexStoreEntry>() {
+      @Override
+      public boolean hasNext() {
+        return iterator.hasNext();
+      }
+
+      @Override
+      public IndexStoreEntry next() {
+        return new MemoryIndexStoreKey(iterator.next().getKey());
+      }
+    };
+  }
+
+  /**
+   * @param withNullAndUndefined true to also return the null and undefined keys
+   * @return the keys of this store and their entries in ascending order
+   */
+  private Iterable<Map.Entry<Object, Object>> entries(boolean withNullAndUndefined) {
+    return () -> new Iterator<Map.Entry<Object, Object>>() {
+      private final KeyCursor cursor = new KeyCursor(null, false, null, false, false);
+      private final Iterator<Leaf> tokenLeaves = withNullAndUndefined
+          ? Arrays.asList(nullLeaf, undefinedLeaf).iterator() : Collections.emptyIterator();
+      private Map.Entry<Object, Object> next;
+
+      @Override
+      public boolean hasNext() {
+        while (this.next == null) {
+          if (this.tokenLeaves.hasNext()) {
+            Keys keys = this.tokenLeaves.next().keys;
+            if (keys.size() > 0) {
+              this.next = new AbstractMap.SimpleImmutableEntry<>(keys.get(0), keys.entries[0]);
+            }
+          } else if (this.cursor.advance()) {
+            this.next =
+                new AbstractMap.SimpleImmutableEntry<>(this.cursor.key, this.cursor.entries);
+          } else {
+            return false;
+          }
+        }
+        return true;
+      }
+
+      @Override
+      public Map.Entry<Object, Object> next() {
+        if (!hasNext()) {
+          throw new NoSuchElementException();
+        }
+        Map.Entry<Object, Object> entry = this.next;
+        this.next = null;
+        return entry;
+      }
+    };
+  }
+
+  @Override
+  public boolean clear() {
+    for (Leaf leaf : this.leaves.values()) {
+      synchronized (leaf) {
+        leaf.keys = ObjectKeys.EMPTY;
+        if (leaf.lowestKey != LOWEST) {
+          leaf.removed = true;
+          this.leaves.remove(leaf.lowestKey, leaf);
+        }
+      }
+    }
+    for (Leaf leaf : new Leaf[] {this.nullLeaf, this.undefinedLeaf}) {
+      synchronized (leaf) {
+        leaf.keys = ObjectKeys.EMPTY;
+      }
+    }
+    if (IndexManager.isObjectModificationInplace()) {
+      this.entryToValuesMap.clear();
+    }
+    this.numIndexKeys.set(0);
+    return true;
+  }
+
+  @Override
+  public int size(Object key) {
+    Object entries = getEntries(key);
+    return entries == null ? 0 : numValues(entries);
+  }
+
+  @Override
+  public int size() {
+    return this.numIndexKeys.get();
+  }
+
+  @Override
+  IndexHistogram buildHistogram(int maxBuckets) {
+    return IndexHistogram.build(COMPARATOR, entries(false), PrimitiveIndexStore::numValues,
+        maxBuckets);
+  }
+
+  @Override
+  public String printAll() {
+    StringBuilder sb = new StringBuilder();
+    for (Map.Entry<Object, Object> mapEntry : entries(true)) {
+      sb.append("Key: ").append(mapEntry.getKey());
+      Object value = mapEntry.getValue();
+      if (value instanceof RegionEntry) {
+        sb.append(" Value:").append(getTargetObject((RegionEntry) value));
+      } else {
+        Iterable<?> entries = value instanceof RegionEntry[]
+            ? Arrays.asList((RegionEntry[]) value) : (Collection<?>) value;
+        for (Object entry : entries) {
+          sb.append(" Value:").append(getTargetObject((RegionEntry) entry));
+        }
+      }
+      sb.append("\n");
+    }
+    return sb.toString();
+  }
+
+  private static class Leaf {
+
+    /**
+     * The lowest key this leaf may hold, which is its key in the leaves map
+     */
+    final Object lowestKey;
+
+    volatile Keys keys;
+
+    /**
+     * Set under the lock of the leaf once it is removed from the leaves map
+     */
+    boolean removed;
+
+    Leaf(Object lowestKey, Keys keys) {
+      this.lowestKey = lowestKey;
+      this.keys = keys;
+    }
+  }
+
+  /**
+   * Walks the keys of the leaves between two bounds. The keys of a leaf are read at once, keys
+   * added or removed while the cursor walks the leaves may or may not be seen, like with the
+   * iterators of a skip list.
+   * <p>
+   * A leaf being split has its upper keys in both the new leaf and its own keys for a moment, so
+   * the cursor only walks the keys of a leaf below the lowest key of the leaf after it. Going up,
+   * the next leaf is looked up after the keys of the current leaf were read, so a split before the
+   * read is seen. Going down, the leaf below the one walked last is looked up again after its keys
+   * were read until a split does not get in the way.
+   */
+  private class KeyCursor {
+
+    private final Object start;
+
+    private final boolean startInclusive;
+
+    private final Object end;
+
+    private final boolean endInclusive;
+
+    private final boolean descending;
+
+    /**
+     * Going up the lowest key of the next leaf, going down the lowest key of the leaf walked last
+     */
+    private Object bound;
+
+    private boolean first = true;
+
+    private boolean last;
+
+    private Keys keys;
+
+    private int position;
+
+    private int remaining;
+
+    /**
+     * The current key and its entries
+     */
+    Object key;
+
+    Object entries;
+
+    KeyCursor(Object start, boolean startInclusive, Object end, boolean endInclusive,
+        boolean descending) {
+      this.start = start;
+      this.startInclusive = startInclusive;
+      this.end = end;
+      this.endInclusive = endInclusive;
+      this.descending = descending;
+    }
+
+    /**
+     * Moves to the next key
+     *
+     * @return false if there are no more keys
+     */
+    boolean advance() {
+      while (this.remaining == 0) {
+        if (this.last) {
+          this.key = null;
+          this.entries = null;
+          return false;
+        }
+        if (this.descending) {
+          previousLeaf();
+        } else {
+          nextLeaf();
+        }
+      }
+      this.remaining--;
+      int index = this.descending ? this.position-- : this.position++;
+      this.key = this.keys.get(index);
+      this.entries = this.keys.entries[index];
+      return true;
+    }
+
+    private void nextLeaf() {
+      Map.Entry<Object, Leaf> entry;
+      if (this.first) {
+        entry = this.start == null ? leaves.firstEntry() : leaves.floorEntry(this.start);
+        this.first = false;
+      } else {
+        entry = leaves.ceilingEntry(this.bound);
+      }
+      if (entry == null) {
+        this.last = true;
+        return;
+      }
+      Leaf leaf = entry.getValue();
+      Keys keys = leaf.keys;
+      Object higherKey = leaves.higherKey(leaf.lowestKey);
+      int from = this.start == null ? 0 : keys.ceilingIndex(this.start, this.startInclusive);
+      int to = keys.size();
+      if (higherKey != null) {
+        to = Math.min(to, keys.ceilingIndex(higherKey, true));
+      }
+      if (this.end != null) {
+        to = Math.min(to, keys.ceilingIndex(this.end, !this.endInclusive));
+      }
+      if (higherKey == null) {
+        this.last = true;
+      } else if (this.end != null) {
+        int result = COMPARATOR.compare(this.end, higherKey);
+        this.last = result < 0 || result == 0 && !this.endInclusive;
+      }
+      this.bound = higherKey;
+      this.keys = keys;
+      this.position = from;
+      this.remaining = Math.max(0, to - from);
+    }
+
+    private void previousLeaf() {
+      Leaf leaf = lookUpPreviousLeaf();
+      Keys keys = leaf.keys;
+      for (Leaf again = lookUpPreviousLeaf(); again != leaf; again = lookUpPreviousLeaf()) {
+        leaf = again;
+        keys = leaf.keys;
+      }
+      int from = this.start == null ? 0 : keys.ceilingIndex(this.start, this.startInclusive);
+      int to = keys.size();
+      if (!this.first) {
+        to = Math.min(to, keys.ceilingIndex(this.bound, true));
+      }
+      if (this.end != null) {
+        to = Math.min(to, keys.ceilingIndex(this.end, !this.endInclusive));
+      }
+      this.last = leaf.lowestKey == LOWEST
+          || this.start != null && COMPARATOR.compare(this.start, leaf.lowestKey) >= 0;
+      this.first = false;
+      this.bound = leaf.lowestKey;
+      this.keys = keys;
+      this.position = to - 1;
+      this.remaining = Math.max(0, to - from);
+    }
+
+    private Leaf lookUpPreviousLeaf() {
+      if (!this.first) {
+        return leaves.lowerEntry(this.bound).getValue();
+      }
+      return this.end == null ? leaves.lastEntry().getValue()
+          : leaves.floorEntry(this.end).getValue();
+    }
+  }
+
+  /**
+   * Iterates over the entries of the keys of a {@link KeyCursor}, or of a single key
+   */
+  private class PrimitiveIndexStoreIterator implements CloseableIterator<IndexStoreEntry> {
+
+    private final KeyCursor cursor;
+
+    private final Collection keysToRemove;
+
+    private final MemoryIndexStoreEntry currentEntry;
+
+    private Object currKey;
+
+    private Iterator valuesIterator;
+
+    private RegionEntry nextEntry;
+
+    private PrimitiveIndexStoreIterator(Object indexKey, Object entries) {
+      this(null, null);
+      if (entries != null) {
+        this.currKey = indexKey;
+        setEntries(entries);
+      }
+    }
+
+    private PrimitiveIndexStoreIterator(KeyCursor cursor, Collection keysToRemove) {
+      this.cursor = cursor;
+      this.keysToRemove = keysToRemove == null ? null : new HashSet(keysToRemove);
+      this.currentEntry = new MemoryIndexStoreEntry(cache.cacheTimeMillis());
+    }
+
+    private void setEntries(Object entries) {
+      if (entries instanceof RegionEntry) {
+        this.nextEntry = (RegionEntry) entries;
+      } else if (entries instanceof RegionEntry[]) {
+        this.valuesIterator = Arrays.asList((RegionEntry[]) entries).iterator();
+      } else {
+        this.valuesIterator = ((Collection) entries).iterator();
+      }
+    }
+
+    @Override
+    public boolean hasNext() {
+      while (this.nextEntry == null) {
+        if (this.valuesIterator != null && this.valuesIterator.hasNext()) {
+          this.nextEntry = (RegionEntry) this.valuesIterator.next();
+          return true;
+        }
+        this.valuesIterator = null;
+        if (this.cursor == null || !this.cursor.advance()) {
+          return false;
+        }
+        if (this.keysToRemove != null
+            && removeFromKeysToRemove(this.keysToRemove, this.cursor.key)) {
+          continue;
+        }
+        this.currKey = this.cursor.key;
+        setEntries(this.cursor.entries);
+      }
+      return true;
+    }
+
+    @Override
+    public MemoryIndexStoreEntry next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      RegionEntry entry = this.nextEntry;
+      // move on first, reading the entry throws if it was destroyed meanwhile
+      this.nextEntry = null;
+      this.currentEntry.setMemoryIndexStoreEntry(this.currKey, entry);
+      return this.currentEntry;
+    }
+
+    @Override
+    public void close() {
+      // do nothing
+    }
+  }
+
+  /**
+   * The sorted keys of a leaf and the entries of each key: a RegionEntry, an array of RegionEntry
+   * or an {@link IndexConcurrentHashSet}. The keys are never changed, a leaf is changed by
+   * replacing its keys.
+   */
+  private abstract static class Keys {
+
+    final Object[] entries;
+
+    Keys(Object[] entries) {
+      this.entries = entries;
+    }
+
+    int size() {
+      return this.entries.length;
+    }
+
+    /**
+     * @return the key at the index
+     */
+    abstract Object get(int index);
+
+    /**
+     * Compares a key with the key at the index, as the index comparator does
+     */
+    abstract int compare(Object key, int index);
+
+    /**
+     * @return true if the key can be kept in the array of these keys
+     */
+    abstract boolean holds(Object key);
+
+    abstract Object keyArray();
+
+    abstract Object newKeyArray(int size);
+
+    abstract void set(Object keyArray, int index, Object key);
+
+    abstract Keys create(Object keyArray, Object[] entries);
+
+    /**
+     * @return the index of the key, or (-(insertion point) - 1) as with Arrays.binarySearch
+     */
+    int indexOf(Object key) {
+      int low = 0;
+      int high = size() - 1;
+      while (low <= high) {
+        int mid = (low + high) >>> 1;
+        int result = compare(key, mid);
+        if (result > 0) {
+          low = mid + 1;
+        } else if (result < 0) {
+          high = mid - 1;
+        } else {
+          return mid;
+        }
+      }
+      return -(low + 1);
+    }
+
+    /**
+     * @return the index of the first key greater than the key, or equal to it if inclusive
+     */
+    int ceilingIndex(Object key, boolean inclusive) {
+      int index = indexOf(key);
+      if (index >= 0) {
+        return inclusive ? index : index + 1;
+      }
+      return -(index + 1);
+    }
+
+    Keys insert(int index, Object key, Object keyEntries) {
+      if (size() == 0) {
+        Keys empty = emptyKeysFor(key);
+        if (empty.getClass() != getClass()) {
+          return empty.insert(index, key, keyEntries);
+        }
+      } else if (!holds(key)) {
+        return toObjectKeys().insert(index, key, keyEntries);
+      }
+      int size = size();
+      Object newKeys = newKeyArray(size + 1);
+      System.arraycopy(keyArray(), 0, newKeys, 0, index);
+      System.arraycopy(keyArray(), index, newKeys, index + 1, size - index);
+      set(newKeys, index, key);
+      Object[] newEntries = new Object[size + 1];
+      System.arraycopy(this.entries, 0, newEntries, 0, index);
+      System.arraycopy(this.entries, index, newEntries, index + 1, size - index);
+      newEntries[index] = keyEntries;
+      return create(newKeys, newEntries);
+    }
+
+    Keys remove(int index) {
+      int size = size();
+      Object newKeys = newKeyArray(size - 1);
+      System.arraycopy(keyArray(), 0, newKeys, 0, index);
+      System.arraycopy(keyArray(), index + 1, newKeys, index, size - index - 1);
+      Object[] newEntries = new Object[size - 1];
+      System.arraycopy(this.entries, 0, newEntries, 0, index);
+      System.arraycopy(this.entries, index + 1, newEntries, index, size - index - 1);
+      return create(newKeys, newEntries);
+    }
+
+    Keys replace(int index, Object keyEntries) {
+      Object[] newEntries = this.entries.clone();
+      newEntries[index] = keyEntries;
+      return create(keyArray(), newEntries);
+    }
+
+    Keys copy(int from, int to) {
+      Object newKeys = newKeyArray(to - from);
+      System.arraycopy(keyArray(), from, newKeys, 0, to - from);
+      return create(newKeys, Arrays.copyOfRange(this.entries, from, to));
+    }
+
+    private Keys toObjectKeys() {
+      Object[] keys = new Object[size()];
+      for (int i = 0; i < keys.length; i++) {
+        keys[i] = get(i);
+      }
+      return new ObjectKeys(keys, this.entries);
+    }
+
+    private static Keys emptyKeysFor(Object key) {
+      if (key instanceof Long) {
+        return LongKeys.EMPTY;
+      } else if (key instanceof Integer) {
+        return IntKeys.EMPTY;
+      } else if (key instanceof Double) {
+        return DoubleKeys.EMPTY;
+      } else if (key instanceof String) {
+        return StringKeys.EMPTY;
+      }
+      return ObjectKeys.EMPTY;
+    }
+  }
+
+  private static class LongKeys extends Keys {
+
+    static final Keys EMPTY = new LongKeys(new long[0], new Object[0]);
+
+    private final long[] keys;
+
+    LongKeys(long[] keys, Object[] entries) {
+      super(entries);
+      this.keys = keys;
+    }
+
+    @Override
+    Object get(int index) {
+      return this.keys[index];
+    }
+
+    @Override
+    int compare(Object key, int index) {
+      if (key instanceof Long) {
+        return Long.compare((Long) key, this.keys[index]);
+      }
+      return COMPARATOR.compare(key, this.keys[index]);
+    }
+
+    @Override
+    boolean holds(Object key) {
+      return key instanceof Long;
+    }
+
+    @Override
+    Object keyArray() {
+      return this.keys;
+    }
+
+    @Override
+    Object newKeyArray(int size) {
+      return new long[size];
+    }
+
+    @Override
+    void set(Object keyArray, int index, Object key) {
+      ((long[]) keyArray)[index] = (Long) key;
+    }
+
+    @Override
+    Keys create(Object keyArray, Object[] entries) {
+      return new LongKeys((long[]) keyArray, entries);
+    }
+  }
+
+  private static class IntKeys extends Keys {
+
+    static final Keys EMPTY = new IntKeys(new int[0], new Object[0]);
+
+    private final int[] keys;
+
+    IntKeys(int[] keys, Object[] entries) {
+      super(entries);
+      this.keys = keys;
+    }
+
+    @Override
+    Object get(int index) {
+      return this.keys[index];
+    }
+
+    @Override
+    int compare(Object key, int index) {
+      if (key instanceof Integer) {
+        return Integer.compare((Integer) key, this.keys[index]);
+      }
+      return COMPARATOR.compare(key, this.keys[index]);
+    }
+
+    @Override
+    boolean holds(Object key) {
+      return key instanceof Integer;
+    }
+
+    @Override
+    Object keyArray() {
+      return this.keys;
+    }
+
+    @Override
+    Object newKeyArray(int size) {
+      return new int[size];
+    }
+
+    @Override
+    void set(Object keyArray, int index, Object key) {
+      ((int[]) keyArray)[index] = (Integer) key;
+    }
+
+    @Override
+    Keys create(Object keyArray, Object[] entries) {
+      return new IntKeys((int[]) keyArray, entries);
+    }
+  }
+
+  private static class DoubleKeys extends Keys {
+
+    static final Keys EMPTY = new DoubleKeys(new double[0], new Object[0]);
+
+    private final double[] keys;
+
+    DoubleKeys(double[] keys, Object[] entries) {
+      super(entries);
+      this.keys = keys;
+    }
+
+    @Override
+    Object get(int index) {
+      return this.keys[index];
+    }
+
+    @Override
+    int compare(Object key, int index) {
+      if (key instanceof Double) {
+        // the same order as Double.compareTo
+        return Double.compare((Double) key, this.keys[index]);
+      }
+      return COMPARATOR.compare(key, this.keys[index]);
+    }
+
+    @Override
+    boolean holds(Object key) {
+      return key instanceof Double;
+    }
+
+    @Override
+    Object keyArray() {
+      return this.keys;
+    }
+
+    @Override
+    Object newKeyArray(int size) {
+      return new double[size];
+    }
+
+    @Override
+    void set(Object keyArray, int index, Object key) {
+      ((double[]) keyArray)[index] = (Double) key;
+    }
+
+    @Override
+    Keys create(Object keyArray, Object[] entries) {
+      return new DoubleKeys((double[]) keyArray, entries);
+    }
+  }
+
+  private static class StringKeys extends Keys {
+
+    static final Keys EMPTY = new StringKeys(new String[0], new Object[0]);
+
+    private final String[] keys;
+
+    StringKeys(String[] keys, Object[] entries) {
+      super(entries);
+      this.keys = keys;
+    }
+
+    @Override
+    Object get(int index) {
+      return this.keys[index];
+    }
+
+    @Override
+    int compare(Object key, int index) {
+      if (key instanceof String) {
+        return ((String) key).compareTo(this.keys[index]);
+      }
+      return COMPARATOR.compare(key, this.keys[index]);
+    }
+
+    @Override
+    boolean holds(Object key) {
+      return key instanceof String;
+    }
+
+    @Override
+    Object keyArray() {
+      return this.keys;
+    }
+
+    @Override
+    Object newKeyArray(int size) {
+      return new String[size];
+    }
+
+    @Override
+    void set(Object keyArray, int index, Object key) {
+      ((String[]) keyArray)[index] = (String) key;
+    }
+
+    @Override
+    Keys create(Object keyArray, Object[] entries) {
+      return new StringKeys((String[]) keyArray, entries);
+    }
+  }
+
+  private static class ObjectKeys extends Keys {
+
+    static final Keys EMPTY = new ObjectKeys(new Object[0], new Object[0]);
+
+    private final Object[] keys;
+
+    ObjectKeys(Object[] keys, Object[] entries) {
+      super(entries);
+      this.keys = keys;
+    }
+
+    @Override
+    Object get(int index) {
+      return this.keys[index];
+    }
+
+    @Override
+    int compare(Object key, int index) {
+      return COMPARATOR.compare(key, this.keys[index]);
+    }
+
+    @Override
+    boolean holds(Object key) {
+      return true;
+    }
+
+    @Override
+    Object keyArray() {
+      return this.keys;
+    }
+
+    @Override
+    Object newKeyArray(int size) {
+      return new Object[size];
+    }
+
+    @Override
+    void set(Object keyArray, int index, Object key) {
+      ((Object[]) keyArray)[index] = key;
+    }
+
+    @Override
+    Keys create(Object keyArray, Object[] entries) {
+      return new ObjectKeys((Object[]) keyArray, entries);
+    }
+  }
+}
@@ -676,93 +676,43 @@ public class RangeIndex extends AbstractIndex {
           break;
         case OQLLexerTokenTypes.TOK_LE:
         case OQLLexerTokenTypes.TOK_LT:
-          if (matchLevel <= 0 && key instanceof Number) {
-            int totalSize = valueToEntriesMapSize;// this.valueToEntriesMap.size();
-            if (RangeIndex.testHook != null) {
-              RangeIndex.testHook.hook(1);
-            }
-            if (totalSize > 1) {
-              Number keyAsNum = (Number) key;
-              int x = 0;
-              Map.Entry firstEntry = this.valueToEntriesMap.firstEntry();
-              Map.Entry lastEntry = this.valueToEntriesMap.lastEntry();
-
-              if (firstEntry != null && lastEntry != null) {
-                Number first = (Number) firstEntry.getKey();
-                Number last = (Number) lastEntry.getKey();
-                if (first.doubleValue() != last.doubleValue()) {
-                  // Shobhit: Now without ReadLoack on index we can end up with 0 in
-                  // denominator.
-                  // can end up with 0 in denominator if the numbers are floating-point
-                  // and truncated with conversion to long, and the first and last keys
-                  // truncate to the same long, so safest calculation is to convert to doubles
-                  x = (int) (((keyAsNum.doubleValue() - first.doubleValue()) * totalSize)
-                      / (last.doubleValue() - first.doubleValue()));
-                }
-              }
-              if (x < 0) {
-                x = 0;
-              }
-              size = (int) x;
-            } else {
-              // not attempting to differentiate between LT & LE
-              size = this.valueToEntriesMap.containsKey(key) ? 1 : 0;
-            }
-          } else {
+          if (RangeIndex.testHook != null) {
+            RangeIndex.testHook.hook(1);
+          }
+          size = getHistogramSizeEstimate(key, operator, matchLevel);
+          if (size < 0) {
+            // the first histogram of this index is not built yet
             size = MAX_VALUE;
           }
           break;
 
         case OQLLexerTokenTypes.TOK_GE:
         case OQLLexerTokenTypes.TOK_GT:
-          if (matchLevel <= 0 && key instanceof Number) {
-            int totalSize = valueToEntriesMapSize;// this.valueToEntriesMap.size();
-            if (testHook != null) {
-              testHook.hook(2);
-            }
-            if (totalSize > 1) {
-              Number keyAsNum = (Number) key;
-              int x = 0;
-              Map.Entry firstEntry = this.valueToEntriesMap.firstEntry();
-              Map.Entry lastEntry = this.valueToEntriesMap.lastEntry();
-              if (firstEntry != null && lastEntry != null) {
-                Number first = (Number) firstEntry.getKey();
-                Number last = (Number) lastEntry.getKey();
-                if (first.doubleValue() != last.doubleValue()) {
-                  // Shobhit: Now without ReadLoack on index we can end up with 0
-                  // in
-                  // denominator.
-                  // can end up with 0 in denominator if the numbers are
-                  // floating-point
-                  // and truncated with conversion to long, and the first and last
-                  // keys
-                  // truncate to the same long,
-                  // so safest calculation is to convert to doubles
-                  double totalRange = last.doubleValue() - first.doubleValue();
-                  assert totalRange != 0.0 : this.valueToEntriesMap.keySet();
-                  double part = last.doubleValue() - keyAsNum.doubleValue();
-                  x = (int) ((part * totalSize) / totalRange);
-                }
-              }
-              if (x < 0) {
-                x = 0;
-              }
-              size = x;
-            } else {
-              // not attempting to differentiate between GT & GE
-              size = this.valueToEntriesMap.containsKey(key) ? 1 : 0;
-            }
-          } else {
+          if (testHook != null) {
+            testHook.hook(2);
+          }
+          size = getHistogramSizeEstimate(key, operator, matchLevel);
+          if (size < 0) {
+            // the first histogram of this index is not built yet
             size = MAX_VALUE;
           }
           break;
       }
+    } catch (ClassCastException e) {
+      // no values will match in this index because the key types are not the same
+      return 0;
     } finally {
       updateIndexUseEndStats(start, false);
     }
     return size;
   }
 
+  @Override
+  IndexHistogram buildHistogram() {
+    return IndexHistogram.build(this.valueToEntriesMap,
+        entries -> ((RegionEntryToValuesMap) entries).getNumValues(), IndexHistogram.MAX_BUCKETS);
+  }
+
   private void evaluate(Object key, int operator, Collection results, Set keysToRemove, int limit,
       ExecutionContext context) throws TypeMismatchException {
     key = TypeUtils.indexKeyFor(key);
@@ -1522,6 +1472,10 @@ public class RangeIndex extends AbstractIndex {
       this.vsdStats.incReadLockCount(delta);
     }
 
+    public void incNumHistogramBuilds() {
+      this.vsdStats.incNumHistogramBuilds();
+    }
+
     /**
      * Returns the total amount of time (in nanoseconds) spent updating this index.
      */
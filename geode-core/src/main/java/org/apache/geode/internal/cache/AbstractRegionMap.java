@@ -49,6 +49,7 @@ import org.apache.geode.internal.cache.FilterRoutingInfo.FilterInfo;
 import org.apache.geode.internal.cache.entries.AbstractOplogDiskRegionEntry;
 import org.apache.geode.internal.cache.entries.AbstractRegionEntry;
 import org.apache.geode.internal.cache.entries.DiskEntry;
+import org.apache.geode.internal.cache.entries.OffHeapKeyRegionEntry;
 import org.apache.geode.internal.cache.entries.OffHeapRegionEntry;
 import org.apache.geode.internal.cache.eviction.EvictableEntry;
 import org.apache.geode.internal.cache.eviction.EvictionController;
@@ -78,6 +79,7 @@ import org.apache.geode.internal.sequencelog.EntryLogger;
 import org.apache.geode.internal.size.ReflectionSingleObjectSizer;
 import org.apache.geode.internal.util.concurrent.ConcurrentMapWithReusableEntries;
 import org.apache.geode.internal.util.concurrent.CustomEntryConcurrentHashMap;
+import org.apache.geode.internal.util.concurrent.OpenAddressingConcurrentHashMap;
 
 /**
  * Abstract implementation of {@link RegionMap}that has all the common behavior.
@@ -114,8 +116,13 @@ public abstract class AbstractRegionMap
       InternalRegionArguments internalRegionArgs, boolean isLRU) {
     _setAttributes(attr);
     setOwner(owner);
-    setEntryMap(createConcurrentMapWithReusableEntries(attr.initialCapacity, attr.loadFactor,
-        attr.concurrencyLevel, false, new AbstractRegionEntry.HashRegionEntryCreator()));
+    if (attr.openAddressing) {
+      setEntryMap(new OpenAddressingConcurrentHashMap<>(attr.initialCapacity, attr.loadFactor,
+          attr.concurrencyLevel, new AbstractRegionEntry.HashRegionEntryCreator()));
+    } else {
+      setEntryMap(createConcurrentMapWithReusableEntries(attr.initialCapacity, attr.loadFactor,
+          attr.concurrencyLevel, false, new AbstractRegionEntry.HashRegionEntryCreator()));
+    }
 
     boolean isDisk;
     boolean withVersioning;
@@ -277,6 +284,9 @@ public abstract class AbstractRegionMap
   @Override
   public RegionEntry putEntryIfAbsent(Object key, RegionEntry regionEntry) {
     RegionEntry oldRe = (RegionEntry) getEntryMap().putIfAbsent(key, regionEntry);
+    if (oldRe == null && regionEntry instanceof OffHeapKeyRegionEntry) {
+      OffHeapRegionEntryHelper.moveKeyOffHeap((OffHeapKeyRegionEntry) regionEntry);
+    }
     if (oldRe == null && (regionEntry instanceof OffHeapRegionEntry) && _isOwnerALocalRegion()
         && _getOwner().isThisRegionBeingClosedOrDestroyed()) {
       // prevent orphan during concurrent destroy (#48068)
@@ -688,6 +698,9 @@ public abstract class AbstractRegionMap
       _getOwner().getDiskRegion().replaceIncompatibleEntry((DiskEntry) oldRe, (DiskEntry) newRe);
     }
     getEntryMap().put(newRe.getKey(), newRe);
+    if (newRe instanceof OffHeapKeyRegionEntry) {
+      OffHeapRegionEntryHelper.moveKeyOffHeap((OffHeapKeyRegionEntry) newRe);
+    }
   }
 
   @Override
@@ -0,0 +1,104 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.internal.cache;
+
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.apache.geode.internal.lang.SystemPropertyHelper;
+
+/**
+ * Chooses the bucket an entry is evicted from when a bucket of a partitioned region with entry or
+ * memory LRU eviction takes the region over its eviction limit. Each bucket keeps its own eviction
+ * list and the limit is shared by all the local buckets of the region, so the entry can come from
+ * any of them. Without a coordinator the bucket that went over the limit evicts its own entries,
+ * which makes all the writers of a hot bucket evict from the same list while the other buckets keep
+ * their old entries.
+ * <p>
+ * The bucket that went over the limit is compared with a few other local buckets picked at random,
+ * and the one accounting for most of the limit is evicted from. The buckets are sampled from a
+ * copy of the local buckets that is only made again when they change, and only the counters of the
+ * sampled buckets are read, so picking a bucket does not lock anything or depend on the number of
+ * buckets.
+ *
+ * @see SystemPropertyHelper#EVICTION_BALANCE_BUCKETS
+ */
+class BucketEvictionCoordinator {
+
+  private static final int SAMPLE_SIZE = 2;
+
+  private final PartitionedRegion partitionedRegion;
+
+  /** The local buckets sampled, null when they must be copied again from the data store */
+  private volatile BucketRegion[] localBuckets;
+
+  BucketEvictionCoordinator(PartitionedRegion partitionedRegion) {
+    this.partitionedRegion = partitionedRegion;
+  }
+
+  static boolean isEnabled() {
+    return SystemPropertyHelper
+        .getProductBooleanProperty(SystemPropertyHelper.EVICTION_BALANCE_BUCKETS).orElse(false);
+  }
+
+  /**
+   * Returns the bucket to evict from on behalf of the given bucket, which is returned if none of
+   * the sampled buckets is larger.
+   */
+  BucketRegion selectBucket(BucketRegion bucket) {
+    PartitionedRegionDataStore dataStore = this.partitionedRegion.getDataStore();
+    if (dataStore == null) {
+      return bucket;
+    }
+    BucketRegion[] buckets = getLocalBuckets(dataStore);
+    if (buckets.length == 0) {
+      return bucket;
+    }
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    BucketRegion selected = bucket;
+    long selectedCounter = bucket.getCounter();
+    for (int i = 0; i < SAMPLE_SIZE; i++) {
+      BucketRegion candidate = buckets[random.nextInt(buckets.length)];
+      if (candidate.isDestroyed()) {
+        // the bucket moved away, the next selection samples the current local buckets
+        this.localBuckets = null;
+        continue;
+      }
+      if (!candidate.isInitialized()) {
+        continue;
+      }
+      long counter = candidate.getCounter();
+      if (counter > selectedCounter) {
+        selected = candidate;
+        selectedCounter = counter;
+      }
+    }
+    return selected;
+  }
+
+  /**
+   * Returns the local buckets of the region, copied again from the data store only when their
+   * number changed or when one of them was destroyed.
+   */
+  private BucketRegion[] getLocalBuckets(PartitionedRegionDataStore dataStore) {
+    Map<Integer, BucketRegion> localBucket2RegionMap = dataStore.getLocalBucket2RegionMap();
+    BucketRegion[] buckets = this.localBuckets;
+    if (buckets == null || buckets.length != localBucket2RegionMap.size()) {
+      buckets = localBucket2RegionMap.values().toArray(new BucketRegion[0]);
+      this.localBuckets = buckets;
+    }
+    return buckets;
+  }
+}
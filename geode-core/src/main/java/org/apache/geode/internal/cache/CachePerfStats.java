@@ -55,6 +55,9 @@ public class CachePerfStats {
   protected static final int deltaGetInitialImagesCompletedId;
   protected static final int getInitialImageTimeId;
   protected static final int getInitialImageKeysReceivedId;
+  protected static final int deltaGetInitialImageKeysReceivedId;
+  protected static final int getInitialImageBytesSentId;
+  protected static final int deltaGetInitialImageBytesSentId;
   protected static final int regionsId;
   protected static final int partitionedRegionsId;
   protected static final int destroysId;
@@ -80,6 +83,11 @@ public class CachePerfStats {
   protected static final int queryResultsHashCollisionsId;
   protected static final int queryResultsHashCollisionProbeTimeId;
   protected static final int partitionedRegionQueryRetriesId;
+  protected static final int compiledQueryCacheHitsId;
+  protected static final int compiledQueryCacheMissesId;
+  protected static final int queryResultCacheHitsId;
+  protected static final int queryResultCacheMissesId;
+  protected static final int queryResultCacheInvalidationsId;
 
   protected static final int txSuccessLifeTimeId;
   protected static final int txFailedLifeTimeId;
@@ -200,6 +208,12 @@ public class CachePerfStats {
         "Total time spent doing getInitialImages for region creation.";
     final String getInitialImageKeysReceivedDesc =
         "Total number of keys received while doing getInitialImage operations.";
+    final String deltaGetInitialImageKeysReceivedDesc =
+        "Total number of keys received while doing delta getInitialImage operations.";
+    final String getInitialImageBytesSentDesc =
+        "Total number of bytes of entries this cache sent to other members for getInitialImages (both delta and full GII).";
+    final String deltaGetInitialImageBytesSentDesc =
+        "Total number of bytes of entries this cache sent to other members for delta getInitialImages.";
     final String regionsDesc = "The current number of regions in the cache.";
     final String partitionedRegionsDesc = "The current number of partitioned regions in the cache.";
     final String destroysDesc =
@@ -387,6 +401,11 @@ public class CachePerfStats {
             f.createLongCounter("getInitialImageTime", getInitialImageTimeDesc, "nanoseconds"),
             f.createIntCounter("getInitialImageKeysReceived", getInitialImageKeysReceivedDesc,
                 "keys"),
+            f.createIntCounter("deltaGetInitialImageKeysReceived",
+                deltaGetInitialImageKeysReceivedDesc, "keys"),
+            f.createLongCounter("getInitialImageBytesSent", getInitialImageBytesSentDesc, "bytes"),
+            f.createLongCounter("deltaGetInitialImageBytesSent", deltaGetInitialImageBytesSentDesc,
+                "bytes"),
             f.createIntGauge("regions", regionsDesc, "regions"),
             f.createIntGauge("partitionedRegions", partitionedRegionsDesc, "partitionedRegions"),
             f.createIntCounter("destroys", destroysDesc, "operations"),
@@ -416,6 +435,18 @@ public class CachePerfStats {
                 queryResultsHashCollisionProbeTimeDesc, "nanoseconds"),
             f.createLongCounter("partitionedRegionQueryRetries",
                 partitionedRegionOQLQueryRetriesDesc, "retries"),
+            f.createLongCounter("compiledQueryCacheHits",
+                "Total number of queries created from an already compiled query string", "queries"),
+            f.createLongCounter("compiledQueryCacheMisses",
+                "Total number of queries whose query string had to be compiled", "queries"),
+            f.createLongCounter("queryResultCacheHits",
+                "Total number of query executions that returned a cached result", "queries"),
+            f.createLongCounter("queryResultCacheMisses",
+                "Total number of cacheable query executions that had to evaluate the query",
+                "queries"),
+            f.createLongCounter("queryResultCacheInvalidations",
+                "Total number of cached query results dropped because their regions changed or they expired",
+                "results"),
 
             f.createIntCounter("txCommits", txCommitsDesc, "commits"),
             f.createIntCounter("txCommitChanges", txCommitChangesDesc, "changes"),
@@ -532,6 +563,9 @@ public class CachePerfStats {
     deltaGetInitialImagesCompletedId = type.nameToId("deltaGetInitialImagesCompleted");
     getInitialImageTimeId = type.nameToId("getInitialImageTime");
     getInitialImageKeysReceivedId = type.nameToId("getInitialImageKeysReceived");
+    deltaGetInitialImageKeysReceivedId = type.nameToId("deltaGetInitialImageKeysReceived");
+    getInitialImageBytesSentId = type.nameToId("getInitialImageBytesSent");
+    deltaGetInitialImageBytesSentId = type.nameToId("deltaGetInitialImageBytesSent");
     regionsId = type.nameToId("regions");
     partitionedRegionsId = type.nameToId("partitionedRegions");
     destroysId = type.nameToId("destroys");
@@ -557,6 +591,11 @@ public class CachePerfStats {
     queryResultsHashCollisionsId = type.nameToId("queryResultsHashCollisions");
     queryResultsHashCollisionProbeTimeId = type.nameToId("queryResultsHashCollisionProbeTime");
     partitionedRegionQueryRetriesId = type.nameToId("partitionedRegionQueryRetries");
+    compiledQueryCacheHitsId = type.nameToId("compiledQueryCacheHits");
+    compiledQueryCacheMissesId = type.nameToId("compiledQueryCacheMisses");
+    queryResultCacheHitsId = type.nameToId("queryResultCacheHits");
+    queryResultCacheMissesId = type.nameToId("queryResultCacheMisses");
+    queryResultCacheInvalidationsId = type.nameToId("queryResultCacheInvalidations");
 
     txSuccessLifeTimeId = type.nameToId("txSuccessLifeTime");
     txFailedLifeTimeId = type.nameToId("txFailedLifeTime");
@@ -719,6 +758,18 @@ public class CachePerfStats {
     return stats.getInt(getInitialImageKeysReceivedId);
   }
 
+  public int getDeltaGetInitialImageKeysReceived() {
+    return stats.getInt(deltaGetInitialImageKeysReceivedId);
+  }
+
+  public long getGetInitialImageBytesSent() {
+    return stats.getLong(getInitialImageBytesSentId);
+  }
+
+  public long getDeltaGetInitialImageBytesSent() {
+    return stats.getLong(deltaGetInitialImageBytesSentId);
+  }
+
   public int getRegions() {
     return stats.getInt(regionsId);
   }
@@ -1061,6 +1112,21 @@ public class CachePerfStats {
     stats.incInt(getInitialImageKeysReceivedId, 1);
   }
 
+  public void incDeltaGetInitialImageKeysReceived(int keys) {
+    stats.incInt(deltaGetInitialImageKeysReceivedId, keys);
+  }
+
+  /**
+   * @param bytes the serialized size of the entries of a chunk sent to an image requester
+   * @param isDeltaGII whether the chunk is part of a delta image
+   */
+  public void incGetInitialImageBytesSent(long bytes, boolean isDeltaGII) {
+    stats.incLong(getInitialImageBytesSentId, bytes);
+    if (isDeltaGII) {
+      stats.incLong(deltaGetInitialImageBytesSentId, bytes);
+    }
+  }
+
   public long startIndexUpdate() {
     stats.incInt(indexUpdateInProgressId, 1);
     return getStatTime();
@@ -1481,6 +1547,46 @@ public class CachePerfStats {
     return this.stats.getLong(partitionedRegionQueryRetriesId);
   }
 
+  public void incCompiledQueryCacheHits() {
+    this.stats.incLong(compiledQueryCacheHitsId, 1);
+  }
+
+  public long getCompiledQueryCacheHits() {
+    return this.stats.getLong(compiledQueryCacheHitsId);
+  }
+
+  public void incCompiledQueryCacheMisses() {
+    this.stats.incLong(compiledQueryCacheMissesId, 1);
+  }
+
+  public long getCompiledQueryCacheMisses() {
+    return this.stats.getLong(compiledQueryCacheMissesId);
+  }
+
+  public void incQueryResultCacheHits() {
+    this.stats.incLong(queryResultCacheHitsId, 1);
+  }
+
+  public long getQueryResultCacheHits() {
+    return this.stats.getLong(queryResultCacheHitsId);
+  }
+
+  public void incQueryResultCacheMisses() {
+    this.stats.incLong(queryResultCacheMissesId, 1);
+  }
+
+  public long getQueryResultCacheMisses() {
+    return this.stats.getLong(queryResultCacheMissesId);
+  }
+
+  public void incQueryResultCacheInvalidations() {
+    this.stats.incLong(queryResultCacheInvalidationsId, 1);
+  }
+
+  public long getQueryResultCacheInvalidations() {
+    return this.stats.getLong(queryResultCacheInvalidationsId);
+  }
+
   public QueueStatHelper getEvictionQueueStatHelper() {
     return new QueueStatHelper() {
       public void add() {
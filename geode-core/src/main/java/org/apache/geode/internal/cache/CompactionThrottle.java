@@ -0,0 +1,166 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.internal.cache;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+import org.apache.geode.distributed.internal.DistributionConfig;
+
+/**
+ * Limits the rate at which the compactors of a disk store copy values forward so that compaction
+ * does not starve foreground writes of disk bandwidth.
+ * <p>
+ * Copied bytes are paid for from a token bucket refilled at the current rate, which starts at
+ * {@link #MAX_BYTES_PER_SECOND}. If {@link #BACKOFF_WRITE_LATENCY_MICROS} is set, the average
+ * latency of the foreground writes is checked at every {@link #ADJUST_INTERVAL_NANOS}: the rate is
+ * halved while it is above the threshold and grows back towards the maximum in steps of a sixteenth
+ * of it otherwise.
+ */
+class CompactionThrottle {
+
+  /**
+   * The maximum number of bytes per second the compactors of a disk store copy forward. 0, the
+   * default, does not limit compaction.
+   */
+  static final long MAX_BYTES_PER_SECOND =
+      Long.getLong(DistributionConfig.GEMFIRE_PREFIX + "disk.compactionMaxBytesPerSecond", 0);
+
+  /**
+   * The average foreground write latency in microseconds above which compaction backs off. 0, the
+   * default, disables backoff. Only used if {@link #MAX_BYTES_PER_SECOND} is set.
+   */
+  static final long BACKOFF_WRITE_LATENCY_MICROS = Long
+      .getLong(DistributionConfig.GEMFIRE_PREFIX + "disk.compactionBackoffWriteLatencyMicros", 0);
+
+  static final long ADJUST_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+  /**
+   * The rate never drops below the maximum divided by this so compaction always makes progress
+   */
+  private static final int MIN_RATE_DIVISOR = 64;
+
+  private static final int INCREASE_DIVISOR = 16;
+
+  private final long maxRate;
+
+  private final long backoffLatencyNanos;
+
+  private final LongSupplier nanoTime;
+
+  private final LongAdder foregroundWrites = new LongAdder();
+
+  private final LongAdder foregroundWriteNanos = new LongAdder();
+
+  /**
+   * The current rate in bytes per second. Guarded by this
+   */
+  private long rate;
+
+  /**
+   * Bytes that can be copied without waiting, negative when in debt. Guarded by this
+   */
+  private double available;
+
+  private long lastRefill;
+
+  private long nextAdjust;
+
+  /**
+   * @return a throttle configured from the system properties or null if compaction is not limited
+   */
+  static CompactionThrottle create() {
+    if (MAX_BYTES_PER_SECOND <= 0) {
+      return null;
+    }
+    return new CompactionThrottle(MAX_BYTES_PER_SECOND,
+        TimeUnit.MICROSECONDS.toNanos(BACKOFF_WRITE_LATENCY_MICROS), System::nanoTime);
+  }
+
+  CompactionThrottle(long maxRate, long backoffLatencyNanos, LongSupplier nanoTime) {
+    this.maxRate = maxRate;
+    this.backoffLatencyNanos = backoffLatencyNanos;
+    this.nanoTime = nanoTime;
+    this.rate = maxRate;
+    this.lastRefill = nanoTime.getAsLong();
+    this.nextAdjust = this.lastRefill + ADJUST_INTERVAL_NANOS;
+  }
+
+  boolean isBackoffEnabled() {
+    return this.backoffLatencyNanos > 0;
+  }
+
+  /**
+   * Records the latency of a foreground write for the backoff
+   */
+  void foregroundWriteCompleted(long nanos) {
+    this.foregroundWrites.increment();
+    this.foregroundWriteNanos.add(nanos);
+  }
+
+  /**
+   * Pays for bytes copied forward by a compactor
+   *
+   * @return the number of nanoseconds the compactor has to wait before copying more
+   */
+  synchronized long acquire(long bytes) {
+    long now = this.nanoTime.getAsLong();
+    if (isBackoffEnabled() && now - this.nextAdjust >= 0) {
+      adjustRate();
+      this.nextAdjust = now + ADJUST_INTERVAL_NANOS;
+    }
+    // allow bursts of at most one second worth of bytes
+    double refill = (now - this.lastRefill) * (double) this.rate / TimeUnit.SECONDS.toNanos(1);
+    this.available = Math.min(this.rate, this.available + refill);
+    this.lastRefill = now;
+    this.available -= bytes;
+    if (this.available >= 0) {
+      return 0;
+    }
+    return (long) (-this.available * TimeUnit.SECONDS.toNanos(1) / this.rate);
+  }
+
+  private void adjustRate() {
+    long writes = this.foregroundWrites.sumThenReset();
+    long writeNanos = this.foregroundWriteNanos.sumThenReset();
+    if (writes > 0 && writeNanos / writes > this.backoffLatencyNanos) {
+      this.rate = Math.max(this.rate / 2, Math.max(this.maxRate / MIN_RATE_DIVISOR, 1));
+    } else {
+      this.rate = Math.min(this.rate + Math.max(this.maxRate / INCREASE_DIVISOR, 1), this.maxRate);
+    }
+  }
+
+  /**
+   * Pays for bytes copied forward by a compactor, sleeping if they exceed the current rate
+   *
+   * @return the number of nanoseconds slept
+   */
+  long throttle(long bytes) {
+    long waitNanos = acquire(bytes);
+    if (waitNanos > 0) {
+      try {
+        TimeUnit.NANOSECONDS.sleep(waitNanos);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+    return waitNanos;
+  }
+
+  synchronized long getRate() {
+    return this.rate;
+  }
+}
@@ -47,6 +47,7 @@ import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 import java.util.concurrent.RejectedExecutionException;
@@ -217,6 +218,13 @@ public class DiskStoreImpl implements DiskStore {
       DistributionConfig.GEMFIRE_PREFIX + "MAX_CONCURRENT_COMPACTIONS",
       Integer.getInteger(DistributionConfig.GEMFIRE_PREFIX + "MAX_CONCURRENT_ROLLS", 1).intValue());
 
+  /**
+   * The number of threads compacting the oplogs of a single compaction run concurrently. Defaults
+   * to 1, which compacts them one after the other on the compactor thread.
+   */
+  static final int COMPACTION_THREADS =
+      Integer.getInteger(DistributionConfig.GEMFIRE_PREFIX + "disk.compactionThreads", 1);
+
   /**
    * This system property indicates that maximum number of delayed write tasks that can be pending
    * before submitting the tasks start blocking. These tasks are things like unpreblow oplogs,
@@ -357,6 +365,17 @@ public class DiskStoreImpl implements DiskStore {
 
   private final ExecutorService delayedWritePool;
 
+  /**
+   * Compacts oplogs of a compaction run in addition to the compactor thread. Null unless
+   * {@link #COMPACTION_THREADS} is greater than 1. Shut down when the disk store is closed.
+   */
+  private final ExecutorService compactionWorkerPool;
+
+  /**
+   * Null unless compaction is limited
+   */
+  private final CompactionThrottle compactionThrottle = CompactionThrottle.create();
+
   private volatile Future lastDelayedWrite;
 
   private static int calcCompactionThreshold(int ct) {
@@ -483,6 +502,10 @@ public class DiskStoreImpl implements DiskStore {
         MAX_CONCURRENT_COMPACTIONS, Integer.MAX_VALUE);
     this.delayedWritePool =
         LoggingExecutors.newFixedThreadPoolWithFeedSize("Oplog Delete Task", 1, MAX_PENDING_TASKS);
+    this.compactionWorkerPool = COMPACTION_THREADS > 1 ? LoggingExecutors
+        .newFixedThreadPoolWithFeedSize("OplogCompactor Worker", COMPACTION_THREADS - 1,
+            Integer.MAX_VALUE)
+        : null;
   }
 
   // //////////////////// Instance Methods //////////////////////
@@ -682,6 +705,9 @@ public class DiskStoreImpl implements DiskStore {
     if (!async) {
       dr.getStats().startWrite();
     }
+    CompactionThrottle throttle = this.compactionThrottle;
+    long latencyStart =
+        !async && throttle != null && throttle.isBackoffEnabled() ? System.nanoTime() : 0;
     try {
       if (!async) {
         acquireReadLock(dr);
@@ -738,6 +764,9 @@ public class DiskStoreImpl implements DiskStore {
       } else {
         dr.getStats().endWrite(start, getStats().endWrite(start));
         dr.getStats().incWrittenBytes(id.getValueLength());
+        if (latencyStart != 0) {
+          throttle.foregroundWriteCompleted(System.nanoTime() - latencyStart);
+        }
       }
     }
   }
@@ -2282,6 +2311,10 @@ public class DiskStoreImpl implements DiskStore {
       } catch (RuntimeException e) {
         rte = e;
       }
+      if (this.compactionWorkerPool != null) {
+        // a compaction still running compacts the oplogs its workers can not take on its own thread
+        this.compactionWorkerPool.shutdown();
+      }
       if (!isOffline()) {
         try {
           // do this before write lock
@@ -2688,6 +2721,17 @@ public class DiskStoreImpl implements DiskStore {
     return getOplogsToBeCompacted(false);
   }
 
+  /**
+   * Called by a compactor after it copied a value forward. Sleeps if compaction is limited and
+   * exceeds its budget.
+   */
+  void throttleCompaction(long bytes) {
+    CompactionThrottle throttle = this.compactionThrottle;
+    if (throttle != null) {
+      getStats().incCompactionThrottleTime(throttle.throttle(bytes));
+    }
+  }
+
   /**
    * Test hook to see how many oplogs are available for compaction
    */
@@ -2706,7 +2750,8 @@ public class DiskStoreImpl implements DiskStore {
 
     int max = Integer.MAX_VALUE;
     if (!all && max > MAX_OPLOGS_PER_COMPACTION && MAX_OPLOGS_PER_COMPACTION > 0) {
-      max = MAX_OPLOGS_PER_COMPACTION;
+      // give each compaction thread an oplog of its own
+      max = Math.max(MAX_OPLOGS_PER_COMPACTION, COMPACTION_THREADS);
     }
     getPersistentOplogs().getCompactableOplogs(l, max);
 
@@ -2833,8 +2878,13 @@ public class DiskStoreImpl implements DiskStore {
       long compactionStart = getStats().startCompaction();
       long start = System.nanoTime();
       try {
-        for (int i = 0; i < oplogs.length && keepCompactorRunning(); i++) {
-          totalCount += oplogs[i].compact(this);
+        ExecutorService workers = compactionWorkerPool;
+        if (workers != null && oplogs.length > 1) {
+          totalCount = compactConcurrently(oplogs, workers);
+        } else {
+          for (int i = 0; i < oplogs.length && keepCompactorRunning(); i++) {
+            totalCount += oplogs[i].compact(this);
+          }
         }
 
       } finally {
@@ -2846,6 +2896,61 @@ public class DiskStoreImpl implements DiskStore {
       return true;
     }
 
+    /**
+     * Compacts the first oplog on this thread and the others on the worker pool. Copying values
+     * forward to the active oplog still takes its lock but reading the values being copied, which
+     * for an oplog whose values are not in memory is most of the work, is done concurrently.
+     */
+    private int compactConcurrently(CompactableOplog[] oplogs, ExecutorService workers) {
+      List<Future<Integer>> futures = new ArrayList<>(oplogs.length - 1);
+      List<CompactableOplog> rejected = new ArrayList<>();
+      for (int i = 1; i < oplogs.length; i++) {
+        final CompactableOplog oplog = oplogs[i];
+        try {
+          futures.add(workers.submit(() -> keepCompactorRunning() ? oplog.compact(this) : 0));
+        } catch (RejectedExecutionException ignore) {
+          // the disk store is closing
+          rejected.add(oplog);
+        }
+      }
+      int totalCount = 0;
+      Throwable failure = null;
+      try {
+        totalCount += oplogs[0].compact(this);
+        for (int i = 0; i < rejected.size() && keepCompactorRunning(); i++) {
+          totalCount += rejected.get(i).compact(this);
+        }
+      } catch (RuntimeException | Error e) {
+        failure = e;
+      }
+      // wait for all the workers even if one failed since they hold the compactor read lock
+      boolean interrupted = false;
+      for (Future<Integer> future : futures) {
+        while (true) {
+          try {
+            totalCount += future.get();
+            break;
+          } catch (InterruptedException ignore) {
+            interrupted = true;
+          } catch (ExecutionException e) {
+            if (failure == null) {
+              failure = e.getCause();
+            }
+            break;
+          }
+        }
+      }
+      if (interrupted) {
+        Thread.currentThread().interrupt();
+      }
+      if (failure instanceof RuntimeException) {
+        throw (RuntimeException) failure;
+      } else if (failure instanceof Error) {
+        throw (Error) failure;
+      }
+      return totalCount;
+    }
+
     private boolean isClosing() {
       if (getCache().isClosed()) {
         return true;
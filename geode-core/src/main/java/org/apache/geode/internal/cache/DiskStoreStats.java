@@ -40,6 +40,9 @@ public class DiskStoreStats {
   private static final int flushesId;
   private static final int flushTimeId;
   private static final int bytesFlushedId;
+  private static final int groupCommitsId;
+  private static final int groupCommitWritesId;
+  private static final int groupCommitTimeId;
   private static final int readsId;
   private static final int readTimeId;
   private static final int recoveriesInProgressId;
@@ -58,6 +61,7 @@ public class DiskStoreStats {
   private static final int oplogRecoveriesId;
   private static final int oplogRecoveryTimeId;
   private static final int oplogRecoveredBytesId;
+  private static final int recoveryReadAheadBytesId;
   private static final int bytesReadId;
   private static final int removesId;
   private static final int removeTimeId;
@@ -69,6 +73,8 @@ public class DiskStoreStats {
   private static final int compactUpdateTimeId;
   private static final int compactDeletesId;
   private static final int compactDeleteTimeId;
+  private static final int compactReclaimedBytesId;
+  private static final int compactThrottleTimeId;
 
   private static final int openOplogsId;
   private static final int inactiveOplogsId;
@@ -149,6 +155,8 @@ public class DiskStoreStats {
             f.createIntCounter("oplogRecoveries", oplogRecoveriesDesc, "ops"),
             f.createLongCounter("oplogRecoveryTime", oplogRecoveryTimeDesc, "nanoseconds"),
             f.createLongCounter("oplogRecoveredBytes", oplogRecoveredBytesDesc, "bytes"),
+            f.createLongCounter("recoveryReadAheadBytes",
+                "The total number of bytes of oplog files read ahead of their recovery", "bytes"),
             f.createLongCounter("removes", removesDesc, "ops"),
             f.createLongCounter("removeTime", removeTimeDesc, "nanoseconds"),
             f.createIntGauge("queueSize", queueSizeDesc, "entries"),
@@ -167,12 +175,27 @@ public class DiskStoreStats {
             f.createLongCounter("compactDeleteTime",
                 "Total amount of time, in nanoseconds, spent doing deletes during a compact",
                 "nanoseconds"),
+            f.createLongCounter("compactReclaimedBytes",
+                "Total number of bytes of oplog files freed by compaction, less the bytes copied forward",
+                "bytes"),
+            f.createLongCounter("compactThrottleTime",
+                "Total amount of time, in nanoseconds, compaction waited to stay within its disk bandwidth budget",
+                "nanoseconds"),
             f.createIntGauge("compactsInProgress",
                 "current number of oplog compacts that are in progress", "compacts"),
             f.createIntGauge("writesInProgress",
                 "current number of oplog writes that are in progress", "writes"),
             f.createIntGauge("flushesInProgress",
                 "current number of oplog flushes that are in progress", "flushes"),
+            f.createLongCounter("groupCommits",
+                "Total number of syncs done by oplog group commit, each covering the synchronous writes of a group of writers",
+                "commits"),
+            f.createLongCounter("groupCommitWrites",
+                "Total number of synchronous writes made durable by oplog group commits. Divide by groupCommits for the average group size.",
+                "writes"),
+            f.createLongCounter("groupCommitTime",
+                "Total amount of time, in nanoseconds, spent flushing and syncing oplogs for group commits",
+                "nanoseconds"),
             f.createLongCounter("compactTime",
                 "Total amount of time, in nanoseconds, spent compacting oplogs", "nanoseconds"),
             f.createIntCounter("compacts", "Total number of completed oplog compacts", "compacts"),
@@ -198,6 +221,9 @@ public class DiskStoreStats {
     flushesId = type.nameToId("flushes");
     flushTimeId = type.nameToId("flushTime");
     bytesFlushedId = type.nameToId("flushedBytes");
+    groupCommitsId = type.nameToId("groupCommits");
+    groupCommitWritesId = type.nameToId("groupCommitWrites");
+    groupCommitTimeId = type.nameToId("groupCommitTime");
     readsId = type.nameToId("reads");
     readTimeId = type.nameToId("readTime");
     bytesReadId = type.nameToId("readBytes");
@@ -218,6 +244,7 @@ public class DiskStoreStats {
     oplogRecoveriesId = type.nameToId("oplogRecoveries");
     oplogRecoveryTimeId = type.nameToId("oplogRecoveryTime");
     oplogRecoveredBytesId = type.nameToId("oplogRecoveredBytes");
+    recoveryReadAheadBytesId = type.nameToId("recoveryReadAheadBytes");
     removesId = type.nameToId("removes");
     removeTimeId = type.nameToId("removeTime");
     queueSizeId = type.nameToId("queueSize");
@@ -228,6 +255,8 @@ public class DiskStoreStats {
     compactInsertTimeId = type.nameToId("compactInsertTime");
     compactUpdatesId = type.nameToId("compactUpdates");
     compactUpdateTimeId = type.nameToId("compactUpdateTime");
+    compactReclaimedBytesId = type.nameToId("compactReclaimedBytes");
+    compactThrottleTimeId = type.nameToId("compactThrottleTime");
     oplogReadsId = type.nameToId("oplogReads");
     oplogSeeksId = type.nameToId("oplogSeeks");
 
@@ -379,6 +408,36 @@ public class DiskStoreStats {
     return this.stats.getLong(flushesId);
   }
 
+  /**
+   * Invoked before the leader of a group commit flushes and syncs the oplog
+   *
+   * @return The timestamp that marks the start of the operation
+   */
+  public long startGroupCommit() {
+    return DistributionStats.getStatTime();
+  }
+
+  /**
+   * Invoked after a group commit has completed
+   *
+   * @param start The time at which the group commit started
+   * @param writes The number of synchronous writes made durable by the group commit
+   */
+  public void endGroupCommit(long start, long writes) {
+    long end = DistributionStats.getStatTime();
+    this.stats.incLong(groupCommitsId, 1);
+    this.stats.incLong(groupCommitWritesId, writes);
+    this.stats.incLong(groupCommitTimeId, end - start);
+  }
+
+  public long getGroupCommits() {
+    return this.stats.getLong(groupCommitsId);
+  }
+
+  public long getGroupCommitWrites() {
+    return this.stats.getLong(groupCommitWritesId);
+  }
+
   /**
    * Invoked before data is read from disk.
    *
@@ -451,6 +510,10 @@ public class DiskStoreStats {
     this.stats.incLong(oplogRecoveredBytesId, bytesRead);
   }
 
+  public void incRecoveryReadAheadBytes(long bytesRead) {
+    this.stats.incLong(recoveryReadAheadBytesId, bytesRead);
+  }
+
   public void incRecoveredEntryCreates() {
     this.stats.incLong(recoveredEntryCreatesId, 1);
   }
@@ -525,6 +588,18 @@ public class DiskStoreStats {
     this.stats.incLong(compactUpdateTimeId, getStatTime() - start);
   }
 
+  public void incCompactionReclaimedBytes(long bytes) {
+    this.stats.incLong(compactReclaimedBytesId, bytes);
+  }
+
+  public long getCompactionReclaimedBytes() {
+    return this.stats.getLong(compactReclaimedBytesId);
+  }
+
+  public void incCompactionThrottleTime(long nanos) {
+    this.stats.incLong(compactThrottleTimeId, nanos);
+  }
+
   public long getStatTime() {
     return DistributionStats.getStatTime();
   }
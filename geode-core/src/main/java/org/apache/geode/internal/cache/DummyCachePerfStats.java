@@ -282,6 +282,12 @@ public class DummyCachePerfStats extends CachePerfStats {
   @Override
   public void incGetInitialImageKeysReceived() {}
 
+  @Override
+  public void incDeltaGetInitialImageKeysReceived(int keys) {}
+
+  @Override
+  public void incGetInitialImageBytesSent(long bytes, boolean isDeltaGII) {}
+
   @Override
   public void incRegions(int inc) {}
 
@@ -316,6 +322,21 @@ public class DummyCachePerfStats extends CachePerfStats {
   @Override
   public void endQueryExecution(long executionTime) {}
 
+  @Override
+  public void incCompiledQueryCacheHits() {}
+
+  @Override
+  public void incCompiledQueryCacheMisses() {}
+
+  @Override
+  public void incQueryResultCacheHits() {}
+
+  @Override
+  public void incQueryResultCacheMisses() {}
+
+  @Override
+  public void incQueryResultCacheInvalidations() {}
+
   @Override
   public int getTxCommits() {
     return 0;
@@ -133,9 +133,11 @@ import org.apache.geode.cache.client.internal.PoolImpl;
 import org.apache.geode.cache.control.ResourceManager;
 import org.apache.geode.cache.execute.FunctionService;
 import org.apache.geode.cache.query.QueryService;
+import org.apache.geode.cache.query.internal.CompiledQueryCache;
 import org.apache.geode.cache.query.internal.DefaultQueryService;
 import org.apache.geode.cache.query.internal.InternalQueryService;
 import org.apache.geode.cache.query.internal.QueryMonitor;
+import org.apache.geode.cache.query.internal.QueryResultCache;
 import org.apache.geode.cache.query.internal.cq.CqService;
 import org.apache.geode.cache.query.internal.cq.CqServiceProvider;
 import org.apache.geode.cache.server.CacheServer;
@@ -538,6 +540,10 @@ public class GemFireCacheImpl implements InternalCache, InternalClientCache, Has
 
   private final Object queryMonitorLock = new Object();
 
+  private final CompiledQueryCache compiledQueryCache;
+
+  private final QueryResultCache queryResultCache;
+
   private final PersistentMemberManager persistentMemberManager;
 
   private ClientMetadataService clientMetadataService = null;
@@ -896,6 +902,8 @@ public class GemFireCacheImpl implements InternalCache, InternalClientCache, Has
 
       // Create the CacheStatistics
       this.cachePerfStats = new CachePerfStats(system);
+      this.compiledQueryCache = new CompiledQueryCache(this.cachePerfStats);
+      this.queryResultCache = new QueryResultCache(this.cachePerfStats);
       CachePerfStats.enableClockStats = this.system.getConfig().getEnableTimeStatistics();
 
       this.transactionManager = new TXManagerImpl(this.cachePerfStats, this);
@@ -4434,6 +4442,16 @@ public class GemFireCacheImpl implements InternalCache, InternalClientCache, Has
     return this.queryMonitorDisabledForLowMem;
   }
 
+  @Override
+  public CompiledQueryCache getCompiledQueryCache() {
+    return this.compiledQueryCache;
+  }
+
+  @Override
+  public QueryResultCache getQueryResultCache() {
+    return this.queryResultCache;
+  }
+
   /**
    * Returns the QueryMonitor instance based on system property MAX_QUERY_EXECUTION_TIME.
    *
@@ -0,0 +1,134 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.internal.cache;
+
+import java.util.concurrent.Executor;
+
+import org.apache.geode.internal.util.ObjectIntProcedure;
+
+/**
+ * Sends the chunks of an initial image on another thread so the image provider can gather the
+ * entries of the next chunk, which may mean faulting them in from disk, while the previous chunk
+ * is serialized and written to the requester.
+ * <p>
+ * At most one chunk is being sent at a time and chunks are sent in the order they were handed
+ * over, so the procedure sees exactly the calls it would see if it was invoked directly. Whether
+ * to continue is only known once a chunk has been sent, so a chunk gathered while the previous one
+ * was rejected is dropped.
+ */
+class InitialImageChunkPipeline {
+
+  private final ObjectIntProcedure proc;
+
+  private final Executor executor;
+
+  /**
+   * True while a chunk is being sent. Guarded by this
+   */
+  private boolean sending;
+
+  /**
+   * The result of the last chunk sent. Guarded by this
+   */
+  private boolean keepGoing = true;
+
+  /**
+   * Thrown while sending the last chunk. Guarded by this
+   */
+  private Throwable failure;
+
+  InitialImageChunkPipeline(ObjectIntProcedure proc, Executor executor) {
+    this.proc = proc;
+    this.executor = executor;
+  }
+
+  /**
+   * Waits for the previous chunk to be sent and then starts sending this one.
+   *
+   * @param chunk the chunk to send, which the caller must not modify afterwards
+   * @param last positive if this is the last chunk
+   * @return false if the previous chunk told us to stop, in which case this one is not sent
+   */
+  boolean send(Object chunk, int last) {
+    if (!awaitSent()) {
+      return false;
+    }
+    synchronized (this) {
+      this.sending = true;
+    }
+    boolean submitted = false;
+    try {
+      this.executor.execute(() -> doSend(chunk, last));
+      submitted = true;
+    } finally {
+      if (!submitted) {
+        synchronized (this) {
+          this.sending = false;
+          notifyAll();
+        }
+      }
+    }
+    return true;
+  }
+
+  private void doSend(Object chunk, int last) {
+    boolean result = false;
+    Throwable thrown = null;
+    try {
+      result = this.proc.executeWith(chunk, last);
+    } catch (RuntimeException | Error e) {
+      thrown = e;
+    } finally {
+      synchronized (this) {
+        this.keepGoing = result;
+        this.failure = thrown;
+        this.sending = false;
+        notifyAll();
+      }
+    }
+  }
+
+  /**
+   * Waits for the chunk being sent, if any, and rethrows what sending it threw
+   *
+   * @return the result of the procedure for the last chunk sent
+   */
+  boolean awaitSent() {
+    Throwable thrown;
+    boolean interrupted = false;
+    synchronized (this) {
+      while (this.sending) {
+        try {
+          wait();
+        } catch (InterruptedException e) {
+          interrupted = true;
+        }
+      }
+      thrown = this.failure;
+      this.failure = null;
+    }
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+    if (thrown instanceof RuntimeException) {
+      throw (RuntimeException) thrown;
+    } else if (thrown instanceof Error) {
+      throw (Error) thrown;
+    }
+    synchronized (this) {
+      return this.keepGoing;
+    }
+  }
+}
@@ -69,6 +69,7 @@ import org.apache.geode.internal.NullDataOutputStream;
 import org.apache.geode.internal.Version;
 import org.apache.geode.internal.cache.InitialImageFlowControl.FlowControlPermitMessage;
 import org.apache.geode.internal.cache.entries.DiskEntry;
+import org.apache.geode.internal.cache.entries.OffHeapKeyRegionEntry;
 import org.apache.geode.internal.cache.ha.HAContainerWrapper;
 import org.apache.geode.internal.cache.persistence.DiskStoreID;
 import org.apache.geode.internal.cache.persistence.PersistenceAdvisor;
@@ -88,6 +89,7 @@ import org.apache.geode.internal.cache.wan.AbstractGatewaySender;
 import org.apache.geode.internal.logging.LogService;
 import org.apache.geode.internal.logging.LoggingThread;
 import org.apache.geode.internal.logging.log4j.LogMarker;
+import org.apache.geode.internal.offheap.OffHeapRegionEntryHelper;
 import org.apache.geode.internal.sequencelog.EntryLogger;
 import org.apache.geode.internal.sequencelog.RegionLogger;
 import org.apache.geode.internal.util.ObjectIntProcedure;
@@ -117,6 +119,12 @@ public class InitialImageOperation {
       Integer.getInteger(DistributionConfig.GEMFIRE_PREFIX + "GetInitialImage.CHUNK_PERMITS", 16)
           .intValue();
 
+  /**
+   * Whether an image provider sends each chunk on another thread while it gathers the next one
+   */
+  public static boolean PIPELINE_CHUNKS =
+      Boolean.getBoolean(DistributionConfig.GEMFIRE_PREFIX + "GetInitialImage.PIPELINE_CHUNKS");
+
   /**
    * maximum number of unfinished operations to be supported by delta GII
    */
@@ -1306,6 +1314,10 @@ public class InitialImageOperation {
                   this.abort = true; // volatile store
                 } else {
                   this.receivedChunk = true;
+                  if (m.isDeltaGII) {
+                    region.getCachePerfStats()
+                        .incDeltaGetInitialImageKeysReceived(m.entries.size());
+                  }
                 }
               }
               isLast = trackMessage(m); // interpret series/msgNum
@@ -1902,6 +1914,8 @@ public class InitialImageOperation {
       List chunkEntries = null;
       chunkEntries = new InitialImageVersionedEntryList(rgn.getConcurrencyChecksEnabled(),
           MAX_ENTRIES_PER_CHUNK);
+      InitialImageChunkPipeline pipeline =
+          PIPELINE_CHUNKS ? new InitialImageChunkPipeline(proc, dm.getWaitingThreadPool()) : null;
       DiskRegion dr = rgn.getDiskRegion();
       if (dr != null) {
         dr.setClearCountReference();
@@ -1914,6 +1928,7 @@ public class InitialImageOperation {
         internalDuringPackingImage.run();
       }
 
+      Throwable thrown = null;
       try {
         Iterator it = null;
         if (versionVector != null) {
@@ -1929,7 +1944,6 @@ public class InitialImageOperation {
           while (chunkEntries.size() < MAX_ENTRIES_PER_CHUNK && currentChunkSize < chunkSizeInBytes
               && it.hasNext()) {
             RegionEntry mapEntry = (RegionEntry) it.next();
-            Object key = mapEntry.getKey();
             if (rgn.checkEntryNotValid(mapEntry)) { // entry was just removed
               continue;
             }
@@ -1958,14 +1972,14 @@ public class InitialImageOperation {
                     // if the recipient passed a version vector, use it to filter out
                     // entries the recipient already has
                     // For keys in unfinishedKeys, not to filter them out
-                    if ((unfinishedKeys == null || !unfinishedKeys.contains(key))
+                    if ((unfinishedKeys == null || !unfinishedKeys.contains(mapEntry.getKey()))
                         && versionVector != null) {
                       if (versionVector.contains(id, stamp.getRegionVersion())) {
                         continue;
                       }
                     }
                     entry = new InitialImageOperation.Entry();
-                    entry.key = key;
+                    entry.setKey(mapEntry);
                     entry.setVersionTag(stamp.asVersionTag());
                     fillRes = mapEntry.fillInValue(rgn, entry, in, rgn.getDistributionManager(),
                         sender.getVersionObject());
@@ -1978,7 +1992,7 @@ public class InitialImageOperation {
                   }
                 } else {
                   entry = new InitialImageOperation.Entry();
-                  entry.key = key;
+                  entry.setKey(mapEntry);
                   fillRes = mapEntry.fillInValue(rgn, entry, in, rgn.getDistributionManager(),
                       sender.getVersionObject());
                 }
@@ -1992,7 +2006,7 @@ public class InitialImageOperation {
               }
             } else {
               entry = new InitialImageOperation.Entry();
-              entry.key = key;
+              entry.setKey(mapEntry);
               entry.setLocalInvalid();
               entry.setLastModified(rgn.getDistributionManager(), mapEntry.getLastModified());
             }
@@ -2001,11 +2015,24 @@ public class InitialImageOperation {
             currentChunkSize += entry.calcSerializedSize();
           }
 
+          rgn.getCachePerfStats().incGetInitialImageBytesSent(currentChunkSize,
+              versionVector != null);
           // send 1 for last message if no more data
           int lastMsg = it.hasNext() ? 0 : 1;
-          keepGoing = proc.executeWith(chunkEntries, lastMsg);
-          sentLastChunk = lastMsg == 1 && keepGoing;
-          chunkEntries.clear();
+          if (pipeline != null) {
+            // the chunk belongs to the pipeline now so gather the next one into a new list
+            keepGoing = pipeline.send(chunkEntries, lastMsg);
+            if (lastMsg == 1 && keepGoing) {
+              keepGoing = pipeline.awaitSent();
+            }
+            sentLastChunk = lastMsg == 1 && keepGoing;
+            chunkEntries = new InitialImageVersionedEntryList(rgn.getConcurrencyChecksEnabled(),
+                MAX_ENTRIES_PER_CHUNK);
+          } else {
+            keepGoing = proc.executeWith(chunkEntries, lastMsg);
+            sentLastChunk = lastMsg == 1 && keepGoing;
+            chunkEntries.clear();
+          }
 
           // if this region is destroyed while we are sending data, then abort.
         } while (keepGoing && it.hasNext());
@@ -2018,9 +2045,26 @@ public class InitialImageOperation {
         }
         // return false if we were told to abort
         return sentLastChunk;
+      } catch (RuntimeException | Error e) {
+        thrown = e;
+        throw e;
       } finally {
-        if (dr != null) {
-          dr.removeClearCountReference();
+        try {
+          if (pipeline != null) {
+            // nothing may be sent for this image once we return
+            try {
+              pipeline.awaitSent();
+            } catch (RuntimeException | Error e) {
+              if (thrown == null) {
+                throw e;
+              }
+              thrown.addSuppressed(e);
+            }
+          }
+        } finally {
+          if (dr != null) {
+            dr.removeClearCountReference();
+          }
         }
       }
     }
@@ -2918,6 +2962,12 @@ public class InitialImageOperation {
      */
     Object key;
 
+    /**
+     * the region entry whose off-heap key is written when this entry is sent, instead of decoding
+     * the key to the heap first. Only set by the image provider.
+     */
+    private transient OffHeapKeyRegionEntry offHeapKeyEntry;
+
     /**
      * value of this entry. Null when invalid or local invalid
      */
@@ -2982,9 +3032,20 @@ public class InitialImageOperation {
     }
 
     public Object getKey() {
+      if (this.offHeapKeyEntry != null) {
+        return this.offHeapKeyEntry.getKey();
+      }
       return key;
     }
 
+    void setKey(RegionEntry mapEntry) {
+      if (mapEntry instanceof OffHeapKeyRegionEntry) {
+        this.offHeapKeyEntry = (OffHeapKeyRegionEntry) mapEntry;
+      } else {
+        this.key = mapEntry.getKey();
+      }
+    }
+
     public VersionTag getVersionTag() {
       return versionTag;
     }
@@ -3002,7 +3063,11 @@ public class InitialImageOperation {
       byte flags = (this.versionTag != null) ? HAS_VERSION : 0;
       flags |= (this.versionTag instanceof DiskVersionTag) ? PERSISTENT_VERSION : 0;
       out.writeByte(flags);
-      DataSerializer.writeObject(this.key, out);
+      if (this.offHeapKeyEntry != null) {
+        OffHeapRegionEntryHelper.writeKey(this.offHeapKeyEntry, out);
+      } else {
+        DataSerializer.writeObject(this.key, out);
+      }
       if (!EntryBits.isTombstone(this.entryBits)) {
         DataSerializer.writeObjectAsByteArray(this.value, out);
       }
@@ -3047,7 +3112,7 @@ public class InitialImageOperation {
 
     @Override
     public String toString() {
-      return "GIIEntry[key=" + this.key + "]";
+      return "GIIEntry[key=" + getKey() + "]";
     }
 
     @Override
@@ -39,8 +39,10 @@ import org.apache.geode.cache.asyncqueue.AsyncEventQueue;
 import org.apache.geode.cache.asyncqueue.internal.AsyncEventQueueImpl;
 import org.apache.geode.cache.client.internal.ClientMetadataService;
 import org.apache.geode.cache.query.QueryService;
+import org.apache.geode.cache.query.internal.CompiledQueryCache;
 import org.apache.geode.cache.query.internal.InternalQueryService;
 import org.apache.geode.cache.query.internal.QueryMonitor;
+import org.apache.geode.cache.query.internal.QueryResultCache;
 import org.apache.geode.cache.query.internal.cq.CqService;
 import org.apache.geode.cache.server.CacheServer;
 import org.apache.geode.cache.wan.GatewayReceiver;
@@ -253,6 +255,10 @@ public interface InternalCache extends Cache, Extensible<Cache>, CacheTime {
 
   QueryMonitor getQueryMonitor();
 
+  CompiledQueryCache getCompiledQueryCache();
+
+  QueryResultCache getQueryResultCache();
+
   void close(String reason, Throwable systemFailureCause, boolean keepAlive, boolean keepDS);
 
   JmxManagerAdvisor getJmxManagerAdvisor();
@@ -44,6 +44,7 @@ import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.regex.Pattern;
@@ -133,9 +134,11 @@ import org.apache.geode.cache.query.QueryInvocationTargetException;
 import org.apache.geode.cache.query.QueryService;
 import org.apache.geode.cache.query.SelectResults;
 import org.apache.geode.cache.query.TypeMismatchException;
+import org.apache.geode.cache.query.internal.CompiledQueryCache;
 import org.apache.geode.cache.query.internal.DefaultQuery;
 import org.apache.geode.cache.query.internal.DefaultQueryService;
 import org.apache.geode.cache.query.internal.ExecutionContext;
+import org.apache.geode.cache.query.internal.QueryResultCache;
 import org.apache.geode.cache.query.internal.cq.CqService;
 import org.apache.geode.cache.query.internal.index.IndexCreationData;
 import org.apache.geode.cache.query.internal.index.IndexManager;
@@ -693,6 +696,9 @@ public class LocalRegion extends AbstractRegion implements LoaderHelperFactory,
     eventTracker = createEventTracker();
 
     versionVector = createRegionVersionVector();
+
+    QueryResultCache queryResults = cache.getQueryResultCache();
+    this.countModifications = queryResults != null && queryResults.isEnabled();
   }
 
   private void addCacheServiceProfiles(InternalRegionArguments internalRegionArgs) {
@@ -2587,6 +2593,15 @@ public class LocalRegion extends AbstractRegion implements LoaderHelperFactory,
     cancelAllEntryExpiryTasks();
     if (!isInternalRegion()) {
       getCachePerfStats().incRegions(-1);
+      // compiled queries may have resolved the types of this region
+      CompiledQueryCache compiledQueries = this.cache.getCompiledQueryCache();
+      if (compiledQueries != null) {
+        compiledQueries.clear();
+      }
+      QueryResultCache queryResults = this.cache.getQueryResultCache();
+      if (queryResults != null) {
+        queryResults.removeRegion(this);
+      }
     }
     this.cache.getInternalResourceManager(false).removeResourceListener(this);
     if (getMembershipAttributes().hasRequiredRoles()) {
@@ -3179,6 +3194,14 @@ public class LocalRegion extends AbstractRegion implements LoaderHelperFactory,
    */
   private final AtomicInteger tombstoneCount = new AtomicInteger();
 
+  /**
+   * the number of changes made to the entries of this region, incremented once a change is applied
+   * and the indexes of the region are updated, and only counted if query results are cached
+   */
+  private final LongAdder modificationCount = new LongAdder();
+
+  private final boolean countModifications;
+
   /** a boolean for issuing a client/server configuration mismatch message */
   private boolean concurrencyMessageIssued;
 
@@ -4994,6 +5017,7 @@ public class LocalRegion extends AbstractRegion implements LoaderHelperFactory,
    */
   private void updateStatsForInvalidate() {
     getCachePerfStats().incInvalidates();
+    incModificationCount();
   }
 
   void basicInvalidatePart3(RegionEntry re, EntryEventImpl event, boolean invokeCallbacks) {
@@ -5146,6 +5170,7 @@ public class LocalRegion extends AbstractRegion implements LoaderHelperFactory,
         }
       }
     }
+    incModificationCount();
     if (didDestroy) {
       if (this.entryUserAttributes != null) {
         this.entryUserAttributes.remove(key);
@@ -5806,6 +5831,7 @@ public class LocalRegion extends AbstractRegion implements LoaderHelperFactory,
         }
       }
     }
+    incModificationCount();
 
     if (invokeCallbacks) {
       boolean doCallback = false;
@@ -6722,6 +6748,7 @@ public class LocalRegion extends AbstractRegion implements LoaderHelperFactory,
       }
     }
     VersionTag v = event.getVersionTag();
+    incModificationCount();
 
     /*
      * destroys that are not part of the cleaning out of keys prior to a register-interest are
@@ -6908,6 +6935,7 @@ public class LocalRegion extends AbstractRegion implements LoaderHelperFactory,
     } else if (!alreadyDestroyedOrRemoved) {
       updateStatsForDestroy();
     }
+    incModificationCount();
     if (this.entryUserAttributes != null) {
       this.entryUserAttributes.remove(key);
     }
@@ -7193,6 +7221,20 @@ public class LocalRegion extends AbstractRegion implements LoaderHelperFactory,
     return lastModified;
   }
 
+  /**
+   * Returns the number of creates, updates, invalidates and destroys applied to the entries of
+   * this region, clears included. Two equal counts mean the entries did not change in between.
+   */
+  public long getModificationCount() {
+    return this.modificationCount.sum();
+  }
+
+  private void incModificationCount() {
+    if (this.countModifications) {
+      this.modificationCount.increment();
+    }
+  }
+
   /**
    * Returns a region in the subregion map first, then looks in the reinitializing region registry.
    *
@@ -9116,6 +9158,7 @@ public class LocalRegion extends AbstractRegion implements LoaderHelperFactory,
         }
       }
     }
+    incModificationCount();
 
     if (!isProxy()) {
       // Now we need to recreate all the indexes.
@@ -11176,6 +11219,21 @@ public class LocalRegion extends AbstractRegion implements LoaderHelperFactory,
       this.cachePerfStats.incGetInitialImageKeysReceived();
     }
 
+    @Override
+    public void incDeltaGetInitialImageKeysReceived(int keys) {
+      this.stats.incInt(deltaGetInitialImageKeysReceivedId, keys);
+      this.cachePerfStats.incDeltaGetInitialImageKeysReceived(keys);
+    }
+
+    @Override
+    public void incGetInitialImageBytesSent(long bytes, boolean isDeltaGII) {
+      this.stats.incLong(getInitialImageBytesSentId, bytes);
+      if (isDeltaGII) {
+        this.stats.incLong(deltaGetInitialImageBytesSentId, bytes);
+      }
+      this.cachePerfStats.incGetInitialImageBytesSent(bytes, isDeltaGII);
+    }
+
     @Override
     public long startIndexUpdate() {
       this.stats.incInt(indexUpdateInProgressId, 1);
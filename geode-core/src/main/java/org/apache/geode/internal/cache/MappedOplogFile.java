@@ -0,0 +1,102 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.internal.cache;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.StandardOpenOption;
+
+import org.apache.geode.distributed.internal.DistributionConfig;
+import org.apache.geode.internal.lang.SystemUtils;
+
+/**
+ * A read only memory mapping of the crf of an oplog that is no longer appended to, used to fault
+ * values in without taking the oplog lock or seeking a shared file.
+ * <p>
+ * The mapping is never unmapped explicitly since a reader may still be copying from it. Once the
+ * oplog drops its reference the mapping, and with it the disk space of a deleted oplog, is released
+ * when the mapping is garbage collected. For that reason mapped reads are not used on Windows,
+ * where a mapped file can not be deleted.
+ */
+class MappedOplogFile {
+
+  /**
+   * This system property enables memory mapped reads of oplogs that are no longer appended to
+   */
+  static final boolean ENABLED =
+      Boolean.getBoolean(DistributionConfig.GEMFIRE_PREFIX + "disk.mmapReads")
+          && !SystemUtils.isWindows();
+
+  private static final long MAX_SEGMENT_SIZE = Integer.MAX_VALUE;
+
+  /**
+   * The file is mapped in segments since a single mapping can not exceed 2GB
+   */
+  private final MappedByteBuffer[] segments;
+
+  private final long segmentSize;
+
+  private final long length;
+
+  /**
+   * @param length the number of bytes of the file holding records, anything after it is not mapped
+   */
+  MappedOplogFile(File file, long length) throws IOException {
+    this(file, length, MAX_SEGMENT_SIZE);
+  }
+
+  MappedOplogFile(File file, long length, long segmentSize) throws IOException {
+    this.segmentSize = segmentSize;
+    try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+      this.length = Math.min(length, channel.size());
+      int count = (int) ((this.length + segmentSize - 1) / segmentSize);
+      this.segments = new MappedByteBuffer[count];
+      for (int i = 0; i < count; i++) {
+        long position = i * segmentSize;
+        this.segments[i] =
+            channel.map(MapMode.READ_ONLY, position, Math.min(segmentSize, this.length - position));
+      }
+    }
+  }
+
+  /**
+   * @return the bytes at the offset or null if they are not all within the mapping
+   */
+  byte[] read(long offset, int valueLength) {
+    if (offset < 0 || offset + valueLength > this.length) {
+      return null;
+    }
+    byte[] bytes = new byte[valueLength];
+    int copied = 0;
+    while (copied < valueLength) {
+      long position = offset + copied;
+      // duplicate so concurrent readers do not share a position
+      ByteBuffer segment = this.segments[(int) (position / this.segmentSize)].duplicate();
+      segment.position((int) (position % this.segmentSize));
+      int count = Math.min(valueLength - copied, segment.remaining());
+      segment.get(bytes, copied, count);
+      copied += count;
+    }
+    return bytes;
+  }
+
+  long length() {
+    return this.length;
+  }
+}
@@ -84,6 +84,7 @@ import org.apache.geode.internal.cache.DistributedRegion.DiskPosition;
 import org.apache.geode.internal.cache.entries.DiskEntry;
 import org.apache.geode.internal.cache.entries.DiskEntry.Helper.Flushable;
 import org.apache.geode.internal.cache.entries.DiskEntry.Helper.ValueWrapper;
+import org.apache.geode.internal.cache.entries.OffHeapKeyRegionEntry;
 import org.apache.geode.internal.cache.eviction.EvictionController;
 import org.apache.geode.internal.cache.eviction.EvictionList;
 import org.apache.geode.internal.cache.persistence.BytesAndBits;
@@ -102,6 +103,7 @@ import org.apache.geode.internal.cache.versions.VersionTag;
 import org.apache.geode.internal.logging.LogService;
 import org.apache.geode.internal.logging.log4j.LogMarker;
 import org.apache.geode.internal.offheap.OffHeapHelper;
+import org.apache.geode.internal.offheap.OffHeapRegionEntryHelper;
 import org.apache.geode.internal.offheap.ReferenceCountHelper;
 import org.apache.geode.internal.offheap.StoredObject;
 import org.apache.geode.internal.offheap.annotations.Released;
@@ -138,6 +140,9 @@ public class Oplog implements CompactableOplog, Flushable {
   /** The stats for this store */
   private final DiskStoreStats stats;
 
+  /** Null unless {@link #GROUP_COMMIT} is enabled */
+  private final OplogGroupCommitter groupCommitter;
+
   /** The store that owns this Oplog* */
   private final DiskStoreImpl parent;
 
@@ -178,6 +183,14 @@ public class Oplog implements CompactableOplog, Flushable {
   private static final boolean SYNC_WRITES =
       Boolean.getBoolean(DistributionConfig.GEMFIRE_PREFIX + "syncWrites");
 
+  /**
+   * This system property makes synchronous writes durable by forcing the oplog files to disk before
+   * they return. Instead of forcing once per write, concurrent writers are grouped and a single
+   * force makes the whole group durable. See {@link OplogGroupCommitter}.
+   */
+  static final boolean GROUP_COMMIT =
+      Boolean.getBoolean(DistributionConfig.GEMFIRE_PREFIX + "groupCommit");
+
   /**
    * The HighWaterMark of recentValues.
    */
@@ -571,6 +584,8 @@ public class Oplog implements CompactableOplog, Flushable {
     }
     setMaxCrfDrfSize();
     this.stats = getParent().getStats();
+    this.groupCommitter =
+        GROUP_COMMIT ? new OplogGroupCommitter(this::syncForGroupCommit, this.stats) : null;
     this.compactOplogs = getParent().getAutoCompact();
 
     this.closed = false;
@@ -632,6 +647,8 @@ public class Oplog implements CompactableOplog, Flushable {
     }
     setMaxCrfDrfSize();
     this.stats = prevOplog.stats;
+    this.groupCommitter =
+        GROUP_COMMIT ? new OplogGroupCommitter(this::syncForGroupCommit, this.stats) : null;
     this.compactOplogs = prevOplog.compactOplogs;
     // copy over the previous Oplog's data version since data is not being
     // transformed at this point
@@ -832,6 +849,8 @@ public class Oplog implements CompactableOplog, Flushable {
     this.maxOplogSize = getParent().getMaxOplogSizeInBytes();
     setMaxCrfDrfSize();
     this.stats = getParent().getStats();
+    this.groupCommitter =
+        GROUP_COMMIT ? new OplogGroupCommitter(this::syncForGroupCommit, this.stats) : null;
     this.compactOplogs = getParent().getAutoCompact();
     this.closed = true;
     this.crf.RAFClosed = true;
@@ -1156,6 +1175,23 @@ public class Oplog implements CompactableOplog, Flushable {
     return this.drf.f;
   }
 
+  /**
+   * @return the file {@link #recoverCrf} reads the entries from, the krf if it can be used and the
+   *         crf otherwise
+   */
+  File getCrfRecoveryFile(boolean recoverValuesSync) {
+    if (this.crf.f == null) {
+      return null;
+    }
+    if (!recoverValuesSync && (!getParent().isOffline() || getParent().FORCE_KRF_RECOVERY)) {
+      File krfFile = new File(getKRFFilenameFromCRFFilename(this.crf.f.getPath()));
+      if (krfFile.exists()) {
+        return krfFile;
+      }
+    }
+    return this.crf.f;
+  }
+
   /**
    * Given a set of Oplog file names return a Set of the oplog files that match those names that are
    * managed by this Oplog.
@@ -3219,6 +3255,7 @@ public class Oplog implements CompactableOplog, Flushable {
 
   private void basicClose(boolean forceDelete) {
     flushAll();
+    this.mappedCrf = null;
     // No need to get the backup lock prior to synchronizing (correct lock order) since the
     // synchronized block does not attempt to get the backup lock (incorrect lock order)
     synchronized (this.lock/* crf */) {
@@ -3483,6 +3520,7 @@ public class Oplog implements CompactableOplog, Flushable {
     DiskId id = entry.getDiskId();
     boolean useNextOplog = false;
     long startPosForSynchOp = -1;
+    long commitTicket = 0;
     if (DiskStoreImpl.KRF_DEBUG) {
       // wait for cache close to create krf
       System.out.println("basicCreate KRF_DEBUG");
@@ -3551,7 +3589,8 @@ public class Oplog implements CompactableOplog, Flushable {
           id.setOplogId(getOplogId());
           // do the io while holding lock so that switch can set doneAppending
           // Write the data to the opLog for the synch mode
-          startPosForSynchOp = writeOpLogBytes(this.crf, async, true);
+          startPosForSynchOp = writeOpLogBytes(this.crf, async, !isGroupCommit(async));
+          commitTicket = appendForGroupCommit(async);
           // if (this.crf.currSize != startPosForSynchOp) {
           // assert false;
           // }
@@ -3599,7 +3638,9 @@ public class Oplog implements CompactableOplog, Flushable {
                 entry.getVersionStamp().getRegionVersion());
           }
 
-          EntryLogger.logPersistPut(dr.getName(), entry.getKey(), dr.getDiskStoreID());
+          if (EntryLogger.isEnabled()) {
+            EntryLogger.logPersistPut(dr.getName(), entry.getKey(), dr.getDiskStoreID());
+          }
         }
         clearOpState();
         // }
@@ -3607,6 +3648,7 @@ public class Oplog implements CompactableOplog, Flushable {
     } finally {
       getParent().getBackupLock().unlock();
     }
+    awaitGroupCommit(commitTicket);
     if (useNextOplog) {
       if (LocalRegion.ISSUE_CALLBACKS_TO_CACHE_OBSERVER) {
         CacheObserverHolder.getInstance().afterSwitchingOplog();
@@ -3791,6 +3833,17 @@ public class Oplog implements CompactableOplog, Flushable {
     });
   }
 
+  /**
+   * Serializes the key of the entry, copying an off-heap key straight from off-heap memory when it
+   * can instead of decoding it to the heap first.
+   */
+  private static byte[] serializeKey(DiskEntry entry) {
+    if (entry instanceof OffHeapKeyRegionEntry) {
+      return OffHeapRegionEntryHelper.serializeKey((OffHeapKeyRegionEntry) entry);
+    }
+    return EntryEventImpl.serialize(entry.getKey());
+  }
+
   private void writeOneKeyEntryForKRF(KRFEntry ke) throws IOException {
     DiskEntry de = ke.getDiskEntry();
     long diskRegionId = ke.getDiskRegionView().getId();
@@ -3798,7 +3851,7 @@ public class Oplog implements CompactableOplog, Flushable {
     byte userBits;
     long valueOffset;
     int valueLength;
-    Object deKey;
+    byte[] keyBytes;
     VersionHolder tag = ke.versionTag;
 
     synchronized (de) {
@@ -3819,7 +3872,7 @@ public class Oplog implements CompactableOplog, Flushable {
         oplogKeyId = di.getKeyId();
         valueOffset = di.getOffsetInOplog();
         valueLength = di.getValueLength();
-        deKey = de.getKey();
+        keyBytes = serializeKey(de);
         if (valueOffset < 0) {
           assert (EntryBits.isAnyInvalid(userBits) || EntryBits.isTombstone(userBits));
         }
@@ -3836,10 +3889,9 @@ public class Oplog implements CompactableOplog, Flushable {
     if (logger.isTraceEnabled(LogMarker.PERSIST_WRITES_VERBOSE)) {
       logger.trace(LogMarker.PERSIST_WRITES_VERBOSE,
           "krf oplogId={} key={} oplogKeyId={} de={} vo={} vl={} diskRegionId={} version tag={}",
-          oplogId, deKey, oplogKeyId, System.identityHashCode(de), valueOffset, valueLength,
-          diskRegionId, tag);
+          oplogId, de.getKey(), oplogKeyId, System.identityHashCode(de), valueOffset,
+          valueLength, diskRegionId, tag);
     }
-    byte[] keyBytes = EntryEventImpl.serialize(deKey);
 
     // skip the invalid entries, theire valueOffset is -1
     writeOneKeyEntryForKRF(keyBytes, userBits, valueLength, diskRegionId, oplogKeyId, valueOffset,
@@ -4486,6 +4538,7 @@ public class Oplog implements CompactableOplog, Flushable {
     DiskId id = entry.getDiskId();
     boolean useNextOplog = false;
     long startPosForSynchOp = -1L;
+    long commitTicket = 0;
     int adjustment = 0;
     Oplog emptyOplog = null;
     if (DiskStoreImpl.KRF_DEBUG) {
@@ -4519,7 +4572,8 @@ public class Oplog implements CompactableOplog, Flushable {
             long oldOplogId;
             // do the io while holding lock so that switch can set doneAppending
             // Write the data to the opLog for the synch mode
-            startPosForSynchOp = writeOpLogBytes(this.crf, async, true);
+            startPosForSynchOp = writeOpLogBytes(this.crf, async, !isGroupCommit(async));
+            commitTicket = appendForGroupCommit(async);
             this.crf.currSize = temp;
             startPosForSynchOp += getOpStateValueOffset();
             if (logger.isTraceEnabled(LogMarker.PERSIST_WRITES_VERBOSE)) {
@@ -4558,7 +4612,9 @@ public class Oplog implements CompactableOplog, Flushable {
             this.dirHolder.incrementTotalOplogSize(adjustment);
             this.incTotalCount();
 
-            EntryLogger.logPersistPut(dr.getName(), entry.getKey(), dr.getDiskStoreID());
+            if (EntryLogger.isEnabled()) {
+              EntryLogger.logPersistPut(dr.getName(), entry.getKey(), dr.getDiskStoreID());
+            }
             if (oldOplogId != getOplogId()) {
               Oplog oldOplog = getOplogSet().getChild(oldOplogId);
               if (oldOplog != null) {
@@ -4590,6 +4646,7 @@ public class Oplog implements CompactableOplog, Flushable {
     } finally {
       getParent().getBackupLock().unlock();
     }
+    awaitGroupCommit(commitTicket);
     if (useNextOplog) {
       if (LocalRegion.ISSUE_CALLBACKS_TO_CACHE_OBSERVER) {
         CacheObserverHolder.getInstance().afterSwitchingOplog();
@@ -4621,6 +4678,7 @@ public class Oplog implements CompactableOplog, Flushable {
   private void basicSaveConflictVersionTag(DiskRegionView dr, VersionTag tag, boolean async)
       throws IOException, InterruptedException {
     boolean useNextOplog = false;
+    long commitTicket = 0;
     int adjustment = 0;
     getParent().getBackupLock().lock();
     try {
@@ -4644,7 +4702,8 @@ public class Oplog implements CompactableOplog, Flushable {
               throw cce;
             }
             this.firstRecord = false;
-            writeOpLogBytes(this.crf, async, true);
+            writeOpLogBytes(this.crf, async, !isGroupCommit(async));
+            commitTicket = appendForGroupCommit(async);
             this.crf.currSize = temp;
             if (logger.isTraceEnabled(LogMarker.PERSIST_WRITES_VERBOSE)) {
               logger.trace(LogMarker.PERSIST_WRITES_VERBOSE,
@@ -4666,6 +4725,7 @@ public class Oplog implements CompactableOplog, Flushable {
     } finally {
       getParent().getBackupLock().unlock();
     }
+    awaitGroupCommit(commitTicket);
     if (useNextOplog) {
       if (LocalRegion.ISSUE_CALLBACKS_TO_CACHE_OBSERVER) {
         CacheObserverHolder.getInstance().afterSwitchingOplog();
@@ -4943,6 +5003,7 @@ public class Oplog implements CompactableOplog, Flushable {
 
     boolean useNextOplog = false;
     long startPosForSynchOp = -1;
+    long commitTicket = 0;
     Oplog emptyOplog = null;
     if (DiskStoreImpl.KRF_DEBUG) {
       // wait for cache close to create krf
@@ -4992,7 +5053,8 @@ public class Oplog implements CompactableOplog, Flushable {
             // before we flush the crf.
             // However we can't have removes by async if we are doing a sync write
             // because we might be killed right after we do this write.
-            startPosForSynchOp = writeOpLogBytes(this.drf, async, true);
+            startPosForSynchOp = writeOpLogBytes(this.drf, async, !isGroupCommit(async));
+            commitTicket = appendForGroupCommit(async);
             setHasDeletes(true);
             if (logger.isDebugEnabled(LogMarker.PERSIST_WRITES_VERBOSE)) {
               logger.debug("basicRemove: id=<{}> key=<{}> drId={} oplog#{}", abs(id.getKeyId()),
@@ -5007,7 +5069,9 @@ public class Oplog implements CompactableOplog, Flushable {
           // Set the oplog size change for stats
           id.setOffsetInOplog(-1);
 
-          EntryLogger.logPersistDestroy(dr.getName(), entry.getKey(), dr.getDiskStoreID());
+          if (EntryLogger.isEnabled()) {
+            EntryLogger.logPersistDestroy(dr.getName(), entry.getKey(), dr.getDiskStoreID());
+          }
           Oplog rmOplog = null;
           if (oldOplogId == getOplogId()) {
             rmOplog = this;
@@ -5024,6 +5088,7 @@ public class Oplog implements CompactableOplog, Flushable {
     } finally {
       getParent().getBackupLock().unlock();
     }
+    awaitGroupCommit(commitTicket);
     if (useNextOplog) {
       if (LocalRegion.ISSUE_CALLBACKS_TO_CACHE_OBSERVER) {
         CacheObserverHolder.getInstance().afterSwitchingOplog();
@@ -5072,6 +5137,58 @@ public class Oplog implements CompactableOplog, Flushable {
     flushAll(false);
   }
 
+  private boolean isGroupCommit(boolean async) {
+    return this.groupCommitter != null && !async;
+  }
+
+  /**
+   * Must be called while holding the oplog lock right after a record has been written without
+   * flushing it
+   *
+   * @return the ticket to pass to {@link #awaitGroupCommit(long)} once the lock is released, or 0
+   *         if the write is not part of a group commit
+   */
+  private long appendForGroupCommit(boolean async) {
+    return isGroupCommit(async) ? this.groupCommitter.append() : 0;
+  }
+
+  private void awaitGroupCommit(long commitTicket) throws IOException {
+    if (commitTicket != 0) {
+      this.groupCommitter.awaitCommit(commitTicket);
+    }
+  }
+
+  /**
+   * Writes the buffered records of the drf and crf to their channels while holding the oplog lock
+   * and then forces both files without it, so other writers can append the next group meanwhile.
+   */
+  private void syncForGroupCommit() throws IOException {
+    flush(this.drf, false);
+    flush(this.crf, false);
+    forceForGroupCommit(this.drf);
+    forceForGroupCommit(this.crf);
+  }
+
+  private void forceForGroupCommit(OplogFile olf) throws IOException {
+    UninterruptibleFileChannel channel = olf.channel;
+    if (channel == null || olf.RAFClosed) {
+      // the switch or close that closed the file synced everything written to it
+      return;
+    }
+    try {
+      channel.force(true);
+    } catch (IOException ex) {
+      // files are closed while holding the lock, so once we have it we know whether the failure
+      // was caused by a concurrent close
+      synchronized (this.lock) {
+        if (olf.RAFClosed) {
+          return;
+        }
+      }
+      throw ex;
+    }
+  }
+
   private static final int MAX_CHANNEL_RETRIES = 5;
 
   private void flush(OplogFile olf, boolean doSync) throws IOException {
@@ -5118,7 +5235,7 @@ public class Oplog implements CompactableOplog, Flushable {
           bb.clear();
         }
         if (doSync) {
-          if (SYNC_WRITES) {
+          if (SYNC_WRITES || GROUP_COMMIT) {
             // Synch Meta Data as well as content
             olf.channel.force(true);
           }
@@ -5276,6 +5393,54 @@ public class Oplog implements CompactableOplog, Flushable {
 
   private volatile boolean beingRead;
 
+  /**
+   * The crf mapped by the first fault in after appending is done, see {@link MappedOplogFile}
+   */
+  private volatile MappedOplogFile mappedCrf;
+
+  private boolean mapCrfFailed;
+
+  /**
+   * Maps the crf once nothing is appended to it anymore. Must be called while holding the lock.
+   */
+  private void mapCrfIfDoneAppending() {
+    if (!MappedOplogFile.ENABLED || !this.doneAppending || this.mappedCrf != null
+        || this.mapCrfFailed || this.crf.f == null || this.closed || this.deleted.get()) {
+      return;
+    }
+    try {
+      this.mappedCrf = new MappedOplogFile(this.crf.f, this.crf.bytesFlushed);
+    } catch (IOException e) {
+      // keep reading through the file
+      this.mapCrfFailed = true;
+      if (logger.isDebugEnabled()) {
+        logger.debug("Could not map {} for reading", this.crf.f, e);
+      }
+    }
+  }
+
+  /**
+   * @return the value read from the mapped crf or null if it is not mapped
+   */
+  private BytesAndBits mappedGet(long offsetInOplog, int valueLength, byte userBits) {
+    MappedOplogFile mapped = this.mappedCrf;
+    if (mapped == null) {
+      return null;
+    }
+    byte[] valueBytes = mapped.read(offsetInOplog, valueLength);
+    if (valueBytes == null) {
+      return null;
+    }
+    this.stats.incOplogReads();
+    BytesAndBits bb = new BytesAndBits(valueBytes, userBits);
+    // also set the product version for an older product
+    final Version version = getProductVersionIfOld();
+    if (version != null) {
+      bb.setVersion(version);
+    }
+    return bb;
+  }
+
   /**
    * If crfRAF has been closed then attempt to reopen the oplog for this read. Verify that this only
    * happens when test methods are invoked.
@@ -5300,6 +5465,10 @@ public class Oplog implements CompactableOplog, Flushable {
 
   private BytesAndBits attemptGet(DiskRegionView dr, long offsetInOplog, boolean bitOnly,
       int valueLength, byte userBits) throws IOException {
+    BytesAndBits mappedBB = mappedGet(offsetInOplog, valueLength, userBits);
+    if (mappedBB != null) {
+      return mappedBB;
+    }
     boolean didReopen = false;
     boolean accessedInactive = false;
     try {
@@ -5310,6 +5479,12 @@ public class Oplog implements CompactableOplog, Flushable {
         if ((offsetInOplog + valueLength) > this.crf.bytesFlushed && !this.closed) {
           flushAllNoSync(true); // fix for bug 41205
         }
+        mapCrfIfDoneAppending();
+        mappedBB = mappedGet(offsetInOplog, valueLength, userBits);
+        if (mappedBB != null) {
+          this.beingRead = false;
+          return mappedBB;
+        }
         try {
           UninterruptibleRandomAccessFile myRAF = null;
           if (this.crf.RAFClosed) {
@@ -5591,6 +5766,7 @@ public class Oplog implements CompactableOplog, Flushable {
   }
 
   public void deleteCRFFileOnly() {
+    this.mappedCrf = null;
     deleteFile(this.crf);
     // replace .crf at the end with .krf
     if (this.crf.f != null) {
@@ -5945,8 +6121,10 @@ public class Oplog implements CompactableOplog, Flushable {
       }
       lockCompactor();
       try {
+        long crfSize = this.crf.currSize;
         if (hasNoLiveValues()) {
           handleNoLiveValues();
+          getStats().incCompactionReclaimedBytes(crfSize);
           return 0; // do this while holding compactorLock
         }
 
@@ -5962,11 +6140,13 @@ public class Oplog implements CompactableOplog, Flushable {
                                  * getParent().getOwner().isDestroyed ||
                                  */!compactor.keepCompactorRunning();
         int totalCount = 0;
+        long copiedBytes = 0;
         for (DiskRegionInfo dri : this.regionMap.values()) {
           final DiskRegionView dr = dri.getDiskRegion();
           if (dr == null)
             continue;
           boolean didCompact = false;
+          int valueLength = 0;
           while ((de = dri.getNextLiveEntry()) != null) {
             if (/*
                  * getParent().getOwner().isDestroyed ||
@@ -6006,6 +6186,7 @@ public class Oplog implements CompactableOplog, Flushable {
                   getOplogSet().getChild().copyForwardModifyForCompact(dr, de, wrapper);
                   // the did's oplogId will now be set to the current active oplog
                   didCompact = true;
+                  valueLength = did.getValueLength();
                 }
               } // did
             } // de
@@ -6023,11 +6204,17 @@ public class Oplog implements CompactableOplog, Flushable {
               if (!wrapper.isReusable()) {
                 wrapper = new BytesAndBitsForCompactor();
               }
+              copiedBytes += valueLength;
+              // outside the entry sync so writers of the entry are not held up
+              getParent().throttleCompaction(valueLength);
             }
           }
         }
 
         cleanupAfterCompaction(compactFailed);
+        if (!compactFailed) {
+          getStats().incCompactionReclaimedBytes(Math.max(crfSize - copiedBytes, 0));
+        }
         return totalCount;
       } finally {
         unlockCompactor();
@@ -6711,8 +6898,7 @@ public class Oplog implements CompactableOplog, Flushable {
       }
 
       if (needsKey) {
-        Object key = entry.getKey();
-        this.keyBytes = EntryEventImpl.serialize(key);
+        this.keyBytes = serializeKey(entry);
         this.size += (4 + this.keyBytes.length);
       } else {
         this.keyBytes = null;
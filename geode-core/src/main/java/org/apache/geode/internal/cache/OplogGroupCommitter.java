@@ -0,0 +1,125 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.internal.cache;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lets the synchronous writers of an {@link Oplog} share a single sync of its files.
+ * <p>
+ * Each writer appends its record to the write buffer of the oplog while holding the oplog lock,
+ * takes a ticket with {@link #append()} and then, after releasing the lock, waits in
+ * {@link #awaitCommit(long)} until a sync covering its ticket has completed. The first waiter that
+ * finds no sync in progress becomes the leader and syncs on behalf of every record appended so far,
+ * while writers arriving in the meantime keep appending and are covered by the next sync. The
+ * number of syncs therefore grows with the disk sync rate and not with the number of writers.
+ */
+class OplogGroupCommitter {
+
+  /**
+   * Writes all records appended so far to the files and forces them to disk
+   */
+  @FunctionalInterface
+  interface Syncer {
+    void sync() throws IOException;
+  }
+
+  private final Syncer syncer;
+
+  private final DiskStoreStats stats;
+
+  private final AtomicLong appended = new AtomicLong();
+
+  /**
+   * The highest ticket known to be on disk. Guarded by this
+   */
+  private long committed;
+
+  /**
+   * True while a leader is syncing. Guarded by this
+   */
+  private boolean committing;
+
+  OplogGroupCommitter(Syncer syncer, DiskStoreStats stats) {
+    this.syncer = syncer;
+    this.stats = stats;
+  }
+
+  /**
+   * Must be called while holding the oplog lock, right after the record has been appended
+   *
+   * @return the ticket to pass to {@link #awaitCommit(long)}
+   */
+  long append() {
+    return this.appended.incrementAndGet();
+  }
+
+  /**
+   * Waits until the record of the ticket is on disk, syncing as the leader of a new group if no
+   * other writer is syncing. Must not be called while holding the oplog lock.
+   *
+   * @throws IOException if the sync done by this writer failed. A failed sync of another writer
+   *         makes one of its waiters retry as the next leader.
+   */
+  void awaitCommit(long ticket) throws IOException {
+    boolean interrupted = false;
+    try {
+      synchronized (this) {
+        while (this.committing && this.committed < ticket) {
+          try {
+            wait();
+          } catch (InterruptedException e) {
+            // the record is already in the oplog so the write can not be abandoned
+            interrupted = true;
+          }
+        }
+        if (this.committed >= ticket) {
+          return;
+        }
+        this.committing = true;
+      }
+      // every ticket up to target was appended under the oplog lock, which the syncer takes
+      // before writing the buffers, so the sync covers all of them
+      long target = this.appended.get();
+      long start = this.stats.startGroupCommit();
+      long groupSize = 0;
+      try {
+        this.syncer.sync();
+        synchronized (this) {
+          groupSize = target - this.committed;
+          this.committed = target;
+        }
+      } finally {
+        synchronized (this) {
+          this.committing = false;
+          notifyAll();
+        }
+      }
+      this.stats.endGroupCommit(start, groupSize);
+    } finally {
+      if (interrupted) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  /**
+   * test hook
+   */
+  synchronized long getCommitted() {
+    return this.committed;
+  }
+}
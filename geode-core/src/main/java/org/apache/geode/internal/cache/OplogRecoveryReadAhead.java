@@ -0,0 +1,158 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.internal.cache;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.logging.log4j.Logger;
+
+import org.apache.geode.distributed.internal.DistributionConfig;
+import org.apache.geode.internal.logging.LogService;
+
+/**
+ * Reads the oplog files that disk store recovery is about to replay ahead of it, so that the
+ * replay, which has to apply the oplogs one after the other in {@link PersistentOplogSet} order,
+ * finds them in the file system cache instead of waiting on the disk for each file in turn.
+ * <p>
+ * The files of several oplogs, which are usually spread over all the directories of the disk
+ * store, are read concurrently on a {@link ForkJoinPool} so the read rate scales with the number
+ * of disks. At most {@link #WINDOW} oplogs ahead of the replay are read, which bounds the amount
+ * of the file system cache taken. Read ahead is only a hint: a file that could not be read ahead is
+ * simply read by the replay itself.
+ */
+class OplogRecoveryReadAhead implements AutoCloseable {
+
+  private static final Logger logger = LogService.getLogger();
+
+  /**
+   * The number of threads reading ahead. 0 disables read ahead.
+   */
+  static final int PARALLELISM = Integer.getInteger(
+      DistributionConfig.GEMFIRE_PREFIX + "disk.recoveryReadAheadThreads",
+      Math.min(Runtime.getRuntime().availableProcessors(), 8));
+
+  /**
+   * The maximum number of oplogs read ahead of the replay
+   */
+  static final int WINDOW =
+      Integer.getInteger(DistributionConfig.GEMFIRE_PREFIX + "disk.recoveryReadAheadOplogs", 8);
+
+  private static final int READ_BUFFER_SIZE = 1024 * 1024;
+
+  private static final ThreadLocal<ByteBuffer> readBuffer =
+      ThreadLocal.withInitial(() -> ByteBuffer.allocateDirect(READ_BUFFER_SIZE));
+
+  private final List<File> files;
+
+  private final int window;
+
+  private final ForkJoinPool pool;
+
+  private final AtomicLong bytesRead = new AtomicLong();
+
+  private volatile boolean closed;
+
+  /**
+   * The index of the next file to submit. Only used by the replay thread
+   */
+  private int nextFile;
+
+  /**
+   * @param files the files in replay order. Null elements are skipped
+   */
+  OplogRecoveryReadAhead(String diskStoreName, List<File> files, int parallelism, int window) {
+    this.files = files;
+    this.window = window;
+    this.pool = new ForkJoinPool(parallelism, pool -> {
+      ForkJoinWorkerThread thread =
+          ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+      thread.setName("Recovery read ahead for disk store " + diskStoreName + " "
+          + thread.getPoolIndex());
+      return thread;
+    }, null, false);
+    submitUpTo(window);
+  }
+
+  /**
+   * Must be called by the replay when it is done with a file so read ahead can move on
+   *
+   * @param index the index of the file in the list given to the constructor
+   */
+  void replayed(int index) {
+    submitUpTo(index + 1 + this.window);
+  }
+
+  private void submitUpTo(int end) {
+    end = Math.min(end, this.files.size());
+    while (this.nextFile < end && !this.closed) {
+      File file = this.files.get(this.nextFile++);
+      if (file != null) {
+        try {
+          this.pool.execute(() -> readAhead(file));
+        } catch (RejectedExecutionException ignore) {
+          // closed concurrently
+        }
+      }
+    }
+  }
+
+  private void readAhead(File file) {
+    if (this.closed) {
+      return;
+    }
+    ByteBuffer buffer = readBuffer.get();
+    try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+      int count;
+      do {
+        buffer.clear();
+        count = channel.read(buffer);
+        if (count > 0) {
+          this.bytesRead.addAndGet(count);
+        }
+      } while (count >= 0 && !this.closed);
+    } catch (IOException e) {
+      if (logger.isDebugEnabled()) {
+        logger.debug("Could not read ahead {}", file, e);
+      }
+    }
+  }
+
+  long getBytesRead() {
+    return this.bytesRead.get();
+  }
+
+  /**
+   * test hook
+   */
+  boolean awaitQuiescence(long timeout, TimeUnit unit) {
+    return this.pool.awaitQuiescence(timeout, unit);
+  }
+
+  @Override
+  public void close() {
+    this.closed = true;
+    this.pool.shutdownNow();
+  }
+}
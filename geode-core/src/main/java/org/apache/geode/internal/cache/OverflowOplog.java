@@ -371,6 +371,7 @@ class OverflowOplog implements CompactableOplog, Flushable {
 
   private void basicClose() {
     flushAll();
+    this.mappedCrf = null;
     synchronized (this.crf) {
       if (!this.crf.RAFClosed) {
         try {
@@ -802,10 +803,62 @@ class OverflowOplog implements CompactableOplog, Flushable {
     return startPos;
   }
 
+  /**
+   * The crf mapped by the first read after appending is done, see {@link MappedOplogFile}
+   */
+  private volatile MappedOplogFile mappedCrf;
+
+  private boolean mapCrfFailed;
+
+  /**
+   * Maps the crf once nothing is appended to it anymore. Must be called while synchronized on the
+   * crf.
+   */
+  private void mapCrfIfDoneAppending() {
+    if (!MappedOplogFile.ENABLED || !this.doneAppending || this.mappedCrf != null
+        || this.mapCrfFailed || this.crf.f == null || this.closed || this.deleted.get()) {
+      return;
+    }
+    try {
+      this.mappedCrf = new MappedOplogFile(this.crf.f, this.crf.bytesFlushed);
+    } catch (IOException e) {
+      // keep reading through the file
+      this.mapCrfFailed = true;
+      if (logger.isDebugEnabled()) {
+        logger.debug("Could not map {} for reading", this.crf.f, e);
+      }
+    }
+  }
+
+  /**
+   * @return the value read from the mapped crf or null if it is not mapped
+   */
+  private BytesAndBits mappedGet(long offsetInOplog, int valueLength, byte userBits) {
+    MappedOplogFile mapped = this.mappedCrf;
+    if (mapped == null) {
+      return null;
+    }
+    byte[] valueBytes = mapped.read(offsetInOplog, valueLength);
+    if (valueBytes == null) {
+      return null;
+    }
+    this.stats.incOplogReads();
+    return new BytesAndBits(valueBytes, userBits);
+  }
+
   private BytesAndBits attemptGet(DiskRegionView dr, long offsetInOplog, int valueLength,
       byte userBits) throws IOException {
+    BytesAndBits mappedBB = mappedGet(offsetInOplog, valueLength, userBits);
+    if (mappedBB != null) {
+      return mappedBB;
+    }
     synchronized (this.crf) {
       assert offsetInOplog >= 0;
+      mapCrfIfDoneAppending();
+      mappedBB = mappedGet(offsetInOplog, valueLength, userBits);
+      if (mappedBB != null) {
+        return mappedBB;
+      }
       RandomAccessFile myRAF = this.crf.raf;
       BytesAndBits bb = null;
       long writePosition = 0;
@@ -929,6 +982,7 @@ class OverflowOplog implements CompactableOplog, Flushable {
   }
 
   private void deleteFile() {
+    this.mappedCrf = null;
     final OplogFile olf = getOLF();
     if (this.maxOplogSize != 0) {
       this.dirHolder.decrementTotalOplogSize(this.maxOplogSize);
@@ -1232,8 +1286,10 @@ class OverflowOplog implements CompactableOplog, Flushable {
     try {
       lockCompactor();
       try {
+        long crfSize = this.crf.currSize;
         if (hasNoLiveValues()) {
           handleNoLiveValues();
+          getStats().incCompactionReclaimedBytes(crfSize);
           return 0;
         }
         // Start with a fresh wrapper on every compaction so that
@@ -1246,7 +1302,9 @@ class OverflowOplog implements CompactableOplog, Flushable {
         DiskEntry lastDe = null;
         boolean compactFailed = !compactor.keepCompactorRunning();
         int totalCount = 0;
+        long copiedBytes = 0;
         boolean didCompact = false;
+        int valueLength = 0;
         while ((de = getNextLiveEntry()) != null) {
           if (!compactor.keepCompactorRunning()) {
             compactFailed = true;
@@ -1301,6 +1359,7 @@ class OverflowOplog implements CompactableOplog, Flushable {
                 getOplogSet().copyForwardForOverflowCompact(de, valueBytes, length, userBits);
                 // the did's oplogId will now be set to the current active oplog
                 didCompact = true;
+                valueLength = length;
               }
             } // did
           } // de
@@ -1316,12 +1375,15 @@ class OverflowOplog implements CompactableOplog, Flushable {
             if (!wrapper.isReusable()) {
               wrapper = new BytesAndBitsForCompactor();
             }
+            copiedBytes += valueLength;
+            getParent().throttleCompaction(valueLength);
           }
         }
 
         if (!compactFailed) {
           // Need to still remove the oplog even if it had nothing to compact.
           handleNoLiveValues();
+          getStats().incCompactionReclaimedBytes(Math.max(crfSize - copiedBytes, 0));
         }
         return totalCount;
       } finally {
@@ -29,8 +29,12 @@ import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
+import java.util.concurrent.RecursiveAction;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 import org.apache.logging.log4j.Logger;
 
@@ -40,6 +44,7 @@ import org.apache.geode.cache.RegionDestroyedException;
 import org.apache.geode.cache.query.QueryException;
 import org.apache.geode.cache.query.QueryInvocationTargetException;
 import org.apache.geode.cache.query.SelectResults;
+import org.apache.geode.cache.query.internal.CompiledGroupBySelect;
 import org.apache.geode.cache.query.internal.CompiledSelect;
 import org.apache.geode.cache.query.internal.DefaultQuery;
 import org.apache.geode.cache.query.internal.ExecutionContext;
@@ -62,6 +67,9 @@ import org.apache.geode.internal.logging.LoggingExecutors;
  *
  * The QueryTasks add results directly to a results queue. The BucketQueryResult is used not only to
  * indicate completion, and holds an exception if there one occurred while processing a query.
+ *
+ * If {@link #PARALLELISM} is set the buckets are instead queried on a work-stealing pool, see
+ * {@link WorkStealingQuery}.
  */
 public class PRQueryProcessor {
   private static final Logger logger = LogService.getLogger();
@@ -71,9 +79,27 @@ public class PRQueryProcessor {
   public static final int NUM_THREADS =
       getInteger(DistributionConfig.GEMFIRE_PREFIX + "PRQueryProcessor.numThreads", 1);
 
+  /**
+   * The number of threads of the work-stealing pool the buckets of a query are split across. 0, the
+   * default, queries the buckets on {@link #NUM_THREADS} threads instead. The pool is shared by all
+   * the queries of the member and is created on first use, so concurrent queries share these
+   * threads rather than each getting as many.
+   */
+  public static final int PARALLELISM =
+      getInteger(DistributionConfig.GEMFIRE_PREFIX + "PRQueryProcessor.parallelism", 0);
+
+  /**
+   * The bucket list is split until each task has at most this many buckets per thread of the pool
+   * so idle threads have tasks left to steal
+   */
+  private static final int TASKS_PER_THREAD = 4;
+
   /* For Test purpose */
   public static int TEST_NUM_THREADS = 0;
 
+  /* For Test purpose */
+  public static int TEST_PARALLELISM = 0;
+
   private PartitionedRegionDataStore _prds;
   private PartitionedRegion pr;
   private final DefaultQuery query;
@@ -113,7 +139,9 @@ public class PRQueryProcessor {
    */
   public boolean executeQuery(Collection<Collection> resultCollector)
       throws QueryException, InterruptedException, ForceReattemptException {
-    if (NUM_THREADS > 1 || TEST_NUM_THREADS > 1) {
+    if (getParallelism() > 0) {
+      new WorkStealingQuery(resultCollector).execute();
+    } else if (NUM_THREADS > 1 || TEST_NUM_THREADS > 1) {
       executeWithThreadPool(resultCollector);
     } else {
       executeSequentially(resultCollector, this._bucketsToQuery);
@@ -121,6 +149,10 @@ public class PRQueryProcessor {
     return this.resultType.isStructType();
   }
 
+  private static int getParallelism() {
+    return TEST_PARALLELISM > 0 ? TEST_PARALLELISM : PARALLELISM;
+  }
+
   private void executeWithThreadPool(Collection<Collection> resultCollector)
       throws QueryException, InterruptedException, ForceReattemptException {
     if (Thread.interrupted())
@@ -211,7 +243,7 @@ public class PRQueryProcessor {
   }
 
   private Collection coalesceOrderedResults(Collection<Collection> results,
-      ExecutionContext context, CompiledSelect cs, int limit) {
+      ExecutionContext context, CompiledSelect cs, int limit) throws QueryException {
     List<Collection> sortedResults = new ArrayList<Collection>(results.size());
     // TODO :Asif : Deal with UNDEFINED
     for (Object o : results) {
@@ -220,27 +252,51 @@ public class PRQueryProcessor {
       }
     }
 
-    return new NWayMergeResults(sortedResults, cs.isDistinct(), limit, cs.getOrderByAttrs(),
-        context, cs.getElementTypeForOrderByQueries());
-
+    NWayMergeResults mergedResults = new NWayMergeResults(sortedResults, cs.isDistinct(), limit,
+        cs.getOrderByAttrs(), context, cs.getElementTypeForOrderByQueries());
+    if (cs instanceof CompiledGroupBySelect) {
+      // send a single partial aggregate per group instead of one per group and bucket
+      ExecutionContext combineContext = new QueryExecutionContext(this.parameters, pr.getCache());
+      return ((CompiledGroupBySelect) cs).combineBucketResults(mergedResults, combineContext);
+    }
+    return mergedResults;
   }
 
   private void executeQueryOnBuckets(Collection<Collection> resultCollector,
       ExecutionContext context)
       throws ForceReattemptException, QueryInvocationTargetException, QueryException {
     // Check if QueryMonitor is enabled, if so add query to be monitored.
-    QueryMonitor queryMonitor = null;
-    context.setCqQueryContext(query.isCqQuery());
-    if (GemFireCacheImpl.getInstance() != null) {
-      queryMonitor = GemFireCacheImpl.getInstance().getQueryMonitor();
-    }
+    QueryMonitor queryMonitor = getQueryMonitor();
 
     try {
       if (queryMonitor != null) {
         // Add current thread to be monitored by QueryMonitor.
         queryMonitor.monitorQueryThread(query);
       }
+      queryBuckets(resultCollector, context);
+    } finally {
+      if (queryMonitor != null) {
+        queryMonitor.stopMonitoringQueryThread(query);
+      }
+    }
+  }
 
+  private QueryMonitor getQueryMonitor() {
+    if (GemFireCacheImpl.getInstance() != null) {
+      return GemFireCacheImpl.getInstance().getQueryMonitor();
+    }
+    return null;
+  }
+
+  /**
+   * Executes the query on the buckets of the context without monitoring it
+   *
+   * @return the number of results added to the collector
+   */
+  private int queryBuckets(Collection<Collection> resultCollector, ExecutionContext context)
+      throws ForceReattemptException, QueryInvocationTargetException, QueryException {
+    context.setCqQueryContext(query.isCqQuery());
+    try {
       Object results = query.executeUsingContext(context);
 
       synchronized (resultCollector) {
@@ -248,6 +304,7 @@ public class PRQueryProcessor {
         resultCollector.add((Collection) results);
       }
       isIndexUsedForLocalQuery = ((QueryExecutionContext) context).isIndexUsed();
+      return ((Collection) results).size();
 
     } catch (BucketMovedException bme) {
       if (logger.isDebugEnabled()) {
@@ -265,10 +322,6 @@ public class PRQueryProcessor {
             "Local Partition Region or the targeted bucket has been moved");
       }
       throw qe;
-    } finally {
-      if (queryMonitor != null) {
-        queryMonitor.stopMonitoringQueryThread(query);
-      }
     }
   }
 
@@ -292,6 +345,182 @@ public class PRQueryProcessor {
     PRQueryExecutor.shutdownNow();
   }
 
+  /**
+   * Queries the buckets on the work-stealing pool. The bucket list is split in halves until the
+   * ranges are small enough, and each range is queried in a single execution, or bucket by bucket
+   * if the results of the buckets have to be merged in order. The results are collected in the
+   * order of the bucket list, whichever thread queried them. Once the query is canceled by the
+   * {@link QueryMonitor}, a range fails or enough results are gathered for the limit of the query,
+   * the ranges not queried yet are skipped.
+   */
+  private class WorkStealingQuery {
+
+    private final Collection<Collection> resultCollector;
+
+    /**
+     * The results of each bucket, or of each range at the index of its first bucket
+     */
+    private final AtomicReferenceArray<Collection> bucketResults;
+
+    private final CompiledSelect cs;
+
+    /**
+     * Whether each bucket is queried on its own so the results can be merged in order
+     */
+    private final boolean queryEachBucket;
+
+    /**
+     * The number of results after which the remaining buckets are skipped, or 0 if every bucket
+     * has to be queried
+     */
+    private final int limit;
+
+    private final int bucketsPerTask;
+
+    /**
+     * The remote query may read PDX in serialized form, which is a thread local setting
+     */
+    private final boolean pdxReadSerializedOverride;
+
+    private final AtomicInteger resultCount = new AtomicInteger();
+
+    private final AtomicReference<Exception> failure = new AtomicReference<>();
+
+    WorkStealingQuery(Collection<Collection> resultCollector) throws QueryException {
+      this.resultCollector = resultCollector;
+      this.bucketResults = new AtomicReferenceArray<>(_bucketsToQuery.size());
+      this.cs = query.getSimpleSelect();
+      this.queryEachBucket = this.cs != null && (this.cs.isOrderBy() || this.cs.isGroupBy());
+      this.limit = canStopAtLimit(this.cs) ? query.getLimit(parameters) : 0;
+      this.bucketsPerTask =
+          Math.max(1, _bucketsToQuery.size() / (getParallelism() * TASKS_PER_THREAD));
+      this.pdxReadSerializedOverride = pr.getCache().getPdxReadSerializedOverride();
+    }
+
+    /**
+     * The results of different buckets are only interchangeable if they are neither sorted,
+     * aggregated nor made distinct
+     */
+    private boolean canStopAtLimit(CompiledSelect cs) {
+      return cs != null && !(cs instanceof CompiledGroupBySelect) && !cs.isOrderBy()
+          && !cs.isGroupBy() && !cs.isDistinct() && !cs.isCount();
+    }
+
+    void execute() throws QueryException, InterruptedException, ForceReattemptException {
+      if (Thread.interrupted()) {
+        throw new InterruptedException();
+      }
+      // monitored once for all the threads, the tasks check whether it is canceled
+      QueryMonitor queryMonitor = getQueryMonitor();
+      try {
+        if (queryMonitor != null) {
+          queryMonitor.monitorQueryThread(query);
+        }
+        PRQueryExecutor.getWorkStealingPool()
+            .submit(() -> new BucketRange(0, _bucketsToQuery.size()).invoke()).get();
+      } catch (ExecutionException ee) {
+        Throwable cause = ee.getCause();
+        if (cause instanceof RuntimeException) {
+          throw (RuntimeException) cause;
+        } else if (cause instanceof Error) {
+          throw (Error) cause;
+        }
+        throw new InternalGemFireException(
+            "Got unexpected exception while executing query on partitioned region bucket", cause);
+      } finally {
+        if (queryMonitor != null) {
+          queryMonitor.stopMonitoringQueryThread(query);
+        }
+      }
+
+      Exception ex = this.failure.get();
+      if (ex instanceof ForceReattemptException) {
+        throw (ForceReattemptException) ex;
+      } else if (ex instanceof QueryException) {
+        throw (QueryException) ex;
+      } else if (ex instanceof RuntimeException) {
+        throw (RuntimeException) ex;
+      }
+
+      for (int i = 0; i < this.bucketResults.length(); i++) {
+        Collection results = this.bucketResults.get(i);
+        if (results != null) {
+          this.resultCollector.add(results);
+        }
+      }
+
+      if (this.queryEachBucket) {
+        ExecutionContext context = new QueryExecutionContext(parameters, pr.getCache());
+        int limit = query.getLimit(parameters);
+        Collection mergedResults =
+            coalesceOrderedResults(this.resultCollector, context, this.cs, limit);
+        this.resultCollector.clear();
+        this.resultCollector.add(mergedResults);
+      }
+    }
+
+    private boolean isDone() {
+      if (query.isCanceled()) {
+        this.failure.compareAndSet(null, query.getQueryCanceledException());
+      }
+      return this.failure.get() != null
+          || (this.limit > 0 && this.resultCount.get() >= this.limit);
+    }
+
+    private void queryBucketRange(int from, List<Integer> buckets) {
+      Boolean initialPdxReadSerialized = pr.getCache().getPdxReadSerializedOverride();
+      pr.getCache().setPdxReadSerializedOverride(this.pdxReadSerializedOverride);
+      try {
+        if (this.queryEachBucket) {
+          for (int i = 0; i < buckets.size(); i++) {
+            if (isDone()) {
+              return;
+            }
+            queryBucketList(from + i, Collections.singletonList(buckets.get(i)));
+          }
+        } else if (!isDone()) {
+          queryBucketList(from, buckets);
+        }
+      } catch (ForceReattemptException | QueryException | CacheRuntimeException e) {
+        this.failure.compareAndSet(null, e);
+      } finally {
+        pr.getCache().setPdxReadSerializedOverride(initialPdxReadSerialized);
+      }
+    }
+
+    private void queryBucketList(int index, List<Integer> buckets)
+        throws ForceReattemptException, QueryException {
+      ExecutionContext context = new QueryExecutionContext(parameters, pr.getCache(), query);
+      context.setBucketList(buckets);
+      List<Collection> results = new ArrayList<>(1);
+      this.resultCount.addAndGet(queryBuckets(results, context));
+      this.bucketResults.set(index, results.get(0));
+    }
+
+    private class BucketRange extends RecursiveAction {
+
+      private final int from;
+
+      private final int to;
+
+      BucketRange(int from, int to) {
+        this.from = from;
+        this.to = to;
+      }
+
+      @Override
+      protected void compute() {
+        if (this.to - this.from > bucketsPerTask) {
+          int middle = (this.from + this.to) >>> 1;
+          invokeAll(new BucketRange(this.from, middle), new BucketRange(middle, this.to));
+        } else {
+          queryBucketRange(this.from,
+              new ArrayList<>(_bucketsToQuery.subList(this.from, this.to)));
+        }
+      }
+    }
+  }
+
   /**
    * A ThreadPool ( Fixed Size ) with an executor service to execute the query execution spread over
    * buckets.
@@ -300,6 +529,10 @@ public class PRQueryProcessor {
 
     private static ExecutorService execService = null;
 
+    private static ExecutorService workStealingPool = null;
+
+    private static int workStealingPoolParallelism = 0;
+
     /**
      * Closes the executor service. This is called from
      * {@link PartitionedRegion#afterRegionsClosedByCacheClose(InternalCache)}
@@ -308,11 +541,36 @@ public class PRQueryProcessor {
       if (execService != null) {
         execService.shutdown();
       }
+      if (workStealingPool != null) {
+        workStealingPool.shutdown();
+      }
     }
 
     static synchronized void shutdownNow() {
       if (execService != null)
         execService.shutdownNow();
+      if (workStealingPool != null) {
+        workStealingPool.shutdownNow();
+      }
+    }
+
+    /**
+     * Returns the work-stealing pool shared by all the queries, sized by the parallelism when it is
+     * created. If the parallelism changed since, which only tests do through
+     * {@link #TEST_PARALLELISM}, the pool is replaced by one of the new size and the old one
+     * finishes the queries already submitted to it.
+     */
+    static synchronized ExecutorService getWorkStealingPool() {
+      int parallelism = getParallelism();
+      if (workStealingPool == null || workStealingPool.isShutdown()
+          || workStealingPoolParallelism != parallelism) {
+        if (workStealingPool != null) {
+          workStealingPool.shutdown();
+        }
+        workStealingPool = LoggingExecutors.newWorkStealingPool("PRQueryProcessor", parallelism);
+        workStealingPoolParallelism = parallelism;
+      }
+      return workStealingPool;
     }
 
     static synchronized ExecutorService getExecutorService() {
@@ -442,6 +442,8 @@ public class PartitionedRegion extends LocalRegion
 
   private ScheduledExecutorService bucketSorter;
 
+  private BucketEvictionCoordinator bucketEvictionCoordinator;
+
   private final ConcurrentMap<String, Integer[]> partitionsMap = new ConcurrentHashMap<>();
 
   public ConcurrentMap<String, Integer[]> getPartitionsMap() {
@@ -805,6 +807,12 @@ public class PartitionedRegion extends LocalRegion
       this.sortedBuckets = new ArrayList<BucketRegion>();
       this.bucketSorter = LoggingExecutors.newScheduledThreadPool("BucketSorterThread", 1);
     }
+    if (this.getEvictionAttributes() != null
+        && (this.getEvictionAttributes().getAlgorithm().isLRUEntry()
+            || this.getEvictionAttributes().getAlgorithm().isLRUMemory())
+        && BucketEvictionCoordinator.isEnabled()) {
+      this.bucketEvictionCoordinator = new BucketEvictionCoordinator(this);
+    }
     // If eviction is on, Create an instance of PartitionedRegionLRUStatistics
     if ((this.getEvictionAttributes() != null
         && !this.getEvictionAttributes().getAlgorithm().isNone()
@@ -8463,21 +8471,44 @@ public class PartitionedRegion extends LocalRegion
     if (getDataStore() != null && indexes.size() > 0) {
       Set localBuckets = getDataStore().getAllLocalBuckets();
       Iterator it = localBuckets.iterator();
+      List<Region> buckets = new ArrayList<>();
       while (it.hasNext()) {
         Map.Entry entry = (Map.Entry) it.next();
         Region bucket = (Region) entry.getValue();
 
-        if (bucket == null) {
-          continue;
-        }
-        IndexManager bucketIndexManager = IndexUtils.getIndexManager(cache, bucket, true);
-        Set<Index> bucketIndexes = getBucketIndexesForPRIndexes(bucket, indexes);
-        try {
-          bucketIndexManager.populateIndexes(bucketIndexes);
-        } catch (MultiIndexCreationException ex) {
-          exceptionsMap.putAll(ex.getExceptionsMap());
-          throwException = true;
+        if (bucket != null) {
+          buckets.add(bucket);
+        }
+      }
+      // The buckets are populated in parallel, so each one populates its indexes on the thread of
+      // its task instead of starting threads of its own, unless there is a single bucket.
+      int indexThreads = buckets.size() > 1 ? 1 : IndexManager.getIndexCreationThreads();
+      Map<String, Exception> bucketExceptionsMap = new ConcurrentHashMap<>();
+      List<Callable<Void>> tasks = new ArrayList<>(buckets.size());
+      for (Region bucket : buckets) {
+        tasks.add(() -> {
+          IndexManager bucketIndexManager = IndexUtils.getIndexManager(cache, bucket, true);
+          Set<Index> bucketIndexes = getBucketIndexesForPRIndexes(bucket, indexes);
+          try {
+            bucketIndexManager.populateIndexes(bucketIndexes, indexThreads);
+          } catch (MultiIndexCreationException ex) {
+            bucketExceptionsMap.putAll(ex.getExceptionsMap());
+          }
+          return null;
+        });
+      }
+      try {
+        IndexManager.invokeIndexCreationTasks(tasks);
+      } catch (ExecutionException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof RuntimeException) {
+          throw (RuntimeException) cause;
         }
+        throw new IndexInvalidException(cause);
+      }
+      if (!bucketExceptionsMap.isEmpty()) {
+        exceptionsMap.putAll(bucketExceptionsMap);
+        throwException = true;
       }
     }
     return throwException;
@@ -9247,6 +9278,14 @@ public class PartitionedRegion extends LocalRegion
 
   private final AtomicBoolean bucketSortedOnce = new AtomicBoolean(false);
 
+  /**
+   * Returns the coordinator choosing the buckets to evict from, or null if each bucket evicts its
+   * own entries
+   */
+  BucketEvictionCoordinator getBucketEvictionCoordinator() {
+    return this.bucketEvictionCoordinator;
+  }
+
   public List<BucketRegion> getSortedBuckets() {
     if (!bucketSorterStarted.get()) {
       bucketSorterStarted.set(true);
@@ -9565,6 +9604,9 @@ public class PartitionedRegion extends LocalRegion
       if (!it.hasNext()) {
         parIndex.setPopulated(true);
       }
+      // Each bucket has its own IndexManager, so the buckets can be indexed in parallel, and
+      // only the updates of the buckets being indexed wait for their index creation.
+      List<Callable<Void>> tasks = new ArrayList<>();
       while (it.hasNext()) {
         Map.Entry entry = (Map.Entry) it.next();
         Region bucket = (Region) entry.getValue();
@@ -9572,27 +9614,46 @@ public class PartitionedRegion extends LocalRegion
         if (bucket == null) {
           continue;
         }
-
-        ExecutionContext externalContext = new ExecutionContext(null, cache);
-        externalContext.setBucketRegion(PartitionedRegion.this, (BucketRegion) bucket);
-        IndexManager indMng = IndexUtils.getIndexManager(cache, bucket, true);
-        try {
-          Index bucketIndex = indMng.createIndex(indexName, indexType, indexedExpression,
-              fromClause, imports, externalContext, parIndex, loadEntries);
-          // parIndex.addToBucketIndexes(bucketIndex);
-        } catch (IndexNameConflictException ince) {
-          if (!remotelyOriginated) {
-            throw ince;
-          }
-        } catch (IndexExistsException iee) {
-          if (!remotelyOriginated) {
-            throw iee;
-          }
-        }
+        tasks.add(() -> {
+          createBucketIndex((BucketRegion) bucket, parIndex);
+          return null;
+        });
       } // End of bucket list
+      try {
+        IndexManager.invokeIndexCreationTasks(tasks);
+      } catch (ExecutionException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof IndexNameConflictException) {
+          throw (IndexNameConflictException) cause;
+        } else if (cause instanceof IndexExistsException) {
+          throw (IndexExistsException) cause;
+        } else if (cause instanceof RuntimeException) {
+          throw (RuntimeException) cause;
+        }
+        throw new IndexCreationException(cause.getMessage(), cause);
+      }
       parIndex.markValid(true);
       return parIndex;
     }
+
+    private void createBucketIndex(BucketRegion bucket, PartitionedIndex parIndex)
+        throws IndexNameConflictException, IndexExistsException {
+      ExecutionContext externalContext = new ExecutionContext(null, cache);
+      externalContext.setBucketRegion(PartitionedRegion.this, bucket);
+      IndexManager indMng = IndexUtils.getIndexManager(cache, bucket, true);
+      try {
+        indMng.createIndex(indexName, indexType, indexedExpression, fromClause, imports,
+            externalContext, parIndex, loadEntries);
+      } catch (IndexNameConflictException ince) {
+        if (!remotelyOriginated) {
+          throw ince;
+        }
+      } catch (IndexExistsException iee) {
+        if (!remotelyOriginated) {
+          throw iee;
+        }
+      }
+    }
   }
 
   public List<FixedPartitionAttributesImpl> getFixedPartitionAttributesImpl() {
@@ -437,41 +437,59 @@ public class PersistentOplogSet implements OplogSet {
     }
     if (oplogSet.size() > 0) {
       long startOpLogRecovery = System.currentTimeMillis();
-      // first figure out all entries that have been destroyed
-      boolean latestOplog = true;
-      for (Oplog oplog : oplogSet) {
-        byteCount += oplog.recoverDrf(deletedIds, this.alreadyRecoveredOnce.get(), latestOplog);
-        latestOplog = false;
-        if (!this.alreadyRecoveredOnce.get()) {
-          updateOplogEntryId(oplog.getMaxRecoveredOplogEntryId());
-        }
-      }
-      parent.incDeadRecordCount(deletedIds.size());
-      // now figure out live entries
-      latestOplog = true;
-      for (Oplog oplog : oplogSet) {
-        long startOpLogRead = parent.getStats().startOplogRead();
-        long bytesRead = oplog.recoverCrf(deletedIds,
-            // @todo make recoverValues per region
-            recoverValues(), recoverValuesSync(), this.alreadyRecoveredOnce.get(),
-            oplogsNeedingValueRecovery, latestOplog);
-        latestOplog = false;
-        if (!this.alreadyRecoveredOnce.get()) {
-          updateOplogEntryId(oplog.getMaxRecoveredOplogEntryId());
+      OplogRecoveryReadAhead readAhead = createReadAhead(oplogSet);
+      try {
+        int oplogIndex = 0;
+        // first figure out all entries that have been destroyed
+        boolean latestOplog = true;
+        for (Oplog oplog : oplogSet) {
+          byteCount += oplog.recoverDrf(deletedIds, this.alreadyRecoveredOnce.get(), latestOplog);
+          latestOplog = false;
+          if (!this.alreadyRecoveredOnce.get()) {
+            updateOplogEntryId(oplog.getMaxRecoveredOplogEntryId());
+          }
+          if (readAhead != null) {
+            readAhead.replayed(oplogIndex);
+          }
+          oplogIndex++;
         }
-        byteCount += bytesRead;
-        parent.getStats().endOplogRead(startOpLogRead, bytesRead);
+        parent.incDeadRecordCount(deletedIds.size());
+        // now figure out live entries
+        latestOplog = true;
+        for (Oplog oplog : oplogSet) {
+          long startOpLogRead = parent.getStats().startOplogRead();
+          long bytesRead = oplog.recoverCrf(deletedIds,
+              // @todo make recoverValues per region
+              recoverValues(), recoverValuesSync(), this.alreadyRecoveredOnce.get(),
+              oplogsNeedingValueRecovery, latestOplog);
+          latestOplog = false;
+          if (!this.alreadyRecoveredOnce.get()) {
+            updateOplogEntryId(oplog.getMaxRecoveredOplogEntryId());
+          }
+          byteCount += bytesRead;
+          parent.getStats().endOplogRead(startOpLogRead, bytesRead);
+          if (readAhead != null) {
+            readAhead.replayed(oplogIndex);
+          }
+          oplogIndex++;
 
-        // Callback to the disk regions to indicate the oplog is recovered
-        // Used for offline export
-        for (DiskRecoveryStore drs : this.currentRecoveryMap.values()) {
-          drs.getDiskRegionView().oplogRecovered(oplog.oplogId);
+          // Callback to the disk regions to indicate the oplog is recovered
+          // Used for offline export
+          for (DiskRecoveryStore drs : this.currentRecoveryMap.values()) {
+            drs.getDiskRegionView().oplogRecovered(oplog.oplogId);
+          }
+        }
+      } finally {
+        if (readAhead != null) {
+          readAhead.close();
+          parent.getStats().incRecoveryReadAheadBytes(readAhead.getBytesRead());
         }
       }
       long endOpLogRecovery = System.currentTimeMillis();
       long elapsed = endOpLogRecovery - startOpLogRecovery;
-      logger
-          .info("recovery oplog load took {} ms", elapsed);
+      logger.info("recovery oplog load took {} ms, read {} bytes from {} oplogs ({} MB/s)",
+          elapsed, byteCount, oplogSet.size(),
+          elapsed == 0 ? "-" : String.format("%.1f", byteCount * 1000.0 / elapsed / (1 << 20)));
     }
     if (!parent.isOfflineCompacting()) {
       long startRegionInit = System.currentTimeMillis();
@@ -520,6 +538,26 @@ public class PersistentOplogSet implements OplogSet {
     return byteCount;
   }
 
+  /**
+   * @return a read ahead of the drfs followed by the crfs or krfs of the oplogs, in the order they
+   *         are replayed, or null if read ahead is disabled or would not help
+   */
+  private OplogRecoveryReadAhead createReadAhead(TreeSet<Oplog> oplogSet) {
+    if (OplogRecoveryReadAhead.PARALLELISM <= 0 || this.alreadyRecoveredOnce.get()
+        || oplogSet.size() < 2) {
+      return null;
+    }
+    List<File> files = new ArrayList<File>(oplogSet.size() * 2);
+    for (Oplog oplog : oplogSet) {
+      files.add(oplog.getDrfFile());
+    }
+    for (Oplog oplog : oplogSet) {
+      files.add(oplog.getCrfRecoveryFile(recoverValuesSync()));
+    }
+    return new OplogRecoveryReadAhead(parent.getName(), files, OplogRecoveryReadAhead.PARALLELISM,
+        OplogRecoveryReadAhead.WINDOW);
+  }
+
   protected boolean recoverValuesSync() {
     return parent.RECOVER_VALUES_SYNC;
   }
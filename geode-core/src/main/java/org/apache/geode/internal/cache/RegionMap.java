@@ -66,6 +66,9 @@ public interface RegionMap extends EvictableMap {
 
     /** whether "api" statistics are enabled */
     boolean statisticsEnabled = false;
+
+    /** whether the entries are stored in an open addressing map */
+    boolean openAddressing = false;
   }
 
   RegionEntryFactory getEntryFactory();
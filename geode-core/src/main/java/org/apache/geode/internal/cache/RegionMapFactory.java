@@ -15,7 +15,7 @@
 
 package org.apache.geode.internal.cache;
 
-
+import org.apache.geode.internal.lang.SystemPropertyHelper;
 
 /**
  * Used to produce instances of RegionMap
@@ -38,7 +38,9 @@ class RegionMapFactory {
     if (owner.isProxy() /* || owner instanceof PartitionedRegion */) { // TODO enabling this causes
                                                                        // eviction tests to fail
       return new ProxyRegionMap(owner, attrs, internalRegionArgs);
-    } else if (owner.isEntryEvictionPossible()) {
+    }
+    attrs.openAddressing = useOpenAddressing();
+    if (owner.isEntryEvictionPossible()) {
       return new VMLRURegionMap(owner, attrs, internalRegionArgs);
     } else {
       return new VMRegionMap(owner, attrs, internalRegionArgs);
@@ -59,10 +61,20 @@ class RegionMapFactory {
     ma.loadFactor = owner.getLoadFactor();
     ma.initialCapacity = owner.getInitialCapacity();
     ma.concurrencyLevel = owner.getConcurrencyLevel();
+    ma.openAddressing = useOpenAddressing();
     if (owner.getLruAlgorithm() != 0) {
       return new VMLRURegionMap(owner, ma, internalRegionArgs);
     } else {
       return new VMRegionMap(owner, ma, internalRegionArgs);
     }
   }
+
+  /**
+   * Returns true if the entries of the maps created should be stored in an
+   * {@link org.apache.geode.internal.util.concurrent.OpenAddressingConcurrentHashMap}.
+   */
+  static boolean useOpenAddressing() {
+    return SystemPropertyHelper
+        .getProductBooleanProperty(SystemPropertyHelper.OPEN_ADDRESSING_ENTRY_MAP).orElse(false);
+  }
 }
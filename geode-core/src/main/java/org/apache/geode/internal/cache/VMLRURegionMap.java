@@ -467,6 +467,9 @@ public class VMLRURegionMap extends AbstractRegionMap {
         // to fix bug 48285 do no evict if bytesToEvict <= 0.
         while (bytesToEvict > 0
             && getEvictionController().mustEvict(stats, _getOwner(), bytesToEvict)) {
+          if (evictFromLargerBucket()) {
+            continue;
+          }
           EvictableEntry removalEntry = (EvictableEntry) getEvictionList().getEvictableEntry();
           if (removalEntry != null) {
             if (evictEntry(removalEntry, stats) != 0) {
@@ -509,6 +512,64 @@ public class VMLRURegionMap extends AbstractRegionMap {
     // reset the tx thread local
   }
 
+  /**
+   * Evicts an entry of a larger local bucket of the same partitioned region instead of one of this
+   * bucket, when the region has a {@link BucketEvictionCoordinator}.
+   *
+   * @return true if an entry was taken off the eviction list of another bucket
+   */
+  private boolean evictFromLargerBucket() {
+    if (!(_getOwnerObject() instanceof BucketRegion)) {
+      return false;
+    }
+    BucketRegion bucket = (BucketRegion) _getOwner();
+    BucketEvictionCoordinator coordinator =
+        bucket.getPartitionedRegion().getBucketEvictionCoordinator();
+    if (coordinator == null) {
+      return false;
+    }
+    BucketRegion target = coordinator.selectBucket(bucket);
+    if (target == bucket || !(target.getRegionMap() instanceof VMLRURegionMap)) {
+      return false;
+    }
+    try {
+      return ((VMLRURegionMap) target.getRegionMap()).evictForOtherBucket();
+    } catch (RegionDestroyedException e) {
+      target.getCache().getCancelCriterion().checkCancelInProgress(e);
+      return false;
+    }
+  }
+
+  /**
+   * Evicts the next entry of the eviction list on behalf of another bucket.
+   *
+   * @return false if the eviction list had no entry to evict
+   */
+  private boolean evictForOtherBucket() {
+    EvictionCounters stats = getEvictionList().getStatistics();
+    EvictableEntry removalEntry = getEvictionList().getEvictableEntry();
+    if (removalEntry == null) {
+      return false;
+    }
+    try {
+      if (evictEntry(removalEntry, stats) != 0) {
+        stats.incEvictions();
+        _getOwner().incBucketEvictions();
+        if (logger.isTraceEnabled(LogMarker.LRU_VERBOSE)) {
+          logger.trace(LogMarker.LRU_VERBOSE, "evicted entry key={} for another bucket",
+              removalEntry.getKey());
+        }
+      }
+    } catch (RegionClearedException e) {
+      // the bucket was cleared, which also removed the entry
+      if (logger.isTraceEnabled(LogMarker.LRU_VERBOSE)) {
+        logger.trace(LogMarker.LRU_VERBOSE, "exception ={}", e.getCause().getMessage(),
+            e.getCause());
+      }
+    }
+    return true;
+  }
+
   private boolean mustEvict() {
     LocalRegion owner = _getOwner();
     InternalResourceManager resourceManager = owner.getCache().getInternalResourceManager();
@@ -23,11 +23,14 @@ package org.apache.geode.internal.cache.entries;
 #define KEY_TYPE long
 #elif defined(KEY_UUID)
 #define KEY_TYPE UUID
-#elif defined(KEY_STRING1) || defined(KEY_STRING2)
+#elif defined(KEY_STRING1) || defined(KEY_STRING2) || defined(KEY_STRING_OFFHEAP)
 #define KEY_TYPE String
 #else
 #error the KEY_TYPE macro must be defined    
 #endif
+#if defined(KEY_STRING_OFFHEAP) && !defined(OFFHEAP)
+#error the KEY_STRING_OFFHEAP macro requires the OFFHEAP macro
+#endif
 
 #ifdef KEY_UUID
 import java.util.UUID;
@@ -90,13 +93,18 @@ import org.apache.geode.internal.util.concurrent.CustomEntryConcurrentHashMap.Ha
  * key uuid: KEY_UUID
  * key string1: KEY_STRING1
  * key string2: KEY_STRING2
+ * key string offheap: KEY_STRING_OFFHEAP
  */
 
 /**
  * Do not modify this class. It was generated. Instead modify LeafRegionEntry.cpp and then run
  * ./dev-tools/generateRegionEntryClasses.sh (it must be run from the top level directory).
  */
+#ifdef KEY_STRING_OFFHEAP
+public class LEAF_CLASS extends PARENT_CLASS implements OffHeapKeyRegionEntry {
+#else
 public class LEAF_CLASS extends PARENT_CLASS {
+#endif
 
   // --------------------------------------- common fields ----------------------------------------
 
@@ -199,6 +207,21 @@ public class LEAF_CLASS extends PARENT_CLASS {
    * bits2 encodes character data
    */
   private final long bits2;
+#elif defined(KEY_STRING_OFFHEAP)
+  /**
+   * The address of the key once it has been moved off-heap. All access done using
+   * KEY_ADDRESS_UPDATER so it is used even though the compiler can not tell it is.
+   */
+  @SuppressWarnings("unused")
+  @Retained @Released private volatile long keyAddress;
+
+  private static final AtomicLongFieldUpdater<LEAF_CLASS> KEY_ADDRESS_UPDATER =
+      AtomicLongFieldUpdater.newUpdater(LEAF_CLASS.class, "keyAddress");
+
+  /**
+   * The key while it is on the heap: before it is moved off-heap, and once it is read or released.
+   */
+  private volatile String heapKey;
 #endif
 
   public LEAF_CLASS (final RegionEntryContext context, final KEY_TYPE key,
@@ -249,6 +272,9 @@ public class LEAF_CLASS extends PARENT_CLASS {
     }
     tempBits1 |= key.length();
     this.bits1 = tempBits1;
+#elif defined(KEY_STRING_OFFHEAP)
+    // the key is moved off-heap once this entry has been added to a map
+    this.heapKey = key;
 #elif defined(KEY_STRING2)
     // caller has already confirmed that key.length <= MAX_INLINE_STRING_KEY
     long tempBits1 = 0L;
@@ -548,6 +574,10 @@ public class LEAF_CLASS extends PARENT_CLASS {
 #ifdef KEY_OBJECT
     // default implementation.
     return getKey();
+#elif defined(KEY_STRING_OFFHEAP)
+    // off-heap keys report null for sizing since they are only on the heap until they are moved
+    // off-heap or once they are read
+    return null;
 #else
     // inline keys always report null for sizing since the size comes from the entry size
     return null;
@@ -942,6 +972,36 @@ public class LEAF_CLASS extends PARENT_CLASS {
     }
     return false;
   }
+#elif defined(KEY_STRING_OFFHEAP)
+  @Override
+  public Object getKey() {
+    return OffHeapRegionEntryHelper.getKey(this);
+  }
+
+  @Override
+  public boolean isKeyEqual(final Object key) {
+    return OffHeapRegionEntryHelper.isKeyEqual(this, key);
+  }
+
+  @Override
+  public long getKeyAddress() {
+    return KEY_ADDRESS_UPDATER.get(this);
+  }
+
+  @Override
+  public boolean setKeyAddress(final long expectedAddress, final long newAddress) {
+    return KEY_ADDRESS_UPDATER.compareAndSet(this, expectedAddress, newAddress);
+  }
+
+  @Override
+  public String getHeapKey() {
+    return this.heapKey;
+  }
+
+  @Override
+  public void setHeapKey(final String key) {
+    this.heapKey = key;
+  }
 #endif
 
   // DO NOT modify this class. It was generated from LeafRegionEntry.cpp
@@ -0,0 +1,49 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.internal.cache.entries;
+
+/**
+ * Any OffHeapRegionEntry whose key is also stored off heap must implement this interface. The key
+ * stays on the heap until the entry has been added to a map, and is copied back to the heap when
+ * its off-heap memory is released. Reading the key decodes a new copy of it each time, while
+ * comparing, hashing or serializing it does not copy it. See
+ * {@link org.apache.geode.internal.offheap.OffHeapRegionEntryHelper#moveKeyOffHeap}.
+ */
+public interface OffHeapKeyRegionEntry extends OffHeapRegionEntry {
+  /**
+   * Returns the address of the off-heap key, or a token address if the key is on the heap.
+   */
+  long getKeyAddress();
+
+  /**
+   * Sets the address of the off-heap key if it is currently the expected address.
+   *
+   * @return true if the address was set
+   */
+  boolean setKeyAddress(long expectedAddr, long newAddr);
+
+  /**
+   * Returns the key if it is on the heap, otherwise null.
+   */
+  String getHeapKey();
+
+  void setHeapKey(String key);
+
+  /**
+   * Returns true if the key of this entry is equal to the given key, without reading the off-heap
+   * key into the heap.
+   */
+  boolean isKeyEqual(Object key);
+}
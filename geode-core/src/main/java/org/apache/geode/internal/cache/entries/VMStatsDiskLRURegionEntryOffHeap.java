@@ -20,6 +20,7 @@ import org.apache.geode.internal.cache.InlineKeyHelper;
 import org.apache.geode.internal.cache.RegionEntry;
 import org.apache.geode.internal.cache.RegionEntryContext;
 import org.apache.geode.internal.cache.RegionEntryFactory;
+import org.apache.geode.internal.offheap.OffHeapRegionEntryHelper;
 
 public abstract class VMStatsDiskLRURegionEntryOffHeap extends VMStatsDiskLRURegionEntry
     implements OffHeapRegionEntry {
@@ -55,6 +56,8 @@ public abstract class VMStatsDiskLRURegionEntryOffHeap extends VMStatsDiskLRUReg
               return new VMStatsDiskLRURegionEntryOffHeapStringKey2(context, skey, value,
                   byteEncoded);
             }
+          } else if (OffHeapRegionEntryHelper.OFF_HEAP_KEYS) {
+            return new VMStatsDiskLRURegionEntryOffHeapOffHeapStringKey(context, skey, value);
           }
         } else if (keyClass == UUID.class) {
           return new VMStatsDiskLRURegionEntryOffHeapUUIDKey(context, (UUID) key, value);
@@ -20,6 +20,7 @@ import org.apache.geode.internal.cache.InlineKeyHelper;
 import org.apache.geode.internal.cache.RegionEntry;
 import org.apache.geode.internal.cache.RegionEntryContext;
 import org.apache.geode.internal.cache.RegionEntryFactory;
+import org.apache.geode.internal.offheap.OffHeapRegionEntryHelper;
 
 public abstract class VMStatsDiskRegionEntryOffHeap extends VMStatsDiskRegionEntry
     implements OffHeapRegionEntry {
@@ -53,6 +54,8 @@ public abstract class VMStatsDiskRegionEntryOffHeap extends VMStatsDiskRegionEnt
             } else {
               return new VMStatsDiskRegionEntryOffHeapStringKey2(context, skey, value, byteEncoded);
             }
+          } else if (OffHeapRegionEntryHelper.OFF_HEAP_KEYS) {
+            return new VMStatsDiskRegionEntryOffHeapOffHeapStringKey(context, skey, value);
           }
         } else if (keyClass == UUID.class) {
           return new VMStatsDiskRegionEntryOffHeapUUIDKey(context, (UUID) key, value);
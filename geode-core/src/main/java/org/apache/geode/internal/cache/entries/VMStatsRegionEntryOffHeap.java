@@ -20,6 +20,7 @@ import org.apache.geode.internal.cache.InlineKeyHelper;
 import org.apache.geode.internal.cache.RegionEntry;
 import org.apache.geode.internal.cache.RegionEntryContext;
 import org.apache.geode.internal.cache.RegionEntryFactory;
+import org.apache.geode.internal.offheap.OffHeapRegionEntryHelper;
 
 public abstract class VMStatsRegionEntryOffHeap extends VMStatsRegionEntry
     implements OffHeapRegionEntry {
@@ -53,6 +54,8 @@ public abstract class VMStatsRegionEntryOffHeap extends VMStatsRegionEntry
             } else {
               return new VMStatsRegionEntryOffHeapStringKey2(context, skey, value, byteEncoded);
             }
+          } else if (OffHeapRegionEntryHelper.OFF_HEAP_KEYS) {
+            return new VMStatsRegionEntryOffHeapOffHeapStringKey(context, skey, value);
           }
         } else if (keyClass == UUID.class) {
           return new VMStatsRegionEntryOffHeapUUIDKey(context, (UUID) key, value);
@@ -20,6 +20,7 @@ import org.apache.geode.internal.cache.InlineKeyHelper;
 import org.apache.geode.internal.cache.RegionEntry;
 import org.apache.geode.internal.cache.RegionEntryContext;
 import org.apache.geode.internal.cache.RegionEntryFactory;
+import org.apache.geode.internal.offheap.OffHeapRegionEntryHelper;
 
 public abstract class VersionedStatsDiskLRURegionEntryOffHeap
     extends VersionedStatsDiskLRURegionEntry implements OffHeapRegionEntry {
@@ -56,6 +57,9 @@ public abstract class VersionedStatsDiskLRURegionEntryOffHeap
               return new VersionedStatsDiskLRURegionEntryOffHeapStringKey2(context, skey, value,
                   byteEncoded);
             }
+          } else if (OffHeapRegionEntryHelper.OFF_HEAP_KEYS) {
+            return new VersionedStatsDiskLRURegionEntryOffHeapOffHeapStringKey(context, skey,
+                value);
           }
         } else if (keyClass == UUID.class) {
           return new VersionedStatsDiskLRURegionEntryOffHeapUUIDKey(context, (UUID) key, value);
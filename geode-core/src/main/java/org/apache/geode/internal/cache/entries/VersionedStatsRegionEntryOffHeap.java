@@ -20,6 +20,7 @@ import org.apache.geode.internal.cache.InlineKeyHelper;
 import org.apache.geode.internal.cache.RegionEntry;
 import org.apache.geode.internal.cache.RegionEntryContext;
 import org.apache.geode.internal.cache.RegionEntryFactory;
+import org.apache.geode.internal.offheap.OffHeapRegionEntryHelper;
 
 public abstract class VersionedStatsRegionEntryOffHeap extends VersionedStatsRegionEntry
     implements OffHeapRegionEntry {
@@ -55,6 +56,8 @@ public abstract class VersionedStatsRegionEntryOffHeap extends VersionedStatsReg
               return new VersionedStatsRegionEntryOffHeapStringKey2(context, skey, value,
                   byteEncoded);
             }
+          } else if (OffHeapRegionEntryHelper.OFF_HEAP_KEYS) {
+            return new VersionedStatsRegionEntryOffHeapOffHeapStringKey(context, skey, value);
           }
         } else if (keyClass == UUID.class) {
           return new VersionedStatsRegionEntryOffHeapUUIDKey(context, (UUID) key, value);
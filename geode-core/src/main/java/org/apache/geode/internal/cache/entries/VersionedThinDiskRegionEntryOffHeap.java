@@ -20,6 +20,7 @@ import org.apache.geode.internal.cache.InlineKeyHelper;
 import org.apache.geode.internal.cache.RegionEntry;
 import org.apache.geode.internal.cache.RegionEntryContext;
 import org.apache.geode.internal.cache.RegionEntryFactory;
+import org.apache.geode.internal.offheap.OffHeapRegionEntryHelper;
 
 public abstract class VersionedThinDiskRegionEntryOffHeap extends VersionedThinDiskRegionEntry
     implements OffHeapRegionEntry {
@@ -55,6 +56,8 @@ public abstract class VersionedThinDiskRegionEntryOffHeap extends VersionedThinD
               return new VersionedThinDiskRegionEntryOffHeapStringKey2(context, skey, value,
                   byteEncoded);
             }
+          } else if (OffHeapRegionEntryHelper.OFF_HEAP_KEYS) {
+            return new VersionedThinDiskRegionEntryOffHeapOffHeapStringKey(context, skey, value);
           }
         } else if (keyClass == UUID.class) {
           return new VersionedThinDiskRegionEntryOffHeapUUIDKey(context, (UUID) key, value);
@@ -167,7 +167,7 @@ abstract class AbstractEvictionList implements EvictionList {
     return evictionNode;
   }
 
-  protected boolean isEvictable(EvictionNode evictionNode) {
+  static boolean isEvictable(EvictionNode evictionNode) {
     if (evictionNode.isEvicted()) {
       if (logger.isTraceEnabled(LogMarker.LRU_CLOCK_VERBOSE)) {
         logger.trace(LogMarker.LRU_CLOCK_VERBOSE,
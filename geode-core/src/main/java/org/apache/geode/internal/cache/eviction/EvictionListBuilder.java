@@ -22,6 +22,8 @@ public class EvictionListBuilder {
 
   private final boolean evictionScanAsync;
 
+  private final boolean evictionSampled;
+
   private final EvictionController controller;
 
   public EvictionListBuilder(EvictionController evictionController) {
@@ -29,11 +31,15 @@ public class EvictionListBuilder {
     Optional<Boolean> asyncScan =
         SystemPropertyHelper.getProductBooleanProperty(SystemPropertyHelper.EVICTION_SCAN_ASYNC);
     evictionScanAsync = asyncScan.orElse(true);
+    evictionSampled = SystemPropertyHelper
+        .getProductBooleanProperty(SystemPropertyHelper.EVICTION_SAMPLED).orElse(false);
   }
 
   public EvictionList create() {
     if (this.controller.getEvictionAlgorithm().isLIFO()) {
       return new LIFOList(this.controller);
+    } else if (evictionSampled) {
+      return new SampledEvictionList(this.controller);
     } else {
       if (evictionScanAsync) {
         return new LRUListWithAsyncSorting(this.controller);
@@ -0,0 +1,147 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.internal.cache.eviction;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Estimates how often items were used recently, in little memory. This is a count-min sketch of
+ * 4-bit counters, sixteen to a long: an item is counted in four counters picked by its hash, and
+ * its frequency is the smallest of the four. Counters saturate at 15.
+ * <p>
+ * Once the number of uses counted reaches ten times the number of longs, every counter is halved,
+ * so the frequencies reflect recent uses more than old ones. Counters are updated with
+ * compare-and-set and halving is done word by word, so the sketch is thread safe but a concurrent
+ * increment can be lost, which only makes the estimate a bit less accurate.
+ */
+class FrequencySketch {
+
+  private static final long[] SEEDS =
+      {0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L};
+
+  private static final long RESET_MASK = 0x7777777777777777L;
+
+  private static final int MIN_WIDTH = 16;
+
+  private static final int MAX_WIDTH = 1 << 22;
+
+  private final AtomicLongArray table;
+
+  private final int tableMask;
+
+  private final int sampleSize;
+
+  private final AtomicInteger additions = new AtomicInteger();
+
+  /**
+   * @param expectedItems the number of distinct items expected to be counted, used to size the
+   *        sketch
+   */
+  FrequencySketch(int expectedItems) {
+    int width = MIN_WIDTH;
+    while (width < expectedItems && width < MAX_WIDTH) {
+      width <<= 1;
+    }
+    this.table = new AtomicLongArray(width);
+    this.tableMask = width - 1;
+    this.sampleSize = 10 * width;
+  }
+
+  /**
+   * Returns the number of longs of the sketch, which is at least the number of items it was sized
+   * for up to a maximum of 4M.
+   */
+  int width() {
+    return this.table.length();
+  }
+
+  /**
+   * Returns the estimated number of recent uses of the item, at most 15.
+   */
+  int frequency(int item) {
+    int hash = spread(item);
+    int frequency = Integer.MAX_VALUE;
+    for (int i = 0; i < SEEDS.length; i++) {
+      long word = this.table.get(indexOf(hash, i));
+      frequency = Math.min(frequency, (int) ((word >>> offsetOf(hash, i)) & 0xFL));
+    }
+    return frequency;
+  }
+
+  /**
+   * Counts a use of the item.
+   */
+  void increment(int item) {
+    int hash = spread(item);
+    boolean incremented = false;
+    for (int i = 0; i < SEEDS.length; i++) {
+      incremented |= incrementAt(indexOf(hash, i), offsetOf(hash, i));
+    }
+    if (incremented && this.additions.incrementAndGet() == this.sampleSize) {
+      reset();
+    }
+  }
+
+  private boolean incrementAt(int index, int offset) {
+    long mask = 0xFL << offset;
+    for (;;) {
+      long word = this.table.get(index);
+      if ((word & mask) == mask) {
+        return false;
+      }
+      if (this.table.compareAndSet(index, word, word + (1L << offset))) {
+        return true;
+      }
+    }
+  }
+
+  /**
+   * Halves every counter
+   */
+  private void reset() {
+    for (int i = 0; i < this.table.length(); i++) {
+      for (;;) {
+        long word = this.table.get(i);
+        if (this.table.compareAndSet(i, word, (word >>> 1) & RESET_MASK)) {
+          break;
+        }
+      }
+    }
+    this.additions.set(0);
+  }
+
+  /**
+   * Mixes the bits of the item hash, which for small integer keys are mostly zero
+   */
+  private static int spread(int item) {
+    int hash = ((item >>> 16) ^ item) * 0x45d9f3b;
+    hash = ((hash >>> 16) ^ hash) * 0x45d9f3b;
+    return (hash >>> 16) ^ hash;
+  }
+
+  private int indexOf(int hash, int i) {
+    long h = (hash + SEEDS[i]) * SEEDS[i];
+    h += h >>> 32;
+    return (int) h & this.tableMask;
+  }
+
+  /**
+   * Returns the bit offset of the counter of the item in the word picked by the i-th hash.
+   */
+  private static int offsetOf(int hash, int i) {
+    return ((hash >>> (i << 3)) & 0xF) << 2;
+  }
+}
@@ -0,0 +1,343 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.internal.cache.eviction;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.logging.log4j.Logger;
+
+import org.apache.geode.internal.cache.BucketRegion;
+import org.apache.geode.internal.cache.RegionEntry;
+import org.apache.geode.internal.cache.entries.OffHeapKeyRegionEntry;
+import org.apache.geode.internal.cache.versions.RegionVersionVector;
+import org.apache.geode.internal.logging.LogService;
+import org.apache.geode.internal.logging.log4j.LogMarker;
+import org.apache.geode.internal.offheap.OffHeapRegionEntryHelper;
+
+/**
+ * SampledEvictionList picks the entry to evict among a few sampled entries instead of keeping all
+ * the entries in a single list ordered by use. The entries are spread over segments, each a list
+ * with its own lock, so adding and removing an entry only contends with the entries of the same
+ * segment. As with the other lists, using an entry only sets its recently used bit.
+ * <p>
+ * To find an entry to evict, the oldest entries of a few random segments are sampled. A sampled
+ * entry used since it was last sampled has that use counted in a {@link FrequencySketch} of the
+ * entry keys, its recently used bit cleared and is moved to the end of its segment. Of the other
+ * sampled entries, the one whose key was used the least often recently is evicted. This is the
+ * W-TinyLFU idea of weighing recency with frequency: unlike with the LRU lists, entries read once
+ * by a scan are evicted before the entries of frequently used keys. After
+ * {@link #maxEvictionAttempts} samplings without an entry that was not recently used, the least
+ * frequently used of the sampled entries is evicted regardless of its recently used bit.
+ */
+public class SampledEvictionList implements EvictionList {
+
+  private static final Logger logger = LogService.getLogger();
+
+  private static final int DEFAULT_SAMPLE_SIZE = 8;
+
+  private static final int DEFAULT_MAX_EVICTION_ATTEMPTS = 10;
+
+  private static final int MAX_SEGMENTS = 32;
+
+  private final Segment[] segments;
+
+  private final int segmentMask;
+
+  private final int sampleSize;
+
+  private final int maxEvictionAttempts;
+
+  /** Counter for the size of the list */
+  private final AtomicInteger size = new AtomicInteger();
+
+  private final EvictionController controller;
+
+  private volatile FrequencySketch sketch = new FrequencySketch(0);
+
+  SampledEvictionList(EvictionController controller) {
+    this(controller, defaultSegmentCount(), DEFAULT_SAMPLE_SIZE, DEFAULT_MAX_EVICTION_ATTEMPTS);
+  }
+
+  SampledEvictionList(EvictionController controller, int segmentCount, int sampleSize,
+      int maxEvictionAttempts) {
+    this.controller = controller;
+    int count = 1;
+    while (count < segmentCount) {
+      count <<= 1;
+    }
+    this.segments = new Segment[count];
+    for (int i = 0; i < count; i++) {
+      this.segments[i] = new Segment();
+    }
+    this.segmentMask = count - 1;
+    this.sampleSize = sampleSize;
+    this.maxEvictionAttempts = maxEvictionAttempts;
+  }
+
+  private static int defaultSegmentCount() {
+    return Math.min(Math.max(Runtime.getRuntime().availableProcessors(), 4), MAX_SEGMENTS);
+  }
+
+  @Override
+  public void closeStats() {
+    getStatistics().close();
+  }
+
+  @Override
+  public EvictionCounters getStatistics() {
+    return this.controller.getCounters();
+  }
+
+  @Override
+  public int size() {
+    return this.size.get();
+  }
+
+  @Override
+  public void clear(RegionVersionVector regionVersionVector, BucketRegion bucketRegion) {
+    if (regionVersionVector != null) {
+      return; // when concurrency checks are enabled the clear operation removes entries iteratively
+    }
+
+    synchronized (this) {
+      if (bucketRegion != null) {
+        getStatistics().decrementCounter(bucketRegion.getCounter());
+        bucketRegion.resetCounter();
+      } else {
+        getStatistics().resetCounter();
+      }
+      for (Segment segment : this.segments) {
+        segment.clear();
+      }
+      this.size.set(0);
+      this.sketch = new FrequencySketch(0);
+    }
+  }
+
+  @Override
+  public void appendEntry(EvictionNode evictionNode) {
+    if (segmentFor(evictionNode).append(evictionNode)) {
+      if (logger.isTraceEnabled(LogMarker.LRU_CLOCK_VERBOSE)) {
+        logger.trace(LogMarker.LRU_CLOCK_VERBOSE, "adding a Node to lru list: {}", evictionNode);
+      }
+      this.size.incrementAndGet();
+    }
+  }
+
+  @Override
+  public void destroyEntry(EvictionNode evictionNode) {
+    if (logger.isTraceEnabled(LogMarker.LRU_CLOCK_VERBOSE)) {
+      logger.trace(LogMarker.LRU_CLOCK_VERBOSE, "destroyEntry called for {}", evictionNode);
+    }
+
+    if (removeEntry(evictionNode)) {
+      getStatistics().incDestroys();
+    }
+  }
+
+  private boolean removeEntry(EvictionNode evictionNode) {
+    if (segmentFor(evictionNode).remove(evictionNode)) {
+      // Size could go negative if there is a concurrent clear and
+      // cache updates are in progress.
+      this.size.decrementAndGet();
+      return true;
+    }
+    return false;
+  }
+
+  /**
+   * Remove and return the Entry whose key was the least frequently used among the sampled entries
+   * that were not recently used.
+   */
+  @Override
+  public EvictableEntry getEvictableEntry() {
+    FrequencySketch frequencies = getSketch();
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    long evaluations = 0;
+    for (int evictionAttempts = 0;; evictionAttempts++) {
+      if (size() <= 0) {
+        getStatistics().incEvaluations(evaluations);
+        return null;
+      }
+      boolean greedy = evictionAttempts >= this.maxEvictionAttempts;
+      EvictionNode victim = null;
+      int victimFrequency = Integer.MAX_VALUE;
+      for (int i = 0; i < this.sampleSize; i++) {
+        EvictionNode evictionNode = this.segments[random.nextInt() & this.segmentMask].first();
+        if (evictionNode == null) {
+          continue;
+        }
+        evaluations++;
+
+        if (logger.isTraceEnabled(LogMarker.LRU_CLOCK_VERBOSE)) {
+          logger.trace(LogMarker.LRU_CLOCK_VERBOSE, "lru considering {}", evictionNode);
+        }
+
+        if (!AbstractEvictionList.isEvictable(evictionNode)) {
+          removeEntry(evictionNode);
+          continue;
+        }
+
+        if (evictionNode.isRecentlyUsed() && !greedy) {
+          evictionNode.unsetRecentlyUsed();
+          frequencies.increment(hashOf(evictionNode));
+          segmentFor(evictionNode).moveToTail(evictionNode);
+          continue;
+        }
+
+        int frequency = frequencies.frequency(hashOf(evictionNode));
+        if (frequency < victimFrequency) {
+          victim = evictionNode;
+          victimFrequency = frequency;
+        }
+      }
+
+      if (victim == null && greedy) {
+        victim = firstEvictable();
+        if (victim == null) {
+          getStatistics().incEvaluations(evaluations);
+          return null;
+        }
+      }
+
+      if (victim != null && removeEntry(victim)) {
+        if (logger.isTraceEnabled(LogMarker.LRU_CLOCK_VERBOSE)) {
+          logger.trace(LogMarker.LRU_CLOCK_VERBOSE, "returning unused entry: {}", victim);
+        }
+        getStatistics().incEvaluations(evaluations);
+        if (greedy) {
+          getStatistics().incGreedyReturns(1);
+        }
+        return (EvictableEntry) victim;
+      }
+    }
+  }
+
+  /**
+   * Returns the first evictable entry of the segments, dropping the entries that are not evictable
+   * on the way
+   */
+  private EvictionNode firstEvictable() {
+    for (Segment segment : this.segments) {
+      for (EvictionNode evictionNode = segment.first(); evictionNode != null; evictionNode =
+          segment.first()) {
+        if (AbstractEvictionList.isEvictable(evictionNode)) {
+          return evictionNode;
+        }
+        removeEntry(evictionNode);
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Returns the frequency sketch, replacing it with a larger one if the list outgrew it
+   */
+  private FrequencySketch getSketch() {
+    FrequencySketch current = this.sketch;
+    if (current.width() < size()) {
+      current = new FrequencySketch(size());
+      this.sketch = current;
+    }
+    return current;
+  }
+
+  private static int hashOf(EvictionNode evictionNode) {
+    if (evictionNode instanceof OffHeapKeyRegionEntry) {
+      // reading the key would decode a copy of it on the heap
+      return OffHeapRegionEntryHelper.getKeyHashCode((OffHeapKeyRegionEntry) evictionNode);
+    }
+    Object key = ((RegionEntry) evictionNode).getKey();
+    return key != null ? key.hashCode() : System.identityHashCode(evictionNode);
+  }
+
+  private Segment segmentFor(EvictionNode evictionNode) {
+    int hash = System.identityHashCode(evictionNode);
+    return this.segments[(hash ^ (hash >>> 16)) & this.segmentMask];
+  }
+
+  @Override
+  public void incrementRecentlyUsed() {
+    // nothing needed
+  }
+
+  /**
+   * A part of the list. New entries are added at the tail so the entry after the head is the
+   * oldest one.
+   */
+  private static class Segment {
+
+    private final EvictionNode head = new GuardNode();
+
+    private final EvictionNode tail = new GuardNode();
+
+    Segment() {
+      clear();
+    }
+
+    synchronized void clear() {
+      this.head.setNext(this.tail);
+      this.tail.setPrevious(this.head);
+    }
+
+    synchronized EvictionNode first() {
+      EvictionNode first = this.head.next();
+      return first == this.tail ? null : first;
+    }
+
+    synchronized boolean append(EvictionNode evictionNode) {
+      if (evictionNode.next() != null) {
+        // already in the list
+        return false;
+      }
+      linkLast(evictionNode);
+      return true;
+    }
+
+    synchronized boolean remove(EvictionNode evictionNode) {
+      if (evictionNode.next() == null) {
+        // not in the list anymore.
+        return false;
+      }
+      unlink(evictionNode);
+      return true;
+    }
+
+    synchronized void moveToTail(EvictionNode evictionNode) {
+      if (evictionNode.next() != null && evictionNode.next() != this.tail) {
+        unlink(evictionNode);
+        linkLast(evictionNode);
+      }
+    }
+
+    private void linkLast(EvictionNode evictionNode) {
+      EvictionNode last = this.tail.previous();
+      evictionNode.setNext(this.tail);
+      evictionNode.setPrevious(last);
+      last.setNext(evictionNode);
+      this.tail.setPrevious(evictionNode);
+    }
+
+    private void unlink(EvictionNode evictionNode) {
+      EvictionNode next = evictionNode.next();
+      EvictionNode previous = evictionNode.previous();
+      next.setPrevious(previous);
+      previous.setNext(next);
+      evictionNode.setNext(null);
+      evictionNode.setPrevious(null);
+    }
+  }
+}
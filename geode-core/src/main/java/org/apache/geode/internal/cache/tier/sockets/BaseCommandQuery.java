@@ -15,6 +15,7 @@
 package org.apache.geode.internal.cache.tier.sockets;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
@@ -176,12 +177,9 @@ public abstract class BaseCommandQuery extends BaseCommand {
           }
         }
 
-        int numberOfChunks = (int) Math.ceil(selectResults.size() * 1.0 / MAXIMUM_CHUNK_SIZE);
-
-        if (logger.isTraceEnabled()) {
-          logger.trace("{}: Query results size: {}: Entries in chunk: {}: Number of chunks: {}",
-              servConn.getName(), selectResults.size(), MAXIMUM_CHUNK_SIZE, numberOfChunks);
-        }
+        // the chunks are taken from the iterator as they are sent, so the results are not counted
+        // up front, which would walk results merged lazily from several members an extra time
+        Iterator resultsIterator = selectResults.iterator();
 
         long oldStart = start;
         start = DistributionStats.getStatTime();
@@ -193,7 +191,7 @@ public abstract class BaseCommandQuery extends BaseCommand {
           queryResponseMsg.sendHeader();
         }
 
-        if (sendResults && numberOfChunks == 0) {
+        if (sendResults && !resultsIterator.hasNext()) {
           // Send 1 empty chunk
           if (logger.isTraceEnabled()) {
             logger.trace("{}: Creating chunk: 0", servConn.getName());
@@ -208,12 +206,11 @@ public abstract class BaseCommandQuery extends BaseCommand {
           // from 7.0, if the object is in the form of serialized byte array,
           // send it as a part of ObjectPartList
           if (hasSerializedObjects) {
-            sendResultsAsObjectPartList(numberOfChunks, servConn, selectResults.asList(), isStructs,
-                collectionType, queryString, cqQuery, sendCqResultsWithKey, sendResults,
-                securityService);
+            sendResultsAsObjectPartList(resultsIterator, servConn, isStructs, collectionType,
+                queryString, cqQuery, sendCqResultsWithKey, sendResults, securityService);
           } else {
-            sendResultsAsObjectArray(selectResults, numberOfChunks, servConn, isStructs,
-                collectionType, queryString, cqQuery, sendCqResultsWithKey, sendResults);
+            sendResultsAsObjectArray(resultsIterator, servConn, isStructs, collectionType,
+                queryString, cqQuery, sendCqResultsWithKey, sendResults);
           }
         }
 
@@ -347,37 +344,31 @@ public abstract class BaseCommandQuery extends BaseCommand {
     }
   }
 
-  private void sendResultsAsObjectArray(SelectResults selectResults, int numberOfChunks,
-      ServerConnection servConn, boolean isStructs, CollectionType collectionType,
-      String queryString, ServerCQ cqQuery, boolean sendCqResultsWithKey, boolean sendResults)
-      throws IOException {
-    int resultIndex = 0;
-    // For CQ only as we dont want CQEntries which have null values.
-    int cqResultIndex = 0;
-    Object[] objs = selectResults.toArray();
-    for (int j = 0; j < numberOfChunks; j++) {
-      boolean incompleteArray = false;
+  /**
+   * Sends the results in chunks of at most {@link #MAXIMUM_CHUNK_SIZE}. Each chunk is taken from
+   * the results as it is sent rather than from a copy of all of them, so the merge of ordered or
+   * non-distinct partitioned region results is only done one chunk at a time. The results of the
+   * members are still all gathered by the coordinator before the first chunk is sent.
+   */
+  private void sendResultsAsObjectArray(Iterator resultsIterator, ServerConnection servConn,
+      boolean isStructs, CollectionType collectionType, String queryString, ServerCQ cqQuery,
+      boolean sendCqResultsWithKey, boolean sendResults) throws IOException {
+    List<Object> results = new ArrayList<>(MAXIMUM_CHUNK_SIZE);
+    int j = 0;
+    do {
       if (logger.isTraceEnabled()) {
         logger.trace("{}: Creating chunk: {}", servConn.getName(), j);
       }
-      Object[] results = new Object[MAXIMUM_CHUNK_SIZE];
-      for (int i = 0; i < MAXIMUM_CHUNK_SIZE; i++) {
-        if ((resultIndex) == objs.length) {
-          incompleteArray = true;
-          break;
-        }
+      results.clear();
+      while (results.size() < MAXIMUM_CHUNK_SIZE && resultsIterator.hasNext()) {
+        Object result = resultsIterator.next();
         if (logger.isTraceEnabled()) {
-          logger.trace("{}: Adding entry [{}] to query results: {}", servConn.getName(),
-              resultIndex, objs[resultIndex]);
+          logger.trace("{}: Adding entry to query results: {}", servConn.getName(), result);
         }
         if (cqQuery != null) {
-          CqEntry e = (CqEntry) objs[resultIndex];
+          CqEntry e = (CqEntry) result;
           // The value may have become null because of entry invalidation.
           if (e.getValue() == null) {
-            resultIndex++;
-            // i will get incremented anyway so we need to decrement it back so
-            // that results[i] is not null.
-            i--;
             continue;
           }
           // Add the key into CQ results cache.
@@ -391,78 +382,58 @@ public abstract class BaseCommandQuery extends BaseCommand {
 
           // Add to the Results object array.
           if (sendCqResultsWithKey) {
-            results[i] = e.getKeyValuePair();
+            results.add(e.getKeyValuePair());
           } else {
-            results[i] = e.getValue();
+            results.add(e.getValue());
           }
         } else {
           // instance check added to fix bug 40516.
-          if (isStructs && (objs[resultIndex] instanceof Struct)) {
-            results[i] = ((Struct) objs[resultIndex]).getFieldValues();
+          if (isStructs && (result instanceof Struct)) {
+            results.add(((Struct) result).getFieldValues());
           } else {
-            results[i] = objs[resultIndex];
+            results.add(result);
           }
         }
-        resultIndex++;
-        cqResultIndex++;
-      }
-      // Shrink array if necessary. This will occur if the number
-      // of entries in the chunk does not divide evenly into the
-      // number of entries in the result set.
-      if (incompleteArray) {
-        Object[] newResults;
-        if (cqQuery != null) {
-          newResults = new Object[cqResultIndex % MAXIMUM_CHUNK_SIZE];
-        } else {
-          newResults = new Object[resultIndex % MAXIMUM_CHUNK_SIZE];
-        }
-        for (int i = 0; i < newResults.length; i++) {
-          newResults[i] = results[i];
-        }
-        results = newResults;
       }
 
+      boolean lastChunk = !resultsIterator.hasNext();
       if (sendResults) {
-        writeQueryResponseChunk(results, collectionType, (resultIndex == objs.length),
-            servConn);
+        writeQueryResponseChunk(results.toArray(), collectionType, lastChunk, servConn);
 
         if (logger.isDebugEnabled()) {
-          logger.debug("{}: Sent chunk ({} of {}) of query response for query: {}",
-              servConn.getName(), (j + 1), numberOfChunks, queryString);
+          logger.debug("{}: Sent chunk {} of query response for query: {}", servConn.getName(),
+              (j + 1), queryString);
         }
       }
-      // If we have reached the last element of SelectResults then we should
-      // break out of loop here only.
-      if (resultIndex == objs.length) {
-        break;
-      }
-    }
+      j++;
+    } while (resultsIterator.hasNext());
   }
 
-  private void sendResultsAsObjectPartList(int numberOfChunks, ServerConnection servConn, List objs,
+  /**
+   * Sends the results in chunks of at most {@link #MAXIMUM_CHUNK_SIZE}, serializing the values of
+   * each chunk as it is sent
+   */
+  private void sendResultsAsObjectPartList(Iterator resultsIterator, ServerConnection servConn,
       boolean isStructs, CollectionType collectionType, String queryString, ServerCQ cqQuery,
       boolean sendCqResultsWithKey, boolean sendResults, final SecurityService securityService)
       throws IOException {
-    int resultIndex = 0;
     Object result = null;
-    for (int j = 0; j < numberOfChunks; j++) {
+    int j = 0;
+    do {
       if (logger.isTraceEnabled()) {
         logger.trace("{}: Creating chunk: {}", servConn.getName(), j);
       }
       ObjectPartList serializedObjs = new ObjectPartList(MAXIMUM_CHUNK_SIZE, false);
-      for (int i = 0; i < MAXIMUM_CHUNK_SIZE; i++) {
-        if ((resultIndex) == objs.size()) {
-          break;
-        }
+      int chunkSize = 0;
+      while (chunkSize < MAXIMUM_CHUNK_SIZE && resultsIterator.hasNext()) {
+        Object next = resultsIterator.next();
         if (logger.isTraceEnabled()) {
-          logger.trace("{}: Adding entry [{}] to query results: {}", servConn.getName(),
-              resultIndex, objs.get(resultIndex));
+          logger.trace("{}: Adding entry to query results: {}", servConn.getName(), next);
         }
         if (cqQuery != null) {
-          CqEntry e = (CqEntry) objs.get(resultIndex);
+          CqEntry e = (CqEntry) next;
           // The value may have become null because of entry invalidation.
           if (e.getValue() == null) {
-            resultIndex++;
             continue;
           }
 
@@ -482,25 +453,26 @@ public abstract class BaseCommandQuery extends BaseCommand {
             result = e.getValue();
           }
         } else {
-          result = objs.get(resultIndex);
+          result = next;
         }
+        chunkSize++;
         if (sendResults) {
           addToObjectPartList(serializedObjs, result, collectionType, false, servConn, isStructs,
               securityService);
         }
-        resultIndex++;
       }
 
       if (sendResults) {
-        writeQueryResponseChunk(serializedObjs, collectionType, ((j + 1) == numberOfChunks),
+        writeQueryResponseChunk(serializedObjs, collectionType, !resultsIterator.hasNext(),
             servConn);
 
         if (logger.isDebugEnabled()) {
-          logger.debug("{}: Sent chunk ({} of {}) of query response for query: {}",
-              servConn.getName(), (j + 1), numberOfChunks, queryString);
+          logger.debug("{}: Sent chunk {} of query response for query: {}", servConn.getName(),
+              (j + 1), queryString);
         }
       }
-    }
+      j++;
+    } while (resultsIterator.hasNext());
   }
 
   private void addToObjectPartList(ObjectPartList serializedObjs, Object res,
@@ -82,9 +82,11 @@ import org.apache.geode.cache.query.Query;
 import org.apache.geode.cache.query.QueryInvalidException;
 import org.apache.geode.cache.query.QueryService;
 import org.apache.geode.cache.query.RegionNotFoundException;
+import org.apache.geode.cache.query.internal.CompiledQueryCache;
 import org.apache.geode.cache.query.internal.InternalQueryService;
 import org.apache.geode.cache.query.internal.MethodInvocationAuthorizer;
 import org.apache.geode.cache.query.internal.QueryMonitor;
+import org.apache.geode.cache.query.internal.QueryResultCache;
 import org.apache.geode.cache.query.internal.cq.CqService;
 import org.apache.geode.cache.server.CacheServer;
 import org.apache.geode.cache.snapshot.CacheSnapshotService;
@@ -1202,6 +1204,16 @@ public class CacheCreation implements InternalCache {
     throw new UnsupportedOperationException("Should not be invoked");
   }
 
+  @Override
+  public CompiledQueryCache getCompiledQueryCache() {
+    throw new UnsupportedOperationException("Should not be invoked");
+  }
+
+  @Override
+  public QueryResultCache getQueryResultCache() {
+    throw new UnsupportedOperationException("Should not be invoked");
+  }
+
   @Override
   public void close(final String reason, final Throwable systemFailureCause,
       final boolean keepAlive, final boolean keepDS) {
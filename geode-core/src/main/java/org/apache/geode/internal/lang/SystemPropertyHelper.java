@@ -56,6 +56,34 @@ public class SystemPropertyHelper {
    */
   public static final String EVICTION_SCAN_THRESHOLD_PERCENT = "EvictionScanThresholdPercent";
 
+  /**
+   * When set to "true" evicts the least frequently used of a few sampled entries instead of using
+   * an LRU list (defaults to false). For more details see
+   * {@link org.apache.geode.internal.cache.eviction.SampledEvictionList}.
+   */
+  public static final String EVICTION_SAMPLED = "EvictionSampled";
+
+  /**
+   * When set to "true" a bucket of a partitioned region with entry or memory LRU eviction that goes
+   * over the eviction limit evicts from the largest of a few sampled local buckets instead of
+   * always from itself (defaults to false).
+   */
+  public static final String EVICTION_BALANCE_BUCKETS = "EvictionBalanceBuckets";
+
+  /**
+   * When set to "true" the entries of regions stored in the VM are kept in an open addressing map
+   * instead of a chained hash map (defaults to false). For more details see
+   * {@link org.apache.geode.internal.util.concurrent.OpenAddressingConcurrentHashMap}.
+   */
+  public static final String OPEN_ADDRESSING_ENTRY_MAP = "OpenAddressingEntryMap";
+
+  /**
+   * When set to "true" the String keys of off-heap regions that are too long to be inlined in their
+   * entries are stored off-heap too (defaults to false). For more details see
+   * {@link org.apache.geode.internal.cache.entries.OffHeapKeyRegionEntry}.
+   */
+  public static final String OFF_HEAP_KEYS = "OffHeapKeys";
+
   public static final String EVICTION_SEARCH_MAX_ENTRIES = "lru.maxSearchEntries";
 
   public static final String EARLY_ENTRY_EVENT_SERIALIZATION = "earlyEntryEventSerialization";
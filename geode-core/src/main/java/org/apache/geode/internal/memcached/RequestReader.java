@@ -24,6 +24,7 @@ import java.nio.charset.CharacterCodingException;
 import java.nio.charset.Charset;
 import java.nio.charset.CharsetDecoder;
 
+import org.apache.geode.LogWriter;
 import org.apache.geode.internal.memcached.commands.AbstractCommand;
 import org.apache.geode.internal.memcached.commands.ClientError;
 import org.apache.geode.memcached.GemFireMemcachedServer.Protocol;
@@ -66,6 +67,8 @@ public class RequestReader {
 
   private final Protocol protocol;
 
+  private final LogWriter logger;
+
   private CharBuffer commandBuffer = CharBuffer.allocate(11); // no command exceeds 9 chars
 
   public RequestReader(Socket socket, Protocol protocol) {
@@ -75,6 +78,17 @@ public class RequestReader {
     buffer.position(buffer.limit());
     this.socket = socket;
     this.protocol = protocol;
+    this.logger = ConnectionHandler.getLogger();
+  }
+
+  /**
+   * Creates a reader for requests that have already been read from the client by a
+   * {@link SelectorLoop}. Such a reader is not bound to any socket, requests are passed to
+   * {@link #decodeCommand(ByteBuffer)} and replies are returned to the caller.
+   */
+  RequestReader(Protocol protocol, LogWriter logger) {
+    this.protocol = protocol;
+    this.logger = logger;
   }
 
   public Command readCommand() throws IOException {
@@ -84,6 +98,29 @@ public class RequestReader {
     return readBinaryCommand();
   }
 
+  /**
+   * Interprets the {@link Command} of a complete request that was read from the client by a
+   * {@link SelectorLoop}. The request must start at index 0 of the given buffer, which then becomes
+   * the buffer returned by {@link #getRequest()}.
+   */
+  Command decodeCommand(ByteBuffer request) throws CharacterCodingException {
+    this.buffer = request;
+    Command cmd;
+    if (protocol == Protocol.ASCII) {
+      cmd = Command.valueOf(readCommand(request));
+    } else {
+      if (request.get(0) != REQUEST_MAGIC) {
+        throw new IllegalStateException("Not a valid request, magic byte incorrect");
+      }
+      cmd = Command.getCommandFromOpCode(request.get(POSITION_OPCODE));
+    }
+    request.rewind();
+    if (logger.fineEnabled()) {
+      logger.fine("read command " + cmd);
+    }
+    return cmd;
+  }
+
   private Command readBinaryCommand() throws IOException {
     SocketChannel channel = this.socket.getChannel();
     if (channel == null || !channel.isOpen()) {
@@ -124,9 +161,9 @@ public class RequestReader {
         throw new IllegalStateException("Not a valid request, magic byte incorrect");
       }
       byte opCode = buffer.get();
-      if (ConnectionHandler.getLogger().finerEnabled()) {
+      if (logger.finerEnabled()) {
         String str = Command.buffertoString(buffer);
-        ConnectionHandler.getLogger().finer("Request:" + buffer + str.toString());
+        logger.finer("Request:" + buffer + str.toString());
       }
       int bodyLength = buffer.getInt(AbstractCommand.TOTAL_BODY_LENGTH_INDEX);
       if ((HEADER_LENGTH + bodyLength) > requestLength) {
@@ -147,8 +184,8 @@ public class RequestReader {
       cmd = Command.getCommandFromOpCode(opCode);
       done = true;
     }
-    if (ConnectionHandler.getLogger().fineEnabled()) {
-      ConnectionHandler.getLogger().fine("read command " + cmd);
+    if (logger.fineEnabled()) {
+      logger.fine("read command " + cmd);
     }
     return cmd;
   }
@@ -185,9 +222,9 @@ public class RequestReader {
       retVal = retVal.substring(0, indexOfR);
     }
     if (retVal.equals("")) {
-      if (ConnectionHandler.getLogger().infoEnabled()) {
+      if (logger.infoEnabled()) {
         // TODO i18n
-        ConnectionHandler.getLogger().info("Unknown command. ensure client protocol is ASCII");
+        logger.info("Unknown command. ensure client protocol is ASCII");
       }
       throw new IllegalArgumentException("Unknown command. ensure client protocol is ASCII");
     }
@@ -257,21 +294,31 @@ public class RequestReader {
   }
 
   public void sendReply(ByteBuffer reply) throws IOException {
+    prepareReply(reply);
+    SocketChannel channel = this.socket.getChannel();
+    if (channel == null || !channel.isOpen()) {
+      throw new IllegalStateException("cannot write to channel");
+    }
+    channel.write(reply);
+  }
+
+  /**
+   * Prepares the reply returned by a {@link CommandProcessor} for the current request to be
+   * written to the client
+   *
+   * @return the reply positioned at the first byte to write
+   */
+  ByteBuffer prepareReply(ByteBuffer reply) {
     // for binary set the response opCode
     if (this.protocol == Protocol.BINARY) {
       reply.rewind();
       reply.put(POSITION_OPCODE, buffer.get(POSITION_OPCODE));
       reply.putInt(POSITION_OPAQUE, buffer.getInt(POSITION_OPAQUE));
-      if (ConnectionHandler.getLogger().finerEnabled()) {
-        ConnectionHandler.getLogger()
-            .finer("sending reply:" + reply + " " + Command.buffertoString(reply));
+      if (logger.finerEnabled()) {
+        logger.finer("sending reply:" + reply + " " + Command.buffertoString(reply));
       }
     }
-    SocketChannel channel = this.socket.getChannel();
-    if (channel == null || !channel.isOpen()) {
-      throw new IllegalStateException("cannot write to channel");
-    }
-    channel.write(reply);
+    return reply;
   }
 
   public void sendException(Exception e) {
@@ -280,12 +327,19 @@ public class RequestReader {
       throw new IllegalStateException("cannot write to channel");
     }
     try {
-      if (e instanceof ClientError) {
-        channel.write(charsetASCII.encode(Reply.CLIENT_ERROR.toString()));
-      } else {
-        channel.write(charsetASCII.encode(Reply.ERROR.toString()));
-      }
+      channel.write(getExceptionReply(e));
     } catch (IOException ex) {
     }
   }
+
+  /**
+   * @return the reply to send to the client when processing its request failed with the given
+   *         exception
+   */
+  static ByteBuffer getExceptionReply(Exception e) {
+    if (e instanceof ClientError) {
+      return charsetASCII.encode(Reply.CLIENT_ERROR.toString());
+    }
+    return charsetASCII.encode(Reply.ERROR.toString());
+  }
 }
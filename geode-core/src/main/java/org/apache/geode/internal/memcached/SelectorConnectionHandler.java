@@ -0,0 +1,406 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.internal.memcached;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.geode.cache.Cache;
+import org.apache.geode.distributed.internal.DistributionConfig;
+import org.apache.geode.internal.memcached.commands.AbstractCommand;
+import org.apache.geode.internal.memcached.commands.ClientError;
+import org.apache.geode.internal.memcached.commands.GetCommand;
+import org.apache.geode.memcached.GemFireMemcachedServer.Protocol;
+
+/**
+ * The state of one client connection served by a {@link SelectorLoop}. Bytes read from the client
+ * are split into complete requests, which are processed in order, and the replies are collected
+ * and written back together once no complete request is left.
+ * <p>
+ * Consecutive binary quiet gets, which clients send in long runs terminated by a NoOp to fetch many
+ * keys, are coalesced into a single {@link GetCommand#getAll(List, Cache)}.
+ */
+class SelectorConnectionHandler {
+
+  /**
+   * the longest ASCII command line accepted without a line terminator
+   */
+  private static final int MAX_ASCII_LINE_LENGTH = 8192;
+
+  /**
+   * the longest binary request body or ASCII data block accepted, checked before a buffer for the
+   * request is allocated
+   */
+  private static final int MAX_BODY_LENGTH = Integer.getInteger(
+      DistributionConfig.GEMFIRE_PREFIX + "memcached.maxBodyLength", 32 * 1024 * 1024);
+
+  private static final String[] ASCII_STORAGE_COMMANDS =
+      {"set", "add", "replace", "append", "prepend", "cas"};
+
+  /**
+   * position of the bytes argument in the first line of an ASCII storage command
+   */
+  private static final int ASCII_BYTES_TOKEN = 4;
+
+  private static final int ASCII_DATA_TERMINATOR_LENGTH = 2;
+
+  private static final int POSITION_OPCODE = 1;
+
+  private final SocketChannel channel;
+
+  private final SelectionKey key;
+
+  private final SelectorLoop loop;
+
+  /**
+   * bytes read but not yet processed, in write mode. Null when there are none
+   */
+  private ByteBuffer input;
+
+  /**
+   * replies not yet written, in write mode. Null when there are none
+   */
+  private ByteBuffer output;
+
+  private boolean closeAfterFlush;
+
+  SelectorConnectionHandler(SocketChannel channel, SelectionKey key, SelectorLoop loop) {
+    this.channel = channel;
+    this.key = key;
+    this.loop = loop;
+  }
+
+  void read() throws IOException {
+    if (this.input == null) {
+      this.input = this.loop.acquireBuffer(0);
+    }
+    int bytesRead = this.channel.read(this.input);
+    if (bytesRead == -1) {
+      close();
+      return;
+    }
+    processRequests();
+    flush();
+  }
+
+  void write() throws IOException {
+    flush();
+  }
+
+  private void processRequests() {
+    ByteBuffer in = this.input;
+    in.flip();
+    int requiredCapacity = 0;
+    List<ByteBuffer> quietGets = null;
+    while (in.hasRemaining() && !this.closeAfterFlush) {
+      int requestLength = getRequestLength(in);
+      if (requestLength < 0 || requestLength > in.remaining()) {
+        requiredCapacity = requestLength;
+        break;
+      }
+      int end = in.position() + requestLength;
+      int limit = in.limit();
+      in.limit(end);
+      ByteBuffer request = in.slice();
+      in.limit(limit);
+      in.position(end);
+      if (isQuietGet(request)) {
+        if (quietGets == null) {
+          quietGets = new ArrayList<ByteBuffer>();
+        }
+        quietGets.add(request);
+        continue;
+      }
+      if (quietGets != null) {
+        processQuietGets(quietGets);
+        quietGets = null;
+      }
+      processRequest(request);
+    }
+    if (quietGets != null) {
+      processQuietGets(quietGets);
+    }
+    in.compact();
+    if (in.position() == 0) {
+      this.loop.releaseBuffer(in);
+      this.input = null;
+    } else if (requiredCapacity > in.capacity() || !in.hasRemaining()) {
+      // the partial request does not fit, move it to a bigger buffer
+      in.flip();
+      this.input = this.loop.acquireBuffer(Math.max(requiredCapacity, in.capacity() * 2));
+      this.input.put(in);
+      this.loop.releaseBuffer(in);
+    }
+  }
+
+  private void processRequest(ByteBuffer request) {
+    RequestReader reader = this.loop.getReader();
+    Protocol protocol = this.loop.getProtocol();
+    try {
+      Command command = reader.decodeCommand(request);
+      if (this.loop.getLogger().fineEnabled()) {
+        this.loop.getLogger().fine("processing command:" + command);
+      }
+      ByteBuffer reply =
+          command.getCommandProcessor().processCommand(reader, protocol, this.loop.getCache());
+      if (reply != null) {
+        appendReply(reader.prepareReply(reply));
+      }
+      if (command == Command.QUIT || command == Command.QUITQ) {
+        this.closeAfterFlush = true;
+      }
+    } catch (ClientError e) {
+      appendReply(RequestReader.getExceptionReply(e));
+    } catch (IllegalArgumentException e) {
+      // thrown by Command.valueOf() when there is no matching command
+      appendReply(RequestReader.getExceptionReply(e));
+    } catch (IOException e) {
+      // the command could not be decoded
+      appendReply(RequestReader.getExceptionReply(e));
+    }
+  }
+
+  private boolean isQuietGet(ByteBuffer request) {
+    if (this.loop.getProtocol() != Protocol.BINARY) {
+      return false;
+    }
+    Command command = Command.getCommandFromOpCode(request.get(POSITION_OPCODE));
+    return command == Command.GETQ || command == Command.GETKQ;
+  }
+
+  /**
+   * Processes a run of quiet gets with a single getAll, replying to hits in the order of the
+   * requests. If the getAll fails, every request of the run gets an error reply
+   */
+  private void processQuietGets(List<ByteBuffer> requests) {
+    if (requests.size() == 1) {
+      processRequest(requests.get(0));
+      return;
+    }
+    RequestReader reader = this.loop.getReader();
+    Cache cache = this.loop.getCache();
+    if (this.loop.getLogger().fineEnabled()) {
+      this.loop.getLogger().fine("processing " + requests.size() + " quiet gets with getAll");
+    }
+    Map<Object, ValueWrapper> values = null;
+    RuntimeException getAllFailure = null;
+    try {
+      values = GetCommand.getAll(requests, cache);
+    } catch (RuntimeException e) {
+      getAllFailure = e;
+    }
+    for (ByteBuffer request : requests) {
+      try {
+        Command command = reader.decodeCommand(request);
+        GetCommand getCommand = (GetCommand) command.getCommandProcessor();
+        ByteBuffer reply = getAllFailure == null
+            ? getCommand.processBinaryCommand(reader, cache, values)
+            : getCommand.processBinaryFailure(reader, getAllFailure);
+        if (reply != null) {
+          appendReply(reader.prepareReply(reply));
+        }
+      } catch (IOException | RuntimeException e) {
+        // also covers ClientError and requests too malformed to read their key
+        appendReply(RequestReader.getExceptionReply(e));
+      }
+    }
+  }
+
+  private void appendReply(ByteBuffer reply) {
+    if (this.output == null) {
+      this.output = this.loop.acquireBuffer(reply.remaining());
+    } else if (this.output.remaining() < reply.remaining()) {
+      ByteBuffer old = this.output;
+      old.flip();
+      this.output = this.loop
+          .acquireBuffer(Math.max(old.capacity() * 2, old.remaining() + reply.remaining()));
+      this.output.put(old);
+      this.loop.releaseBuffer(old);
+    }
+    this.output.put(reply);
+  }
+
+  private void flush() throws IOException {
+    if (this.output != null) {
+      this.output.flip();
+      this.channel.write(this.output);
+      if (this.output.hasRemaining()) {
+        // stop reading until the client has caught up with the replies
+        this.output.compact();
+        this.key.interestOps(SelectionKey.OP_WRITE);
+        return;
+      }
+      this.loop.releaseBuffer(this.output);
+      this.output = null;
+    }
+    if (this.closeAfterFlush) {
+      close();
+    } else {
+      this.key.interestOps(SelectionKey.OP_READ);
+    }
+  }
+
+  /**
+   * @return the length of the request starting at the position of the buffer, or -1 if its length
+   *         is not known until more bytes are read or the request was rejected
+   */
+  private int getRequestLength(ByteBuffer in) {
+    if (this.loop.getProtocol() == Protocol.BINARY) {
+      return getBinaryRequestLength(in);
+    }
+    return getAsciiRequestLength(in);
+  }
+
+  private int getBinaryRequestLength(ByteBuffer in) {
+    if (in.remaining() < AbstractCommand.HEADER_LENGTH) {
+      return -1;
+    }
+    int bodyLength = in.getInt(in.position() + AbstractCommand.TOTAL_BODY_LENGTH_INDEX);
+    if (bodyLength < 0) {
+      throw new IllegalStateException("Not a valid request, body length " + bodyLength);
+    }
+    if (bodyLength > MAX_BODY_LENGTH) {
+      throw new IllegalStateException(
+          "Request body length " + bodyLength + " exceeds " + MAX_BODY_LENGTH + " bytes");
+    }
+    return AbstractCommand.HEADER_LENGTH + bodyLength;
+  }
+
+  /**
+   * An ASCII request is a single line, followed by a data block of the announced length for storage
+   * commands
+   */
+  private int getAsciiRequestLength(ByteBuffer in) {
+    int start = in.position();
+    int lineEnd = -1;
+    for (int i = start; i < in.limit(); i++) {
+      if (in.get(i) == '\n') {
+        lineEnd = i;
+        break;
+      }
+    }
+    if (lineEnd == -1) {
+      if (in.remaining() > MAX_ASCII_LINE_LENGTH) {
+        throw new IllegalStateException("Command line exceeds " + MAX_ASCII_LINE_LENGTH + " bytes");
+      }
+      return -1;
+    }
+    int lineLength = lineEnd + 1 - start;
+    int dataLength = getAsciiDataLength(in, start, lineEnd);
+    if (dataLength < 0) {
+      return lineLength;
+    }
+    if (dataLength > MAX_BODY_LENGTH) {
+      rejectRequest(in);
+      return -1;
+    }
+    return lineLength + dataLength + ASCII_DATA_TERMINATOR_LENGTH;
+  }
+
+  /**
+   * Replies with a client error to a request too long to be buffered and drops the bytes read.
+   * The connection is closed once the reply is written, since the rest of the request can not be
+   * told apart from the requests following it.
+   */
+  private void rejectRequest(ByteBuffer in) {
+    appendReply(RequestReader.getExceptionReply(new ClientError()));
+    this.closeAfterFlush = true;
+    in.position(in.limit());
+  }
+
+  /**
+   * @return the length of the data block following the line, or -1 if the line is not a well
+   *         formed storage command in which case the command reports the error
+   */
+  private static int getAsciiDataLength(ByteBuffer in, int start, int lineEnd) {
+    int i = start;
+    for (int token = 0; token <= ASCII_BYTES_TOKEN; token++) {
+      while (i < lineEnd && in.get(i) == ' ') {
+        i++;
+      }
+      int tokenStart = i;
+      while (i < lineEnd && in.get(i) != ' ' && in.get(i) != '\r') {
+        i++;
+      }
+      if (i == tokenStart) {
+        return -1;
+      }
+      if (token == 0 && !isAsciiStorageCommand(in, tokenStart, i)) {
+        return -1;
+      }
+      if (token == ASCII_BYTES_TOKEN) {
+        return parseAsciiLength(in, tokenStart, i);
+      }
+    }
+    return -1;
+  }
+
+  private static boolean isAsciiStorageCommand(ByteBuffer in, int start, int end) {
+    for (String command : ASCII_STORAGE_COMMANDS) {
+      if (command.length() == end - start) {
+        boolean matches = true;
+        for (int i = 0; i < command.length() && matches; i++) {
+          matches = Character.toLowerCase((char) in.get(start + i)) == command.charAt(i);
+        }
+        if (matches) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  /**
+   * @return the length, Integer.MAX_VALUE if it does not fit in an int, or -1 if it is not a number
+   */
+  private static int parseAsciiLength(ByteBuffer in, int start, int end) {
+    long length = 0;
+    for (int i = start; i < end; i++) {
+      byte b = in.get(i);
+      if (b < '0' || b > '9') {
+        return -1;
+      }
+      length = Math.min(length * 10 + (b - '0'), Integer.MAX_VALUE);
+    }
+    return (int) length;
+  }
+
+  void close() {
+    this.key.cancel();
+    try {
+      this.channel.close();
+    } catch (IOException e) {
+      // ignore
+    }
+    if (this.input != null) {
+      this.loop.releaseBuffer(this.input);
+      this.input = null;
+    }
+    if (this.output != null) {
+      this.loop.releaseBuffer(this.output);
+      this.output = null;
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "SelectorConnectionHandler[" + this.channel + "]";
+  }
+}
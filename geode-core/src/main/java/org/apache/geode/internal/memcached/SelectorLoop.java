@@ -0,0 +1,202 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.internal.memcached;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import org.apache.geode.LogWriter;
+import org.apache.geode.cache.Cache;
+import org.apache.geode.memcached.GemFireMemcachedServer;
+import org.apache.geode.memcached.GemFireMemcachedServer.Protocol;
+
+/**
+ * An event loop that serves many client connections of {@link GemFireMemcachedServer} from a
+ * single thread using a {@link Selector}, as an alternative to the one thread per client of
+ * {@link ConnectionHandler}.
+ * <p>
+ * All requests that are completely received by a read are processed before the replies are written
+ * back with a single write, so clients pipelining several commands pay for one system call in each
+ * direction. Read and write buffers are only held by a connection while it has a partial request
+ * or unsent replies and are otherwise returned to a pool owned by the loop, so idle connections do
+ * not hold any buffer.
+ * <p>
+ * Commands are executed on the loop thread, so a command waiting on a remote member delays the
+ * other connections of the same loop.
+ */
+public class SelectorLoop implements Runnable {
+
+  /**
+   * the maximum number of buffers kept in the pool of each loop
+   */
+  private static final int MAX_POOLED_BUFFERS = 64;
+
+  private final Cache cache;
+
+  private final Protocol protocol;
+
+  private final LogWriter logger;
+
+  private final Selector selector;
+
+  /**
+   * size of the pooled buffers, requests or replies that do not fit get a dedicated buffer
+   */
+  private final int bufferSize;
+
+  private final ArrayDeque<ByteBuffer> bufferPool = new ArrayDeque<ByteBuffer>();
+
+  /**
+   * Accepted channels waiting to be registered with the selector by the loop thread
+   */
+  private final Queue<SocketChannel> newChannels = new ConcurrentLinkedQueue<SocketChannel>();
+
+  /**
+   * Shared by all connections of this loop since requests are processed one at a time
+   */
+  private final RequestReader reader;
+
+  private volatile boolean running = true;
+
+  public SelectorLoop(Cache cache, Protocol protocol, int bufferSize) throws IOException {
+    this.cache = cache;
+    this.protocol = protocol;
+    this.logger = cache.getLogger();
+    this.bufferSize = bufferSize;
+    this.selector = Selector.open();
+    this.reader = new RequestReader(protocol, this.logger);
+  }
+
+  /**
+   * Hands over a newly accepted client connection to this loop
+   */
+  public void register(SocketChannel channel) {
+    this.newChannels.add(channel);
+    this.selector.wakeup();
+  }
+
+  /**
+   * Stops this loop and closes all of its client connections
+   */
+  public void shutdown() {
+    this.running = false;
+    this.selector.wakeup();
+  }
+
+  @Override
+  public void run() {
+    try {
+      while (this.running) {
+        this.selector.select();
+        registerNewChannels();
+        Iterator<SelectionKey> it = this.selector.selectedKeys().iterator();
+        while (it.hasNext()) {
+          SelectionKey key = it.next();
+          it.remove();
+          SelectorConnectionHandler handler = (SelectorConnectionHandler) key.attachment();
+          try {
+            if (key.isValid() && key.isWritable()) {
+              handler.write();
+            }
+            if (key.isValid() && key.isReadable()) {
+              handler.read();
+            }
+          } catch (IOException | RuntimeException e) {
+            if (this.logger.fineEnabled()) {
+              this.logger.fine("closing connection " + handler, e);
+            }
+            handler.close();
+          }
+        }
+      }
+    } catch (IOException e) {
+      this.logger.warning("Selector of " + Thread.currentThread().getName() + " failed", e);
+    } finally {
+      closeAll();
+    }
+    this.logger.fine("Selector loop " + Thread.currentThread().getName() + " terminating");
+  }
+
+  private void registerNewChannels() throws IOException {
+    SocketChannel channel;
+    while ((channel = this.newChannels.poll()) != null) {
+      try {
+        channel.configureBlocking(false);
+        SelectionKey key = channel.register(this.selector, SelectionKey.OP_READ);
+        key.attach(new SelectorConnectionHandler(channel, key, this));
+      } catch (ClosedChannelException e) {
+        // client went away before it could be registered
+      }
+    }
+  }
+
+  private void closeAll() {
+    for (SelectionKey key : this.selector.keys()) {
+      ((SelectorConnectionHandler) key.attachment()).close();
+    }
+    SocketChannel channel;
+    while ((channel = this.newChannels.poll()) != null) {
+      try {
+        channel.close();
+      } catch (IOException e) {
+        // ignore
+      }
+    }
+    try {
+      this.selector.close();
+    } catch (IOException e) {
+      // ignore
+    }
+  }
+
+  ByteBuffer acquireBuffer(int minCapacity) {
+    if (minCapacity > this.bufferSize) {
+      return ByteBuffer.allocate(minCapacity);
+    }
+    ByteBuffer buffer = this.bufferPool.poll();
+    return buffer == null ? ByteBuffer.allocate(this.bufferSize) : buffer;
+  }
+
+  void releaseBuffer(ByteBuffer buffer) {
+    if (buffer.capacity() == this.bufferSize && this.bufferPool.size() < MAX_POOLED_BUFFERS) {
+      buffer.clear();
+      this.bufferPool.push(buffer);
+    }
+  }
+
+  Cache getCache() {
+    return this.cache;
+  }
+
+  Protocol getProtocol() {
+    return this.protocol;
+  }
+
+  LogWriter getLogger() {
+    return this.logger;
+  }
+
+  RequestReader getReader() {
+    return this.reader;
+  }
+}
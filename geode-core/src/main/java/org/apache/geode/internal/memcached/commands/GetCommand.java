@@ -16,8 +16,10 @@ package org.apache.geode.internal.memcached.commands;
 
 import java.nio.ByteBuffer;
 import java.nio.CharBuffer;
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
@@ -92,6 +94,53 @@ public class GetCommand extends AbstractCommand {
     } catch (Exception e) {
       return handleBinaryException(key, request, response, "get", e);
     }
+    return composeBinaryReply(key, val, request, response);
+  }
+
+  /**
+   * Fetches the values for a run of binary get requests with a single {@link Region#getAll}
+   * instead of one {@link Region#get} per request. The reply to each request is then composed by
+   * {@link #processBinaryCommand(RequestReader, Cache, Map)}.
+   *
+   * @param requests the requests of the run, each one starting at index 0
+   * @return the values by key
+   */
+  public static Map<Object, ValueWrapper> getAll(List<ByteBuffer> requests, Cache cache) {
+    List<KeyWrapper> keys = new ArrayList<KeyWrapper>(requests.size());
+    for (ByteBuffer request : requests) {
+      byte[] key = new byte[request.getShort(KEY_LENGTH_INDEX)];
+      request.position(HEADER_LENGTH);
+      request.get(key);
+      keys.add(KeyWrapper.getWrappedKey(key));
+    }
+    return getMemcachedRegion(cache).getAll(keys);
+  }
+
+  /**
+   * Processes a binary get request whose value was fetched by {@link #getAll(List, Cache)}. Falls
+   * back to getting the value on its own if getAll did not return a result for the key, which
+   * happens when getting it failed.
+   */
+  public ByteBuffer processBinaryCommand(RequestReader request, Cache cache,
+      Map<Object, ValueWrapper> values) {
+    ByteBuffer buffer = request.getRequest();
+    KeyWrapper key = getKey(buffer, HEADER_LENGTH);
+    if (!values.containsKey(key)) {
+      return processBinaryCommand(buffer, request, cache, request.getResponse());
+    }
+    return composeBinaryReply(key, values.get(key), request, request.getResponse());
+  }
+
+  /**
+   * Composes the error reply to a binary get request whose {@link #getAll(List, Cache)} failed
+   */
+  public ByteBuffer processBinaryFailure(RequestReader request, Exception e) {
+    KeyWrapper key = getKey(request.getRequest(), HEADER_LENGTH);
+    return handleBinaryException(key, request, request.getResponse(), "get", e);
+  }
+
+  private ByteBuffer composeBinaryReply(KeyWrapper key, ValueWrapper val, RequestReader request,
+      ByteBuffer response) {
     if (getLogger().fineEnabled()) {
       getLogger().fine("get:key:" + key + " val:" + val);
     }
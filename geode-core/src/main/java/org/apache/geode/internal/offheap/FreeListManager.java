@@ -21,6 +21,8 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
 import java.util.NavigableSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentSkipListSet;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -54,6 +56,16 @@ public class FreeListManager {
       new ConcurrentSkipListSet<OffHeapStoredObject>();
   private final AtomicLong allocatedSize = new AtomicLong(0L);
 
+  /**
+   * The number of free tiny chunks of each cached size class a thread keeps. Zero disables the
+   * thread caches.
+   */
+  private final int threadCacheSize;
+  private final int threadCacheSizeClassCount;
+  private final Set<TinyFreeListCache> threadCaches = ConcurrentHashMap.newKeySet();
+  private final ThreadLocal<TinyFreeListCache> threadCache =
+      ThreadLocal.withInitial(this::createThreadCache);
+
   private int getNearestTinyMultiple(int size) {
     return (size - 1) / TINY_MULTIPLE;
   }
@@ -123,6 +135,13 @@ public class FreeListManager {
         tinyFree += cl.computeTotalSize();
       }
     }
+    for (TinyFreeListCache cache : this.threadCaches) {
+      for (int i = 0; i < cache.getSizeClassCount(); i++) {
+        for (long addr : cache.getAddresses(i)) {
+          tinyFree += OffHeapStoredObject.getSize(addr);
+        }
+      }
+    }
     return tinyFree;
   }
 
@@ -142,8 +161,14 @@ public class FreeListManager {
   private final MemoryAllocatorImpl ma;
 
   public FreeListManager(MemoryAllocatorImpl ma, final Slab[] slabs) {
+    this(ma, slabs, THREAD_CACHE_SIZE);
+  }
+
+  FreeListManager(MemoryAllocatorImpl ma, final Slab[] slabs, int threadCacheSize) {
     this.ma = ma;
     this.slabs = slabs;
+    this.threadCacheSize = threadCacheSize;
+    this.threadCacheSizeClassCount = threadCacheSize > 0 ? THREAD_CACHE_SIZE_CLASS_COUNT : 0;
     long total = 0;
     Fragment[] tmp = new Fragment[slabs.length];
     for (int i = 0; i < slabs.length; i++) {
@@ -322,6 +347,18 @@ public class FreeListManager {
     verifyHugeMultiple(HUGE_MULTIPLE);
   }
   public static final int MAX_TINY = TINY_MULTIPLE * TINY_FREE_LIST_COUNT;
+  /**
+   * Number of free chunks of each of the smallest tiny sizes a thread keeps for its own allocations
+   * so that it does not contend with other threads on the shared free lists. The chunks are taken
+   * from and given back to the shared free lists in batches of half this number. Defaults to 0
+   * which disables the thread caches.
+   */
+  public static final int THREAD_CACHE_SIZE =
+      Integer.getInteger(DistributionConfig.GEMFIRE_PREFIX + "OFF_HEAP_THREAD_CACHE_SIZE", 0);
+  /**
+   * Number of tiny free lists, starting with the smallest sizes, cached by threads.
+   */
+  static final int THREAD_CACHE_SIZE_CLASS_COUNT = Math.min(64, TINY_FREE_LIST_COUNT);
 
   /**
    * Return true if the two chunks have been combined into one. If low and high are adjacent to each
@@ -374,6 +411,10 @@ public class FreeListManager {
           return true;
         }
         boolean result = doDefragment(chunkSize);
+        if (!result && flushThreadCaches()) {
+          // the chunks cached by threads may be adjacent to the free memory
+          result = doDefragment(chunkSize);
+        }
 
         // Signal any waiters that a defragmentation happened.
         this.defragmentationCount.incrementAndGet();
@@ -699,8 +740,101 @@ public class FreeListManager {
   }
 
   private OffHeapStoredObject allocateTiny(int size, boolean useFragments) {
-    return basicAllocate(getNearestTinyMultiple(size), TINY_MULTIPLE, 0, this.tinyFreeLists,
-        useFragments);
+    int idx = getNearestTinyMultiple(size);
+    if (useFragments && idx < this.threadCacheSizeClassCount) {
+      OffHeapStoredObject result = allocateFromThreadCache(idx);
+      if (result != null) {
+        return result;
+      }
+    }
+    return basicAllocate(idx, TINY_MULTIPLE, 0, this.tinyFreeLists, useFragments);
+  }
+
+  private OffHeapStoredObject allocateFromThreadCache(int idx) {
+    TinyFreeListCache cache = this.threadCache.get();
+    long memAddr = cache.poll(idx);
+    if (memAddr == 0L) {
+      memAddr = refillThreadCache(cache, idx);
+      if (memAddr == 0L) {
+        return null;
+      }
+    }
+    OffHeapStoredObject result = new OffHeapStoredObject(memAddr);
+    checkDataIntegrity(result);
+    result.readyForAllocation();
+    return result;
+  }
+
+  /**
+   * Takes a batch of chunks from the shared free list of the size class, keeping all but the first
+   * one in the thread cache.
+   *
+   * @return the address of the first chunk or 0L if the shared free list is empty
+   */
+  private long refillThreadCache(TinyFreeListCache cache, int idx) {
+    OffHeapStoredObjectAddressStack clq = this.tinyFreeLists.get(idx);
+    if (clq == null) {
+      return 0L;
+    }
+    long result = clq.poll(getThreadCacheBatchSize());
+    if (result != 0L) {
+      long addr = OffHeapStoredObject.getNext(result);
+      while (addr != 0L) {
+        long next = OffHeapStoredObject.getNext(addr);
+        cache.offer(idx, addr);
+        addr = next;
+      }
+    }
+    return result;
+  }
+
+  private int getThreadCacheBatchSize() {
+    return Math.max(1, this.threadCacheSize / 2);
+  }
+
+  private TinyFreeListCache createThreadCache() {
+    reclaimDeadThreadCaches();
+    TinyFreeListCache cache = new TinyFreeListCache(Thread.currentThread(),
+        this.threadCacheSizeClassCount, this.threadCacheSize);
+    this.threadCaches.add(cache);
+    return cache;
+  }
+
+  /**
+   * Gives the chunks cached by threads that are no longer alive back to the shared free lists.
+   */
+  private void reclaimDeadThreadCaches() {
+    for (TinyFreeListCache cache : this.threadCaches) {
+      if (!cache.isOwnerAlive() && this.threadCaches.remove(cache)) {
+        flushThreadCache(cache);
+      }
+    }
+  }
+
+  /**
+   * Gives the chunks cached by every thread back to the shared free lists so that defragmentation
+   * can combine them.
+   *
+   * @return true if any chunk was cached
+   */
+  private boolean flushThreadCaches() {
+    boolean flushed = false;
+    for (TinyFreeListCache cache : this.threadCaches) {
+      flushed |= flushThreadCache(cache);
+    }
+    return flushed;
+  }
+
+  private boolean flushThreadCache(TinyFreeListCache cache) {
+    boolean flushed = false;
+    for (int i = 0; i < cache.getSizeClassCount(); i++) {
+      long[] addresses = cache.remove(i, cache.getCapacity());
+      if (addresses.length > 0) {
+        basicFree(addresses, i, this.tinyFreeLists);
+        flushed = true;
+      }
+    }
+    return flushed;
   }
 
   private OffHeapStoredObject basicAllocate(int idx, int multiple, int offset,
@@ -797,7 +931,29 @@ public class FreeListManager {
   }
 
   private void freeTiny(long addr, int cSize) {
-    basicFree(addr, getNearestTinyMultiple(cSize), this.tinyFreeLists);
+    int idx = getNearestTinyMultiple(cSize);
+    if (idx < this.threadCacheSizeClassCount) {
+      TinyFreeListCache cache = this.threadCache.get();
+      if (!cache.offer(idx, addr)) {
+        // the thread cache is full so give a batch back to the shared free list
+        basicFree(cache.remove(idx, getThreadCacheBatchSize()), idx, this.tinyFreeLists);
+        cache.offer(idx, addr);
+      }
+      return;
+    }
+    basicFree(addr, idx, this.tinyFreeLists);
+  }
+
+  private void basicFree(long[] addrs, int idx,
+      AtomicReferenceArray<OffHeapStoredObjectAddressStack> freeLists) {
+    OffHeapStoredObjectAddressStack clq = freeLists.get(idx);
+    if (clq != null) {
+      clq.offer(addrs);
+    } else {
+      for (long addr : addrs) {
+        basicFree(addr, idx, freeLists);
+      }
+    }
   }
 
   private void basicFree(long addr, int idx,
@@ -872,6 +1028,13 @@ public class FreeListManager {
         addr = OffHeapStoredObject.getNext(addr);
       }
     }
+    for (TinyFreeListCache cache : this.threadCaches) {
+      for (int i = 0; i < cache.getSizeClassCount(); i++) {
+        for (long cachedAddr : cache.getAddresses(i)) {
+          value.add(new MemoryBlockNode(sma, new TinyMemoryBlock(cachedAddr, i)));
+        }
+      }
+    }
     return value;
   }
 
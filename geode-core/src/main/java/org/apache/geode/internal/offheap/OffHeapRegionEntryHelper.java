@@ -14,6 +14,10 @@
  */
 package org.apache.geode.internal.offheap;
 
+import java.io.DataOutput;
+import java.io.IOException;
+
+import org.apache.geode.DataSerializer;
 import org.apache.geode.internal.DSCODE;
 import org.apache.geode.internal.cache.CachedDeserializableFactory;
 import org.apache.geode.internal.cache.DiskId;
@@ -21,7 +25,9 @@ import org.apache.geode.internal.cache.EntryEventImpl;
 import org.apache.geode.internal.cache.RegionEntryContext;
 import org.apache.geode.internal.cache.Token;
 import org.apache.geode.internal.cache.entries.DiskEntry;
+import org.apache.geode.internal.cache.entries.OffHeapKeyRegionEntry;
 import org.apache.geode.internal.cache.entries.OffHeapRegionEntry;
+import org.apache.geode.internal.lang.SystemPropertyHelper;
 import org.apache.geode.internal.offheap.annotations.Released;
 import org.apache.geode.internal.offheap.annotations.Retained;
 import org.apache.geode.internal.offheap.annotations.Unretained;
@@ -46,6 +52,29 @@ public class OffHeapRegionEntryHelper {
   protected static final long TOMBSTONE_ADDRESS = 8L << 1;
   public static final int MAX_LENGTH_FOR_DATA_AS_ADDRESS = 8;
 
+  /**
+   * True if the String keys of off-heap regions that can not be inlined in their entries are
+   * stored in {@link OffHeapKeyRegionEntry}s.
+   */
+  public static final boolean OFF_HEAP_KEYS = SystemPropertyHelper
+      .getProductBooleanProperty(SystemPropertyHelper.OFF_HEAP_KEYS).orElse(false);
+
+  /**
+   * The key address of an entry whose key is on the heap because it has not been moved off-heap
+   * yet.
+   */
+  protected static final long HEAP_KEY_ADDRESS = NULL_ADDRESS;
+  /**
+   * The key address of an entry whose key is on the heap because its off-heap key was released.
+   */
+  protected static final long RELEASED_KEY_ADDRESS = REMOVED_PHASE2_ADDRESS;
+  /**
+   * The first byte of an off-heap key whose chars are all <= 0x7f and are stored as one byte each.
+   * The chars of other keys are stored as two bytes each.
+   */
+  private static final byte BYTE_ENCODED_KEY = 1;
+  private static final byte CHAR_ENCODED_KEY = 0;
+
   private static final Token[] addrToObj =
       new Token[] {null, Token.INVALID, Token.LOCAL_INVALID, Token.DESTROYED, Token.REMOVED_PHASE1,
           Token.REMOVED_PHASE2, Token.END_OF_STREAM, Token.NOT_AVAILABLE, Token.TOMBSTONE,};
@@ -193,6 +222,9 @@ public class OffHeapRegionEntryHelper {
     final long newAddress = objectToAddress(Token.REMOVED_PHASE2);
     if (re.setAddress(oldAddress, newAddress)) {
       releaseAddress(oldAddress);
+      if (re instanceof OffHeapKeyRegionEntry) {
+        releaseKey((OffHeapKeyRegionEntry) re);
+      }
     } /*
        * else { if (!calledSetValue || re.getAddress() != newAddress) { expectedValue.release(); } }
        */
@@ -347,6 +379,9 @@ public class OffHeapRegionEntryHelper {
     ReferenceCountHelper.setReferenceCountOwner(re);
     releaseAddress(oldAddress);
     ReferenceCountHelper.setReferenceCountOwner(null);
+    if (v == Token.REMOVED_PHASE2 && re instanceof OffHeapKeyRegionEntry) {
+      releaseKey((OffHeapKeyRegionEntry) re);
+    }
   }
 
   public static Token getValueAsToken(@Unretained OffHeapRegionEntry re) {
@@ -422,6 +457,330 @@ public class OffHeapRegionEntryHelper {
     return (address & COMPRESSED_BIT) != 0;
   }
 
+  /**
+   * Copies the key of an entry that has just been added to a map to off-heap memory and drops its
+   * heap copy. Keys are only moved once the entry is in a map, because the entries created for a
+   * key that lose the race to be added to the map are simply dropped. The key is released when the
+   * entry is set to {@link Token#REMOVED_PHASE2} or released.
+   */
+  public static void moveKeyOffHeap(@Unretained OffHeapKeyRegionEntry re) {
+    String key = re.getHeapKey();
+    if (key == null || re.getKeyAddress() != HEAP_KEY_ADDRESS) {
+      return;
+    }
+    byte[] encodedKey = encodeKey(key);
+    // allocate a chunk even for short keys so that the key is never encoded in its address
+    @Retained
+    StoredObject chunk = MemoryAllocatorImpl.getAllocator().allocate(encodedKey.length);
+    chunk.writeDataBytes(0, encodedKey);
+    long newAddress = chunk.getAddress();
+    if (re.setKeyAddress(HEAP_KEY_ADDRESS, newAddress)) {
+      re.setHeapKey(null);
+      if (re.getKeyAddress() != newAddress) {
+        // the key was released after it was moved, and its heap copy may have been set before we
+        // dropped it
+        re.setHeapKey(key);
+      }
+    } else {
+      // the key was released before it could be moved
+      releaseAddress(newAddress);
+    }
+  }
+
+  /**
+   * Releases the off-heap memory of the key of the entry, which stays readable from its heap copy.
+   */
+  private static void releaseKey(@Unretained OffHeapKeyRegionEntry re) {
+    while (true) {
+      long addr = re.getKeyAddress();
+      if (addr == RELEASED_KEY_ADDRESS) {
+        return;
+      }
+      if (addr == HEAP_KEY_ADDRESS) {
+        if (re.setKeyAddress(HEAP_KEY_ADDRESS, RELEASED_KEY_ADDRESS)) {
+          return;
+        }
+      } else if (OffHeapStoredObject.retain(addr)) {
+        try {
+          if (re.getKeyAddress() == addr) {
+            // the heap copy must be set before the address changes so that readers never see a
+            // released key without it
+            String key = decodeKey(addr);
+            re.setHeapKey(key);
+            if (re.setKeyAddress(addr, RELEASED_KEY_ADDRESS)) {
+              // set the heap copy again in case a concurrent move dropped it
+              re.setHeapKey(key);
+              // the reference of the entry, ours is released below
+              OffHeapStoredObject.release(addr);
+              return;
+            }
+          }
+        } finally {
+          OffHeapStoredObject.release(addr);
+        }
+      }
+      // the key was moved or released concurrently, spin around and try again
+    }
+  }
+
+  /**
+   * Returns the key of the entry. A key that is off-heap is decoded into a new String every time it
+   * is read and stays off-heap. Callers that only compare or serialize the key should use
+   * {@link #isKeyEqual(OffHeapKeyRegionEntry, Object)} or {@link #serializeKey} instead.
+   */
+  public static String getKey(@Unretained OffHeapKeyRegionEntry re) {
+    while (true) {
+      long addr = re.getKeyAddress();
+      if (isOffHeap(addr)) {
+        if (OffHeapStoredObject.retain(addr)) {
+          try {
+            if (re.getKeyAddress() == addr) {
+              return decodeKey(addr);
+            }
+          } finally {
+            OffHeapStoredObject.release(addr);
+          }
+        }
+        // the key was released, spin around and use the heap copy
+      } else {
+        String key = re.getHeapKey();
+        if (key != null) {
+          return key;
+        }
+        // the key is being moved off-heap, spin around and read it again
+      }
+    }
+  }
+
+  /**
+   * Returns the key of the entry serialized the same way as {@link EntryEventImpl#serialize}
+   * would. A key that is off-heap and only has chars in 0x01..0x7f is copied straight from
+   * off-heap memory without being decoded to the heap.
+   */
+  public static byte[] serializeKey(@Unretained OffHeapKeyRegionEntry re) {
+    while (true) {
+      long addr = re.getKeyAddress();
+      if (isOffHeap(addr)) {
+        if (OffHeapStoredObject.retain(addr)) {
+          try {
+            if (re.getKeyAddress() == addr) {
+              int length = getStringBytesLength(addr);
+              if (length < 0) {
+                return EntryEventImpl.serialize(decodeKey(addr));
+              }
+              byte[] bytes = new byte[3 + length];
+              bytes[0] = DSCODE.STRING_BYTES.toByte();
+              bytes[1] = (byte) (length >> 8);
+              bytes[2] = (byte) length;
+              AddressableMemoryManager.readBytes(addr + OffHeapStoredObject.HEADER_SIZE + 1, bytes,
+                  3, length);
+              return bytes;
+            }
+          } finally {
+            OffHeapStoredObject.release(addr);
+          }
+        }
+      } else {
+        String heapKey = re.getHeapKey();
+        if (heapKey != null) {
+          return EntryEventImpl.serialize(heapKey);
+        }
+      }
+    }
+  }
+
+  /**
+   * Writes the key of the entry to the given output the same way as
+   * {@link DataSerializer#writeObject(Object, DataOutput)} would, without decoding an off-heap key
+   * that only has chars in 0x01..0x7f to the heap.
+   */
+  public static void writeKey(@Unretained OffHeapKeyRegionEntry re, DataOutput out)
+      throws IOException {
+    while (true) {
+      long addr = re.getKeyAddress();
+      if (isOffHeap(addr)) {
+        if (OffHeapStoredObject.retain(addr)) {
+          try {
+            if (re.getKeyAddress() == addr) {
+              int length = getStringBytesLength(addr);
+              if (length < 0) {
+                DataSerializer.writeObject(decodeKey(addr), out);
+                return;
+              }
+              out.writeByte(DSCODE.STRING_BYTES.toByte());
+              out.writeShort(length);
+              long dataAddress = addr + OffHeapStoredObject.HEADER_SIZE + 1;
+              for (int i = 0; i < length; i++) {
+                out.writeByte(AddressableMemoryManager.readByte(dataAddress + i));
+              }
+              return;
+            }
+          } finally {
+            OffHeapStoredObject.release(addr);
+          }
+        }
+      } else {
+        String heapKey = re.getHeapKey();
+        if (heapKey != null) {
+          DataSerializer.writeObject(heapKey, out);
+          return;
+        }
+      }
+    }
+  }
+
+  /**
+   * Returns the length of an off-heap key that {@link DataSerializer#writeString} would write as
+   * {@link DSCODE#STRING_BYTES}, or -1 if it would be written some other way.
+   */
+  private static int getStringBytesLength(@Unretained long addr) {
+    long dataAddress = addr + OffHeapStoredObject.HEADER_SIZE;
+    if (!isByteEncodedKey(dataAddress)) {
+      return -1;
+    }
+    int length = getKeyLength(addr, true);
+    if (length > 0xFFFF) {
+      return -1;
+    }
+    for (int i = 0; i < length; i++) {
+      if (AddressableMemoryManager.readByte(dataAddress + 1 + i) == 0) {
+        return -1;
+      }
+    }
+    return length;
+  }
+
+  /**
+   * Compares the key of the entry with the given key without copying the off-heap key to the heap.
+   */
+  public static boolean isKeyEqual(@Unretained OffHeapKeyRegionEntry re, Object key) {
+    if (!(key instanceof String)) {
+      return false;
+    }
+    String stringKey = (String) key;
+    while (true) {
+      long addr = re.getKeyAddress();
+      if (isOffHeap(addr)) {
+        if (OffHeapStoredObject.retain(addr)) {
+          try {
+            if (re.getKeyAddress() == addr) {
+              return isKeyEqual(addr, stringKey);
+            }
+          } finally {
+            OffHeapStoredObject.release(addr);
+          }
+        }
+      } else {
+        String heapKey = re.getHeapKey();
+        if (heapKey != null) {
+          return stringKey.equals(heapKey);
+        }
+      }
+    }
+  }
+
+  /**
+   * Returns the {@link String#hashCode()} of the key of the entry without copying the off-heap key
+   * to the heap.
+   */
+  public static int getKeyHashCode(@Unretained OffHeapKeyRegionEntry re) {
+    while (true) {
+      long addr = re.getKeyAddress();
+      if (isOffHeap(addr)) {
+        if (OffHeapStoredObject.retain(addr)) {
+          try {
+            if (re.getKeyAddress() == addr) {
+              long dataAddress = addr + OffHeapStoredObject.HEADER_SIZE;
+              boolean byteEncoded = isByteEncodedKey(dataAddress);
+              int length = getKeyLength(addr, byteEncoded);
+              int hash = 0;
+              for (int i = 0; i < length; i++) {
+                hash = 31 * hash + readKeyChar(dataAddress, byteEncoded, i);
+              }
+              return hash;
+            }
+          } finally {
+            OffHeapStoredObject.release(addr);
+          }
+        }
+      } else {
+        String heapKey = re.getHeapKey();
+        if (heapKey != null) {
+          return heapKey.hashCode();
+        }
+      }
+    }
+  }
+
+  private static boolean isKeyEqual(@Unretained long addr, String key) {
+    long dataAddress = addr + OffHeapStoredObject.HEADER_SIZE;
+    boolean byteEncoded = isByteEncodedKey(dataAddress);
+    if (key.length() != getKeyLength(addr, byteEncoded)) {
+      return false;
+    }
+    for (int i = 0; i < key.length(); i++) {
+      if (key.charAt(i) != readKeyChar(dataAddress, byteEncoded, i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static String decodeKey(@Unretained long addr) {
+    long dataAddress = addr + OffHeapStoredObject.HEADER_SIZE;
+    boolean byteEncoded = isByteEncodedKey(dataAddress);
+    char[] chars = new char[getKeyLength(addr, byteEncoded)];
+    for (int i = 0; i < chars.length; i++) {
+      chars[i] = readKeyChar(dataAddress, byteEncoded, i);
+    }
+    return new String(chars);
+  }
+
+  private static boolean isByteEncodedKey(long dataAddress) {
+    return AddressableMemoryManager.readByte(dataAddress) == BYTE_ENCODED_KEY;
+  }
+
+  private static int getKeyLength(@Unretained long addr, boolean byteEncoded) {
+    int dataSize = OffHeapStoredObject.getDataSize(addr);
+    return byteEncoded ? dataSize - 1 : (dataSize - 1) / 2;
+  }
+
+  private static char readKeyChar(long dataAddress, boolean byteEncoded, int index) {
+    if (byteEncoded) {
+      return (char) AddressableMemoryManager.readByte(dataAddress + 1 + index);
+    }
+    long charAddress = dataAddress + 1 + 2 * index;
+    return (char) (((AddressableMemoryManager.readByte(charAddress) & 0xff) << 8)
+        | (AddressableMemoryManager.readByte(charAddress + 1) & 0xff));
+  }
+
+  private static byte[] encodeKey(String key) {
+    boolean byteEncoded = true;
+    for (int i = 0; i < key.length(); i++) {
+      if (key.charAt(i) > 0x7f) {
+        byteEncoded = false;
+        break;
+      }
+    }
+    byte[] bytes;
+    if (byteEncoded) {
+      bytes = new byte[1 + key.length()];
+      bytes[0] = BYTE_ENCODED_KEY;
+      for (int i = 0; i < key.length(); i++) {
+        bytes[1 + i] = (byte) key.charAt(i);
+      }
+    } else {
+      bytes = new byte[1 + 2 * key.length()];
+      bytes[0] = CHAR_ENCODED_KEY;
+      for (int i = 0; i < key.length(); i++) {
+        char character = key.charAt(i);
+        bytes[1 + 2 * i] = (byte) (character >> 8);
+        bytes[2 + 2 * i] = (byte) character;
+      }
+    }
+    return bytes;
+  }
+
   private static final ThreadLocal<Object> clearNeedsToCheckForOffHeap = new ThreadLocal<Object>();
 
   public static boolean doesClearNeedToCheckForOffHeap() {
@@ -50,6 +50,22 @@ public class OffHeapStoredObjectAddressStack implements LongStack {
     }
   }
 
+  /**
+   * Adds all the given addresses to the top of this stack.
+   */
+  public void offer(long[] addresses) {
+    for (long e : addresses) {
+      assert e != 0;
+      MemoryAllocatorImpl.validateAddress(e);
+    }
+    synchronized (this) {
+      for (long e : addresses) {
+        OffHeapStoredObject.setNext(e, this.topAddr);
+        this.topAddr = e;
+      }
+    }
+  }
+
   @Override
   public long poll() {
     long result;
@@ -62,6 +78,32 @@ public class OffHeapStoredObjectAddressStack implements LongStack {
     return result;
   }
 
+  /**
+   * Removes up to count addresses from the top of this stack and returns the first of them, or
+   * {@code 0L} if this stack is empty. The others are linked from it with
+   * {@link OffHeapStoredObject#getNext(long)}, the next address of the last one being {@code 0L}.
+   * The caller owns all the removed addresses.
+   */
+  public long poll(int count) {
+    synchronized (this) {
+      long result = this.topAddr;
+      if (result == 0L) {
+        return 0L;
+      }
+      long last = result;
+      for (int i = 1; i < count; i++) {
+        long next = OffHeapStoredObject.getNext(last);
+        if (next == 0L) {
+          break;
+        }
+        last = next;
+      }
+      this.topAddr = OffHeapStoredObject.getNext(last);
+      OffHeapStoredObject.setNext(last, 0L);
+      return result;
+    }
+  }
+
   /**
    * Returns the address of the "top" item in this stack.
    */
@@ -0,0 +1,117 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.internal.offheap;
+
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+
+/**
+ * The free tiny chunks kept by one thread so that it can allocate and free the most common sizes
+ * without going through the shared tiny free lists of the {@link FreeListManager}. Each size class
+ * holds at most a fixed number of chunk addresses.
+ * <p>
+ * The cache is only used by its owning thread except when the FreeListManager takes its chunks back
+ * to defragment memory, so its methods are synchronized but the lock is almost never contended.
+ */
+class TinyFreeListCache {
+
+  private final WeakReference<Thread> owner;
+
+  private final long[][] addresses;
+
+  private final int[] counts;
+
+  private final int capacity;
+
+  TinyFreeListCache(Thread owner, int sizeClassCount, int capacity) {
+    this.owner = new WeakReference<>(owner);
+    this.addresses = new long[sizeClassCount][];
+    this.counts = new int[sizeClassCount];
+    this.capacity = capacity;
+  }
+
+  int getSizeClassCount() {
+    return this.counts.length;
+  }
+
+  int getCapacity() {
+    return this.capacity;
+  }
+
+  /**
+   * Returns true if the thread owning this cache is still alive.
+   */
+  boolean isOwnerAlive() {
+    Thread thread = this.owner.get();
+    return thread != null && thread.isAlive();
+  }
+
+  /**
+   * Retrieves and removes the address of a free chunk of the size class, or returns {@code 0L} if
+   * there is none.
+   */
+  synchronized long poll(int sizeClass) {
+    int count = this.counts[sizeClass];
+    if (count == 0) {
+      return 0L;
+    }
+    this.counts[sizeClass] = --count;
+    return this.addresses[sizeClass][count];
+  }
+
+  /**
+   * Adds the address of a free chunk of the size class, unless the size class is full.
+   *
+   * @return false if the size class is full
+   */
+  synchronized boolean offer(int sizeClass, long address) {
+    int count = this.counts[sizeClass];
+    if (count == this.capacity) {
+      return false;
+    }
+    long[] sizeClassAddresses = this.addresses[sizeClass];
+    if (sizeClassAddresses == null) {
+      sizeClassAddresses = new long[this.capacity];
+      this.addresses[sizeClass] = sizeClassAddresses;
+    }
+    sizeClassAddresses[count] = address;
+    this.counts[sizeClass] = count + 1;
+    return true;
+  }
+
+  /**
+   * Removes and returns the addresses of up to count free chunks of the size class.
+   */
+  synchronized long[] remove(int sizeClass, int count) {
+    int available = this.counts[sizeClass];
+    int removed = Math.min(count, available);
+    if (removed == 0) {
+      return new long[0];
+    }
+    this.counts[sizeClass] = available - removed;
+    return Arrays.copyOfRange(this.addresses[sizeClass], available - removed, available);
+  }
+
+  /**
+   * Returns the addresses of the free chunks of the size class without removing them.
+   */
+  synchronized long[] getAddresses(int sizeClass) {
+    int count = this.counts[sizeClass];
+    if (count == 0) {
+      return new long[0];
+    }
+    return Arrays.copyOf(this.addresses[sizeClass], count);
+  }
+}
@@ -333,7 +333,8 @@ public class CustomEntryConcurrentHashMap<K, V> extends AbstractMap<K, V>
      * @see CustomEntryConcurrentHashMap.HashEntry#getKey()
      */
     public K getKey() {
-      return this.key;
+      // the copies made by a rehash read the key of the entry they wrap only when asked for it
+      return this.wrappedEntry != null ? this.wrappedEntry.getKey() : this.key;
     }
 
     /**
@@ -373,7 +374,7 @@ public class CustomEntryConcurrentHashMap<K, V> extends AbstractMap<K, V>
 
     @Override
     public boolean isKeyEqual(Object k) {
-      return k.equals(getKey());
+      return this.wrappedEntry != null ? this.wrappedEntry.isKeyEqual(k) : k.equals(getKey());
     }
   }
 
@@ -894,7 +895,7 @@ public class CustomEntryConcurrentHashMap<K, V> extends AbstractMap<K, V>
             // in the last run may have their next pointers changed
             // by a later rehash.
             for (HashEntry<K, V> p = e; p != null; p = nextp) {
-              newe = new HashEntryImpl<K, V>(p.getKey(), p.getEntryHash(),
+              newe = new HashEntryImpl<K, V>(null, p.getEntryHash(),
                   (nextp = p.getNextEntry()), p.getMapValue(), p);
               if (newp != null) {
                 newp.setNextEntry(newe);
@@ -1789,55 +1790,63 @@ public class CustomEntryConcurrentHashMap<K, V> extends AbstractMap<K, V>
       }
     } finally {
       if (entries != null) {
-        final ArrayList<HashEntry<?, ?>> clearedEntries = entries;
-        Runnable runnable;
-        if (OffHeapRegionEntryHelper.doesClearNeedToCheckForOffHeap()) {
-          runnable = new Runnable() {
-            public void run() {
-              for (HashEntry<?, ?> he : clearedEntries) {
-                for (HashEntry<?, ?> p = he; p != null; p = p.getNextEntry()) {
-                  if (p instanceof RegionEntry) {
-                    synchronized (p) {
-                      GatewaySenderEventImpl.release(((RegionEntry) p).getValue()); // OFFHEAP
-                    }
-                  }
+        releaseClearedEntries(entries, executor,
+            this.getClass().getSimpleName() + "@" + this.hashCode() + " Clear Thread");
+      }
+    }
+  }
+
+  /**
+   * Releases the off-heap values of the entries removed by a clear. The work is done with the
+   * given executor or, if it cannot be used, in a new thread with the given name.
+   */
+  static void releaseClearedEntries(final ArrayList<HashEntry<?, ?>> clearedEntries,
+      Executor executor, String threadName) {
+    Runnable runnable;
+    if (OffHeapRegionEntryHelper.doesClearNeedToCheckForOffHeap()) {
+      runnable = new Runnable() {
+        public void run() {
+          for (HashEntry<?, ?> he : clearedEntries) {
+            for (HashEntry<?, ?> p = he; p != null; p = p.getNextEntry()) {
+              if (p instanceof RegionEntry) {
+                synchronized (p) {
+                  GatewaySenderEventImpl.release(((RegionEntry) p).getValue()); // OFFHEAP
                 }
               }
             }
-          };
-        } else {
-          runnable = new Runnable() {
-            public void run() {
-              for (HashEntry<?, ?> he : clearedEntries) {
-                for (HashEntry<?, ?> p = he; p != null; p = p.getNextEntry()) {
-                  synchronized (p) {
-                    ((OffHeapRegionEntry) p).release();
-                  }
-                }
+          }
+        }
+      };
+    } else {
+      runnable = new Runnable() {
+        public void run() {
+          for (HashEntry<?, ?> he : clearedEntries) {
+            for (HashEntry<?, ?> p = he; p != null; p = p.getNextEntry()) {
+              synchronized (p) {
+                ((OffHeapRegionEntry) p).release();
               }
             }
-          };
-        }
-        boolean submitted = false;
-        if (executor != null) {
-          try {
-            executor.execute(runnable);
-            submitted = true;
-          } catch (RejectedExecutionException e) {
-            // fall through with submitted false
-          } catch (CancelException e) {
-            // fall through with submitted false
-          } catch (NullPointerException e) {
-            // fall through with submitted false
           }
         }
-        if (!submitted) {
-          String name = this.getClass().getSimpleName() + "@" + this.hashCode() + " Clear Thread";
-          Thread thread = new LoggingThread(name, runnable);
-          thread.start();
-        }
+      };
+    }
+    boolean submitted = false;
+    if (executor != null) {
+      try {
+        executor.execute(runnable);
+        submitted = true;
+      } catch (RejectedExecutionException e) {
+        // fall through with submitted false
+      } catch (CancelException e) {
+        // fall through with submitted false
+      } catch (NullPointerException e) {
+        // fall through with submitted false
       }
     }
+    if (!submitted) {
+      Thread thread = new LoggingThread(threadName, runnable);
+      thread.start();
+    }
   }
 
   /**
@@ -0,0 +1,835 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.internal.util.concurrent;
+
+import java.util.AbstractCollection;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.geode.internal.cache.entries.OffHeapRegionEntry;
+import org.apache.geode.internal.offheap.OffHeapRegionEntryHelper;
+import org.apache.geode.internal.util.concurrent.CustomEntryConcurrentHashMap.HashEntry;
+import org.apache.geode.internal.util.concurrent.CustomEntryConcurrentHashMap.HashEntryCreator;
+
+/**
+ * A concurrent map that keeps its entries in open-addressed arrays instead of chaining them from
+ * the buckets of a table. The map is split in stripes, each with its own lock and table, and each
+ * table keeps the hash of every slot in an int array next to the array of entries, so that looking
+ * up a key usually compares a few adjacent ints and reads a single entry instead of following the
+ * chain of entries of a bucket.
+ * <p>
+ * Like {@link CustomEntryConcurrentHashMap} the entries are created by a {@link HashEntryCreator},
+ * which lets region entries be stored in the tables without any wrapper. The next entry of an
+ * entry is always null. Lookups do not lock. Updates lock the stripe of the key, and the slot of a
+ * removed entry that other keys may probe past is marked as removed until the table is rehashed so
+ * that concurrent lookups keep probing past it.
+ * <p>
+ * Iterators are weakly consistent like those of {@link CustomEntryConcurrentHashMap}.
+ */
+public class OpenAddressingConcurrentHashMap<K, V> extends AbstractMap<K, V>
+    implements ConcurrentMapWithReusableEntries<K, V> {
+
+  static final int DEFAULT_INITIAL_CAPACITY = 16;
+
+  static final float DEFAULT_LOAD_FACTOR = 0.75f;
+
+  static final int DEFAULT_CONCURRENCY_LEVEL = 16;
+
+  /**
+   * The highest load factor used. Probe sequences get long quickly when the tables of an open
+   * addressing map fill up, so higher load factors are lowered to this one.
+   */
+  static final float MAXIMUM_LOAD_FACTOR = 0.9f;
+
+  static final int MAXIMUM_CAPACITY = 1 << 30;
+
+  static final int MAX_STRIPES = 1 << 16;
+
+  static final int MINIMUM_STRIPE_CAPACITY = 4;
+
+  /** Marks the slot of a removed entry. */
+  private static final Object REMOVED = new Object();
+
+  private final HashEntryCreator<K, V> entryCreator;
+
+  private final float loadFactor;
+
+  private final int initialStripeCapacity;
+
+  private final Stripe[] stripes;
+
+  private final int stripeShift;
+
+  private final int stripeMask;
+
+  private Set<K> keySet;
+
+  private Set<Map.Entry<K, V>> entrySet;
+
+  private Set<Map.Entry<K, V>> reusableEntrySet;
+
+  private Collection<V> values;
+
+  /**
+   * Creates a new, empty map with a default initial capacity (16), load factor (0.75) and
+   * concurrencyLevel (16).
+   */
+  public OpenAddressingConcurrentHashMap() {
+    this(DEFAULT_INITIAL_CAPACITY, DEFAULT_LOAD_FACTOR, DEFAULT_CONCURRENCY_LEVEL);
+  }
+
+  /**
+   * Creates a new, empty map with the specified initial capacity, load factor and concurrency
+   * level.
+   */
+  public OpenAddressingConcurrentHashMap(int initialCapacity, float loadFactor,
+      int concurrencyLevel) {
+    this(initialCapacity, loadFactor, concurrencyLevel,
+        new CustomEntryConcurrentHashMap.DefaultHashEntryCreator<>());
+  }
+
+  /**
+   * Creates a new, empty map with the specified initial capacity, load factor, concurrency level
+   * and custom {@link HashEntryCreator}.
+   *
+   * @param initialCapacity the initial capacity. The implementation performs internal sizing to
+   *        accommodate this many elements.
+   * @param loadFactor the load factor threshold, used to control resizing. Resizing may be
+   *        performed when the proportion of used slots of a table exceeds this threshold.
+   * @param concurrencyLevel the estimated number of concurrently updating threads. The
+   *        implementation uses this many stripes, rounded up to a power of two.
+   * @param entryCreator a custom {@link HashEntryCreator} for creating the map entries
+   * @throws IllegalArgumentException if the initial capacity is negative or the load factor or
+   *         concurrencyLevel are nonpositive.
+   */
+  @SuppressWarnings("unchecked")
+  public OpenAddressingConcurrentHashMap(int initialCapacity, float loadFactor,
+      int concurrencyLevel, HashEntryCreator<K, V> entryCreator) {
+    if (!(loadFactor > 0) || initialCapacity < 0 || concurrencyLevel <= 0) {
+      throw new IllegalArgumentException();
+    }
+    if (concurrencyLevel > MAX_STRIPES) {
+      concurrencyLevel = MAX_STRIPES;
+    }
+    if (initialCapacity > MAXIMUM_CAPACITY) {
+      initialCapacity = MAXIMUM_CAPACITY;
+    }
+
+    int sshift = 0;
+    int ssize = 1;
+    while (ssize < concurrencyLevel) {
+      ++sshift;
+      ssize <<= 1;
+    }
+    this.stripeShift = 32 - sshift;
+    this.stripeMask = ssize - 1;
+    this.loadFactor = Math.min(loadFactor, MAXIMUM_LOAD_FACTOR);
+    this.entryCreator = entryCreator;
+
+    int c = initialCapacity / ssize;
+    if (c * ssize < initialCapacity) {
+      ++c;
+    }
+    int cap = MINIMUM_STRIPE_CAPACITY;
+    while (threshold(cap) < c && cap < MAXIMUM_CAPACITY) {
+      cap <<= 1;
+    }
+    this.initialStripeCapacity = cap;
+
+    this.stripes = new OpenAddressingConcurrentHashMap.Stripe[ssize];
+    for (int i = 0; i < ssize; i++) {
+      this.stripes[i] = new Stripe(cap);
+    }
+  }
+
+  /**
+   * Returns the number of slots of a table of the given capacity that can be used before it is
+   * rehashed. At least one slot is always left empty so that probe sequences end.
+   */
+  private int threshold(int capacity) {
+    return Math.min((int) (capacity * this.loadFactor), capacity - 1);
+  }
+
+  private int hash(Object key) {
+    return this.entryCreator.keyHashCode(key, true);
+  }
+
+  private Stripe stripeFor(int hash) {
+    return this.stripes[(hash >>> this.stripeShift) & this.stripeMask];
+  }
+
+  private static class Table {
+
+    final int[] hashes;
+
+    final Object[] entries;
+
+    Table(int capacity) {
+      this.hashes = new int[capacity];
+      this.entries = new Object[capacity];
+    }
+
+    /**
+     * Returns the first empty slot of the probe sequence of the hash. Only used on tables without
+     * removed entries.
+     */
+    int emptySlot(int hash) {
+      int mask = this.entries.length - 1;
+      int i = hash & mask;
+      while (this.entries[i] != null) {
+        i = (i + 1) & mask;
+      }
+      return i;
+    }
+  }
+
+  /**
+   * A part of the map with its own table. The table is only changed while holding the lock of the
+   * stripe, and a new table is published through a volatile write when the stripe is rehashed or
+   * cleared so that lookups never see a partially copied table.
+   */
+  private class Stripe extends ReentrantLock {
+
+    private static final long serialVersionUID = 6021622340262219813L;
+
+    volatile Table table;
+
+    /** The number of entries in the stripe. Written last by every update. */
+    volatile int count;
+
+    /** The number of slots holding an entry or a removed marker. Guarded by the lock. */
+    int usedSlots;
+
+    Stripe(int capacity) {
+      this.table = new Table(capacity);
+    }
+
+    @SuppressWarnings("unchecked")
+    HashEntry<K, V> getEntry(Object key, int hash) {
+      if (this.count != 0) { // read-volatile
+        Table tab = this.table;
+        int[] hashes = tab.hashes;
+        Object[] entries = tab.entries;
+        int mask = entries.length - 1;
+        for (int i = hash & mask;; i = (i + 1) & mask) {
+          Object e = entries[i];
+          if (e == null) {
+            return null;
+          }
+          if (e != REMOVED && hashes[i] == hash && ((HashEntry<K, V>) e).isKeyEqual(key)) {
+            return (HashEntry<K, V>) e;
+          }
+        }
+      }
+      return null;
+    }
+
+    /**
+     * Returns the slot of the entry for the key in the current table, or -1 if there is none.
+     * Called with the lock held.
+     */
+    @SuppressWarnings("unchecked")
+    private int findSlot(Table tab, Object key, int hash) {
+      int[] hashes = tab.hashes;
+      Object[] entries = tab.entries;
+      int mask = entries.length - 1;
+      for (int i = hash & mask;; i = (i + 1) & mask) {
+        Object e = entries[i];
+        if (e == null) {
+          return -1;
+        }
+        if (e != REMOVED && hashes[i] == hash && ((HashEntry<K, V>) e).isKeyEqual(key)) {
+          return i;
+        }
+      }
+    }
+
+    @SuppressWarnings("unchecked")
+    V put(K key, int hash, V value, boolean onlyIfAbsent) {
+      lock();
+      try {
+        Table tab = this.table;
+        int[] hashes = tab.hashes;
+        Object[] entries = tab.entries;
+        int mask = entries.length - 1;
+        int removedSlot = -1;
+        int i = hash & mask;
+        for (;; i = (i + 1) & mask) {
+          Object e = entries[i];
+          if (e == null) {
+            break;
+          }
+          if (e == REMOVED) {
+            if (removedSlot < 0) {
+              removedSlot = i;
+            }
+          } else if (hashes[i] == hash && ((HashEntry<K, V>) e).isKeyEqual(key)) {
+            HashEntry<K, V> entry = (HashEntry<K, V>) e;
+            V oldValue = entry.getMapValue();
+            if (!onlyIfAbsent) {
+              entry.setMapValue(value);
+            }
+            return oldValue;
+          }
+        }
+        if (removedSlot >= 0) {
+          i = removedSlot;
+        } else if (this.usedSlots >= threshold(entries.length)) {
+          tab = rehash(this.count + 1);
+          i = tab.emptySlot(hash);
+          this.usedSlots++;
+        } else {
+          this.usedSlots++;
+        }
+        tab.hashes[i] = hash;
+        tab.entries[i] = entryCreator.newEntry(key, hash, null, value);
+        this.count = this.count + 1; // write-volatile
+        return null;
+      } finally {
+        unlock();
+      }
+    }
+
+    /**
+     * Copies the entries to a new table that can take the given number of entries and leaves
+     * room for as many more if the capacity allows it. Called with the lock held.
+     */
+    private Table rehash(int entryCount) {
+      Table oldTable = this.table;
+      int capacity = oldTable.entries.length;
+      while (threshold(capacity) / 2 < entryCount && capacity < MAXIMUM_CAPACITY) {
+        capacity <<= 1;
+      }
+      if (threshold(capacity) < entryCount) {
+        throw new IllegalStateException("Map stripe cannot hold more than "
+            + threshold(capacity) + " entries");
+      }
+      Table newTable = new Table(capacity);
+      int[] oldHashes = oldTable.hashes;
+      Object[] oldEntries = oldTable.entries;
+      for (int j = 0; j < oldEntries.length; j++) {
+        Object e = oldEntries[j];
+        if (e != null && e != REMOVED) {
+          int hash = oldHashes[j];
+          int i = newTable.emptySlot(hash);
+          newTable.hashes[i] = hash;
+          newTable.entries[i] = e;
+        }
+      }
+      this.usedSlots = this.count;
+      this.table = newTable;
+      return newTable;
+    }
+
+    /**
+     * Removes the entry for the key if it is mapped to the value, or to any value if the value is
+     * null.
+     *
+     * @return the value that was removed or null if nothing was
+     */
+    @SuppressWarnings("unchecked")
+    V remove(Object key, int hash, Object value) {
+      lock();
+      try {
+        Table tab = this.table;
+        int i = findSlot(tab, key, hash);
+        if (i < 0) {
+          return null;
+        }
+        Object[] entries = tab.entries;
+        V oldValue = ((HashEntry<K, V>) entries[i]).getMapValue();
+        if (value != null && !value.equals(oldValue)) {
+          return null;
+        }
+        int mask = entries.length - 1;
+        if (entries[(i + 1) & mask] == null) {
+          // no probe sequence goes past this slot, so it and the removed slots before it can be
+          // emptied
+          do {
+            entries[i] = null;
+            this.usedSlots--;
+            i = (i - 1) & mask;
+          } while (entries[i] == REMOVED);
+        } else {
+          entries[i] = REMOVED;
+        }
+        this.count = this.count - 1; // write-volatile
+        return oldValue;
+      } finally {
+        unlock();
+      }
+    }
+
+    /**
+     * Sets the value of the entry for the key if it is mapped to the expected value, or to any
+     * value if the expected value is null.
+     *
+     * @return the value that was replaced or null if nothing was
+     */
+    @SuppressWarnings("unchecked")
+    V replace(K key, int hash, V expectedValue, V newValue) {
+      lock();
+      try {
+        Table tab = this.table;
+        int i = findSlot(tab, key, hash);
+        if (i < 0) {
+          return null;
+        }
+        HashEntry<K, V> entry = (HashEntry<K, V>) tab.entries[i];
+        V oldValue = entry.getMapValue();
+        if (expectedValue != null && !expectedValue.equals(oldValue)) {
+          return null;
+        }
+        entry.setMapValue(newValue);
+        return oldValue;
+      } finally {
+        unlock();
+      }
+    }
+
+    /**
+     * Empties the stripe and adds the entries that need to be released afterwards to the given
+     * list, which is created if needed.
+     */
+    ArrayList<HashEntry<?, ?>> clear(ArrayList<HashEntry<?, ?>> clearedEntries) {
+      lock();
+      try {
+        if (this.usedSlots == 0) {
+          return clearedEntries;
+        }
+        Object[] entries = this.table.entries;
+        if (clearedEntries == null) {
+          if (OffHeapRegionEntryHelper.doesClearNeedToCheckForOffHeap()) {
+            clearedEntries = new ArrayList<>();
+          } else {
+            // see if we have a map with off-heap region entries
+            for (Object e : entries) {
+              if (e != null && e != REMOVED) {
+                if (e instanceof OffHeapRegionEntry) {
+                  clearedEntries = new ArrayList<>();
+                }
+                // after the first entry we are done
+                break;
+              }
+            }
+          }
+        }
+        if (clearedEntries != null) {
+          for (Object e : entries) {
+            if (e != null && e != REMOVED) {
+              clearedEntries.add((HashEntry<?, ?>) e);
+            }
+          }
+        }
+        this.table = new Table(initialStripeCapacity);
+        this.usedSlots = 0;
+        this.count = 0; // write-volatile
+        return clearedEntries;
+      } finally {
+        unlock();
+      }
+    }
+  }
+
+  @Override
+  public int size() {
+    long sum = 0;
+    for (Stripe stripe : this.stripes) {
+      sum += stripe.count;
+    }
+    return sum > Integer.MAX_VALUE ? Integer.MAX_VALUE : (int) sum;
+  }
+
+  @Override
+  public boolean isEmpty() {
+    for (Stripe stripe : this.stripes) {
+      if (stripe.count != 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public V get(Object key) {
+    int hash = hash(key);
+    HashEntry<K, V> entry = stripeFor(hash).getEntry(key, hash);
+    return entry != null ? entry.getMapValue() : null;
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    int hash = hash(key);
+    return stripeFor(hash).getEntry(key, hash) != null;
+  }
+
+  @Override
+  public V put(K key, V value) {
+    if (value == null) {
+      throw new NullPointerException();
+    }
+    int hash = hash(key);
+    return stripeFor(hash).put(key, hash, value, false);
+  }
+
+  @Override
+  public V putIfAbsent(K key, V value) {
+    if (value == null) {
+      throw new NullPointerException();
+    }
+    int hash = hash(key);
+    return stripeFor(hash).put(key, hash, value, true);
+  }
+
+  @Override
+  public V remove(Object key) {
+    int hash = hash(key);
+    return stripeFor(hash).remove(key, hash, null);
+  }
+
+  @Override
+  public boolean remove(Object key, Object value) {
+    if (value == null) {
+      return false;
+    }
+    int hash = hash(key);
+    return stripeFor(hash).remove(key, hash, value) != null;
+  }
+
+  @Override
+  public boolean replace(K key, V oldValue, V newValue) {
+    if (oldValue == null || newValue == null) {
+      throw new NullPointerException();
+    }
+    int hash = hash(key);
+    return stripeFor(hash).replace(key, hash, oldValue, newValue) != null;
+  }
+
+  @Override
+  public V replace(K key, V value) {
+    if (value == null) {
+      throw new NullPointerException();
+    }
+    int hash = hash(key);
+    return stripeFor(hash).replace(key, hash, null, value);
+  }
+
+  @Override
+  public void clear() {
+    clearWithExecutor(null);
+  }
+
+  @Override
+  public void clearWithExecutor(Executor executor) {
+    ArrayList<HashEntry<?, ?>> entries = null;
+    try {
+      for (Stripe stripe : this.stripes) {
+        entries = stripe.clear(entries);
+      }
+    } finally {
+      if (entries != null) {
+        CustomEntryConcurrentHashMap.releaseClearedEntries(entries, executor,
+            getClass().getSimpleName() + "@" + hashCode() + " Clear Thread");
+      }
+    }
+  }
+
+  @Override
+  public Set<K> keySet() {
+    Set<K> ks = this.keySet;
+    return (ks != null) ? ks : (this.keySet = new KeySet());
+  }
+
+  @Override
+  public Collection<V> values() {
+    Collection<V> vs = this.values;
+    return (vs != null) ? vs : (this.values = new Values());
+  }
+
+  @Override
+  public Set<Map.Entry<K, V>> entrySet() {
+    Set<Map.Entry<K, V>> es = this.entrySet;
+    return (es != null) ? es : (this.entrySet = new EntrySet(false));
+  }
+
+  @Override
+  public Set<Map.Entry<K, V>> entrySetWithReusableEntries() {
+    Set<Map.Entry<K, V>> es = this.reusableEntrySet;
+    return (es != null) ? es : (this.reusableEntrySet = new EntrySet(true));
+  }
+
+  /**
+   * Iterates over the stripes, taking the table of a stripe when it gets to it. Entries added to
+   * the stripe after that may not be returned, but entries that stay in the map are never missed
+   * because tables are replaced rather than rehashed in place.
+   */
+  private abstract class HashIterator {
+
+    private int nextStripeIndex = stripes.length - 1;
+
+    private Object[] currentEntries;
+
+    private int nextSlot;
+
+    private HashEntry<K, V> nextEntry;
+
+    private HashEntry<K, V> lastReturned;
+
+    HashIterator() {
+      advance();
+    }
+
+    @SuppressWarnings("unchecked")
+    private void advance() {
+      while (true) {
+        if (this.currentEntries != null) {
+          while (this.nextSlot < this.currentEntries.length) {
+            Object e = this.currentEntries[this.nextSlot++];
+            if (e != null && e != REMOVED) {
+              this.nextEntry = (HashEntry<K, V>) e;
+              return;
+            }
+          }
+        }
+        if (this.nextStripeIndex < 0) {
+          this.nextEntry = null;
+          return;
+        }
+        Stripe stripe = stripes[this.nextStripeIndex--];
+        this.currentEntries = stripe.count != 0 ? stripe.table.entries : null;
+        this.nextSlot = 0;
+      }
+    }
+
+    public boolean hasNext() {
+      return this.nextEntry != null;
+    }
+
+    HashEntry<K, V> nextHashEntry() {
+      if (this.nextEntry == null) {
+        throw new NoSuchElementException();
+      }
+      this.lastReturned = this.nextEntry;
+      advance();
+      return this.lastReturned;
+    }
+
+    public void remove() {
+      if (this.lastReturned == null) {
+        throw new IllegalStateException();
+      }
+      OpenAddressingConcurrentHashMap.this.remove(this.lastReturned.getKey(),
+          this.lastReturned.getMapValue());
+      this.lastReturned = null;
+    }
+  }
+
+  private class KeyIterator extends HashIterator implements Iterator<K> {
+    @Override
+    public K next() {
+      return nextHashEntry().getKey();
+    }
+  }
+
+  private class ValueIterator extends HashIterator implements Iterator<V> {
+    @Override
+    public V next() {
+      return nextHashEntry().getMapValue();
+    }
+  }
+
+  private class EntryIterator extends HashIterator implements Iterator<Map.Entry<K, V>> {
+
+    private final MapEntry reusableEntry;
+
+    EntryIterator(boolean reuseEntries) {
+      this.reusableEntry = reuseEntries ? new MapEntry() : null;
+    }
+
+    @Override
+    public Map.Entry<K, V> next() {
+      HashEntry<K, V> entry = nextHashEntry();
+      MapEntry mapEntry = this.reusableEntry != null ? this.reusableEntry : new MapEntry();
+      mapEntry.key = entry.getKey();
+      mapEntry.value = entry.getMapValue();
+      return mapEntry;
+    }
+  }
+
+  /**
+   * An entry returned by the entry iterators. Setting its value puts it in the map.
+   */
+  private class MapEntry implements Map.Entry<K, V> {
+
+    private K key;
+
+    private V value;
+
+    @Override
+    public K getKey() {
+      return this.key;
+    }
+
+    @Override
+    public V getValue() {
+      return this.value;
+    }
+
+    @Override
+    public V setValue(V value) {
+      if (value == null) {
+        throw new NullPointerException();
+      }
+      V oldValue = this.value;
+      this.value = value;
+      put(this.key, value);
+      return oldValue;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (!(o instanceof Map.Entry)) {
+        return false;
+      }
+      Map.Entry<?, ?> e = (Map.Entry<?, ?>) o;
+      return this.key.equals(e.getKey()) && this.value.equals(e.getValue());
+    }
+
+    @Override
+    public int hashCode() {
+      return this.key.hashCode() ^ this.value.hashCode();
+    }
+
+    @Override
+    public String toString() {
+      return this.key + "=" + this.value;
+    }
+  }
+
+  private class KeySet extends AbstractSet<K> {
+    @Override
+    public Iterator<K> iterator() {
+      return new KeyIterator();
+    }
+
+    @Override
+    public int size() {
+      return OpenAddressingConcurrentHashMap.this.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+      return OpenAddressingConcurrentHashMap.this.isEmpty();
+    }
+
+    @Override
+    public boolean contains(Object o) {
+      return containsKey(o);
+    }
+
+    @Override
+    public boolean remove(Object o) {
+      return OpenAddressingConcurrentHashMap.this.remove(o) != null;
+    }
+
+    @Override
+    public void clear() {
+      OpenAddressingConcurrentHashMap.this.clear();
+    }
+  }
+
+  private class Values extends AbstractCollection<V> {
+    @Override
+    public Iterator<V> iterator() {
+      return new ValueIterator();
+    }
+
+    @Override
+    public int size() {
+      return OpenAddressingConcurrentHashMap.this.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+      return OpenAddressingConcurrentHashMap.this.isEmpty();
+    }
+
+    @Override
+    public boolean contains(Object o) {
+      return containsValue(o);
+    }
+
+    @Override
+    public void clear() {
+      OpenAddressingConcurrentHashMap.this.clear();
+    }
+  }
+
+  private class EntrySet extends AbstractSet<Map.Entry<K, V>> {
+
+    private final boolean reuseEntries;
+
+    EntrySet(boolean reuseEntries) {
+      this.reuseEntries = reuseEntries;
+    }
+
+    @Override
+    public Iterator<Map.Entry<K, V>> iterator() {
+      return new EntryIterator(this.reuseEntries);
+    }
+
+    @Override
+    public boolean contains(Object o) {
+      if (!(o instanceof Map.Entry)) {
+        return false;
+      }
+      Map.Entry<?, ?> e = (Map.Entry<?, ?>) o;
+      V v = get(e.getKey());
+      return v != null && v.equals(e.getValue());
+    }
+
+    @Override
+    public boolean remove(Object o) {
+      if (!(o instanceof Map.Entry)) {
+        return false;
+      }
+      Map.Entry<?, ?> e = (Map.Entry<?, ?>) o;
+      return OpenAddressingConcurrentHashMap.this.remove(e.getKey(), e.getValue());
+    }
+
+    @Override
+    public int size() {
+      return OpenAddressingConcurrentHashMap.this.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+      return OpenAddressingConcurrentHashMap.this.isEmpty();
+    }
+
+    @Override
+    public void clear() {
+      OpenAddressingConcurrentHashMap.this.clear();
+    }
+  }
+}
@@ -33,9 +33,11 @@ import org.apache.geode.cache.Cache;
 import org.apache.geode.cache.CacheFactory;
 import org.apache.geode.cache.Region;
 import org.apache.geode.cache.RegionShortcut;
+import org.apache.geode.distributed.internal.DistributionConfig;
 import org.apache.geode.distributed.internal.InternalDistributedSystem;
 import org.apache.geode.internal.cache.GemFireCacheImpl;
 import org.apache.geode.internal.memcached.ConnectionHandler;
+import org.apache.geode.internal.memcached.SelectorLoop;
 import org.apache.geode.internal.net.SocketCreator;
 
 /**
@@ -47,6 +49,11 @@ import org.apache.geode.internal.net.SocketCreator;
  * <p>
  * "gemcached" region is {@link RegionShortcut#PARTITION} by default, though a cache.xml can be
  * provided to override region attributes.
+ * <p>
+ * By default each client connection is served by its own thread. If the
+ * {@link #NUM_SELECTOR_THREADS_SYS_PROP_NAME} system property is set to a positive number, client
+ * connections are instead spread over that many selector threads, each serving many connections
+ * with non-blocking I/O. This scales to many more clients and lets clients pipeline commands.
  *
  * This class has a Main method that can be used to start the server.
  *
@@ -85,6 +92,28 @@ public class GemFireMemcachedServer {
 
   private final int DEFAULT_PORT = 11212;
 
+  /**
+   * System property name that can be used to set the number of selector threads serving client
+   * connections. Each client connection gets its own thread if this is not set or not positive.
+   */
+  public static final String NUM_SELECTOR_THREADS_SYS_PROP_NAME =
+      DistributionConfig.GEMFIRE_PREFIX + "memcached.numSelectorThreads";
+
+  /**
+   * the number of selector threads, 0 to create one thread for each client
+   */
+  private final int numSelectorThreads;
+
+  /**
+   * the event loops serving client connections when {@link #numSelectorThreads} is positive
+   */
+  private SelectorLoop[] selectorLoops;
+
+  /**
+   * index of the selector loop to hand the next client connection to, only used by the acceptor
+   */
+  private int nextSelectorLoop;
+
   /**
    * the thread executor pool to handle requests from clients. We create one thread for each client.
    */
@@ -128,6 +157,7 @@ public class GemFireMemcachedServer {
       this.serverPort = port;
     }
     this.protocol = Protocol.ASCII;
+    this.numSelectorThreads = Integer.getInteger(NUM_SELECTOR_THREADS_SYS_PROP_NAME, 0);
   }
 
   /**
@@ -140,6 +170,22 @@ public class GemFireMemcachedServer {
    * @see Protocol
    */
   public GemFireMemcachedServer(String bindAddress, int port, Protocol protocol) {
+    this(bindAddress, port, protocol, Integer.getInteger(NUM_SELECTOR_THREADS_SYS_PROP_NAME, 0));
+  }
+
+  /**
+   * Create an instance of the server. to start the server {@link #start()} must be called.
+   *
+   * @param bindAddress the address on which the server listens for new memcached client
+   *        connections.
+   * @param port the port on which the server listens for new memcached client connections.
+   * @param protocol the protocol that this server should understand
+   * @param numSelectorThreads the number of selector threads serving client connections, or 0 to
+   *        serve each client connection with its own thread
+   * @see Protocol
+   */
+  public GemFireMemcachedServer(String bindAddress, int port, Protocol protocol,
+      int numSelectorThreads) {
     this.bindAddress = bindAddress;
     if (port <= 0) {
       this.serverPort = DEFAULT_PORT;
@@ -147,6 +193,7 @@ public class GemFireMemcachedServer {
       this.serverPort = port;
     }
     this.protocol = protocol;
+    this.numSelectorThreads = Math.max(numSelectorThreads, 0);
   }
 
   /**
@@ -181,6 +228,9 @@ public class GemFireMemcachedServer {
     if (logger.fineEnabled()) {
       logger.fine("GemFireMemcachedServer configured socket buffer size:" + getSocketBufferSize());
     }
+    if (this.numSelectorThreads > 0) {
+      startSelectorLoops();
+    }
     final CountDownLatch latch = new CountDownLatch(1);
     acceptor = new Thread(new Runnable() {
       public void run() {
@@ -222,7 +272,26 @@ public class GemFireMemcachedServer {
     return system.getConfig().getSocketBufferSize();
   }
 
+  private void startSelectorLoops() throws IOException {
+    this.selectorLoops = new SelectorLoop[this.numSelectorThreads];
+    for (int i = 0; i < this.selectorLoops.length; i++) {
+      this.selectorLoops[i] = new SelectorLoop(cache, protocol, getSocketBufferSize());
+      Thread t = new Thread(this.selectorLoops[i], "Gemcached-Selector-" + (i + 1));
+      t.setDaemon(true);
+      t.start();
+    }
+    if (logger.fineEnabled()) {
+      logger.fine(
+          "GemFireMemcachedServer started " + this.numSelectorThreads + " selector threads");
+    }
+  }
+
   private void handleNewClient(Socket s) {
+    if (this.selectorLoops != null) {
+      this.selectorLoops[nextSelectorLoop].register(s.getChannel());
+      nextSelectorLoop = (nextSelectorLoop + 1) % this.selectorLoops.length;
+      return;
+    }
     ConnectionHandler connHandler = new ConnectionHandler(s, cache, protocol);
     executor.execute(connHandler);
   }
@@ -235,6 +304,11 @@ public class GemFireMemcachedServer {
       this.acceptor.interrupt();
     }
     this.executor.shutdownNow();
+    if (this.selectorLoops != null) {
+      for (SelectorLoop selectorLoop : this.selectorLoops) {
+        selectorLoop.shutdown();
+      }
+    }
     this.cache.close();
   }
 
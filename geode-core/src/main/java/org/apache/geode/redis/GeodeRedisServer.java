@@ -70,6 +70,9 @@ import org.apache.geode.redis.internal.ByteToCommandDecoder;
 import org.apache.geode.redis.internal.Coder;
 import org.apache.geode.redis.internal.ExecutionHandlerContext;
 import org.apache.geode.redis.internal.RedisDataType;
+import org.apache.geode.redis.internal.RedisHash;
+import org.apache.geode.redis.internal.RedisList;
+import org.apache.geode.redis.internal.RedisSortedSet;
 import org.apache.geode.redis.internal.RegionProvider;
 
 /**
@@ -78,16 +81,16 @@ import org.apache.geode.redis.internal.RegionProvider;
  * sent back to the client. The default connection port is 6379 but that can be altered when run
  * through GFSH or started through the provided static main class.
  * <p>
- * Each Redis data type instance is stored in a separate {@link Region} except for the Strings and
- * HyperLogLogs which are collectively stored in one Region respectively. That Region along with a
- * meta data region used internally are protected so the client may not store keys with the name
- * {@link GeodeRedisServer#REDIS_META_DATA_REGION} or {@link GeodeRedisServer#STRING_REGION}. The
- * default Region type is {@link RegionShortcut#PARTITION} although this can be changed by
- * specifying the SystemProperty {@value #DEFAULT_REGION_SYS_PROP_NAME} to a type defined by
- * {@link RegionShortcut}. If the {@link GeodeRedisServer#NUM_THREADS_SYS_PROP_NAME} system property
- * is set to 0, one thread per client will be created. Otherwise a worker thread pool of specified
- * size is used or a default size of 4 * {@link Runtime#availableProcessors()} if the property is
- * not set.
+ * Each Redis Set is stored in a separate {@link Region} while the Strings, HyperLogLogs,
+ * SortedSets, Lists and Hashes are collectively stored in one Region respectively. Those Regions
+ * along with a meta data region used internally are protected so the client may not store keys with
+ * the name {@link GeodeRedisServer#REDIS_META_DATA_REGION} or
+ * {@link GeodeRedisServer#STRING_REGION}. The default Region type is
+ * {@link RegionShortcut#PARTITION} although this can be changed by specifying the SystemProperty
+ * {@value #DEFAULT_REGION_SYS_PROP_NAME} to a type defined by {@link RegionShortcut}. If the
+ * {@link GeodeRedisServer#NUM_THREADS_SYS_PROP_NAME} system property is set to 0, one thread per
+ * client will be created. Otherwise a worker thread pool of specified size is used or a default
+ * size of 4 * {@link Runtime#availableProcessors()} if the property is not set.
  * <p>
  * Setting the AUTH password requires setting the property "redis-password" just as "redis-port"
  * would be in xml or through GFSH.
@@ -230,6 +233,24 @@ public class GeodeRedisServer {
    */
   public static final String HLL_REGION = "ReDiS_HlL";
 
+  /**
+   * The field that defines the name of the {@link Region} which holds all of the SortedSets. The
+   * current value of this field is {@code SORTED_SET_REGION}.
+   */
+  public static final String SORTED_SET_REGION = "ReDiS_SoRtEdSeTs";
+
+  /**
+   * The field that defines the name of the {@link Region} which holds all of the Lists. The current
+   * value of this field is {@code LIST_REGION}.
+   */
+  public static final String LIST_REGION = "ReDiS_LiStS";
+
+  /**
+   * The field that defines the name of the {@link Region} which holds all of the Hashes. The
+   * current value of this field is {@code HASH_REGION}.
+   */
+  public static final String HASH_REGION = "ReDiS_HaShEs";
+
   /**
    * The field that defines the name of the {@link Region} which holds all of the Redis meta data.
    * The current value of this field is {@code REDIS_META_DATA_REGION}.
@@ -412,6 +433,9 @@ public class GeodeRedisServer {
       Region<ByteArrayWrapper, ByteArrayWrapper> stringsRegion;
 
       Region<ByteArrayWrapper, HyperLogLogPlus> hLLRegion;
+      Region<ByteArrayWrapper, RedisSortedSet> sortedSetRegion;
+      Region<ByteArrayWrapper, RedisList> listRegion;
+      Region<ByteArrayWrapper, RedisHash> hashRegion;
       Region<String, RedisDataType> redisMetaData;
       InternalCache gemFireCache = (InternalCache) cache;
       try {
@@ -425,6 +449,21 @@ public class GeodeRedisServer {
               gemFireCache.createRegionFactory(this.DEFAULT_REGION_TYPE);
           hLLRegion = regionFactory.create(HLL_REGION);
         }
+        if ((sortedSetRegion = cache.getRegion(SORTED_SET_REGION)) == null) {
+          RegionFactory<ByteArrayWrapper, RedisSortedSet> regionFactory =
+              gemFireCache.createRegionFactory(this.DEFAULT_REGION_TYPE);
+          sortedSetRegion = regionFactory.create(SORTED_SET_REGION);
+        }
+        if ((listRegion = cache.getRegion(LIST_REGION)) == null) {
+          RegionFactory<ByteArrayWrapper, RedisList> regionFactory =
+              gemFireCache.createRegionFactory(this.DEFAULT_REGION_TYPE);
+          listRegion = regionFactory.create(LIST_REGION);
+        }
+        if ((hashRegion = cache.getRegion(HASH_REGION)) == null) {
+          RegionFactory<ByteArrayWrapper, RedisHash> regionFactory =
+              gemFireCache.createRegionFactory(this.DEFAULT_REGION_TYPE);
+          hashRegion = regionFactory.create(HASH_REGION);
+        }
         if ((redisMetaData = cache.getRegion(REDIS_META_DATA_REGION)) == null) {
           AttributesFactory af = new AttributesFactory();
           af.addCacheListener(metaListener);
@@ -440,10 +479,14 @@ public class GeodeRedisServer {
         assErr.initCause(e);
         throw assErr;
       }
-      this.regionCache = new RegionProvider(stringsRegion, hLLRegion, redisMetaData,
-          expirationFutures, expirationExecutor, this.DEFAULT_REGION_TYPE);
+      this.regionCache = new RegionProvider(stringsRegion, hLLRegion, sortedSetRegion, listRegion,
+          hashRegion, redisMetaData, expirationFutures, expirationExecutor,
+          this.DEFAULT_REGION_TYPE);
       redisMetaData.put(REDIS_META_DATA_REGION, RedisDataType.REDIS_PROTECTED);
       redisMetaData.put(HLL_REGION, RedisDataType.REDIS_PROTECTED);
+      redisMetaData.put(SORTED_SET_REGION, RedisDataType.REDIS_PROTECTED);
+      redisMetaData.put(LIST_REGION, RedisDataType.REDIS_PROTECTED);
+      redisMetaData.put(HASH_REGION, RedisDataType.REDIS_PROTECTED);
       redisMetaData.put(STRING_REGION, RedisDataType.REDIS_PROTECTED);
     }
     checkForRegions();
@@ -455,8 +498,7 @@ public class GeodeRedisServer {
       String regionName = entry.getKey();
       RedisDataType type = entry.getValue();
       Region<?, ?> newRegion = cache.getRegion(regionName);
-      if (newRegion == null && type != RedisDataType.REDIS_STRING && type != RedisDataType.REDIS_HLL
-          && type != RedisDataType.REDIS_PROTECTED) {
+      if (newRegion == null && type == RedisDataType.REDIS_SET) {
         try {
           this.regionCache
               .createRemoteRegionReferenceLocally(Coder.stringToByteArrayWrapper(regionName), type);
@@ -545,8 +587,8 @@ public class GeodeRedisServer {
 
   /**
    * Takes an entry event and processes it. If the entry denotes that a
-   * {@link RedisDataType#REDIS_LIST} or {@link RedisDataType#REDIS_SORTEDSET} was created then this
-   * function will call the necessary calls to create the parameterized queries for those keys.
+   * {@link RedisDataType#REDIS_SET} was created remotely then this function will add a local
+   * reference to the Region holding that key.
    *
    * @param event EntryEvent from meta data region
    */
@@ -554,8 +596,7 @@ public class GeodeRedisServer {
     if (event.isOriginRemote()) {
       final String key = (String) event.getKey();
       final RedisDataType value = event.getNewValue();
-      if (value != RedisDataType.REDIS_STRING && value != RedisDataType.REDIS_HLL
-          && value != RedisDataType.REDIS_PROTECTED) {
+      if (value == RedisDataType.REDIS_SET) {
         try {
           this.regionCache.createRemoteRegionReferenceLocally(Coder.stringToByteArrayWrapper(key),
               value);
@@ -566,15 +607,14 @@ public class GeodeRedisServer {
   }
 
   /**
-   * When a key is removed then this function will make sure the associated queries with the key are
-   * also removed from each vm to avoid unnecessary data retention
+   * When a key is removed then this function will make sure the local reference to the Region
+   * holding the key is also removed from each vm to avoid unnecessary data retention
    */
   private void afterKeyDestroy(EntryEvent<String, RedisDataType> event) {
     if (event.isOriginRemote()) {
       final String key = (String) event.getKey();
       final RedisDataType value = event.getOldValue();
-      if (value != null && value != RedisDataType.REDIS_STRING && value != RedisDataType.REDIS_HLL
-          && value != RedisDataType.REDIS_PROTECTED) {
+      if (value == RedisDataType.REDIS_SET) {
         ByteArrayWrapper kW = Coder.stringToByteArrayWrapper(key);
         Region<?, ?> r = this.regionCache.getRegion(kW);
         if (r != null) {
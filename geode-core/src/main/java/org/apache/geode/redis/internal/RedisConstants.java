@@ -17,7 +17,7 @@ package org.apache.geode.redis.internal;
 
 public class RedisConstants {
 
-  public static final int NUM_DEFAULT_KEYS = 3;
+  public static final int NUM_DEFAULT_KEYS = 6;
 
   /*
    * Responses
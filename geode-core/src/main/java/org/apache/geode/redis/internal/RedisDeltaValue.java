@@ -0,0 +1,181 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.redis.internal;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.IOException;
+
+import org.apache.geode.DataSerializable;
+import org.apache.geode.DataSerializer;
+import org.apache.geode.Delta;
+import org.apache.geode.InvalidDeltaException;
+import org.apache.geode.SerializationException;
+import org.apache.geode.internal.HeapDataOutputStream;
+import org.apache.geode.internal.Version;
+
+/**
+ * Base class of the Redis values that are stored as a single entry. Commands modify a copy of the
+ * stored value, see {@link #copyTo}, and put it back. Every mutation is recorded by the subclass
+ * through {@link #recordDelta(byte)} so that only the changes made since the value was last
+ * distributed are sent when the entry is put back into its {@link org.apache.geode.cache.Region}.
+ * <p>
+ * Each value carries a version that is incremented by every mutation. A delta is tagged with the
+ * version it was recorded against and is only applied to a value of that exact version, otherwise
+ * {@link InvalidDeltaException} is thrown and Geode falls back to sending the full value. This
+ * makes it safe to drop recorded changes at any time with {@link #resetDelta()}, which the
+ * executors do after every put because Geode does not extract the delta when no other member
+ * needs it.
+ * <p>
+ * All access is synchronized on the instance because the stored instance may be read by
+ * concurrently executing commands on the member hosting the entry.
+ */
+public abstract class RedisDeltaValue implements DataSerializable, Delta {
+
+  private static final long serialVersionUID = 1803565376208826451L;
+
+  private long version;
+
+  private transient long deltaBaseVersion;
+
+  private transient int deltaCount;
+
+  private transient HeapDataOutputStream deltas;
+
+  /**
+   * Records a mutation of this value. Must be called while synchronized on this instance, before
+   * the mutation is applied
+   *
+   * @param operation Subclass specific operation code
+   * @return The output to write the arguments of the operation to
+   */
+  protected HeapDataOutputStream recordDelta(byte operation) {
+    if (this.deltas == null) {
+      this.deltas = new HeapDataOutputStream(Version.CURRENT);
+    }
+    this.version++;
+    this.deltaCount++;
+    this.deltas.writeByte(operation);
+    return this.deltas;
+  }
+
+  /**
+   * Applies an operation previously written by {@link #recordDelta(byte)} on another member
+   *
+   * @param operation Subclass specific operation code
+   * @param in The arguments of the operation
+   */
+  protected abstract void applyDelta(byte operation, DataInput in) throws IOException;
+
+  protected abstract void writeContents(DataOutput out) throws IOException;
+
+  protected abstract void readContents(DataInput in) throws IOException;
+
+  /**
+   * Discards any recorded changes. Changes dropped without having been sent only cause the next
+   * update of other members to use the full value
+   */
+  public synchronized void resetDelta() {
+    this.deltas = null;
+    this.deltaCount = 0;
+    this.deltaBaseVersion = this.version;
+  }
+
+  public synchronized long getVersion() {
+    return this.version;
+  }
+
+  @Override
+  public synchronized boolean hasDelta() {
+    return this.deltaCount > 0;
+  }
+
+  @Override
+  public synchronized void toDelta(DataOutput out) throws IOException {
+    DataSerializer.writePrimitiveLong(this.deltaBaseVersion, out);
+    DataSerializer.writePrimitiveInt(this.deltaCount, out);
+    if (this.deltas != null) {
+      this.deltas.sendTo(out);
+    }
+    resetDelta();
+  }
+
+  @Override
+  public synchronized void fromDelta(DataInput in) throws IOException, InvalidDeltaException {
+    long baseVersion = DataSerializer.readPrimitiveLong(in);
+    if (baseVersion != this.version) {
+      throw new InvalidDeltaException("Delta for version " + baseVersion
+          + " cannot be applied to version " + this.version + " of " + this);
+    }
+    int count = DataSerializer.readPrimitiveInt(in);
+    for (int i = 0; i < count; i++) {
+      applyDelta(in.readByte(), in);
+    }
+    this.version += count;
+    resetDelta();
+  }
+
+  /**
+   * Copies the contents and version of this value into an empty value of the same class. Commands
+   * modify a copy and put it back, so that the stored instance, which concurrent readers may hold,
+   * is left untouched if the put fails
+   *
+   * @param copy A value created with the empty constructor
+   * @return The given value
+   */
+  protected synchronized <T extends RedisDeltaValue> T copyTo(T copy) {
+    HeapDataOutputStream out = new HeapDataOutputStream(Version.CURRENT);
+    try {
+      toData(out);
+      copy.fromData(new DataInputStream(new ByteArrayInputStream(out.toByteArray())));
+    } catch (IOException | ClassNotFoundException e) {
+      throw new SerializationException(
+          "An exception was thrown while copying a " + getClass().getSimpleName(), e);
+    }
+    return copy;
+  }
+
+  /**
+   * Writes a byte array argument of an operation passed to {@link #recordDelta(byte)}
+   */
+  protected static void writeDeltaBytes(HeapDataOutputStream out, byte[] value) {
+    out.writeInt(value.length);
+    out.write(value, 0, value.length);
+  }
+
+  /**
+   * Reads a byte array argument written by {@link #writeDeltaBytes}
+   */
+  protected static byte[] readDeltaBytes(DataInput in) throws IOException {
+    byte[] value = new byte[in.readInt()];
+    in.readFully(value);
+    return value;
+  }
+
+  @Override
+  public synchronized void toData(DataOutput out) throws IOException {
+    DataSerializer.writePrimitiveLong(this.version, out);
+    writeContents(out);
+  }
+
+  @Override
+  public synchronized void fromData(DataInput in) throws IOException, ClassNotFoundException {
+    this.version = DataSerializer.readPrimitiveLong(in);
+    readContents(in);
+    resetDelta();
+  }
+}
@@ -0,0 +1,294 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.redis.internal;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map.Entry;
+
+import org.apache.geode.DataSerializer;
+import org.apache.geode.internal.HeapDataOutputStream;
+import org.apache.geode.redis.GeodeRedisServer;
+
+/**
+ * This class is the value stored in the {@link GeodeRedisServer#HASH_REGION} for every
+ * {@link RedisDataType#REDIS_HASH} key. Fields and values are kept as raw byte arrays in two
+ * parallel open addressing tables using linear probing, so a hash costs a single entry and two
+ * arrays instead of a {@link org.apache.geode.cache.Region} with one entry per field.
+ */
+public class RedisHash extends RedisDeltaValue {
+
+  private static final long serialVersionUID = -4339702391826423093L;
+
+  private static final int INITIAL_CAPACITY = 8;
+
+  private static final byte PUT = 0;
+  private static final byte REMOVE = 1;
+
+  /**
+   * Table of fields whose length is always a power of 2, null slots are free
+   */
+  private transient byte[][] fields = new byte[INITIAL_CAPACITY][];
+
+  private transient byte[][] values = new byte[INITIAL_CAPACITY][];
+
+  private transient int size;
+
+  /**
+   * Empty constructor for serialization
+   */
+  public RedisHash() {}
+
+  /**
+   * Returns a copy of this hash that a command can modify and store back
+   */
+  public RedisHash copy() {
+    return copyTo(new RedisHash());
+  }
+
+  /**
+   * Sets the value of a field
+   *
+   * @return True if the field is new, false if an existing value was replaced
+   */
+  public synchronized boolean put(byte[] field, byte[] value) {
+    HeapDataOutputStream out = recordDelta(PUT);
+    writeDeltaBytes(out, field);
+    writeDeltaBytes(out, value);
+    return doPut(field, value);
+  }
+
+  /**
+   * Sets the value of a field only if the field does not exist yet
+   *
+   * @return True if the field was set
+   */
+  public synchronized boolean putIfAbsent(byte[] field, byte[] value) {
+    if (indexOf(field) >= 0) {
+      return false;
+    }
+    return put(field, value);
+  }
+
+  /**
+   * @return The value of the field or null if the field does not exist
+   */
+  public synchronized byte[] get(byte[] field) {
+    int index = indexOf(field);
+    return index < 0 ? null : this.values[index];
+  }
+
+  public synchronized boolean containsField(byte[] field) {
+    return indexOf(field) >= 0;
+  }
+
+  /**
+   * @return True if the field existed
+   */
+  public synchronized boolean remove(byte[] field) {
+    int index = indexOf(field);
+    if (index < 0) {
+      return false;
+    }
+    writeDeltaBytes(recordDelta(REMOVE), field);
+    removeAt(index);
+    return true;
+  }
+
+  public synchronized int size() {
+    return this.size;
+  }
+
+  public synchronized boolean isEmpty() {
+    return this.size == 0;
+  }
+
+  /**
+   * @return A copy of the fields in table order
+   */
+  public synchronized List<ByteArrayWrapper> fields() {
+    List<ByteArrayWrapper> result = new ArrayList<>(this.size);
+    for (byte[] field : this.fields) {
+      if (field != null) {
+        result.add(new ByteArrayWrapper(field));
+      }
+    }
+    return result;
+  }
+
+  /**
+   * @return A copy of the values in table order
+   */
+  public synchronized List<ByteArrayWrapper> values() {
+    List<ByteArrayWrapper> result = new ArrayList<>(this.size);
+    for (int i = 0; i < this.fields.length; i++) {
+      if (this.fields[i] != null) {
+        result.add(new ByteArrayWrapper(this.values[i]));
+      }
+    }
+    return result;
+  }
+
+  /**
+   * @return A copy of the field value pairs in table order
+   */
+  public synchronized List<Entry<ByteArrayWrapper, ByteArrayWrapper>> entries() {
+    List<Entry<ByteArrayWrapper, ByteArrayWrapper>> result = new ArrayList<>(this.size);
+    for (int i = 0; i < this.fields.length; i++) {
+      if (this.fields[i] != null) {
+        result.add(new AbstractMap.SimpleImmutableEntry<>(new ByteArrayWrapper(this.fields[i]),
+            new ByteArrayWrapper(this.values[i])));
+      }
+    }
+    return result;
+  }
+
+  @Override
+  protected void applyDelta(byte operation, DataInput in) throws IOException {
+    switch (operation) {
+      case PUT:
+        byte[] field = readDeltaBytes(in);
+        doPut(field, readDeltaBytes(in));
+        break;
+      case REMOVE:
+        int index = indexOf(readDeltaBytes(in));
+        if (index >= 0) {
+          removeAt(index);
+        }
+        break;
+      default:
+        throw new IOException("Unknown hash operation " + operation);
+    }
+  }
+
+  @Override
+  protected void writeContents(DataOutput out) throws IOException {
+    DataSerializer.writePrimitiveInt(this.size, out);
+    for (int i = 0; i < this.fields.length; i++) {
+      if (this.fields[i] != null) {
+        DataSerializer.writeByteArray(this.fields[i], out);
+        DataSerializer.writeByteArray(this.values[i], out);
+      }
+    }
+  }
+
+  @Override
+  protected void readContents(DataInput in) throws IOException {
+    int newSize = DataSerializer.readPrimitiveInt(in);
+    int capacity = INITIAL_CAPACITY;
+    while (isOverloaded(newSize, capacity)) {
+      capacity <<= 1;
+    }
+    this.fields = new byte[capacity][];
+    this.values = new byte[capacity][];
+    this.size = 0;
+    for (int i = 0; i < newSize; i++) {
+      byte[] field = DataSerializer.readByteArray(in);
+      doPut(field, DataSerializer.readByteArray(in));
+    }
+  }
+
+  @Override
+  public String toString() {
+    return getClass().getSimpleName() + "[size=" + size() + "]";
+  }
+
+  private boolean doPut(byte[] field, byte[] value) {
+    int index = indexOf(field);
+    if (index >= 0) {
+      this.values[index] = value;
+      return false;
+    }
+    if (isOverloaded(this.size + 1, this.fields.length)) {
+      resize(this.fields.length << 1);
+    }
+    insert(field, value);
+    this.size++;
+    return true;
+  }
+
+  /**
+   * @return The slot holding the field or -1 if it does not exist
+   */
+  private int indexOf(byte[] field) {
+    int mask = this.fields.length - 1;
+    for (int i = hash(field) & mask; this.fields[i] != null; i = (i + 1) & mask) {
+      if (Arrays.equals(this.fields[i], field)) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  private void insert(byte[] field, byte[] value) {
+    int mask = this.fields.length - 1;
+    int i = hash(field) & mask;
+    while (this.fields[i] != null) {
+      i = (i + 1) & mask;
+    }
+    this.fields[i] = field;
+    this.values[i] = value;
+  }
+
+  /**
+   * Removes the slot and shifts back any following entries of the probe run that would otherwise
+   * become unreachable, so no tombstones are needed
+   */
+  private void removeAt(int index) {
+    int mask = this.fields.length - 1;
+    int free = index;
+    for (int i = (index + 1) & mask; this.fields[i] != null; i = (i + 1) & mask) {
+      int home = hash(this.fields[i]) & mask;
+      // Move the entry back if its home slot is not cyclically within (free, i]
+      if (((i - home) & mask) >= ((i - free) & mask)) {
+        this.fields[free] = this.fields[i];
+        this.values[free] = this.values[i];
+        free = i;
+      }
+    }
+    this.fields[free] = null;
+    this.values[free] = null;
+    this.size--;
+    if (this.fields.length > INITIAL_CAPACITY && this.size < this.fields.length >>> 3) {
+      resize(this.fields.length >>> 1);
+    }
+  }
+
+  private void resize(int capacity) {
+    byte[][] oldFields = this.fields;
+    byte[][] oldValues = this.values;
+    this.fields = new byte[capacity][];
+    this.values = new byte[capacity][];
+    for (int i = 0; i < oldFields.length; i++) {
+      if (oldFields[i] != null) {
+        insert(oldFields[i], oldValues[i]);
+      }
+    }
+  }
+
+  private static boolean isOverloaded(int size, int capacity) {
+    return size * 4 > capacity * 3;
+  }
+
+  private static int hash(byte[] field) {
+    int h = Arrays.hashCode(field);
+    return h ^ (h >>> 16);
+  }
+}
@@ -0,0 +1,371 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.redis.internal;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.geode.DataSerializer;
+import org.apache.geode.internal.HeapDataOutputStream;
+import org.apache.geode.redis.GeodeRedisServer;
+
+/**
+ * This class is the value stored in the {@link GeodeRedisServer#LIST_REGION} for every
+ * {@link RedisDataType#REDIS_LIST} key. The elements are kept as raw byte arrays in a growable
+ * circular array, so pushes and pops on both ends as well as access by index are constant time,
+ * and the whole list costs a single entry instead of a {@link org.apache.geode.cache.Region} with
+ * one entry per element.
+ * <p>
+ * All indexes taken by this class are 0 based and counted from the head. Converting negative
+ * Redis indexes is left to the executors.
+ */
+public class RedisList extends RedisDeltaValue {
+
+  private static final long serialVersionUID = 6216385386370962442L;
+
+  private static final int INITIAL_CAPACITY = 8;
+
+  private static final byte PUSH_LEFT = 0;
+  private static final byte PUSH_RIGHT = 1;
+  private static final byte POP_LEFT = 2;
+  private static final byte POP_RIGHT = 3;
+  private static final byte SET = 4;
+  private static final byte REMOVE = 5;
+  private static final byte TRIM = 6;
+
+  /**
+   * Circular array whose length is always a power of 2
+   */
+  private transient byte[][] elements = new byte[INITIAL_CAPACITY][];
+
+  private transient int head;
+
+  private transient int size;
+
+  /**
+   * Empty constructor for serialization
+   */
+  public RedisList() {}
+
+  /**
+   * Returns a copy of this list that a command can modify and store back
+   */
+  public RedisList copy() {
+    return copyTo(new RedisList());
+  }
+
+  /**
+   * Pushes the values onto the head of the list one after the other, so the last value ends up
+   * first
+   *
+   * @return The size of the list after the push
+   */
+  public synchronized int pushLeft(List<byte[]> values) {
+    writeValues(recordDelta(PUSH_LEFT), values);
+    for (byte[] value : values) {
+      doPushLeft(value);
+    }
+    return this.size;
+  }
+
+  /**
+   * Pushes the values onto the tail of the list one after the other
+   *
+   * @return The size of the list after the push
+   */
+  public synchronized int pushRight(List<byte[]> values) {
+    writeValues(recordDelta(PUSH_RIGHT), values);
+    for (byte[] value : values) {
+      doPushRight(value);
+    }
+    return this.size;
+  }
+
+  /**
+   * @return The removed head of the list or null if the list is empty
+   */
+  public synchronized byte[] popLeft() {
+    if (this.size == 0) {
+      return null;
+    }
+    recordDelta(POP_LEFT);
+    return doPopLeft();
+  }
+
+  /**
+   * @return The removed tail of the list or null if the list is empty
+   */
+  public synchronized byte[] popRight() {
+    if (this.size == 0) {
+      return null;
+    }
+    recordDelta(POP_RIGHT);
+    return doPopRight();
+  }
+
+  /**
+   * @return The element at the index or null if the index is out of range
+   */
+  public synchronized byte[] get(int index) {
+    if (index < 0 || index >= this.size) {
+      return null;
+    }
+    return this.elements[slot(index)];
+  }
+
+  /**
+   * Replaces the element at the index
+   *
+   * @return True if the element was replaced, false if the index is out of range
+   */
+  public synchronized boolean set(int index, byte[] value) {
+    if (index < 0 || index >= this.size) {
+      return false;
+    }
+    HeapDataOutputStream out = recordDelta(SET);
+    out.writeInt(index);
+    writeDeltaBytes(out, value);
+    this.elements[slot(index)] = value;
+    return true;
+  }
+
+  /**
+   * Removes elements equal to the value following the semantics of LREM. If count is positive the
+   * first count matches from the head are removed, if it is negative the first -count matches from
+   * the tail are removed and if it is 0 all matches are removed
+   *
+   * @return The number of elements removed
+   */
+  public synchronized int remove(byte[] value, int count) {
+    HeapDataOutputStream out = recordDelta(REMOVE);
+    writeDeltaBytes(out, value);
+    out.writeInt(count);
+    return doRemove(value, count);
+  }
+
+  /**
+   * Keeps only the elements from start to stop inclusive, which must already be bounded to the
+   * list. Clears the list if start is greater than stop
+   */
+  public synchronized void trim(int start, int stop) {
+    HeapDataOutputStream out = recordDelta(TRIM);
+    out.writeInt(start);
+    out.writeInt(stop);
+    doTrim(start, stop);
+  }
+
+  /**
+   * @return The elements from start to stop inclusive, both bounded to the list
+   */
+  public synchronized List<ByteArrayWrapper> range(int start, int stop) {
+    start = Math.max(start, 0);
+    stop = Math.min(stop, this.size - 1);
+    List<ByteArrayWrapper> range = new ArrayList<>(Math.max(stop - start + 1, 0));
+    for (int i = start; i <= stop; i++) {
+      range.add(new ByteArrayWrapper(this.elements[slot(i)]));
+    }
+    return range;
+  }
+
+  public synchronized int size() {
+    return this.size;
+  }
+
+  public synchronized boolean isEmpty() {
+    return this.size == 0;
+  }
+
+  @Override
+  protected void applyDelta(byte operation, DataInput in) throws IOException {
+    switch (operation) {
+      case PUSH_LEFT:
+        for (byte[] value : readValues(in)) {
+          doPushLeft(value);
+        }
+        break;
+      case PUSH_RIGHT:
+        for (byte[] value : readValues(in)) {
+          doPushRight(value);
+        }
+        break;
+      case POP_LEFT:
+        doPopLeft();
+        break;
+      case POP_RIGHT:
+        doPopRight();
+        break;
+      case SET:
+        int index = in.readInt();
+        this.elements[slot(index)] = readDeltaBytes(in);
+        break;
+      case REMOVE:
+        byte[] value = readDeltaBytes(in);
+        doRemove(value, in.readInt());
+        break;
+      case TRIM:
+        int start = in.readInt();
+        doTrim(start, in.readInt());
+        break;
+      default:
+        throw new IOException("Unknown list operation " + operation);
+    }
+  }
+
+  @Override
+  protected void writeContents(DataOutput out) throws IOException {
+    DataSerializer.writePrimitiveInt(this.size, out);
+    for (int i = 0; i < this.size; i++) {
+      DataSerializer.writeByteArray(this.elements[slot(i)], out);
+    }
+  }
+
+  @Override
+  protected void readContents(DataInput in) throws IOException {
+    int newSize = DataSerializer.readPrimitiveInt(in);
+    this.elements = new byte[capacityFor(newSize)][];
+    this.head = 0;
+    this.size = newSize;
+    for (int i = 0; i < newSize; i++) {
+      this.elements[i] = DataSerializer.readByteArray(in);
+    }
+  }
+
+  @Override
+  public String toString() {
+    return getClass().getSimpleName() + "[size=" + size() + "]";
+  }
+
+  private int slot(int index) {
+    return (this.head + index) & (this.elements.length - 1);
+  }
+
+  private void doPushLeft(byte[] value) {
+    ensureCapacity(this.size + 1);
+    this.head = (this.head - 1) & (this.elements.length - 1);
+    this.elements[this.head] = value;
+    this.size++;
+  }
+
+  private void doPushRight(byte[] value) {
+    ensureCapacity(this.size + 1);
+    this.elements[slot(this.size)] = value;
+    this.size++;
+  }
+
+  private byte[] doPopLeft() {
+    byte[] value = this.elements[this.head];
+    this.elements[this.head] = null;
+    this.head = slot(1);
+    this.size--;
+    shrinkIfSparse();
+    return value;
+  }
+
+  private byte[] doPopRight() {
+    int tail = slot(this.size - 1);
+    byte[] value = this.elements[tail];
+    this.elements[tail] = null;
+    this.size--;
+    shrinkIfSparse();
+    return value;
+  }
+
+  private int doRemove(byte[] value, int count) {
+    boolean fromTail = count < 0;
+    int toRemove = count == 0 ? Integer.MAX_VALUE : Math.abs(count);
+    boolean[] removed = new boolean[this.size];
+    int numRemoved = 0;
+    for (int n = 0; n < this.size && numRemoved < toRemove; n++) {
+      int i = fromTail ? this.size - 1 - n : n;
+      if (Arrays.equals(this.elements[slot(i)], value)) {
+        removed[i] = true;
+        numRemoved++;
+      }
+    }
+    if (numRemoved > 0) {
+      byte[][] kept = new byte[capacityFor(this.size - numRemoved)][];
+      int k = 0;
+      for (int i = 0; i < this.size; i++) {
+        if (!removed[i]) {
+          kept[k++] = this.elements[slot(i)];
+        }
+      }
+      this.elements = kept;
+      this.head = 0;
+      this.size = k;
+    }
+    return numRemoved;
+  }
+
+  private void doTrim(int start, int stop) {
+    int newSize = start > stop ? 0 : stop - start + 1;
+    byte[][] kept = new byte[capacityFor(newSize)][];
+    for (int i = 0; i < newSize; i++) {
+      kept[i] = this.elements[slot(start + i)];
+    }
+    this.elements = kept;
+    this.head = 0;
+    this.size = newSize;
+  }
+
+  private void ensureCapacity(int minCapacity) {
+    if (minCapacity > this.elements.length) {
+      resize(this.elements.length << 1);
+    }
+  }
+
+  private void shrinkIfSparse() {
+    if (this.elements.length > INITIAL_CAPACITY && this.size < this.elements.length >>> 2) {
+      resize(this.elements.length >>> 1);
+    }
+  }
+
+  private void resize(int capacity) {
+    byte[][] resized = new byte[capacity][];
+    for (int i = 0; i < this.size; i++) {
+      resized[i] = this.elements[slot(i)];
+    }
+    this.elements = resized;
+    this.head = 0;
+  }
+
+  private static int capacityFor(int size) {
+    int capacity = INITIAL_CAPACITY;
+    while (capacity < size) {
+      capacity <<= 1;
+    }
+    return capacity;
+  }
+
+  private static void writeValues(HeapDataOutputStream out, List<byte[]> values) {
+    out.writeInt(values.size());
+    for (byte[] value : values) {
+      writeDeltaBytes(out, value);
+    }
+  }
+
+  private static List<byte[]> readValues(DataInput in) throws IOException {
+    int count = in.readInt();
+    List<byte[]> values = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      values.add(readDeltaBytes(in));
+    }
+    return values;
+  }
+}
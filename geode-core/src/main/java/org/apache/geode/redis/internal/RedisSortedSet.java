@@ -0,0 +1,478 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.redis.internal;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Predicate;
+
+import org.apache.geode.DataSerializer;
+import org.apache.geode.internal.HeapDataOutputStream;
+import org.apache.geode.redis.GeodeRedisServer;
+
+/**
+ * This class is the value stored in the {@link GeodeRedisServer#SORTED_SET_REGION} for every
+ * {@link RedisDataType#REDIS_SORTEDSET} key. Members are kept in an indexable skip list
+ * ordered by score and then by member bytes, with every forward link carrying the number of nodes
+ * it skips, so that rank lookups and range operations by score, rank or lex are O(log n) plus the
+ * size of the range. A {@link HashMap} from member to score gives constant time score lookups.
+ * <p>
+ * The lex operations follow the Redis semantics of only being meaningful when all members share
+ * the same score.
+ * <p>
+ * Every added or removed member is recorded as a delta, so storing a modified sorted set only
+ * distributes the changes instead of the whole set.
+ */
+public class RedisSortedSet extends RedisDeltaValue {
+
+  private static final long serialVersionUID = -3524427906127454713L;
+
+  private static final int MAX_LEVEL = 32;
+
+  private static final float LEVEL_PROBABILITY = 0.25f;
+
+  private static final byte ADD = 0;
+  private static final byte REMOVE = 1;
+
+  private final Map<ByteArrayWrapper, Double> scores = new HashMap<>();
+
+  private transient Node head = new Node(MAX_LEVEL, null, 0D);
+
+  private transient int level = 1;
+
+  /**
+   * Empty constructor for serialization
+   */
+  public RedisSortedSet() {}
+
+  /**
+   * Returns a copy of this sorted set that a command can modify and store back
+   */
+  public RedisSortedSet copy() {
+    return copyTo(new RedisSortedSet());
+  }
+
+  /**
+   * Adds a member or updates the score of an existing member
+   *
+   * @param member The member to add
+   * @param score The score of the member
+   * @return True if the member was added, false if it already existed
+   */
+  public synchronized boolean add(ByteArrayWrapper member, double score) {
+    Double oldScore = this.scores.get(member);
+    if (oldScore != null && oldScore == score) {
+      return false;
+    }
+    HeapDataOutputStream out = recordDelta(ADD);
+    writeDeltaBytes(out, member.toBytes());
+    out.writeDouble(score);
+    doAdd(member, score);
+    return oldScore == null;
+  }
+
+  /**
+   * Removes a member
+   *
+   * @param member The member to remove
+   * @return True if the member existed, false otherwise
+   */
+  public synchronized boolean remove(ByteArrayWrapper member) {
+    if (!this.scores.containsKey(member)) {
+      return false;
+    }
+    writeDeltaBytes(recordDelta(REMOVE), member.toBytes());
+    doRemove(member);
+    return true;
+  }
+
+  /**
+   * @param member The member to look up
+   * @return The score of the member or null if it does not exist
+   */
+  public synchronized Double getScore(ByteArrayWrapper member) {
+    return this.scores.get(member);
+  }
+
+  public synchronized int size() {
+    return this.scores.size();
+  }
+
+  public synchronized boolean isEmpty() {
+    return this.scores.isEmpty();
+  }
+
+  /**
+   * @param member The member to look up
+   * @param reverse True if the rank is in descending score order
+   * @return The 0 based rank of the member or -1 if the member does not exist
+   */
+  public synchronized int rank(ByteArrayWrapper member, boolean reverse) {
+    Double score = this.scores.get(member);
+    if (score == null) {
+      return -1;
+    }
+    int rank = 0;
+    Node x = this.head;
+    for (int i = this.level - 1; i >= 0; i--) {
+      while (x.forward[i] != null && x.forward[i].compareTo(member, score) <= 0) {
+        rank += x.span[i];
+        x = x.forward[i];
+      }
+    }
+    return reverse ? size() - rank : rank - 1;
+  }
+
+  /**
+   * Gets the members between two ranks, both inclusive. The ranks must already be bounded to the
+   * size of this set.
+   *
+   * @param start The 0 based starting rank
+   * @param stop The 0 based stopping rank
+   * @param reverse True if ranks are in descending score order
+   * @return The members with their scores in rank order
+   */
+  public synchronized List<Entry<ByteArrayWrapper, DoubleWrapper>> rangeByRank(int start,
+      int stop, boolean reverse) {
+    if (reverse) {
+      return collect(size() - 1 - stop, size() - start, 0, -1, true);
+    }
+    return collect(start, stop + 1, 0, -1, false);
+  }
+
+  public synchronized int removeRangeByRank(int start, int stop) {
+    return removeAll(collect(start, stop + 1, 0, -1, false));
+  }
+
+  public synchronized int countByScore(double min, boolean minInclusive, double max,
+      boolean maxInclusive) {
+    return Math.max(0, prefixLength(notAboveScore(max, maxInclusive))
+        - prefixLength(belowScore(min, minInclusive)));
+  }
+
+  /**
+   * Gets the members with scores in a range
+   *
+   * @param offset Number of matching members to skip
+   * @param limit Maximum number of members to return, negative for no limit
+   * @param reverse True if the members should be returned in descending score order
+   * @return The members with their scores
+   */
+  public synchronized List<Entry<ByteArrayWrapper, DoubleWrapper>> rangeByScore(double min,
+      boolean minInclusive, double max, boolean maxInclusive, int offset, int limit,
+      boolean reverse) {
+    return collect(prefixLength(belowScore(min, minInclusive)),
+        prefixLength(notAboveScore(max, maxInclusive)), offset, limit, reverse);
+  }
+
+  public synchronized int removeRangeByScore(double min, boolean minInclusive, double max,
+      boolean maxInclusive) {
+    return removeAll(rangeByScore(min, minInclusive, max, maxInclusive, 0, -1, false));
+  }
+
+  /**
+   * Counts the members in a lex range. A null min or max is treated as unbounded
+   */
+  public synchronized int countByLex(ByteArrayWrapper min, boolean minInclusive,
+      ByteArrayWrapper max, boolean maxInclusive) {
+    return Math.max(0, prefixLength(notAboveMember(max, maxInclusive))
+        - prefixLength(belowMember(min, minInclusive)));
+  }
+
+  /**
+   * Gets the members in a lex range. A null min or max is treated as unbounded
+   *
+   * @param offset Number of matching members to skip
+   * @param limit Maximum number of members to return, negative for no limit
+   * @return The members in ascending order
+   */
+  public synchronized List<ByteArrayWrapper> rangeByLex(ByteArrayWrapper min,
+      boolean minInclusive, ByteArrayWrapper max, boolean maxInclusive, int offset, int limit) {
+    List<Entry<ByteArrayWrapper, DoubleWrapper>> entries =
+        collect(prefixLength(belowMember(min, minInclusive)),
+            prefixLength(notAboveMember(max, maxInclusive)), offset, limit, false);
+    List<ByteArrayWrapper> members = new ArrayList<>(entries.size());
+    for (Entry<ByteArrayWrapper, DoubleWrapper> entry : entries) {
+      members.add(entry.getKey());
+    }
+    return members;
+  }
+
+  public synchronized int removeRangeByLex(ByteArrayWrapper min, boolean minInclusive,
+      ByteArrayWrapper max, boolean maxInclusive) {
+    return removeAll(collect(prefixLength(belowMember(min, minInclusive)),
+        prefixLength(notAboveMember(max, maxInclusive)), 0, -1, false));
+  }
+
+  /**
+   * @return All of the members with their scores in ascending order
+   */
+  public synchronized List<Entry<ByteArrayWrapper, DoubleWrapper>> entries() {
+    return collect(0, size(), 0, -1, false);
+  }
+
+  @Override
+  protected void applyDelta(byte operation, DataInput in) throws IOException {
+    switch (operation) {
+      case ADD:
+        ByteArrayWrapper member = new ByteArrayWrapper(readDeltaBytes(in));
+        doAdd(member, in.readDouble());
+        break;
+      case REMOVE:
+        doRemove(new ByteArrayWrapper(readDeltaBytes(in)));
+        break;
+      default:
+        throw new IOException("Unknown sorted set operation " + operation);
+    }
+  }
+
+  @Override
+  protected void writeContents(DataOutput out) throws IOException {
+    DataSerializer.writePrimitiveInt(this.scores.size(), out);
+    for (Node x = this.head.forward[0]; x != null; x = x.forward[0]) {
+      DataSerializer.writeByteArray(x.member.toBytes(), out);
+      DataSerializer.writePrimitiveDouble(x.score, out);
+    }
+  }
+
+  @Override
+  protected void readContents(DataInput in) throws IOException {
+    this.scores.clear();
+    this.head = new Node(MAX_LEVEL, null, 0D);
+    this.level = 1;
+    int size = DataSerializer.readPrimitiveInt(in);
+    for (int i = 0; i < size; i++) {
+      ByteArrayWrapper member = new ByteArrayWrapper(DataSerializer.readByteArray(in));
+      double score = DataSerializer.readPrimitiveDouble(in);
+      this.scores.put(member, score);
+      insert(member, score);
+    }
+  }
+
+  @Override
+  public String toString() {
+    return getClass().getSimpleName() + "[size=" + size() + "]";
+  }
+
+  private void doAdd(ByteArrayWrapper member, double score) {
+    Double oldScore = this.scores.put(member, score);
+    if (oldScore != null) {
+      delete(member, oldScore);
+    }
+    insert(member, score);
+  }
+
+  private void doRemove(ByteArrayWrapper member) {
+    Double score = this.scores.remove(member);
+    if (score != null) {
+      delete(member, score);
+    }
+  }
+
+  /**
+   * Collects the nodes with 0 based ranks in [from, to), applying offset and limit in the
+   * direction of iteration
+   */
+  private List<Entry<ByteArrayWrapper, DoubleWrapper>> collect(int from, int to, int offset,
+      int limit, boolean reverse) {
+    int count = to - from - offset;
+    if (limit >= 0) {
+      count = Math.min(count, limit);
+    }
+    if (count <= 0) {
+      return new ArrayList<>(0);
+    }
+    List<Entry<ByteArrayWrapper, DoubleWrapper>> entries = new ArrayList<>(count);
+    Node x = reverse ? getByRank(to - offset) : getByRank(from + offset + 1);
+    while (x != null && entries.size() < count) {
+      entries.add(new AbstractMap.SimpleImmutableEntry<>(x.member, new DoubleWrapper(x.score)));
+      x = reverse ? x.backward : x.forward[0];
+    }
+    return entries;
+  }
+
+  private int removeAll(List<Entry<ByteArrayWrapper, DoubleWrapper>> entries) {
+    for (Entry<ByteArrayWrapper, DoubleWrapper> entry : entries) {
+      remove(entry.getKey());
+    }
+    return entries.size();
+  }
+
+  /**
+   * Counts the leading nodes for which the predicate holds. The predicate must hold for a prefix of
+   * the list and not for the remainder.
+   */
+  private int prefixLength(Predicate<Node> predicate) {
+    int rank = 0;
+    Node x = this.head;
+    for (int i = this.level - 1; i >= 0; i--) {
+      while (x.forward[i] != null && predicate.test(x.forward[i])) {
+        rank += x.span[i];
+        x = x.forward[i];
+      }
+    }
+    return rank;
+  }
+
+  private static Predicate<Node> belowScore(double min, boolean minInclusive) {
+    return minInclusive ? node -> node.score < min : node -> node.score <= min;
+  }
+
+  private static Predicate<Node> notAboveScore(double max, boolean maxInclusive) {
+    return maxInclusive ? node -> node.score <= max : node -> node.score < max;
+  }
+
+  private static Predicate<Node> belowMember(ByteArrayWrapper min, boolean minInclusive) {
+    if (min == null) {
+      return node -> false;
+    }
+    return minInclusive ? node -> node.member.compareTo(min) < 0
+        : node -> node.member.compareTo(min) <= 0;
+  }
+
+  private static Predicate<Node> notAboveMember(ByteArrayWrapper max, boolean maxInclusive) {
+    if (max == null) {
+      return node -> true;
+    }
+    return maxInclusive ? node -> node.member.compareTo(max) <= 0
+        : node -> node.member.compareTo(max) < 0;
+  }
+
+  /**
+   * @param rank 1 based rank
+   */
+  private Node getByRank(int rank) {
+    int traversed = 0;
+    Node x = this.head;
+    for (int i = this.level - 1; i >= 0; i--) {
+      while (x.forward[i] != null && traversed + x.span[i] <= rank) {
+        traversed += x.span[i];
+        x = x.forward[i];
+      }
+      if (traversed == rank) {
+        return x == this.head ? null : x;
+      }
+    }
+    return null;
+  }
+
+  private void insert(ByteArrayWrapper member, double score) {
+    Node[] update = new Node[MAX_LEVEL];
+    int[] rank = new int[MAX_LEVEL];
+    Node x = this.head;
+    for (int i = this.level - 1; i >= 0; i--) {
+      rank[i] = i == this.level - 1 ? 0 : rank[i + 1];
+      while (x.forward[i] != null && x.forward[i].compareTo(member, score) < 0) {
+        rank[i] += x.span[i];
+        x = x.forward[i];
+      }
+      update[i] = x;
+    }
+    int length = this.scores.size() - 1;
+    int newLevel = randomLevel();
+    if (newLevel > this.level) {
+      for (int i = this.level; i < newLevel; i++) {
+        rank[i] = 0;
+        update[i] = this.head;
+        update[i].span[i] = length;
+      }
+      this.level = newLevel;
+    }
+    x = new Node(newLevel, member, score);
+    for (int i = 0; i < newLevel; i++) {
+      x.forward[i] = update[i].forward[i];
+      update[i].forward[i] = x;
+      x.span[i] = update[i].span[i] - (rank[0] - rank[i]);
+      update[i].span[i] = (rank[0] - rank[i]) + 1;
+    }
+    for (int i = newLevel; i < this.level; i++) {
+      update[i].span[i]++;
+    }
+    x.backward = update[0] == this.head ? null : update[0];
+    if (x.forward[0] != null) {
+      x.forward[0].backward = x;
+    }
+  }
+
+  private void delete(ByteArrayWrapper member, double score) {
+    Node[] update = new Node[MAX_LEVEL];
+    Node x = this.head;
+    for (int i = this.level - 1; i >= 0; i--) {
+      while (x.forward[i] != null && x.forward[i].compareTo(member, score) < 0) {
+        x = x.forward[i];
+      }
+      update[i] = x;
+    }
+    x = x.forward[0];
+    if (x == null || x.compareTo(member, score) != 0) {
+      return;
+    }
+    for (int i = 0; i < this.level; i++) {
+      if (update[i].forward[i] == x) {
+        update[i].span[i] += x.span[i] - 1;
+        update[i].forward[i] = x.forward[i];
+      } else {
+        update[i].span[i]--;
+      }
+    }
+    if (x.forward[0] != null) {
+      x.forward[0].backward = x.backward;
+    }
+    while (this.level > 1 && this.head.forward[this.level - 1] == null) {
+      this.level--;
+    }
+  }
+
+  private static int randomLevel() {
+    int newLevel = 1;
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    while (newLevel < MAX_LEVEL && random.nextFloat() < LEVEL_PROBABILITY) {
+      newLevel++;
+    }
+    return newLevel;
+  }
+
+  private static class Node {
+    private final ByteArrayWrapper member;
+    private final double score;
+    private final Node[] forward;
+    private final int[] span;
+    private Node backward;
+
+    private Node(int level, ByteArrayWrapper member, double score) {
+      this.member = member;
+      this.score = score;
+      this.forward = new Node[level];
+      this.span = new int[level];
+    }
+
+    private int compareTo(ByteArrayWrapper otherMember, double otherScore) {
+      if (this.score < otherScore) {
+        return -1;
+      } else if (this.score > otherScore) {
+        return 1;
+      }
+      return this.member.compareTo(otherMember);
+    }
+  }
+}
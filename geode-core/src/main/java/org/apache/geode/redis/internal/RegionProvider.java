@@ -15,7 +15,6 @@
 package org.apache.geode.redis.internal;
 
 import java.io.Closeable;
-import java.util.HashMap;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
@@ -32,13 +31,8 @@ import org.apache.geode.cache.CacheTransactionManager;
 import org.apache.geode.cache.Region;
 import org.apache.geode.cache.RegionShortcut;
 import org.apache.geode.cache.TransactionId;
-import org.apache.geode.cache.query.IndexExistsException;
-import org.apache.geode.cache.query.IndexInvalidException;
-import org.apache.geode.cache.query.IndexNameConflictException;
-import org.apache.geode.cache.query.Query;
-import org.apache.geode.cache.query.QueryInvalidException;
-import org.apache.geode.cache.query.QueryService;
-import org.apache.geode.cache.query.RegionNotFoundException;
+import org.apache.geode.distributed.DistributedLockService;
+import org.apache.geode.distributed.internal.DistributionAdvisee;
 import org.apache.geode.internal.cache.GemFireCacheImpl;
 import org.apache.geode.internal.hll.HyperLogLogPlus;
 import org.apache.geode.management.cli.Result;
@@ -46,8 +40,6 @@ import org.apache.geode.management.cli.Result.Status;
 import org.apache.geode.management.internal.cli.commands.CreateRegionCommand;
 import org.apache.geode.redis.GeodeRedisServer;
 import org.apache.geode.redis.internal.executor.ExpirationExecutor;
-import org.apache.geode.redis.internal.executor.ListQuery;
-import org.apache.geode.redis.internal.executor.SortedSetQuery;
 
 /**
  * This class stands between {@link Executor} and {@link Cache#getRegion(String)}. This is needed
@@ -77,10 +69,40 @@ public class RegionProvider implements Closeable {
    */
   private final Region<ByteArrayWrapper, HyperLogLogPlus> hLLRegion;
 
+  /**
+   * This is the {@link RedisDataType#REDIS_SORTEDSET} {@link Region}. This is the Region that
+   * stores all SortedSet contents
+   */
+  private final Region<ByteArrayWrapper, RedisSortedSet> sortedSetRegion;
+
+  /**
+   * This is the {@link RedisDataType#REDIS_LIST} {@link Region}. This is the Region that stores all
+   * List contents
+   */
+  private final Region<ByteArrayWrapper, RedisList> listRegion;
+
+  /**
+   * This is the {@link RedisDataType#REDIS_HASH} {@link Region}. This is the Region that stores all
+   * Hash contents
+   */
+  private final Region<ByteArrayWrapper, RedisHash> hashRegion;
+
+  /**
+   * Name of the {@link DistributedLockService} holding the locks of the keys whose value is read,
+   * modified and stored back by commands, see {@link #lockKey(ByteArrayWrapper)}
+   */
+  private static final String KEY_LOCK_SERVICE_NAME = "__GeodeRedisServerKeys";
+
+  private final DistributedLockService keyLockService;
+
+  /**
+   * Number of local locks the keys locked by {@link #lockKey(ByteArrayWrapper)} are spread over
+   */
+  private static final int KEY_LOCK_STRIPES = 256;
+
+  private final KeyLock[] keyLocks;
+
   private final Cache cache;
-  private final QueryService queryService;
-  private final ConcurrentMap<ByteArrayWrapper, Map<Enum<?>, Query>> preparedQueries =
-      new ConcurrentHashMap<>();
   private final ConcurrentMap<ByteArrayWrapper, ScheduledFuture<?>> expirationsMap;
   private final ScheduledExecutorService expirationExecutor;
   private final RegionShortcut defaultRegionType;
@@ -89,17 +111,28 @@ public class RegionProvider implements Closeable {
 
   public RegionProvider(Region<ByteArrayWrapper, ByteArrayWrapper> stringsRegion,
       Region<ByteArrayWrapper, HyperLogLogPlus> hLLRegion,
+      Region<ByteArrayWrapper, RedisSortedSet> sortedSetRegion,
+      Region<ByteArrayWrapper, RedisList> listRegion,
+      Region<ByteArrayWrapper, RedisHash> hashRegion,
       Region<String, RedisDataType> redisMetaRegion,
       ConcurrentMap<ByteArrayWrapper, ScheduledFuture<?>> expirationsMap,
       ScheduledExecutorService expirationExecutor, RegionShortcut defaultShortcut) {
-    if (stringsRegion == null || hLLRegion == null || redisMetaRegion == null)
+    if (stringsRegion == null || hLLRegion == null || sortedSetRegion == null || listRegion == null
+        || hashRegion == null || redisMetaRegion == null)
       throw new NullPointerException();
     this.regions = new ConcurrentHashMap<>();
     this.stringsRegion = stringsRegion;
     this.hLLRegion = hLLRegion;
+    this.sortedSetRegion = sortedSetRegion;
+    this.listRegion = listRegion;
+    this.hashRegion = hashRegion;
     this.redisMetaRegion = redisMetaRegion;
     this.cache = GemFireCacheImpl.getInstance();
-    this.queryService = cache.getQueryService();
+    this.keyLockService = getOrCreateKeyLockService(this.cache);
+    this.keyLocks = new KeyLock[KEY_LOCK_STRIPES];
+    for (int i = 0; i < KEY_LOCK_STRIPES; i++) {
+      this.keyLocks[i] = new KeyLock();
+    }
     this.expirationsMap = expirationsMap;
     this.expirationExecutor = expirationExecutor;
     this.defaultRegionType = defaultShortcut;
@@ -170,11 +203,24 @@ public class RegionProvider implements Closeable {
   }
 
   public boolean removeKey(ByteArrayWrapper key, RedisDataType type, boolean cancelExpiration) {
+    if (type == RedisDataType.REDIS_SORTEDSET || type == RedisDataType.REDIS_LIST
+        || type == RedisDataType.REDIS_HASH) {
+      lockKey(key);
+      try {
+        return removeKey0(key, type, cancelExpiration);
+      } finally {
+        unlockKey(key);
+      }
+    }
+    return removeKey0(key, type, cancelExpiration);
+  }
+
+  private boolean removeKey0(ByteArrayWrapper key, RedisDataType type, boolean cancelExpiration) {
     if (type == null || type == RedisDataType.REDIS_PROTECTED)
       return false;
     Lock lock = this.locks.get(key.toString());
     try {
-      if (lock != null) {// Strings/hlls will not have locks
+      if (lock != null) {// Only sets have locks
         lock.lock();
       }
       metaRemoveEntry(key);
@@ -183,6 +229,12 @@ public class RegionProvider implements Closeable {
           return this.stringsRegion.remove(key) != null;
         } else if (type == RedisDataType.REDIS_HLL) {
           return this.hLLRegion.remove(key) != null;
+        } else if (type == RedisDataType.REDIS_SORTEDSET) {
+          return this.sortedSetRegion.remove(key) != null;
+        } else if (type == RedisDataType.REDIS_LIST) {
+          return this.listRegion.remove(key) != null;
+        } else if (type == RedisDataType.REDIS_HASH) {
+          return this.hashRegion.remove(key) != null;
         } else {
           return destroyRegion(key, type);
         }
@@ -203,13 +255,86 @@ public class RegionProvider implements Closeable {
     }
   }
 
+  /**
+   * Locks a {@link RedisDataType#REDIS_SORTEDSET}, {@link RedisDataType#REDIS_LIST} or
+   * {@link RedisDataType#REDIS_HASH} key. A command holding the lock can read the value of the key,
+   * modify it and store it back without losing the changes of commands running concurrently on
+   * this or any other member. The key is locked locally, and also on all members through the
+   * {@link DistributedLockService} while other members host the regions of these types, so a
+   * member that has the regions to itself does not pay for a lock grantor round trip. The lock is
+   * reentrant and must be released with {@link #unlockKey(ByteArrayWrapper)}
+   */
+  public void lockKey(ByteArrayWrapper key) {
+    String name = key.toString();
+    KeyLock keyLock = getKeyLock(name);
+    keyLock.lock();
+    boolean locked = false;
+    try {
+      int hold = keyLock.getHoldCount();
+      // a nested hold must take the distributed lock again if an outer one took it, so that it is
+      // only released by the outermost hold
+      if (hasRemoteMembers() || (hold > 1 && this.keyLockService.isHeldByCurrentThread(name))) {
+        this.keyLockService.lock(name, -1, -1);
+        keyLock.distributedHolds |= 1L << (hold - 1);
+      }
+      locked = true;
+    } finally {
+      if (!locked) {
+        keyLock.unlock();
+      }
+    }
+  }
+
+  public void unlockKey(ByteArrayWrapper key) {
+    String name = key.toString();
+    KeyLock keyLock = getKeyLock(name);
+    long hold = 1L << (keyLock.getHoldCount() - 1);
+    try {
+      if ((keyLock.distributedHolds & hold) != 0) {
+        keyLock.distributedHolds &= ~hold;
+        this.keyLockService.unlock(name);
+        // only frees the lock token if no outer hold still has it
+        this.keyLockService.freeResources(name);
+      }
+    } finally {
+      keyLock.unlock();
+    }
+  }
+
+  private KeyLock getKeyLock(String name) {
+    return this.keyLocks[(name.hashCode() & Integer.MAX_VALUE) % this.keyLocks.length];
+  }
+
+  /**
+   * Returns true if another member hosts the regions holding the values locked by
+   * {@link #lockKey(ByteArrayWrapper)}. They are all created with the same shortcut on the same
+   * members, so checking one of them is enough
+   */
+  private boolean hasRemoteMembers() {
+    return this.sortedSetRegion instanceof DistributionAdvisee
+        && ((DistributionAdvisee) this.sortedSetRegion).getDistributionAdvisor()
+            .getNumProfiles() > 0;
+  }
+
+  private static DistributedLockService getOrCreateKeyLockService(Cache cache) {
+    synchronized (RegionProvider.class) {
+      DistributedLockService service =
+          DistributedLockService.getServiceNamed(KEY_LOCK_SERVICE_NAME);
+      if (service == null) {
+        service =
+            DistributedLockService.create(KEY_LOCK_SERVICE_NAME, cache.getDistributedSystem());
+      }
+      return service;
+    }
+  }
+
   public Region<?, ?> getOrCreateRegion(ByteArrayWrapper key, RedisDataType type,
       ExecutionHandlerContext context) {
     return getOrCreateRegion0(key, type, context, true);
   }
 
   public void createRemoteRegionReferenceLocally(ByteArrayWrapper key, RedisDataType type) {
-    if (type == null || type == RedisDataType.REDIS_STRING || type == RedisDataType.REDIS_HLL)
+    if (type != RedisDataType.REDIS_SET)
       return;
     Region<?, ?> r = this.regions.get(key);
     if (r != null)
@@ -234,15 +359,6 @@ public class RegionProvider implements Closeable {
           if (r == null)
             return;
 
-          if (type == RedisDataType.REDIS_LIST) {
-            doInitializeList(key, r);
-          } else if (type == RedisDataType.REDIS_SORTEDSET) {
-            try {
-              doInitializeSortedSet(key, r);
-            } catch (RegionNotFoundException | IndexInvalidException e) {
-              // ignore
-            }
-          }
           this.regions.put(key, r);
         }
       } finally {
@@ -282,26 +398,7 @@ public class RegionProvider implements Closeable {
               txm = cache.getCacheTransactionManager();
               transactionId = txm.suspend();
             }
-            Exception concurrentCreateDestroyException = null;
-            do {
-              concurrentCreateDestroyException = null;
-              r = createRegionGlobally(stringKey);
-              try {
-                if (type == RedisDataType.REDIS_LIST) {
-                  doInitializeList(key, r);
-                } else if (type == RedisDataType.REDIS_SORTEDSET) {
-                  try {
-                    doInitializeSortedSet(key, r);
-                  } catch (RegionNotFoundException | IndexInvalidException e) {
-                    concurrentCreateDestroyException = e;
-                  }
-                }
-              } catch (QueryInvalidException e) {
-                if (e.getCause() instanceof RegionNotFoundException) {
-                  concurrentCreateDestroyException = e;
-                }
-              }
-            } while (concurrentCreateDestroyException != null);
+            r = createRegionGlobally(stringKey);
             this.regions.put(key, r);
             if (addToMeta) {
               RedisDataType existingType = metaPutIfAbsent(key, type);
@@ -349,42 +446,9 @@ public class RegionProvider implements Closeable {
    * @param type Type of key to remove all state
    */
   private void removeRegionState(ByteArrayWrapper key, RedisDataType type) {
-    this.preparedQueries.remove(key);
     this.regions.remove(key);
   }
 
-  private void doInitializeSortedSet(ByteArrayWrapper key, Region<?, ?> r)
-      throws RegionNotFoundException, IndexInvalidException {
-    String fullpath = r.getFullPath();
-    try {
-      queryService.createIndex("scoreIndex", "entry.value.score",
-          r.getFullPath() + ".entrySet entry");
-      queryService.createIndex("scoreIndex2", "value.score", r.getFullPath() + ".values value");
-    } catch (IndexNameConflictException | IndexExistsException | UnsupportedOperationException e) {
-      // ignore, these indexes already exist or unsupported but make sure prepared queries are made
-    }
-    HashMap<Enum<?>, Query> queryList = new HashMap<>();
-    for (SortedSetQuery lq : SortedSetQuery.values()) {
-      String queryString = lq.getQueryString(fullpath);
-      Query query = this.queryService.newQuery(queryString);
-      queryList.put(lq, query);
-    }
-    this.preparedQueries.put(key, queryList);
-  }
-
-  private void doInitializeList(ByteArrayWrapper key, Region r) {
-    r.put("head", 0);
-    r.put("tail", 0);
-    String fullpath = r.getFullPath();
-    HashMap<Enum<?>, Query> queryList = new HashMap<>();
-    for (ListQuery lq : ListQuery.values()) {
-      String queryString = lq.getQueryString(fullpath);
-      Query query = this.queryService.newQuery(queryString);
-      queryList.put(lq, query);
-    }
-    this.preparedQueries.put(key, queryList);
-  }
-
   /**
    * This method creates a Region globally with the given name. If there is an error in the
    * creation, a runtime exception will be thrown.
@@ -416,10 +480,6 @@ public class RegionProvider implements Closeable {
     return r;
   }
 
-  public Query getQuery(ByteArrayWrapper key, Enum<?> query) {
-    return this.preparedQueries.get(key).get(query);
-  }
-
   /**
    * Checks if the given key is associated with the passed data type. If there is a mismatch, a
    * {@link RuntimeException} is thrown
@@ -450,6 +510,18 @@ public class RegionProvider implements Closeable {
     return this.hLLRegion;
   }
 
+  public Region<ByteArrayWrapper, RedisSortedSet> getSortedSetRegion() {
+    return this.sortedSetRegion;
+  }
+
+  public Region<ByteArrayWrapper, RedisList> getListRegion() {
+    return this.listRegion;
+  }
+
+  public Region<ByteArrayWrapper, RedisHash> getHashRegion() {
+    return this.hashRegion;
+  }
+
   private RedisDataType getRedisDataType(String key) {
     return this.redisMetaRegion.get(key);
   }
@@ -544,7 +616,12 @@ public class RegionProvider implements Closeable {
 
   @Override
   public void close() {
-    this.preparedQueries.clear();
+    this.regions.clear();
+    synchronized (RegionProvider.class) {
+      if (DistributedLockService.getServiceNamed(KEY_LOCK_SERVICE_NAME) == this.keyLockService) {
+        DistributedLockService.destroy(KEY_LOCK_SERVICE_NAME);
+      }
+    }
   }
 
   public String dumpRegionsCache() {
@@ -554,4 +631,17 @@ public class RegionProvider implements Closeable {
     }
     return builder.toString();
   }
+
+  /**
+   * Local lock of the keys spread over it, see {@link #lockKey(ByteArrayWrapper)}
+   */
+  private static class KeyLock extends ReentrantLock {
+    private static final long serialVersionUID = 2894216283710442591L;
+
+    /**
+     * Bit n is set if the (n + 1)th nested hold of the owner took the distributed lock of its key.
+     * Only accessed by the owner
+     */
+    private long distributedHolds;
+  }
 }
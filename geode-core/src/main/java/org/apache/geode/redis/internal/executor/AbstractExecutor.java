@@ -15,7 +15,6 @@
 package org.apache.geode.redis.internal.executor;
 
 import org.apache.geode.cache.Region;
-import org.apache.geode.cache.query.Query;
 import org.apache.geode.redis.GeodeRedisServer;
 import org.apache.geode.redis.internal.ByteArrayWrapper;
 import org.apache.geode.redis.internal.ExecutionHandlerContext;
@@ -34,7 +33,7 @@ public abstract class AbstractExecutor implements Executor {
   /**
    * Number of Regions used by GeodeRedisServer internally
    */
-  public static final int NUM_DEFAULT_REGIONS = 3;
+  public static final int NUM_DEFAULT_REGIONS = 6;
 
   /**
    * Max length of a list
@@ -88,10 +87,6 @@ public abstract class AbstractExecutor implements Executor {
           "The key name \"" + key + "\" is already used by a " + currentType.toString());
   }
 
-  protected Query getQuery(ByteArrayWrapper key, Enum<?> type, ExecutionHandlerContext context) {
-    return context.getRegionProvider().getQuery(key, type);
-  }
-
   protected boolean removeEntry(ByteArrayWrapper key, RedisDataType type,
       ExecutionHandlerContext context) {
     if (type == null || type == RedisDataType.REDIS_PROTECTED)
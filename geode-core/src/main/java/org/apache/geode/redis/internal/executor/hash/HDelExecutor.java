@@ -16,13 +16,12 @@ package org.apache.geode.redis.internal.executor.hash;
 
 import java.util.List;
 
-import org.apache.geode.cache.Region;
 import org.apache.geode.redis.internal.ByteArrayWrapper;
 import org.apache.geode.redis.internal.Coder;
 import org.apache.geode.redis.internal.Command;
 import org.apache.geode.redis.internal.ExecutionHandlerContext;
 import org.apache.geode.redis.internal.RedisConstants.ArityDef;
-import org.apache.geode.redis.internal.RedisDataType;
+import org.apache.geode.redis.internal.RedisHash;
 
 public class HDelExecutor extends HashExecutor {
 
@@ -41,25 +40,26 @@ public class HDelExecutor extends HashExecutor {
 
     ByteArrayWrapper key = command.getKey();
 
-    checkDataType(key, RedisDataType.REDIS_HASH, context);
-    Region<ByteArrayWrapper, ByteArrayWrapper> keyRegion = getRegion(context, key);
+    context.getRegionProvider().lockKey(key);
+    try {
+      RedisHash hash = getHashForUpdate(context, key);
 
-    if (keyRegion == null) {
-      command.setResponse(Coder.getIntegerResponse(context.getByteBufAllocator(), numDeleted));
-      return;
-    }
+      if (hash == null) {
+        command.setResponse(Coder.getIntegerResponse(context.getByteBufAllocator(), numDeleted));
+        return;
+      }
 
 
-    for (int i = START_FIELDS_INDEX; i < commandElems.size(); i++) {
-      ByteArrayWrapper field = new ByteArrayWrapper(commandElems.get(i));
-      Object oldValue = keyRegion.remove(field);
-      if (oldValue != null)
-        numDeleted++;
-    }
-    if (keyRegion.isEmpty()) {
-      context.getRegionProvider().removeKey(key, RedisDataType.REDIS_HASH);
+      for (int i = START_FIELDS_INDEX; i < commandElems.size(); i++) {
+        if (hash.remove(commandElems.get(i)))
+          numDeleted++;
+      }
+      if (numDeleted > 0)
+        storeHash(context, key, hash);
+      command.setResponse(Coder.getIntegerResponse(context.getByteBufAllocator(), numDeleted));
+    } finally {
+      context.getRegionProvider().unlockKey(key);
     }
-    command.setResponse(Coder.getIntegerResponse(context.getByteBufAllocator(), numDeleted));
   }
 
 }
@@ -16,13 +16,12 @@ package org.apache.geode.redis.internal.executor.hash;
 
 import java.util.List;
 
-import org.apache.geode.cache.Region;
 import org.apache.geode.redis.internal.ByteArrayWrapper;
 import org.apache.geode.redis.internal.Coder;
 import org.apache.geode.redis.internal.Command;
 import org.apache.geode.redis.internal.ExecutionHandlerContext;
 import org.apache.geode.redis.internal.RedisConstants.ArityDef;
-import org.apache.geode.redis.internal.RedisDataType;
+import org.apache.geode.redis.internal.RedisHash;
 
 public class HGetExecutor extends HashExecutor {
 
@@ -37,22 +36,19 @@ public class HGetExecutor extends HashExecutor {
 
     ByteArrayWrapper key = command.getKey();
 
-    checkDataType(key, RedisDataType.REDIS_HASH, context);
-    Region<ByteArrayWrapper, ByteArrayWrapper> keyRegion = getRegion(context, key);
+    RedisHash hash = getHash(context, key);
 
-    if (keyRegion == null) {
+    if (hash == null) {
       command.setResponse(Coder.getNilResponse(context.getByteBufAllocator()));
       return;
     }
 
     byte[] byteField = commandElems.get(FIELD_INDEX);
-    ByteArrayWrapper field = new ByteArrayWrapper(byteField);
 
-    ByteArrayWrapper valueWrapper = keyRegion.get(field);
+    byte[] value = hash.get(byteField);
 
-    if (valueWrapper != null) {
-      command.setResponse(
-          Coder.getBulkStringResponse(context.getByteBufAllocator(), valueWrapper.toBytes()));
+    if (value != null) {
+      command.setResponse(Coder.getBulkStringResponse(context.getByteBufAllocator(), value));
     } else
       command.setResponse(Coder.getNilResponse(context.getByteBufAllocator()));
 
@@ -16,13 +16,12 @@ package org.apache.geode.redis.internal.executor.hash;
 
 import java.util.List;
 
-import org.apache.geode.cache.Region;
 import org.apache.geode.redis.internal.ByteArrayWrapper;
 import org.apache.geode.redis.internal.Coder;
 import org.apache.geode.redis.internal.Command;
 import org.apache.geode.redis.internal.ExecutionHandlerContext;
 import org.apache.geode.redis.internal.RedisConstants.ArityDef;
-import org.apache.geode.redis.internal.RedisDataType;
+import org.apache.geode.redis.internal.RedisHash;
 
 public class HIncrByExecutor extends HashExecutor {
 
@@ -58,54 +57,58 @@ public class HIncrByExecutor extends HashExecutor {
 
     ByteArrayWrapper key = command.getKey();
 
-    Region<ByteArrayWrapper, ByteArrayWrapper> keyRegion =
-        getOrCreateRegion(context, key, RedisDataType.REDIS_HASH);
-
-    byte[] byteField = commandElems.get(FIELD_INDEX);
-    ByteArrayWrapper field = new ByteArrayWrapper(byteField);
-
-    /*
-     * Put incrememnt as value if field doesn't exist
-     */
-
-    ByteArrayWrapper oldValue = keyRegion.get(field);
-
-    if (oldValue == null) {
-      keyRegion.put(field, new ByteArrayWrapper(incrArray));
-      command.setResponse(Coder.getIntegerResponse(context.getByteBufAllocator(), increment));
-      return;
-    }
-
-    /*
-     * If the field did exist then increment the field
-     */
-
-    long value;
-
+    context.getRegionProvider().lockKey(key);
     try {
-      value = Long.parseLong(oldValue.toString());
-    } catch (NumberFormatException e) {
-      command.setResponse(
-          Coder.getErrorResponse(context.getByteBufAllocator(), ERROR_FIELD_NOT_USABLE));
-      return;
-    }
-
-    /*
-     * Check for overflow
-     */
-    if ((value >= 0 && increment > (Long.MAX_VALUE - value))
-        || (value <= 0 && increment < (Long.MIN_VALUE - value))) {
-      command.setResponse(Coder.getErrorResponse(context.getByteBufAllocator(), ERROR_OVERFLOW));
-      return;
+      RedisHash hash = getOrCreateHash(context, key);
+
+      byte[] byteField = commandElems.get(FIELD_INDEX);
+
+      /*
+       * Put incrememnt as value if field doesn't exist
+       */
+
+      byte[] oldValue = hash.get(byteField);
+
+      if (oldValue == null) {
+        hash.put(byteField, incrArray);
+        storeHash(context, key, hash);
+        command.setResponse(Coder.getIntegerResponse(context.getByteBufAllocator(), increment));
+        return;
+      }
+
+      /*
+       * If the field did exist then increment the field
+       */
+
+      long value;
+
+      try {
+        value = Coder.bytesToLong(oldValue);
+      } catch (NumberFormatException e) {
+        command.setResponse(
+            Coder.getErrorResponse(context.getByteBufAllocator(), ERROR_FIELD_NOT_USABLE));
+        return;
+      }
+
+      /*
+       * Check for overflow
+       */
+      if ((value >= 0 && increment > (Long.MAX_VALUE - value))
+          || (value <= 0 && increment < (Long.MIN_VALUE - value))) {
+        command.setResponse(Coder.getErrorResponse(context.getByteBufAllocator(), ERROR_OVERFLOW));
+        return;
+      }
+
+      value += increment;
+      // String newValue = String.valueOf(value);
+
+      hash.put(byteField, Coder.longToBytes(value));
+      storeHash(context, key, hash);
+
+      command.setResponse(Coder.getIntegerResponse(context.getByteBufAllocator(), value));
+    } finally {
+      context.getRegionProvider().unlockKey(key);
     }
-
-    value += increment;
-    // String newValue = String.valueOf(value);
-
-    keyRegion.put(field, new ByteArrayWrapper(Coder.longToBytes(value)));
-
-    command.setResponse(Coder.getIntegerResponse(context.getByteBufAllocator(), value));
-
   }
 
 }
@@ -14,17 +14,14 @@
  */
 package org.apache.geode.redis.internal.executor.hash;
 
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
 
-import org.apache.geode.cache.Region;
 import org.apache.geode.redis.internal.ByteArrayWrapper;
 import org.apache.geode.redis.internal.Coder;
 import org.apache.geode.redis.internal.Command;
 import org.apache.geode.redis.internal.ExecutionHandlerContext;
 import org.apache.geode.redis.internal.RedisConstants.ArityDef;
-import org.apache.geode.redis.internal.RedisDataType;
+import org.apache.geode.redis.internal.RedisHash;
 
 public class HKeysExecutor extends HashExecutor {
 
@@ -39,15 +36,14 @@ public class HKeysExecutor extends HashExecutor {
 
     ByteArrayWrapper key = command.getKey();
 
-    checkDataType(key, RedisDataType.REDIS_HASH, context);
-    Region<ByteArrayWrapper, ByteArrayWrapper> keyRegion = getRegion(context, key);
+    RedisHash hash = getHash(context, key);
 
-    if (keyRegion == null) {
+    if (hash == null) {
       command.setResponse(Coder.getEmptyArrayResponse(context.getByteBufAllocator()));
       return;
     }
 
-    Set<ByteArrayWrapper> keys = new HashSet(keyRegion.keySet());
+    List<ByteArrayWrapper> keys = hash.fields();
 
     if (keys.isEmpty()) {
       command.setResponse(Coder.getEmptyArrayResponse(context.getByteBufAllocator()));
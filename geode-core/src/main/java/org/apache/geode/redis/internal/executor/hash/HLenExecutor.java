@@ -16,13 +16,12 @@ package org.apache.geode.redis.internal.executor.hash;
 
 import java.util.List;
 
-import org.apache.geode.cache.Region;
 import org.apache.geode.redis.internal.ByteArrayWrapper;
 import org.apache.geode.redis.internal.Coder;
 import org.apache.geode.redis.internal.Command;
 import org.apache.geode.redis.internal.ExecutionHandlerContext;
 import org.apache.geode.redis.internal.RedisConstants.ArityDef;
-import org.apache.geode.redis.internal.RedisDataType;
+import org.apache.geode.redis.internal.RedisHash;
 
 public class HLenExecutor extends HashExecutor {
 
@@ -38,18 +37,17 @@ public class HLenExecutor extends HashExecutor {
     }
 
     ByteArrayWrapper key = command.getKey();
-    checkDataType(key, RedisDataType.REDIS_HASH, context);
 
-    Region<ByteArrayWrapper, ByteArrayWrapper> keyRegion = getRegion(context, key);
+    RedisHash hash = getHash(context, key);
 
-    if (keyRegion == null) {
+    if (hash == null) {
       command.setResponse(Coder.getIntegerResponse(context.getByteBufAllocator(), NOT_EXISTS));
       return;
     }
 
-    final int regionSize = keyRegion.size();
+    final int hashSize = hash.size();
 
-    command.setResponse(Coder.getIntegerResponse(context.getByteBufAllocator(), regionSize));
+    command.setResponse(Coder.getIntegerResponse(context.getByteBufAllocator(), hashSize));
   }
 
 }
@@ -16,15 +16,13 @@ package org.apache.geode.redis.internal.executor.hash;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 
-import org.apache.geode.cache.Region;
 import org.apache.geode.redis.internal.ByteArrayWrapper;
 import org.apache.geode.redis.internal.Coder;
 import org.apache.geode.redis.internal.Command;
 import org.apache.geode.redis.internal.ExecutionHandlerContext;
 import org.apache.geode.redis.internal.RedisConstants.ArityDef;
-import org.apache.geode.redis.internal.RedisDataType;
+import org.apache.geode.redis.internal.RedisHash;
 
 public class HMGetExecutor extends HashExecutor {
 
@@ -39,32 +37,20 @@ public class HMGetExecutor extends HashExecutor {
 
     ByteArrayWrapper key = command.getKey();
 
-    Region<ByteArrayWrapper, ByteArrayWrapper> keyRegion = getRegion(context, key);
-    checkDataType(key, RedisDataType.REDIS_HASH, context);
+    RedisHash hash = getHash(context, key);
 
-    if (keyRegion == null) {
+    if (hash == null) {
       command.setResponse(
           Coder.getArrayOfNils(context.getByteBufAllocator(), commandElems.size() - 2));
       return;
     }
 
-    ArrayList<ByteArrayWrapper> fields = new ArrayList<ByteArrayWrapper>();
+    ArrayList<ByteArrayWrapper> values = new ArrayList<ByteArrayWrapper>();
     for (int i = 2; i < commandElems.size(); i++) {
-      byte[] fieldArray = commandElems.get(i);
-      ByteArrayWrapper field = new ByteArrayWrapper(fieldArray);
-      fields.add(field);
+      byte[] value = hash.get(commandElems.get(i));
+      values.add(value == null ? null : new ByteArrayWrapper(value));
     }
 
-    Map<ByteArrayWrapper, ByteArrayWrapper> results = keyRegion.getAll(fields);
-
-    ArrayList<ByteArrayWrapper> values = new ArrayList<ByteArrayWrapper>();
-
-    /*
-     * This is done to preserve order in the output
-     */
-    for (ByteArrayWrapper field : fields)
-      values.add(results.get(field));
-
     command.setResponse(Coder.getBulkStringArrayResponse(context.getByteBufAllocator(), values));
 
   }
@@ -18,23 +18,75 @@ import org.apache.geode.cache.Region;
 import org.apache.geode.redis.internal.ByteArrayWrapper;
 import org.apache.geode.redis.internal.ExecutionHandlerContext;
 import org.apache.geode.redis.internal.RedisDataType;
+import org.apache.geode.redis.internal.RedisDataTypeMismatchException;
+import org.apache.geode.redis.internal.RedisHash;
 import org.apache.geode.redis.internal.executor.AbstractExecutor;
 
 public abstract class HashExecutor extends AbstractExecutor {
 
   protected final int FIELD_INDEX = 2;
 
-  @SuppressWarnings("unchecked")
-  protected Region<ByteArrayWrapper, ByteArrayWrapper> getOrCreateRegion(
-      ExecutionHandlerContext context, ByteArrayWrapper key, RedisDataType type) {
-    return (Region<ByteArrayWrapper, ByteArrayWrapper>) context.getRegionProvider()
-        .getOrCreateRegion(key, type, context);
+  protected Region<ByteArrayWrapper, RedisHash> getHashRegion(ExecutionHandlerContext context) {
+    return context.getRegionProvider().getHashRegion();
   }
 
-  @SuppressWarnings("unchecked")
-  protected Region<ByteArrayWrapper, ByteArrayWrapper> getRegion(ExecutionHandlerContext context,
-      ByteArrayWrapper key) {
-    return (Region<ByteArrayWrapper, ByteArrayWrapper>) context.getRegionProvider().getRegion(key);
+  /**
+   * Gets the {@link RedisHash} stored for a key after checking the key is not used by another
+   * {@link RedisDataType}
+   *
+   * @return The hash or null if the key does not exist
+   */
+  protected RedisHash getHash(ExecutionHandlerContext context, ByteArrayWrapper key) {
+    checkDataType(key, RedisDataType.REDIS_HASH, context);
+    return getHashRegion(context).get(key);
+  }
+
+  /**
+   * Gets a copy of the {@link RedisHash} stored for a key that can be modified and stored back by
+   * {@link #storeHash}, after checking the key is not used by another {@link RedisDataType}. The
+   * caller must hold the lock of the key
+   *
+   * @return The copy or null if the key does not exist
+   */
+  protected RedisHash getHashForUpdate(ExecutionHandlerContext context, ByteArrayWrapper key) {
+    RedisHash hash = getHash(context, key);
+    return hash == null ? null : hash.copy();
+  }
+
+  /**
+   * Gets a copy of the {@link RedisHash} stored for a key, or an empty one if the key does not
+   * exist yet, that can be modified and stored back by {@link #storeHash}. The caller must hold the
+   * lock of the key, see {@link org.apache.geode.redis.internal.RegionProvider#lockKey}
+   */
+  protected RedisHash getOrCreateHash(ExecutionHandlerContext context, ByteArrayWrapper key) {
+    checkAndSetDataType(key, context);
+    RedisHash hash = getHashRegion(context).get(key);
+    return hash == null ? new RedisHash() : hash.copy();
+  }
+
+  /**
+   * Stores a modified {@link RedisHash}, removing the key altogether if the hash has become empty.
+   * Only the changes are distributed to other members holding the entry
+   */
+  protected void storeHash(ExecutionHandlerContext context, ByteArrayWrapper key, RedisHash hash) {
+    if (hash.isEmpty()) {
+      context.getRegionProvider().removeKey(key, RedisDataType.REDIS_HASH);
+      return;
+    }
+    try {
+      getHashRegion(context).put(key, hash);
+    } finally {
+      hash.resetDelta();
+    }
+  }
+
+  protected void checkAndSetDataType(ByteArrayWrapper key, ExecutionHandlerContext context) {
+    Object oldVal = context.getRegionProvider().metaPutIfAbsent(key, RedisDataType.REDIS_HASH);
+    if (oldVal == RedisDataType.REDIS_PROTECTED)
+      throw new RedisDataTypeMismatchException("The key name \"" + key + "\" is protected");
+    if (oldVal != null && oldVal != RedisDataType.REDIS_HASH)
+      throw new RedisDataTypeMismatchException(
+          "The key name \"" + key + "\" is already used by a " + oldVal.toString());
   }
 
 }
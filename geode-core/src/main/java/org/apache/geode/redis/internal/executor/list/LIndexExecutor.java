@@ -16,17 +16,12 @@ package org.apache.geode.redis.internal.executor.list;
 
 import java.util.List;
 
-import org.apache.geode.cache.Region;
-import org.apache.geode.cache.query.Query;
-import org.apache.geode.cache.query.SelectResults;
-import org.apache.geode.cache.query.Struct;
 import org.apache.geode.redis.internal.ByteArrayWrapper;
 import org.apache.geode.redis.internal.Coder;
 import org.apache.geode.redis.internal.Command;
 import org.apache.geode.redis.internal.ExecutionHandlerContext;
 import org.apache.geode.redis.internal.RedisConstants.ArityDef;
-import org.apache.geode.redis.internal.RedisDataType;
-import org.apache.geode.redis.internal.executor.ListQuery;
+import org.apache.geode.redis.internal.RedisList;
 
 public class LIndexExecutor extends ListExecutor {
 
@@ -44,15 +39,14 @@ public class LIndexExecutor extends ListExecutor {
     ByteArrayWrapper key = command.getKey();
     byte[] indexArray = commandElems.get(2);
 
-    checkDataType(key, RedisDataType.REDIS_LIST, context);
-    Region<Integer, ByteArrayWrapper> keyRegion = getRegion(context, key);
+    RedisList list = getList(context, key);
 
-    if (keyRegion == null) {
+    if (list == null) {
       command.setResponse(Coder.getNilResponse(context.getByteBufAllocator()));
       return;
     }
 
-    int listSize = keyRegion.size() - LIST_EMPTY_SIZE;
+    int listSize = list.size();
 
     Integer redisIndex;
 
@@ -81,38 +75,12 @@ public class LIndexExecutor extends ListExecutor {
       return;
     }
 
-    /*
-     * Now we must get that element from the region
-     */
-    Struct entry;
-    try {
-      entry = getEntryAtIndex(context, key, redisIndex);
-    } catch (Exception e) {
-      throw new RuntimeException(e);
-    }
-    if (entry == null) {
+    byte[] value = list.get(redisIndex);
+    if (value == null) {
       command.setResponse(Coder.getNilResponse(context.getByteBufAllocator()));
       return;
     }
 
-    Object[] entryArray = entry.getFieldValues();
-    ByteArrayWrapper valueWrapper = (ByteArrayWrapper) entryArray[1];
-    command.setResponse(
-        Coder.getBulkStringResponse(context.getByteBufAllocator(), valueWrapper.toBytes()));
-  }
-
-  private Struct getEntryAtIndex(ExecutionHandlerContext context, ByteArrayWrapper key, int index)
-      throws Exception {
-
-    Query query = getQuery(key, ListQuery.LINDEX, context);
-
-    Object[] params = {Integer.valueOf(index + 1)};
-
-    SelectResults<?> results = (SelectResults<?>) query.execute(params);
-
-    if (results == null || results.size() == 0 || results.size() <= index)
-      return null;
-    else
-      return (Struct) results.asList().get(index);
+    command.setResponse(Coder.getBulkStringResponse(context.getByteBufAllocator(), value));
   }
 }
@@ -16,13 +16,12 @@ package org.apache.geode.redis.internal.executor.list;
 
 import java.util.List;
 
-import org.apache.geode.cache.Region;
 import org.apache.geode.redis.internal.ByteArrayWrapper;
 import org.apache.geode.redis.internal.Coder;
 import org.apache.geode.redis.internal.Command;
 import org.apache.geode.redis.internal.ExecutionHandlerContext;
 import org.apache.geode.redis.internal.RedisConstants.ArityDef;
-import org.apache.geode.redis.internal.RedisDataType;
+import org.apache.geode.redis.internal.RedisList;
 
 public class LLenExecutor extends ListExecutor {
 
@@ -39,17 +38,14 @@ public class LLenExecutor extends ListExecutor {
 
     ByteArrayWrapper key = command.getKey();
 
-    int listSize = 0;
+    RedisList list = getList(context, key);
 
-    checkDataType(key, RedisDataType.REDIS_LIST, context);
-    Region<Integer, ByteArrayWrapper> keyRegion = getRegion(context, key);
-
-    if (keyRegion == null) {
+    if (list == null) {
       command.setResponse(Coder.getIntegerResponse(context.getByteBufAllocator(), NOT_EXISTS));
       return;
     }
 
-    listSize = keyRegion.size() - LIST_EMPTY_SIZE;
+    int listSize = list.size();
 
     command.setResponse(Coder.getIntegerResponse(context.getByteBufAllocator(), listSize));
   }
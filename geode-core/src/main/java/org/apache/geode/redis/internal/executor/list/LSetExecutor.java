@@ -16,16 +16,12 @@ package org.apache.geode.redis.internal.executor.list;
 
 import java.util.List;
 
-import org.apache.geode.cache.Region;
-import org.apache.geode.cache.query.Query;
-import org.apache.geode.cache.query.SelectResults;
 import org.apache.geode.redis.internal.ByteArrayWrapper;
 import org.apache.geode.redis.internal.Coder;
 import org.apache.geode.redis.internal.Command;
 import org.apache.geode.redis.internal.ExecutionHandlerContext;
 import org.apache.geode.redis.internal.RedisConstants.ArityDef;
-import org.apache.geode.redis.internal.RedisDataType;
-import org.apache.geode.redis.internal.executor.ListQuery;
+import org.apache.geode.redis.internal.RedisList;
 
 public class LSetExecutor extends ListExecutor {
 
@@ -52,57 +48,33 @@ public class LSetExecutor extends ListExecutor {
     int index;
 
 
-    checkDataType(key, RedisDataType.REDIS_LIST, context);
-    Region<Integer, ByteArrayWrapper> keyRegion = getRegion(context, key);
-
-    if (keyRegion == null) {
-      command.setResponse(Coder.getErrorResponse(context.getByteBufAllocator(), ERROR_INDEX));
-      return;
-    }
-
+    context.getRegionProvider().lockKey(key);
     try {
-      index = Coder.bytesToInt(indexArray);
-    } catch (NumberFormatException e) {
-      command.setResponse(Coder.getErrorResponse(context.getByteBufAllocator(), ERROR_NOT_NUMERIC));
-      return;
+      RedisList list = getListForUpdate(context, key);
+
+      if (list == null) {
+        command.setResponse(Coder.getErrorResponse(context.getByteBufAllocator(), ERROR_INDEX));
+        return;
+      }
+
+      try {
+        index = Coder.bytesToInt(indexArray);
+      } catch (NumberFormatException e) {
+        command
+            .setResponse(Coder.getErrorResponse(context.getByteBufAllocator(), ERROR_NOT_NUMERIC));
+        return;
+      }
+
+      if (index < 0)
+        index += list.size();
+      if (!list.set(index, value)) {
+        command.setResponse(Coder.getErrorResponse(context.getByteBufAllocator(), ERROR_INDEX));
+        return;
+      }
+      storeList(context, key, list);
+      command.setResponse(Coder.getSimpleStringResponse(context.getByteBufAllocator(), SUCCESS));
+    } finally {
+      context.getRegionProvider().unlockKey(key);
     }
-
-    int listSize = keyRegion.size() - LIST_EMPTY_SIZE;
-    if (index < 0)
-      index += listSize;
-    if (index < 0 || index > listSize) {
-      command.setResponse(Coder.getErrorResponse(context.getByteBufAllocator(), ERROR_INDEX));
-      return;
-    }
-
-    Integer indexKey;
-    try {
-      indexKey = getIndexKey(context, key, index);
-    } catch (Exception e) {
-      throw new RuntimeException(e);
-    }
-    if (indexKey == null) {
-      command.setResponse(Coder.getErrorResponse(context.getByteBufAllocator(), ERROR_INDEX));
-      return;
-    }
-    if (index == listSize)
-      indexKey++;
-    keyRegion.put(indexKey, new ByteArrayWrapper(value));
-    command.setResponse(Coder.getSimpleStringResponse(context.getByteBufAllocator(), SUCCESS));
-  }
-
-  private Integer getIndexKey(ExecutionHandlerContext context, ByteArrayWrapper key, int index)
-      throws Exception {
-    Query query = getQuery(key, ListQuery.LSET, context);
-
-    Object[] params = {Integer.valueOf(index + 1)};
-
-    SelectResults<Integer> results = (SelectResults<Integer>) query.execute(params);
-    int size = results.size();
-    if (results == null || size == 0) {
-      return null;
-    }
-
-    return results.asList().get(size - 1);
   }
 }
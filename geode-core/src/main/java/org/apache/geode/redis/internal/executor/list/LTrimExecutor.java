@@ -16,16 +16,12 @@ package org.apache.geode.redis.internal.executor.list;
 
 import java.util.List;
 
-import org.apache.geode.cache.Region;
-import org.apache.geode.cache.query.Query;
-import org.apache.geode.cache.query.SelectResults;
 import org.apache.geode.redis.internal.ByteArrayWrapper;
 import org.apache.geode.redis.internal.Coder;
 import org.apache.geode.redis.internal.Command;
 import org.apache.geode.redis.internal.ExecutionHandlerContext;
 import org.apache.geode.redis.internal.RedisConstants.ArityDef;
-import org.apache.geode.redis.internal.RedisDataType;
-import org.apache.geode.redis.internal.executor.ListQuery;
+import org.apache.geode.redis.internal.RedisList;
 
 public class LTrimExecutor extends ListExecutor {
 
@@ -52,72 +48,46 @@ public class LTrimExecutor extends ListExecutor {
     int redisStop;
 
 
-    checkDataType(key, RedisDataType.REDIS_LIST, context);
-    Region keyRegion = getRegion(context, key);
-
-    if (keyRegion == null) {
-      command
-          .setResponse(Coder.getErrorResponse(context.getByteBufAllocator(), ERROR_KEY_NOT_EXISTS));
-      return;
-    }
-
-    int listSize = keyRegion.size() - LIST_EMPTY_SIZE;
-    if (listSize == 0) {
-      command.setResponse(Coder.getSimpleStringResponse(context.getByteBufAllocator(), SUCCESS));
-      return;
-    }
-
+    context.getRegionProvider().lockKey(key);
     try {
-      redisStart = Coder.bytesToInt(startArray);
-      redisStop = Coder.bytesToInt(stopArray);
-    } catch (NumberFormatException e) {
-      command.setResponse(Coder.getErrorResponse(context.getByteBufAllocator(), ERROR_NOT_NUMERIC));
-      return;
-    }
-
-    redisStart = getBoundedStartIndex(redisStart, listSize);
-    redisStop = getBoundedEndIndex(redisStop, listSize);
-    redisStart = Math.min(redisStart, listSize - 1);
-    redisStop = Math.min(redisStop, listSize - 1);
-
-    if (redisStart == 0 && redisStop == listSize - 1) {
-      command.setResponse(Coder.getSimpleStringResponse(context.getByteBufAllocator(), SUCCESS));
-      return;
-    } else if (redisStart == 0 && redisStop < redisStart) {
-      context.getRegionProvider().removeKey(key, RedisDataType.REDIS_LIST);
+      RedisList list = getListForUpdate(context, key);
+
+      if (list == null) {
+        command.setResponse(
+            Coder.getErrorResponse(context.getByteBufAllocator(), ERROR_KEY_NOT_EXISTS));
+        return;
+      }
+
+      int listSize = list.size();
+      if (listSize == 0) {
+        command.setResponse(Coder.getSimpleStringResponse(context.getByteBufAllocator(), SUCCESS));
+        return;
+      }
+
+      try {
+        redisStart = Coder.bytesToInt(startArray);
+        redisStop = Coder.bytesToInt(stopArray);
+      } catch (NumberFormatException e) {
+        command
+            .setResponse(Coder.getErrorResponse(context.getByteBufAllocator(), ERROR_NOT_NUMERIC));
+        return;
+      }
+
+      redisStart = getBoundedStartIndex(redisStart, listSize);
+      redisStop = getBoundedEndIndex(redisStop, listSize);
+      redisStart = Math.min(redisStart, listSize - 1);
+      redisStop = Math.min(redisStop, listSize - 1);
+
+      if (redisStart == 0 && redisStop == listSize - 1) {
+        command.setResponse(Coder.getSimpleStringResponse(context.getByteBufAllocator(), SUCCESS));
+        return;
+      }
+
+      list.trim(redisStart, redisStop);
+      storeList(context, key, list);
       command.setResponse(Coder.getSimpleStringResponse(context.getByteBufAllocator(), SUCCESS));
-      return;
-    }
-
-    List<Integer> keepList;
-    try {
-      keepList = getRange(context, key, redisStart, redisStop, keyRegion);
-    } catch (Exception e) {
-      throw new RuntimeException(e);
+    } finally {
+      context.getRegionProvider().unlockKey(key);
     }
-
-    for (Object keyElement : keyRegion.keySet()) {
-      if (!keepList.contains(keyElement) && keyElement instanceof Integer)
-        keyRegion.remove(keyElement);
-    }
-
-    // Reset indexes in meta data region
-    keyRegion.put("head", keepList.get(0));
-    keyRegion.put("tail", keepList.get(keepList.size() - 1));
-    command.setResponse(Coder.getSimpleStringResponse(context.getByteBufAllocator(), SUCCESS));
-  }
-
-  private List<Integer> getRange(ExecutionHandlerContext context, ByteArrayWrapper key, int start,
-      int stop, Region r) throws Exception {
-    Query query = getQuery(key, ListQuery.LTRIM, context);
-
-    Object[] params = {Integer.valueOf(stop + 1)};
-
-    SelectResults<Integer> results = (SelectResults<Integer>) query.execute(params);
-    if (results == null || results.size() <= start) {
-      return null;
-    }
-
-    return results.asList().subList(start, results.size());
   }
 }
@@ -15,20 +15,17 @@
 package org.apache.geode.redis.internal.executor.list;
 
 import java.util.List;
-import java.util.concurrent.atomic.AtomicInteger;
 
-import org.apache.geode.cache.Region;
 import org.apache.geode.redis.internal.ByteArrayWrapper;
 import org.apache.geode.redis.internal.Coder;
 import org.apache.geode.redis.internal.Command;
 import org.apache.geode.redis.internal.ExecutionHandlerContext;
 import org.apache.geode.redis.internal.Extendable;
-import org.apache.geode.redis.internal.RedisDataType;
+import org.apache.geode.redis.internal.RedisList;
 
 public abstract class PushExecutor extends PushXExecutor implements Extendable {
 
   private final int START_VALUES_INDEX = 2;
-  static volatile AtomicInteger puts = new AtomicInteger(0);
 
   @Override
   public void executeCommand(Command command, ExecutionHandlerContext context) {
@@ -41,12 +38,16 @@ public abstract class PushExecutor extends PushXExecutor implements Extendable {
 
     ByteArrayWrapper key = command.getKey();
 
-    Region<Integer, ByteArrayWrapper> keyRegion =
-        getOrCreateRegion(context, key, RedisDataType.REDIS_LIST);
-    pushElements(key, commandElems, START_VALUES_INDEX, commandElems.size(), keyRegion, pushType(),
-        context);
-    int listSize = keyRegion.size() - LIST_EMPTY_SIZE;
-    command.setResponse(Coder.getIntegerResponse(context.getByteBufAllocator(), listSize));
+    context.getRegionProvider().lockKey(key);
+    try {
+      RedisList list = getOrCreateList(context, key);
+      int listSize = pushElements(list,
+          commandElems.subList(START_VALUES_INDEX, commandElems.size()), pushType());
+      storeList(context, key, list);
+      command.setResponse(Coder.getIntegerResponse(context.getByteBufAllocator(), listSize));
+    } finally {
+      context.getRegionProvider().unlockKey(key);
+    }
   }
 
   protected abstract ListDirection pushType();
@@ -16,13 +16,12 @@ package org.apache.geode.redis.internal.executor.list;
 
 import java.util.List;
 
-import org.apache.geode.cache.Region;
 import org.apache.geode.redis.internal.ByteArrayWrapper;
 import org.apache.geode.redis.internal.Coder;
 import org.apache.geode.redis.internal.Command;
 import org.apache.geode.redis.internal.ExecutionHandlerContext;
 import org.apache.geode.redis.internal.Extendable;
-import org.apache.geode.redis.internal.RedisDataType;
+import org.apache.geode.redis.internal.RedisList;
 
 public abstract class PushXExecutor extends ListExecutor implements Extendable {
 
@@ -39,17 +38,20 @@ public abstract class PushXExecutor extends ListExecutor implements Extendable {
 
     ByteArrayWrapper key = command.getKey();
 
-    Region<Integer, ByteArrayWrapper> keyRegion = getRegion(context, key);
-    if (keyRegion == null) {
-      command.setResponse(Coder.getIntegerResponse(context.getByteBufAllocator(), NOT_EXISTS));
-      return;
+    context.getRegionProvider().lockKey(key);
+    try {
+      RedisList list = getListForUpdate(context, key);
+      if (list == null) {
+        command.setResponse(Coder.getIntegerResponse(context.getByteBufAllocator(), NOT_EXISTS));
+        return;
+      }
+      int listSize = pushElements(list, commandElems.subList(2, 3), pushType());
+      storeList(context, key, list);
+
+      command.setResponse(Coder.getIntegerResponse(context.getByteBufAllocator(), listSize));
+    } finally {
+      context.getRegionProvider().unlockKey(key);
     }
-    checkDataType(key, RedisDataType.REDIS_LIST, context);
-    pushElements(key, commandElems, 2, 3, keyRegion, pushType(), context);
-
-    int listSize = keyRegion.size() - LIST_EMPTY_SIZE;
-
-    command.setResponse(Coder.getIntegerResponse(context.getByteBufAllocator(), listSize));
   }
 
   protected abstract ListDirection pushType();
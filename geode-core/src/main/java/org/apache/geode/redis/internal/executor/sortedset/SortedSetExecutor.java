@@ -17,9 +17,10 @@ package org.apache.geode.redis.internal.executor.sortedset;
 import org.apache.geode.cache.Region;
 import org.apache.geode.redis.internal.ByteArrayWrapper;
 import org.apache.geode.redis.internal.Coder;
-import org.apache.geode.redis.internal.DoubleWrapper;
 import org.apache.geode.redis.internal.ExecutionHandlerContext;
 import org.apache.geode.redis.internal.RedisDataType;
+import org.apache.geode.redis.internal.RedisDataTypeMismatchException;
+import org.apache.geode.redis.internal.RedisSortedSet;
 import org.apache.geode.redis.internal.executor.AbstractExecutor;
 
 public abstract class SortedSetExecutor extends AbstractExecutor {
@@ -27,21 +28,71 @@ public abstract class SortedSetExecutor extends AbstractExecutor {
   final ByteArrayWrapper minus = new ByteArrayWrapper(Coder.stringToBytes("-"));
   final ByteArrayWrapper plus = new ByteArrayWrapper(Coder.stringToBytes("+"));
 
-  @Override
-  protected Region<ByteArrayWrapper, DoubleWrapper> getOrCreateRegion(
-      ExecutionHandlerContext context, ByteArrayWrapper key, RedisDataType type) {
-    @SuppressWarnings("unchecked")
-    Region<ByteArrayWrapper, DoubleWrapper> r = (Region<ByteArrayWrapper, DoubleWrapper>) context
-        .getRegionProvider().getOrCreateRegion(key, type, context);
-    return r;
+  protected Region<ByteArrayWrapper, RedisSortedSet> getSortedSetRegion(
+      ExecutionHandlerContext context) {
+    return context.getRegionProvider().getSortedSetRegion();
   }
 
-  protected Region<ByteArrayWrapper, DoubleWrapper> getRegion(ExecutionHandlerContext context,
+  /**
+   * Gets the {@link RedisSortedSet} stored for a key after checking the key is not used by another
+   * {@link RedisDataType}
+   *
+   * @return The sorted set or null if the key does not exist
+   */
+  protected RedisSortedSet getSortedSet(ExecutionHandlerContext context, ByteArrayWrapper key) {
+    checkDataType(key, RedisDataType.REDIS_SORTEDSET, context);
+    return getSortedSetRegion(context).get(key);
+  }
+
+  /**
+   * Gets a copy of the {@link RedisSortedSet} stored for a key that can be modified and stored back
+   * by {@link #storeSortedSet}, after checking the key is not used by another
+   * {@link RedisDataType}. The caller must hold the lock of the key
+   *
+   * @return The copy or null if the key does not exist
+   */
+  protected RedisSortedSet getSortedSetForUpdate(ExecutionHandlerContext context,
+      ByteArrayWrapper key) {
+    RedisSortedSet sortedSet = getSortedSet(context, key);
+    return sortedSet == null ? null : sortedSet.copy();
+  }
+
+  /**
+   * Gets a copy of the {@link RedisSortedSet} stored for a key, or an empty one if the key does not
+   * exist yet, that can be modified and stored back by {@link #storeSortedSet}. The caller must
+   * hold the lock of the key, see {@link org.apache.geode.redis.internal.RegionProvider#lockKey}
+   */
+  protected RedisSortedSet getOrCreateSortedSet(ExecutionHandlerContext context,
       ByteArrayWrapper key) {
-    @SuppressWarnings("unchecked")
-    Region<ByteArrayWrapper, DoubleWrapper> r =
-        (Region<ByteArrayWrapper, DoubleWrapper>) context.getRegionProvider().getRegion(key);
-    return r;
+    checkAndSetDataType(key, context);
+    RedisSortedSet sortedSet = getSortedSetRegion(context).get(key);
+    return sortedSet == null ? new RedisSortedSet() : sortedSet.copy();
+  }
+
+  /**
+   * Stores a modified {@link RedisSortedSet}, removing the key altogether if the sorted set has
+   * become empty. Only the changes are distributed to other members holding the entry
+   */
+  protected void storeSortedSet(ExecutionHandlerContext context, ByteArrayWrapper key,
+      RedisSortedSet sortedSet) {
+    if (sortedSet.isEmpty()) {
+      context.getRegionProvider().removeKey(key, RedisDataType.REDIS_SORTEDSET);
+      return;
+    }
+    try {
+      getSortedSetRegion(context).put(key, sortedSet);
+    } finally {
+      sortedSet.resetDelta();
+    }
+  }
+
+  protected void checkAndSetDataType(ByteArrayWrapper key, ExecutionHandlerContext context) {
+    Object oldVal = context.getRegionProvider().metaPutIfAbsent(key, RedisDataType.REDIS_SORTEDSET);
+    if (oldVal == RedisDataType.REDIS_PROTECTED)
+      throw new RedisDataTypeMismatchException("The key name \"" + key + "\" is protected");
+    if (oldVal != null && oldVal != RedisDataType.REDIS_SORTEDSET)
+      throw new RedisDataTypeMismatchException(
+          "The key name \"" + key + "\" is already used by a " + oldVal.toString());
   }
 
 }
@@ -14,18 +14,14 @@
  */
 package org.apache.geode.redis.internal.executor.sortedset;
 
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
-import org.apache.geode.cache.Region;
 import org.apache.geode.redis.internal.ByteArrayWrapper;
 import org.apache.geode.redis.internal.Coder;
 import org.apache.geode.redis.internal.Command;
-import org.apache.geode.redis.internal.DoubleWrapper;
 import org.apache.geode.redis.internal.ExecutionHandlerContext;
 import org.apache.geode.redis.internal.RedisConstants.ArityDef;
-import org.apache.geode.redis.internal.RedisDataType;
+import org.apache.geode.redis.internal.RedisSortedSet;
 
 public class ZAddExecutor extends SortedSetExecutor {
 
@@ -42,49 +38,33 @@ public class ZAddExecutor extends SortedSetExecutor {
     }
 
     ByteArrayWrapper key = command.getKey();
-    int numberOfAdds = 0;
 
-    if (commandElems.size() > 4) {
-      Map<ByteArrayWrapper, DoubleWrapper> map = new HashMap<ByteArrayWrapper, DoubleWrapper>();
-      for (int i = 2; i < commandElems.size(); i++) {
-        byte[] scoreArray = commandElems.get(i++);
-        byte[] memberArray = commandElems.get(i);
-
-        Double score;
-        try {
-          score = Coder.bytesToDouble(scoreArray);
-        } catch (NumberFormatException e) {
-          command.setResponse(
-              Coder.getErrorResponse(context.getByteBufAllocator(), ERROR_NOT_NUMERICAL));
-          return;
-        }
-
-        map.put(new ByteArrayWrapper(memberArray), new DoubleWrapper(score));
-        numberOfAdds++;
-      }
-      Region<ByteArrayWrapper, DoubleWrapper> keyRegion =
-          getOrCreateRegion(context, key, RedisDataType.REDIS_SORTEDSET);
-      keyRegion.putAll(map);
-    } else {
-      byte[] scoreArray = commandElems.get(2);
-      byte[] memberArray = commandElems.get(3);
-      Double score;
+    double[] scores = new double[(commandElems.size() - 2) / 2];
+    for (int i = 0; i < scores.length; i++) {
       try {
-        score = Coder.bytesToDouble(scoreArray);
+        scores[i] = Coder.bytesToDouble(commandElems.get(2 + 2 * i));
       } catch (NumberFormatException e) {
         command.setResponse(
             Coder.getErrorResponse(context.getByteBufAllocator(), ERROR_NOT_NUMERICAL));
         return;
       }
-      Region<ByteArrayWrapper, DoubleWrapper> keyRegion =
-          getOrCreateRegion(context, key, RedisDataType.REDIS_SORTEDSET);
-      Object oldVal = keyRegion.put(new ByteArrayWrapper(memberArray), new DoubleWrapper(score));
-
-      if (oldVal == null)
-        numberOfAdds = 1;
     }
 
-    command.setResponse(Coder.getIntegerResponse(context.getByteBufAllocator(), numberOfAdds));
+    context.getRegionProvider().lockKey(key);
+    try {
+      RedisSortedSet sortedSet = getOrCreateSortedSet(context, key);
+      int numberOfAdds = 0;
+      for (int i = 0; i < scores.length; i++) {
+        ByteArrayWrapper member = new ByteArrayWrapper(commandElems.get(3 + 2 * i));
+        if (sortedSet.add(member, scores[i]))
+          numberOfAdds++;
+      }
+      storeSortedSet(context, key, sortedSet);
+
+      command.setResponse(Coder.getIntegerResponse(context.getByteBufAllocator(), numberOfAdds));
+    } finally {
+      context.getRegionProvider().unlockKey(key);
+    }
   }
 
 }
@@ -16,14 +16,12 @@ package org.apache.geode.redis.internal.executor.sortedset;
 
 import java.util.List;
 
-import org.apache.geode.cache.Region;
 import org.apache.geode.redis.internal.ByteArrayWrapper;
 import org.apache.geode.redis.internal.Coder;
 import org.apache.geode.redis.internal.Command;
-import org.apache.geode.redis.internal.DoubleWrapper;
 import org.apache.geode.redis.internal.ExecutionHandlerContext;
 import org.apache.geode.redis.internal.RedisConstants.ArityDef;
-import org.apache.geode.redis.internal.RedisDataType;
+import org.apache.geode.redis.internal.RedisSortedSet;
 
 public class ZCardExecutor extends SortedSetExecutor {
 
@@ -40,14 +38,13 @@ public class ZCardExecutor extends SortedSetExecutor {
 
     ByteArrayWrapper key = command.getKey();
 
-    Region<ByteArrayWrapper, DoubleWrapper> keyRegion = getRegion(context, key);
-    checkDataType(key, RedisDataType.REDIS_SORTEDSET, context);
+    RedisSortedSet sortedSet = getSortedSet(context, key);
 
-    if (keyRegion == null)
+    if (sortedSet == null)
       command.setResponse(Coder.getIntegerResponse(context.getByteBufAllocator(), NOT_EXISTS));
     else
       command
-          .setResponse(Coder.getIntegerResponse(context.getByteBufAllocator(), keyRegion.size()));
+          .setResponse(Coder.getIntegerResponse(context.getByteBufAllocator(), sortedSet.size()));
 
   }
 }
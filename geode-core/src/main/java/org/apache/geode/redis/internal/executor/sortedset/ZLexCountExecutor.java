@@ -16,17 +16,12 @@ package org.apache.geode.redis.internal.executor.sortedset;
 
 import java.util.List;
 
-import org.apache.geode.cache.Region;
-import org.apache.geode.cache.query.Query;
-import org.apache.geode.cache.query.SelectResults;
 import org.apache.geode.redis.internal.ByteArrayWrapper;
 import org.apache.geode.redis.internal.Coder;
 import org.apache.geode.redis.internal.Command;
-import org.apache.geode.redis.internal.DoubleWrapper;
 import org.apache.geode.redis.internal.ExecutionHandlerContext;
 import org.apache.geode.redis.internal.RedisConstants.ArityDef;
-import org.apache.geode.redis.internal.RedisDataType;
-import org.apache.geode.redis.internal.executor.SortedSetQuery;
+import org.apache.geode.redis.internal.RedisSortedSet;
 
 public class ZLexCountExecutor extends SortedSetExecutor {
 
@@ -47,10 +42,9 @@ public class ZLexCountExecutor extends SortedSetExecutor {
 
     ByteArrayWrapper key = command.getKey();
 
-    Region<ByteArrayWrapper, DoubleWrapper> keyRegion = getRegion(context, key);
-    checkDataType(key, RedisDataType.REDIS_SORTEDSET, context);
+    RedisSortedSet sortedSet = getSortedSet(context, key);
 
-    if (keyRegion == null) {
+    if (sortedSet == null) {
       command.setResponse(Coder.getIntegerResponse(context.getByteBufAllocator(), NOT_EXISTS));
       return;
     }
@@ -88,61 +82,15 @@ public class ZLexCountExecutor extends SortedSetExecutor {
     }
 
 
+    ByteArrayWrapper start = Coder.stringToByteArrayWrapper(startString);
+    ByteArrayWrapper stop = Coder.stringToByteArrayWrapper(stopString);
     int count;
-    try {
-      count = getCount(key, keyRegion, context, Coder.stringToByteArrayWrapper(startString),
-          Coder.stringToByteArrayWrapper(stopString), minInclusive, maxInclusive);
-    } catch (Exception e) {
-      command.setResponse(Coder.getErrorResponse(context.getByteBufAllocator(), e.toString()));
-      return;
-    }
+    if (start.equals(plus) || stop.equals(minus))
+      count = 0;
+    else
+      count = sortedSet.countByLex(start.equals(minus) ? null : start, minInclusive,
+          stop.equals(plus) ? null : stop, maxInclusive);
 
     command.setResponse(Coder.getIntegerResponse(context.getByteBufAllocator(), count));
   }
-
-  private int getCount(ByteArrayWrapper key, Region<ByteArrayWrapper, DoubleWrapper> keyRegion,
-      ExecutionHandlerContext context, ByteArrayWrapper start, ByteArrayWrapper stop,
-      boolean startInclusive, boolean stopInclusive) throws Exception {
-    if (start.equals(minus) && stop.equals(plus))
-      return keyRegion.size();
-    else if (start.equals(plus) || stop.equals(minus))
-      return 0;
-
-    Query query;
-    Object[] params;
-    if (start.equals(minus)) {
-      if (stopInclusive) {
-        query = getQuery(key, SortedSetQuery.ZLEXCOUNTNINFI, context);
-      } else {
-        query = getQuery(key, SortedSetQuery.ZLEXCOUNTNINF, context);
-      }
-      params = new Object[] {stop};
-    } else if (stop.equals(plus)) {
-      if (startInclusive) {
-        query = getQuery(key, SortedSetQuery.ZLEXCOUNTPINFI, context);
-      } else {
-        query = getQuery(key, SortedSetQuery.ZLEXCOUNTPINF, context);
-      }
-      params = new Object[] {start};
-    } else {
-      if (startInclusive) {
-        if (stopInclusive) {
-          query = getQuery(key, SortedSetQuery.ZLEXCOUNTSTISI, context);
-        } else {
-          query = getQuery(key, SortedSetQuery.ZLEXCOUNTSTI, context);
-        }
-      } else {
-        if (stopInclusive) {
-          query = getQuery(key, SortedSetQuery.ZLEXCOUNTSI, context);
-        } else {
-          query = getQuery(key, SortedSetQuery.ZLEXCOUNT, context);
-        }
-      }
-      params = new Object[] {start, stop};
-    }
-
-    SelectResults<?> results = (SelectResults<?>) query.execute(params);
-
-    return (Integer) results.asList().get(0);
-  }
 }
@@ -14,29 +14,18 @@
  */
 package org.apache.geode.redis.internal.executor.sortedset;
 
-import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 
 import io.netty.buffer.ByteBuf;
 
-import org.apache.geode.cache.Region;
-import org.apache.geode.cache.query.FunctionDomainException;
-import org.apache.geode.cache.query.NameResolutionException;
-import org.apache.geode.cache.query.Query;
-import org.apache.geode.cache.query.QueryInvocationTargetException;
-import org.apache.geode.cache.query.SelectResults;
-import org.apache.geode.cache.query.TypeMismatchException;
 import org.apache.geode.redis.internal.ByteArrayWrapper;
 import org.apache.geode.redis.internal.Coder;
 import org.apache.geode.redis.internal.Command;
-import org.apache.geode.redis.internal.DoubleWrapper;
 import org.apache.geode.redis.internal.ExecutionHandlerContext;
 import org.apache.geode.redis.internal.RedisConstants.ArityDef;
-import org.apache.geode.redis.internal.RedisDataType;
-import org.apache.geode.redis.internal.executor.SortedSetQuery;
+import org.apache.geode.redis.internal.RedisSortedSet;
 
 public class ZRangeByLexExecutor extends SortedSetExecutor {
 
@@ -86,10 +75,9 @@ public class ZRangeByLexExecutor extends SortedSetExecutor {
     }
 
     ByteArrayWrapper key = command.getKey();
-    Region<ByteArrayWrapper, DoubleWrapper> keyRegion =
-        getOrCreateRegion(context, key, RedisDataType.REDIS_SORTEDSET);
+    RedisSortedSet sortedSet = getSortedSet(context, key);
 
-    if (keyRegion == null) {
+    if (sortedSet == null) {
       command.setResponse(Coder.getEmptyArrayResponse(context.getByteBufAllocator()));
       return;
     }
@@ -124,79 +112,19 @@ public class ZRangeByLexExecutor extends SortedSetExecutor {
           .setResponse(Coder.getErrorResponse(context.getByteBufAllocator(), ERROR_ILLEGAL_SYNTAX));
       return;
     }
+    ByteArrayWrapper start = Coder.stringToByteArrayWrapper(startString);
+    ByteArrayWrapper stop = Coder.stringToByteArrayWrapper(stopString);
     Collection<ByteArrayWrapper> list = null;
-    if (!(existsLimit && limit == 0)) {
-      try {
-        list = getRange(key, keyRegion, context, Coder.stringToByteArrayWrapper(startString),
-            Coder.stringToByteArrayWrapper(stopString), minInclusive, maxInclusive, offset, limit);
-      } catch (Exception e) {
-        throw new RuntimeException(e);
-      }
+    if (!(existsLimit && limit == 0) && !start.equals(plus) && !stop.equals(minus)) {
+      list = sortedSet.rangeByLex(start.equals(minus) ? null : start, minInclusive,
+          stop.equals(plus) ? null : stop, maxInclusive, offset, limit > 0 ? limit : -1);
     }
-    if (list == null)
+    if (list == null || list.isEmpty())
       command.setResponse(Coder.getEmptyArrayResponse(context.getByteBufAllocator()));
     else
       command.setResponse(getCustomBulkStringArrayResponse(list, context));
   }
 
-  private List<ByteArrayWrapper> getRange(ByteArrayWrapper key,
-      Region<ByteArrayWrapper, DoubleWrapper> keyRegion, ExecutionHandlerContext context,
-      ByteArrayWrapper start, ByteArrayWrapper stop, boolean startInclusive, boolean stopInclusive,
-      int offset, int limit) throws FunctionDomainException, TypeMismatchException,
-      NameResolutionException, QueryInvocationTargetException {
-    if (start.equals(minus) && stop.equals(plus)) {
-      List<ByteArrayWrapper> l = new ArrayList<ByteArrayWrapper>(keyRegion.keySet());
-      int size = l.size();
-      Collections.sort(l);
-      if (limit == 0)
-        limit += size;
-      l = l.subList(Math.min(size, offset), Math.min(offset + limit, size));
-      return l;
-    } else if (start.equals(plus) || stop.equals(minus))
-      return null;
-
-    Query query;
-    Object[] params;
-    if (start.equals(minus)) {
-      if (stopInclusive) {
-        query = getQuery(key, SortedSetQuery.ZRANGEBYLEXNINFI, context);
-      } else {
-        query = getQuery(key, SortedSetQuery.ZRANGEBYLEXNINF, context);
-      }
-      params = new Object[] {stop, INFINITY_LIMIT};
-    } else if (stop.equals(plus)) {
-      if (startInclusive) {
-        query = getQuery(key, SortedSetQuery.ZRANGEBYLEXPINFI, context);
-      } else {
-        query = getQuery(key, SortedSetQuery.ZRANGEBYLEXPINF, context);
-      }
-      params = new Object[] {start, INFINITY_LIMIT};
-    } else {
-      if (startInclusive) {
-        if (stopInclusive) {
-          query = getQuery(key, SortedSetQuery.ZRANGEBYLEXSTISI, context);
-        } else {
-          query = getQuery(key, SortedSetQuery.ZRANGEBYLEXSTI, context);
-        }
-      } else {
-        if (stopInclusive) {
-          query = getQuery(key, SortedSetQuery.ZRANGEBYLEXSI, context);
-        } else {
-          query = getQuery(key, SortedSetQuery.ZRANGEBYLEX, context);
-        }
-      }
-      params = new Object[] {start, stop, INFINITY_LIMIT};
-    }
-    if (limit > 0)
-      params[params.length - 1] = (limit + offset);
-    SelectResults<ByteArrayWrapper> results =
-        (SelectResults<ByteArrayWrapper>) query.execute(params);
-    List<ByteArrayWrapper> list = results.asList();
-    int size = list.size();
-    return list.subList(Math.min(size, offset), size);
-
-  }
-
   private ByteBuf getCustomBulkStringArrayResponse(Collection<ByteArrayWrapper> items,
       ExecutionHandlerContext context) {
     Iterator<ByteArrayWrapper> it = items.iterator();
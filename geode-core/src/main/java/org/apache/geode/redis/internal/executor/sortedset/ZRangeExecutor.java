@@ -16,18 +16,13 @@ package org.apache.geode.redis.internal.executor.sortedset;
 
 import java.util.List;
 
-import org.apache.geode.cache.Region;
-import org.apache.geode.cache.query.Query;
-import org.apache.geode.cache.query.SelectResults;
 import org.apache.geode.redis.internal.ByteArrayWrapper;
 import org.apache.geode.redis.internal.Coder;
 import org.apache.geode.redis.internal.Command;
-import org.apache.geode.redis.internal.DoubleWrapper;
 import org.apache.geode.redis.internal.ExecutionHandlerContext;
 import org.apache.geode.redis.internal.Extendable;
 import org.apache.geode.redis.internal.RedisConstants.ArityDef;
-import org.apache.geode.redis.internal.RedisDataType;
-import org.apache.geode.redis.internal.executor.SortedSetQuery;
+import org.apache.geode.redis.internal.RedisSortedSet;
 
 public class ZRangeExecutor extends SortedSetExecutor implements Extendable {
 
@@ -52,10 +47,9 @@ public class ZRangeExecutor extends SortedSetExecutor implements Extendable {
 
     ByteArrayWrapper key = command.getKey();
 
-    checkDataType(key, RedisDataType.REDIS_SORTEDSET, context);
-    Region<ByteArrayWrapper, DoubleWrapper> keyRegion = getRegion(context, key);
+    RedisSortedSet sortedSet = getSortedSet(context, key);
 
-    if (keyRegion == null) {
+    if (sortedSet == null) {
       command.setResponse(Coder.getEmptyArrayResponse(context.getByteBufAllocator()));
       return;
     }
@@ -63,7 +57,7 @@ public class ZRangeExecutor extends SortedSetExecutor implements Extendable {
 
     int start;
     int stop;
-    int sSetSize = keyRegion.size();
+    int sSetSize = sortedSet.size();
 
     try {
       byte[] startArray = commandElems.get(2);
@@ -84,35 +78,11 @@ public class ZRangeExecutor extends SortedSetExecutor implements Extendable {
     }
     if (stop == sSetSize)
       stop--;
-    List<?> list;
-    try {
-      list = getRange(context, key, start, stop);
-    } catch (Exception e) {
-      throw new RuntimeException(e);
-    }
+    List<?> list = sortedSet.rangeByRank(start, stop, isReverse());
 
     command.setResponse(Coder.zRangeResponse(context.getByteBufAllocator(), list, withScores));
   }
 
-  private List<?> getRange(ExecutionHandlerContext context, ByteArrayWrapper key, int start,
-      int stop) throws Exception {
-    Query query;
-
-    if (isReverse())
-      query = getQuery(key, SortedSetQuery.ZRANGE, context);
-    else
-      query = getQuery(key, SortedSetQuery.ZREVRANGE, context);
-
-    Object[] params = {stop + 1};
-
-    SelectResults<?> results = (SelectResults<?>) query.execute(params);
-
-    List<?> list = results.asList();
-
-    return list.subList(start, stop + 1);
-
-  }
-
   protected boolean isReverse() {
     return false;
   }
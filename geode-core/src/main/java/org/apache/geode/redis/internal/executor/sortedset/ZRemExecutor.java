@@ -16,14 +16,12 @@ package org.apache.geode.redis.internal.executor.sortedset;
 
 import java.util.List;
 
-import org.apache.geode.cache.Region;
 import org.apache.geode.redis.internal.ByteArrayWrapper;
 import org.apache.geode.redis.internal.Coder;
 import org.apache.geode.redis.internal.Command;
-import org.apache.geode.redis.internal.DoubleWrapper;
 import org.apache.geode.redis.internal.ExecutionHandlerContext;
 import org.apache.geode.redis.internal.RedisConstants.ArityDef;
-import org.apache.geode.redis.internal.RedisDataType;
+import org.apache.geode.redis.internal.RedisSortedSet;
 
 public class ZRemExecutor extends SortedSetExecutor {
 
@@ -38,25 +36,29 @@ public class ZRemExecutor extends SortedSetExecutor {
 
     ByteArrayWrapper key = command.getKey();
 
-    checkDataType(key, RedisDataType.REDIS_SORTEDSET, context);
-    Region<ByteArrayWrapper, DoubleWrapper> keyRegion = getRegion(context, key);
+    context.getRegionProvider().lockKey(key);
+    try {
+      RedisSortedSet sortedSet = getSortedSetForUpdate(context, key);
 
-    if (keyRegion == null) {
-      command.setResponse(Coder.getIntegerResponse(context.getByteBufAllocator(), 0));
-      return;
-    }
+      if (sortedSet == null) {
+        command.setResponse(Coder.getIntegerResponse(context.getByteBufAllocator(), 0));
+        return;
+      }
 
-    int numDeletedMembers = 0;
+      int numDeletedMembers = 0;
 
-    for (int i = 2; i < commandElems.size(); i++) {
-      byte[] memberArray = commandElems.get(i);
-      ByteArrayWrapper member = new ByteArrayWrapper(memberArray);
-      Object oldVal = keyRegion.remove(member);
-      if (oldVal != null)
-        numDeletedMembers++;
+      for (int i = 2; i < commandElems.size(); i++) {
+        byte[] memberArray = commandElems.get(i);
+        ByteArrayWrapper member = new ByteArrayWrapper(memberArray);
+        if (sortedSet.remove(member))
+          numDeletedMembers++;
+      }
+      if (numDeletedMembers > 0)
+        storeSortedSet(context, key, sortedSet);
+      command
+          .setResponse(Coder.getIntegerResponse(context.getByteBufAllocator(), numDeletedMembers));
+    } finally {
+      context.getRegionProvider().unlockKey(key);
     }
-    if (keyRegion.isEmpty())
-      context.getRegionProvider().removeKey(key);
-    command.setResponse(Coder.getIntegerResponse(context.getByteBufAllocator(), numDeletedMembers));
   }
 }
@@ -16,19 +16,12 @@ package org.apache.geode.redis.internal.executor.sortedset;
 
 import java.util.List;
 
-import org.apache.geode.cache.Region;
-import org.apache.geode.cache.Region.Entry;
-import org.apache.geode.cache.query.Query;
-import org.apache.geode.cache.query.SelectResults;
-import org.apache.geode.cache.query.Struct;
 import org.apache.geode.redis.internal.ByteArrayWrapper;
 import org.apache.geode.redis.internal.Coder;
 import org.apache.geode.redis.internal.Command;
-import org.apache.geode.redis.internal.DoubleWrapper;
 import org.apache.geode.redis.internal.ExecutionHandlerContext;
 import org.apache.geode.redis.internal.RedisConstants.ArityDef;
-import org.apache.geode.redis.internal.RedisDataType;
-import org.apache.geode.redis.internal.executor.SortedSetQuery;
+import org.apache.geode.redis.internal.RedisSortedSet;
 
 public class ZRemRangeByRankExecutor extends SortedSetExecutor {
 
@@ -48,74 +41,50 @@ public class ZRemRangeByRankExecutor extends SortedSetExecutor {
 
     ByteArrayWrapper key = command.getKey();
 
-    checkDataType(key, RedisDataType.REDIS_SORTEDSET, context);
-    Region<ByteArrayWrapper, DoubleWrapper> keyRegion = getRegion(context, key);
+    context.getRegionProvider().lockKey(key);
+    try {
+      RedisSortedSet sortedSet = getSortedSetForUpdate(context, key);
 
-    if (keyRegion == null) {
-      command.setResponse(Coder.getIntegerResponse(context.getByteBufAllocator(), NONE_REMOVED));
-      return;
-    }
+      if (sortedSet == null) {
+        command.setResponse(Coder.getIntegerResponse(context.getByteBufAllocator(), NONE_REMOVED));
+        return;
+      }
 
-    int startRank;
-    int stopRank;
+      int startRank;
+      int stopRank;
 
-    try {
-      startRank = Coder.bytesToInt(commandElems.get(2));
-      stopRank = Coder.bytesToInt(commandElems.get(3));
-    } catch (NumberFormatException e) {
-      command.setResponse(Coder.getErrorResponse(context.getByteBufAllocator(), ERROR_NOT_NUMERIC));
-      return;
-    }
+      try {
+        startRank = Coder.bytesToInt(commandElems.get(2));
+        stopRank = Coder.bytesToInt(commandElems.get(3));
+      } catch (NumberFormatException e) {
+        command
+            .setResponse(Coder.getErrorResponse(context.getByteBufAllocator(), ERROR_NOT_NUMERIC));
+        return;
+      }
 
-    int sSetSize = keyRegion.size();
+      int sSetSize = sortedSet.size();
 
-    startRank = getBoundedStartIndex(startRank, sSetSize);
-    stopRank = getBoundedEndIndex(stopRank, sSetSize);
-    if (stopRank > sSetSize - 1)
-      stopRank = sSetSize - 1;
+      startRank = getBoundedStartIndex(startRank, sSetSize);
+      stopRank = getBoundedEndIndex(stopRank, sSetSize);
+      if (stopRank > sSetSize - 1)
+        stopRank = sSetSize - 1;
 
-    if (startRank > stopRank) {
-      command.setResponse(Coder.getIntegerResponse(context.getByteBufAllocator(), 0));
-      return;
-    }
+      if (startRank > stopRank) {
+        command.setResponse(Coder.getIntegerResponse(context.getByteBufAllocator(), 0));
+        return;
+      }
 
-    int numRemoved = 0;
-    List<?> removeList = null;
-    try {
+      int numRemoved;
       if (startRank == 0 && stopRank == sSetSize - 1) {
-        numRemoved = keyRegion.size();
+        numRemoved = sSetSize;
         context.getRegionProvider().removeKey(key);
       } else {
-        removeList = getRemoveKeys(context, key, startRank, stopRank);
-      }
-    } catch (Exception e) {
-      throw new RuntimeException(e);
-    }
-
-    if (removeList != null) {
-      for (Object entry : removeList) {
-        ByteArrayWrapper removeKey;
-        if (entry instanceof Entry)
-          removeKey = (ByteArrayWrapper) ((Entry<?, ?>) entry).getKey();
-        else
-          removeKey = (ByteArrayWrapper) ((Struct) entry).getFieldValues()[0];
-        Object oldVal = keyRegion.remove(removeKey);
-        if (oldVal != null)
-          numRemoved++;
+        numRemoved = sortedSet.removeRangeByRank(startRank, stopRank);
+        storeSortedSet(context, key, sortedSet);
       }
-      if (keyRegion.isEmpty())
-        context.getRegionProvider().removeKey(key);
+      command.setResponse(Coder.getIntegerResponse(context.getByteBufAllocator(), numRemoved));
+    } finally {
+      context.getRegionProvider().unlockKey(key);
     }
-    command.setResponse(Coder.getIntegerResponse(context.getByteBufAllocator(), numRemoved));
-  }
-
-  private List<?> getRemoveKeys(ExecutionHandlerContext context, ByteArrayWrapper key,
-      int startRank, int stopRank) throws Exception {
-    Query query = getQuery(key, SortedSetQuery.ZREMRANGEBYRANK, context);
-    Object[] params = {stopRank + 1};
-
-    SelectResults<?> results = (SelectResults<?>) query.execute(params);
-
-    return results.asList().subList(startRank, stopRank + 1);
   }
 }
@@ -14,22 +14,14 @@
  */
 package org.apache.geode.redis.internal.executor.sortedset;
 
-import java.util.Collection;
 import java.util.List;
-import java.util.Map.Entry;
 
-import org.apache.geode.cache.Region;
-import org.apache.geode.cache.query.Query;
-import org.apache.geode.cache.query.SelectResults;
-import org.apache.geode.cache.query.Struct;
 import org.apache.geode.redis.internal.ByteArrayWrapper;
 import org.apache.geode.redis.internal.Coder;
 import org.apache.geode.redis.internal.Command;
-import org.apache.geode.redis.internal.DoubleWrapper;
 import org.apache.geode.redis.internal.ExecutionHandlerContext;
 import org.apache.geode.redis.internal.RedisConstants.ArityDef;
-import org.apache.geode.redis.internal.RedisDataType;
-import org.apache.geode.redis.internal.executor.SortedSetQuery;
+import org.apache.geode.redis.internal.RedisSortedSet;
 
 public class ZRemRangeByScoreExecutor extends SortedSetExecutor {
 
@@ -49,97 +41,56 @@ public class ZRemRangeByScoreExecutor extends SortedSetExecutor {
 
     ByteArrayWrapper key = command.getKey();
 
-    checkDataType(key, RedisDataType.REDIS_SORTEDSET, context);
-    Region<ByteArrayWrapper, DoubleWrapper> keyRegion = getRegion(context, key);
-
-    if (keyRegion == null) {
-      command.setResponse(Coder.getIntegerResponse(context.getByteBufAllocator(), NOT_EXISTS));
-      return;
-    }
-
-    boolean startInclusive = true;
-    boolean stopInclusive = true;
-    double start;
-    double stop;
-
-    byte[] startArray = commandElems.get(2);
-    byte[] stopArray = commandElems.get(3);
-    String startString = Coder.bytesToString(startArray);
-    String stopString = Coder.bytesToString(stopArray);
-    if (startArray[0] == Coder.OPEN_BRACE_ID) {
-      startString = startString.substring(1);
-      startInclusive = false;
-    }
-    if (stopArray[0] == Coder.OPEN_BRACE_ID) {
-      stopString = stopString.substring(1);
-      stopInclusive = false;
-    }
-
+    context.getRegionProvider().lockKey(key);
     try {
-      start = Coder.stringToDouble(startString);
-      stop = Coder.stringToDouble(stopString);
-    } catch (NumberFormatException e) {
-      command.setResponse(Coder.getErrorResponse(context.getByteBufAllocator(), ERROR_NOT_NUMERIC));
-      return;
-    }
+      RedisSortedSet sortedSet = getSortedSetForUpdate(context, key);
 
-    int numRemoved = 0;
+      if (sortedSet == null) {
+        command.setResponse(Coder.getIntegerResponse(context.getByteBufAllocator(), NOT_EXISTS));
+        return;
+      }
 
-    Collection<?> removeList = null;
-    try {
-      if (start == Double.NEGATIVE_INFINITY && stop == Double.POSITIVE_INFINITY && startInclusive
-          && stopInclusive) {
-        numRemoved = keyRegion.size();
-        context.getRegionProvider().removeKey(key);
-      } else {
-        removeList = getKeys(context, key, keyRegion, start, stop, startInclusive, stopInclusive);
+      boolean startInclusive = true;
+      boolean stopInclusive = true;
+      double start;
+      double stop;
+
+      byte[] startArray = commandElems.get(2);
+      byte[] stopArray = commandElems.get(3);
+      String startString = Coder.bytesToString(startArray);
+      String stopString = Coder.bytesToString(stopArray);
+      if (startArray[0] == Coder.OPEN_BRACE_ID) {
+        startString = startString.substring(1);
+        startInclusive = false;
+      }
+      if (stopArray[0] == Coder.OPEN_BRACE_ID) {
+        stopString = stopString.substring(1);
+        stopInclusive = false;
       }
-    } catch (Exception e) {
-      throw new RuntimeException(e);
-    }
 
-    if (removeList != null) {
-      for (Object entry : removeList) {
-        ByteArrayWrapper remove = null;
-        if (entry instanceof Entry)
-          remove = (ByteArrayWrapper) ((Entry<?, ?>) entry).getKey();
-        else if (entry instanceof Struct)
-          remove = (ByteArrayWrapper) ((Struct) entry).getFieldValues()[0];
-        Object oldVal = keyRegion.remove(remove);
-        if (oldVal != null)
-          numRemoved++;
-        if (keyRegion.isEmpty())
-          context.getRegionProvider().removeKey(key);
+      try {
+        start = Coder.stringToDouble(startString);
+        stop = Coder.stringToDouble(stopString);
+      } catch (NumberFormatException e) {
+        command
+            .setResponse(Coder.getErrorResponse(context.getByteBufAllocator(), ERROR_NOT_NUMERIC));
+        return;
       }
-    }
-    command.setResponse(Coder.getIntegerResponse(context.getByteBufAllocator(), numRemoved));
-  }
 
-  private Collection<?> getKeys(ExecutionHandlerContext context, ByteArrayWrapper key,
-      Region<ByteArrayWrapper, DoubleWrapper> keyRegion, double start, double stop,
-      boolean startInclusive, boolean stopInclusive) throws Exception {
-    if (start == Double.POSITIVE_INFINITY || stop == Double.NEGATIVE_INFINITY || (start > stop))
-      return null;
+      int numRemoved;
 
-    Query query;
-    Object[] params;
-    if (startInclusive) {
-      if (stopInclusive) {
-        query = getQuery(key, SortedSetQuery.ZRBSSTISI, context);
-      } else {
-        query = getQuery(key, SortedSetQuery.ZRBSSTI, context);
-      }
-    } else {
-      if (stopInclusive) {
-        query = getQuery(key, SortedSetQuery.ZRBSSI, context);
+      if (start == Double.NEGATIVE_INFINITY && stop == Double.POSITIVE_INFINITY && startInclusive
+          && stopInclusive) {
+        numRemoved = sortedSet.size();
+        context.getRegionProvider().removeKey(key);
       } else {
-        query = getQuery(key, SortedSetQuery.ZRBS, context);
+        numRemoved = sortedSet.removeRangeByScore(start, startInclusive, stop, stopInclusive);
+        if (numRemoved > 0)
+          storeSortedSet(context, key, sortedSet);
       }
+      command.setResponse(Coder.getIntegerResponse(context.getByteBufAllocator(), numRemoved));
+    } finally {
+      context.getRegionProvider().unlockKey(key);
     }
-    params = new Object[] {start, stop, INFINITY_LIMIT};
-
-    SelectResults<?> results = (SelectResults<?>) query.execute(params);
-
-    return (Collection<?>) results.asList();
   }
 }
@@ -0,0 +1,95 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.cache.query.internal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.apache.geode.cache.query.internal.index.IndexProtocol;
+
+public class CompiledJunctionJUnitTest {
+
+  private ExecutionContext context;
+
+  private QueryObserver observer;
+
+  @Before
+  public void setUp() {
+    context = mock(ExecutionContext.class);
+    observer = mock(QueryObserver.class);
+    QueryObserverHolder.setInstance(observer);
+  }
+
+  @After
+  public void tearDown() {
+    QueryObserverHolder.reset();
+  }
+
+  @Test
+  public void sortsOperandsOnIncreasingSizeEstimate() throws Exception {
+    CompiledComparison large = comparison(100, mock(IndexProtocol.class));
+    CompiledComparison small = comparison(10, mock(IndexProtocol.class));
+    CompiledComparison medium = comparison(50, mock(IndexProtocol.class));
+
+    List sorted = CompiledJunction.sortOnIncreasingEstimatedIndexResultSize(
+        new CompiledValue[] {large, small, medium}, true, context);
+
+    assertThat(sorted).containsExactly(small, medium, large);
+  }
+
+  @Test
+  public void reportsOnlyTheConditionPickedForAnAndJunction() throws Exception {
+    IndexProtocol smallIndex = mock(IndexProtocol.class);
+    CompiledComparison large = comparison(100, mock(IndexProtocol.class));
+    CompiledComparison small = comparison(10, smallIndex);
+    CompiledComparison medium = comparison(50, mock(IndexProtocol.class));
+
+    CompiledJunction.sortOnIncreasingEstimatedIndexResultSize(
+        new CompiledValue[] {large, small, medium}, true, context);
+
+    verify(observer).afterFilterSelection(any(), any(), anyInt());
+    verify(observer).afterFilterSelection(small, smallIndex, 10);
+  }
+
+  @Test
+  public void reportsNoConditionForAnOrJunction() throws Exception {
+    CompiledComparison large = comparison(100, mock(IndexProtocol.class));
+    CompiledComparison small = comparison(10, mock(IndexProtocol.class));
+
+    CompiledJunction.sortOnIncreasingEstimatedIndexResultSize(
+        new CompiledValue[] {large, small}, false, context);
+
+    verify(observer, never()).afterFilterSelection(any(), any(), anyInt());
+  }
+
+  private CompiledComparison comparison(int sizeEstimate, IndexProtocol index) throws Exception {
+    CompiledComparison comparison = mock(CompiledComparison.class);
+    when(comparison.getSizeEstimate(context)).thenReturn(sizeEstimate);
+    when(comparison.getIndexInfo(context))
+        .thenReturn(new IndexInfo[] {new IndexInfo(null, null, index, 0, null, 0)});
+    return comparison;
+  }
+}
@@ -0,0 +1,120 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.cache.query.internal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import org.junit.Test;
+
+import org.apache.geode.cache.query.QueryInvalidException;
+import org.apache.geode.internal.cache.CachePerfStats;
+
+public class CompiledQueryCacheJUnitTest {
+
+  private static final String QUERY = "select * from /portfolios p where p.ID > $1";
+
+  private final CachePerfStats stats = mock(CachePerfStats.class);
+
+  @Test
+  public void returnsTheCachedQueryOnAHit() {
+    CompiledQueryCache cache = new CompiledQueryCache(10, this.stats);
+
+    CompiledQueryCache.CompiledQuery first = cache.get(QUERY, null, false);
+    CompiledQueryCache.CompiledQuery second = cache.get(QUERY, null, false);
+
+    assertThat(second).isSameAs(first);
+    assertThat(cache.size()).isEqualTo(1);
+    verify(this.stats).incCompiledQueryCacheMisses();
+    verify(this.stats).incCompiledQueryCacheHits();
+  }
+
+  @Test
+  public void keepsRemoteQueriesApart() {
+    CompiledQueryCache cache = new CompiledQueryCache(10, this.stats);
+
+    CompiledQueryCache.CompiledQuery local = cache.get(QUERY, null, false);
+    CompiledQueryCache.CompiledQuery remote = cache.get(QUERY, null, true);
+
+    assertThat(remote).isNotSameAs(local);
+    assertThat(cache.size()).isEqualTo(2);
+    verify(this.stats, times(2)).incCompiledQueryCacheMisses();
+  }
+
+  @Test
+  public void doesNotCacheRemoteQueriesTransformedOnExecution() {
+    CompiledQueryCache cache = new CompiledQueryCache(10, this.stats);
+    String query = "select distinct * from /portfolios p order by p.ID";
+
+    CompiledQueryCache.CompiledQuery first = cache.get(query, null, true);
+    CompiledQueryCache.CompiledQuery second = cache.get(query, null, true);
+
+    assertThat(second).isNotSameAs(first);
+    assertThat(cache.size()).isEqualTo(0);
+  }
+
+  @Test
+  public void evictsQueriesNotUsedSinceTheCacheWasLastFull() {
+    CompiledQueryCache cache = new CompiledQueryCache(2, this.stats);
+    String other = "select * from /portfolios p where p.status = $1";
+
+    CompiledQueryCache.CompiledQuery kept = cache.get(QUERY, null, false);
+    CompiledQueryCache.CompiledQuery evicted = cache.get(other, null, false);
+    // full, every query is marked unused
+    cache.get("select * from /portfolios", null, false);
+    assertThat(cache.size()).isEqualTo(3);
+
+    cache.get(QUERY, null, false);
+    // full again, only the queries used or added since are kept
+    cache.get("select * from /positions", null, false);
+
+    assertThat(cache.size()).isEqualTo(3);
+    assertThat(cache.get(QUERY, null, false)).isSameAs(kept);
+    assertThat(cache.get(other, null, false)).isNotSameAs(evicted);
+  }
+
+  @Test
+  public void compilesAgainOnceCleared() {
+    CompiledQueryCache cache = new CompiledQueryCache(10, this.stats);
+
+    CompiledQueryCache.CompiledQuery first = cache.get(QUERY, null, false);
+    cache.clear();
+
+    assertThat(cache.size()).isEqualTo(0);
+    assertThat(cache.get(QUERY, null, false)).isNotSameAs(first);
+  }
+
+  @Test
+  public void doesNotCacheIfDisabled() {
+    CompiledQueryCache cache = new CompiledQueryCache(0, this.stats);
+
+    CompiledQueryCache.CompiledQuery first = cache.get(QUERY, null, false);
+
+    assertThat(cache.get(QUERY, null, false)).isNotSameAs(first);
+    assertThat(cache.size()).isEqualTo(0);
+  }
+
+  @Test
+  public void doesNotCacheInvalidQueries() {
+    CompiledQueryCache cache = new CompiledQueryCache(10, this.stats);
+
+    assertThatThrownBy(() -> cache.get("select * fro /portfolios", null, false))
+        .isInstanceOf(QueryInvalidException.class);
+    assertThat(cache.size()).isEqualTo(0);
+  }
+}
@@ -0,0 +1,216 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.cache.query.internal.index;
+
+import static org.apache.geode.cache.query.internal.parse.OQLLexerTokenTypes.TOK_LT;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.apache.geode.cache.RegionAttributes;
+import org.apache.geode.internal.cache.LocalRegion;
+
+public class AbstractIndexHistogramJUnitTest {
+
+  private final ConcurrentSkipListMap<Object, Integer> keys = new ConcurrentSkipListMap<>();
+
+  private final AtomicInteger builds = new AtomicInteger();
+
+  private CountDownLatch buildStarted;
+
+  private CountDownLatch finishBuild;
+
+  private volatile boolean failBuild;
+
+  private volatile boolean keepsNoHistogram;
+
+  private HistogramIndex index;
+
+  private ExecutorService executor;
+
+  @Before
+  public void setUp() {
+    LocalRegion region = mock(LocalRegion.class);
+    when(region.getAttributes()).thenReturn(mock(RegionAttributes.class));
+    index = new HistogramIndex(region);
+    executor = Executors.newSingleThreadExecutor();
+    for (int i = 0; i < 10; i++) {
+      keys.put(i, 1);
+    }
+  }
+
+  @After
+  public void tearDown() {
+    finishBuild();
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void buildsTheHistogramInTheBackgroundOnceUntilItIsStale() throws Exception {
+    assertThat(index.getHistogram()).isNull();
+    awaitBuilds();
+    IndexHistogram histogram = index.getHistogram();
+
+    assertThat(histogram.getNumValues()).isEqualTo(10);
+    assertThat(index.getHistogram()).isSameAs(histogram);
+    awaitBuilds();
+    assertThat(builds).hasValue(1);
+
+    makeStale();
+
+    assertThat(index.getHistogram()).isSameAs(histogram);
+    awaitBuilds();
+    assertThat(index.getHistogram()).isNotSameAs(histogram);
+    assertThat(builds).hasValue(2);
+  }
+
+  @Test
+  public void keepsUsingTheStaleHistogramWhileItIsRebuilt() throws Exception {
+    index.getHistogram();
+    awaitBuilds();
+    IndexHistogram stale = index.getHistogram();
+    makeStale();
+    keys.put(10, 1);
+
+    startBlockedBuild();
+
+    assertThat(index.getHistogram()).isSameAs(stale);
+    assertThat(index.getHistogramSizeEstimate(5, TOK_LT, 0)).isEqualTo(5);
+    finishBuild();
+    awaitBuilds();
+    IndexHistogram histogram = index.getHistogram();
+    assertThat(histogram.getNumValues()).isEqualTo(11);
+    assertThat(builds).hasValue(2);
+  }
+
+  @Test
+  public void doesNotWaitForTheFirstHistogram() throws Exception {
+    startBlockedBuild();
+
+    assertThat(index.getHistogram()).isNull();
+    assertThat(index.getHistogramSizeEstimate(5, TOK_LT, 0)).isEqualTo(-1);
+    finishBuild();
+    awaitBuilds();
+    assertThat(index.getHistogram()).isNotNull();
+    assertThat(builds).hasValue(1);
+  }
+
+  @Test
+  public void buildsTheHistogramAgainAfterAFailedBuild() throws Exception {
+    failBuild = true;
+    assertThat(index.getHistogram()).isNull();
+    awaitBuilds();
+    failBuild = false;
+
+    assertThat(index.getHistogram()).isNull();
+    awaitBuilds();
+    assertThat(index.getHistogram()).isNotNull();
+    assertThat(builds).hasValue(2);
+  }
+
+  @Test
+  public void doesNotScheduleBuildsForAnIndexWithoutHistogram() throws Exception {
+    keepsNoHistogram = true;
+    assertThat(index.getHistogram()).isNull();
+    awaitBuilds();
+
+    assertThat(index.getHistogram()).isNull();
+    assertThat(index.getHistogramSizeEstimate(5, TOK_LT, 0)).isEqualTo(-1);
+    awaitBuilds();
+    assertThat(builds).hasValue(1);
+  }
+
+  @Test
+  public void discardsTheHistogramOfAnIndexRemovedWhileItIsBuilt() throws Exception {
+    startBlockedBuild();
+
+    index.markValid(false);
+    finishBuild();
+    awaitBuilds();
+
+    assertThat(index.getHistogram()).isNull();
+    awaitBuilds();
+    assertThat(builds).hasValue(1);
+  }
+
+  private void makeStale() {
+    for (int i = 0; i < 10; i++) {
+      index.updateIndexUpdateStats(index.updateIndexUpdateStats());
+    }
+  }
+
+  private void startBlockedBuild() throws InterruptedException {
+    buildStarted = new CountDownLatch(1);
+    finishBuild = new CountDownLatch(1);
+    index.getHistogram();
+    assertThat(buildStarted.await(1, TimeUnit.MINUTES)).isTrue();
+  }
+
+  private void finishBuild() {
+    if (finishBuild != null) {
+      finishBuild.countDown();
+    }
+  }
+
+  /** Waits for the builds scheduled so far, the executor runs them in order on a single thread */
+  private void awaitBuilds() throws Exception {
+    executor.submit(() -> {
+    }).get(1, TimeUnit.MINUTES);
+  }
+
+  private class HistogramIndex extends PrimaryKeyIndex {
+
+    HistogramIndex(LocalRegion region) {
+      super(null, "histogramIndex", region, null, null, null, null, null, null, null);
+    }
+
+    @Override
+    Executor getHistogramBuilder() {
+      return executor;
+    }
+
+    @Override
+    IndexHistogram buildHistogram() {
+      builds.incrementAndGet();
+      if (failBuild) {
+        throw new IllegalStateException("failed build");
+      }
+      if (keepsNoHistogram) {
+        return null;
+      }
+      if (buildStarted != null) {
+        buildStarted.countDown();
+        try {
+          finishBuild.await(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }
+      return IndexHistogram.build(keys, values -> (Integer) values, IndexHistogram.MAX_BUCKETS);
+    }
+  }
+}
@@ -0,0 +1,100 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.cache.query.internal.index;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.NavigableSet;
+import java.util.TreeSet;
+
+import org.junit.Test;
+
+import org.apache.geode.cache.query.QueryService;
+import org.apache.geode.cache.query.internal.CompiledCompositeKey;
+import org.apache.geode.pdx.internal.PdxString;
+
+public class CompositeIndexKeyJUnitTest {
+
+  @Test
+  public void ordersKeysOnTheirComponentsInTurn() {
+    assertThat(key("a", 2)).isLessThan(key("b", 1));
+    assertThat(key("a", 1)).isLessThan(key("a", 2));
+    assertThat(key("a", 1)).isEqualByComparingTo(key("a", 1));
+  }
+
+  @Test
+  public void ordersUndefinedBeforeNullBeforeValues() {
+    assertThat(key("a", QueryService.UNDEFINED)).isLessThan(key("a", IndexManager.NULL));
+    assertThat(key("a", IndexManager.NULL)).isLessThan(key("a", Integer.MIN_VALUE));
+    assertThat(key(IndexManager.NULL, "z")).isLessThan(key("", "a"));
+  }
+
+  @Test
+  public void comparesNumbersOfDifferentTypesOnTheirValues() {
+    assertThat(key("a", 1)).isEqualTo(key("a", 1L));
+    assertThat(key("a", 1).hashCode()).isEqualTo(key("a", 1L).hashCode());
+    assertThat(key("a", 1.5d)).isLessThan(key("a", 2L));
+  }
+
+  @Test
+  public void comparesStringsWithPdxStrings() {
+    assertThat(key(new PdxString("a"), 1)).isEqualTo(key("a", 1));
+    assertThat(key(new PdxString("a"), 1).hashCode()).isEqualTo(key("a", 1).hashCode());
+    assertThat(key(new PdxString("a"), 1)).isLessThan(key("b", 1));
+  }
+
+  @Test
+  public void boundsTheKeysWithAPrefix() {
+    NavigableSet<CompositeIndexKey> keys = new TreeSet<>();
+    keys.add(key("a", 1));
+    keys.add(key("b", IndexManager.NULL));
+    keys.add(key("b", 1));
+    keys.add(key("b", 2));
+    keys.add(key("c", 1));
+
+    assertThat(keys.subSet(bound(-1, "b"), bound(1, "b")))
+        .containsExactly(key("b", IndexManager.NULL), key("b", 1), key("b", 2));
+    assertThat(keys.subSet(bound(1, "b", 1), bound(1, "b"))).containsExactly(key("b", 2));
+    assertThat(keys.subSet(bound(-1, "b", 1), bound(-1, "b", 2))).containsExactly(key("b", 1));
+    assertThat(keys.subSet(bound(1, "b", IndexManager.NULL), bound(1, "b", 2)))
+        .containsExactly(key("b", 1), key("b", 2));
+    assertThat(key("b")).isLessThan(key("b", IndexManager.NULL));
+  }
+
+  @Test
+  public void keepsValuesOfDifferentTypesApart() {
+    assertThat(key("a", "1").compareTo(key("a", 1))).isNotZero();
+    assertThat(key("a", "1").compareTo(key("a", 1)))
+        .isEqualTo(-key("a", 1).compareTo(key("a", "1")));
+  }
+
+  @Test
+  public void splitsACompositeIndexedExpression() {
+    assertThat(CompiledCompositeKey.splitExpressions("p.status, p.region,p.ts"))
+        .containsExactly("p.status", "p.region", "p.ts");
+    assertThat(CompiledCompositeKey.splitExpressions("p.positions['a,b']"))
+        .containsExactly("p.positions['a,b']");
+    assertThat(CompiledCompositeKey.splitExpressions("nvl(p.status, 'x'), p.get('a', 'b')"))
+        .containsExactly("nvl(p.status, 'x')", "p.get('a', 'b')");
+  }
+
+  private static CompositeIndexKey key(Object... components) {
+    return new CompositeIndexKey(components);
+  }
+
+  private static CompositeIndexKey bound(int bound, Object... components) {
+    return new CompositeIndexKey(components, bound);
+  }
+}
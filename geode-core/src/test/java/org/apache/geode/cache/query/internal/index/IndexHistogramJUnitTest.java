@@ -0,0 +1,149 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.cache.query.internal.index;
+
+import static org.apache.geode.cache.query.internal.parse.OQLLexerTokenTypes.TOK_GE;
+import static org.apache.geode.cache.query.internal.parse.OQLLexerTokenTypes.TOK_GT;
+import static org.apache.geode.cache.query.internal.parse.OQLLexerTokenTypes.TOK_LE;
+import static org.apache.geode.cache.query.internal.parse.OQLLexerTokenTypes.TOK_LT;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import org.junit.Test;
+
+import org.apache.geode.cache.query.QueryService;
+import org.apache.geode.cache.query.internal.types.TypeUtils;
+
+public class IndexHistogramJUnitTest {
+
+  private final ConcurrentSkipListMap<Object, Integer> index =
+      new ConcurrentSkipListMap<>(TypeUtils.getExtendedNumericComparator());
+
+  private IndexHistogram build(int maxBuckets) {
+    return IndexHistogram.build(this.index, values -> (Integer) values, maxBuckets);
+  }
+
+  @Test
+  public void estimatesExactlyWithABucketPerKey() {
+    for (int i = 0; i < 10; i++) {
+      this.index.put(i, 1);
+    }
+    IndexHistogram histogram = build(10);
+
+    assertThat(histogram.getNumKeys()).isEqualTo(10);
+    assertThat(histogram.getNumValues()).isEqualTo(10);
+    assertThat(histogram.getSizeEstimate(3, TOK_LT)).isEqualTo(3);
+    assertThat(histogram.getSizeEstimate(3, TOK_LE)).isEqualTo(4);
+    assertThat(histogram.getSizeEstimate(3, TOK_GT)).isEqualTo(6);
+    assertThat(histogram.getSizeEstimate(3, TOK_GE)).isEqualTo(7);
+  }
+
+  @Test
+  public void estimatesKeysOutsideOfTheIndex() {
+    for (int i = 10; i < 20; i++) {
+      this.index.put(i, 2);
+    }
+    IndexHistogram histogram = build(4);
+
+    assertThat(histogram.getSizeEstimate(5, TOK_LT)).isEqualTo(0);
+    assertThat(histogram.getSizeEstimate(5, TOK_GE)).isEqualTo(20);
+    assertThat(histogram.getSizeEstimate(25, TOK_LE)).isEqualTo(20);
+    assertThat(histogram.getSizeEstimate(25, TOK_GT)).isEqualTo(0);
+    assertThat(histogram.getSizeEstimate(10, TOK_LE)).isEqualTo(2);
+    assertThat(histogram.getSizeEstimate(19, TOK_GE)).isEqualTo(2);
+  }
+
+  @Test
+  public void interpolatesWithinABucket() {
+    for (int i = 0; i < 1000; i++) {
+      this.index.put(i, 1);
+    }
+    IndexHistogram histogram = build(8);
+
+    assertThat(histogram.getSizeEstimate(500, TOK_LT)).isBetween(495, 505);
+    assertThat(histogram.getSizeEstimate(990, TOK_GT)).isBetween(5, 15);
+  }
+
+  @Test
+  public void followsSkewedValues() {
+    // half of the values are mapped to a single key at the top of the range, which a linear
+    // interpolation between the smallest and the largest key would miss
+    for (int i = 0; i < 100; i++) {
+      this.index.put(i, 1);
+    }
+    this.index.put(1000, 100);
+    IndexHistogram histogram = build(16);
+
+    assertThat(histogram.getSizeEstimate(1000, TOK_GE)).isEqualTo(100);
+    assertThat(histogram.getSizeEstimate(100, TOK_LT)).isBetween(90, 100);
+    assertThat(histogram.getSizeEstimate(50, TOK_LT)).isBetween(40, 60);
+  }
+
+  @Test
+  public void estimatesKeysWhichAreNotNumbers() {
+    for (char c = 'a'; c <= 'z'; c++) {
+      this.index.put(String.valueOf(c), 1);
+    }
+    IndexHistogram histogram = build(26);
+
+    assertThat(histogram.getSizeEstimate("c", TOK_LT)).isEqualTo(2);
+    assertThat(histogram.getSizeEstimate("x", TOK_GE)).isEqualTo(3);
+    assertThat(histogram.getSizeEstimate("bb", TOK_LE)).isEqualTo(2);
+  }
+
+  @Test
+  public void leavesOutNullAndUndefinedKeys() {
+    this.index.put(IndexManager.NULL, 5);
+    this.index.put(QueryService.UNDEFINED, 5);
+    this.index.put(1, 1);
+    this.index.put(2, 1);
+    IndexHistogram histogram = build(4);
+
+    assertThat(histogram.getNumKeys()).isEqualTo(2);
+    assertThat(histogram.getNumValues()).isEqualTo(2);
+    assertThat(histogram.getSizeEstimate(0, TOK_GT)).isEqualTo(2);
+  }
+
+  @Test
+  public void estimatesNothingForAnEmptyIndex() {
+    IndexHistogram histogram = build(4);
+
+    assertThat(histogram.getSizeEstimate(1, TOK_LT)).isEqualTo(0);
+    assertThat(histogram.getSizeEstimate(1, TOK_GE)).isEqualTo(0);
+  }
+
+  @Test
+  public void isStaleOnceAFractionOfTheValuesWereUpdated() {
+    for (int i = 0; i < 100; i++) {
+      this.index.put(i, 1);
+    }
+    IndexHistogram histogram = build(4);
+
+    assertThat(histogram.isStale(10)).isFalse();
+    assertThat(histogram.isStale(11)).isTrue();
+  }
+
+  @Test
+  public void throwsForKeysOfAnotherType() {
+    this.index.put(1, 1);
+    this.index.put(2, 1);
+    IndexHistogram histogram = build(4);
+
+    assertThatThrownBy(() -> histogram.getSizeEstimate("a", TOK_LT))
+        .isInstanceOf(ClassCastException.class);
+  }
+}
@@ -41,7 +41,7 @@ public class MemoryIndexStoreJUnitTest {
   Region region;
   GemFireCacheImpl cache;
   InternalIndexStatistics mockStats;
-  MemoryIndexStore store;
+  AbstractMemoryIndexStore store;
   RegionEntry[] mockEntries;
   int numMockEntries = 10;
   GemFireCacheImpl actualInstance;
@@ -52,6 +52,11 @@ public class MemoryIndexStoreJUnitTest {
     return mock(LocalRegion.class);
   }
 
+  protected AbstractMemoryIndexStore createStore(Region region,
+      InternalIndexStatistics internalIndexStats, GemFireCacheImpl cache) {
+    return new MemoryIndexStore(region, internalIndexStats, cache);
+  }
+
   @Before
   public void setup() {
     subclassPreSetup();
@@ -59,7 +64,7 @@ public class MemoryIndexStoreJUnitTest {
     cache = mock(GemFireCacheImpl.class);
     mockStats = mock(AbstractIndex.InternalIndexStatistics.class);
 
-    store = new MemoryIndexStore(region, mockStats, cache);
+    store = createStore(region, mockStats, cache);
     store.setIndexOnValues(true);
     mockEntries = new RegionEntry[numMockEntries];
     IntStream.range(0, numMockEntries).forEach(i -> {
@@ -345,12 +350,12 @@ public class MemoryIndexStoreJUnitTest {
     assertEquals(0, numObjectsInStore(store));
   }
 
-  private int numObjectsInStore(MemoryIndexStore store) {
+  int numObjectsInStore(AbstractMemoryIndexStore store) {
     Iterator iterator = store.iterator(null);
     return numObjectsIterated(iterator);
   }
 
-  private int numObjectsIterated(Iterator iterator) {
+  int numObjectsIterated(Iterator iterator) {
     int count = 0;
     while (iterator.hasNext()) {
       iterator.next();
@@ -359,14 +364,10 @@ public class MemoryIndexStoreJUnitTest {
     return count;
   }
 
-  private boolean objectContainedIn(MemoryIndexStore store, Object o) {
-    Iterator iterator = store.valueToEntriesMap.values().iterator();
-    return objectContainedIn(iterator, o);
-  }
-
-  private boolean objectContainedIn(Iterator iterator, Object o) {
+  private boolean objectContainedIn(AbstractMemoryIndexStore store, Object o) {
+    Iterator iterator = store.iterator(null);
     while (iterator.hasNext()) {
-      if (iterator.next().equals(o)) {
+      if (((MemoryIndexStore.MemoryIndexStoreEntry) iterator.next()).getRegionEntry().equals(o)) {
         return true;
       }
     }
@@ -383,7 +384,7 @@ public class MemoryIndexStoreJUnitTest {
     });
   }
 
-  private RegionEntry createRegionEntry(Object key, Object value) {
+  RegionEntry createRegionEntry(Object key, Object value) {
     RegionEntry mockEntry = mock(RegionEntry.class);
     when(mockEntry.getValue(any())).thenReturn(value);
     when(mockEntry.getKey()).thenReturn(key);
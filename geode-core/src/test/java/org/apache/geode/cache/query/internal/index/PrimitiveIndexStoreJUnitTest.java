@@ -0,0 +1,163 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.cache.query.internal.index;
+
+import static org.apache.geode.cache.query.internal.parse.OQLLexerTokenTypes.TOK_LT;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+import org.junit.Test;
+
+import org.apache.geode.cache.Region;
+import org.apache.geode.cache.query.internal.index.AbstractIndex.InternalIndexStatistics;
+import org.apache.geode.internal.cache.GemFireCacheImpl;
+import org.apache.geode.internal.cache.RegionEntry;
+
+public class PrimitiveIndexStoreJUnitTest extends MemoryIndexStoreJUnitTest {
+
+  private static final int NUM_KEYS = PrimitiveIndexStore.MAX_LEAF_SIZE * 20;
+
+  @Override
+  protected AbstractMemoryIndexStore createStore(Region region,
+      InternalIndexStatistics internalIndexStats, GemFireCacheImpl cache) {
+    return new PrimitiveIndexStore(region, internalIndexStats, cache);
+  }
+
+  @Test
+  public void iteratesKeysSpreadOverManyLeavesInOrder() throws Exception {
+    addShuffled(LongStream.range(0, NUM_KEYS).boxed().collect(Collectors.toList()));
+
+    assertThat(store.size()).isEqualTo(NUM_KEYS);
+    assertThat(keys(store.iterator(null))).isEqualTo(longs(0, NUM_KEYS));
+    assertThat(keys(store.descendingIterator(null))).isEqualTo(reversed(longs(0, NUM_KEYS)));
+    assertThat(keys(store.iterator(100L, false, 1000L, true, null))).isEqualTo(longs(101, 1001));
+    assertThat(keys(store.descendingIterator(100L, true, 1000L, false, null)))
+        .isEqualTo(reversed(longs(100, 1000)));
+    assertThat(keys(store.iterator(NUM_KEYS - 10L, true, null)))
+        .isEqualTo(longs(NUM_KEYS - 10, NUM_KEYS));
+    assertThat(keys(store.iterator(null, false, 10L, false, null))).isEqualTo(longs(0, 10));
+  }
+
+  @Test
+  public void removesLeavesWhichBecomeEmpty() throws Exception {
+    List<RegionEntry> entries = addShuffled(LongStream.range(0, NUM_KEYS).boxed()
+        .collect(Collectors.toList()));
+    for (int i = 100; i < NUM_KEYS - 100; i++) {
+      store.removeMapping((long) i, entries.get(i));
+    }
+
+    List<Long> expected = longs(0, 100);
+    expected.addAll(longs(NUM_KEYS - 100, NUM_KEYS));
+    assertThat(store.size()).isEqualTo(200);
+    assertThat(keys(store.iterator(null))).isEqualTo(expected);
+    assertThat(keys(store.descendingIterator(null))).isEqualTo(reversed(expected));
+    assertThat(keys(store.iterator(50L, true, NUM_KEYS - 50L, false, null)))
+        .hasSize(100);
+
+    store.addMapping(500L, createRegionEntry(500L, new Object()));
+    assertThat(numObjectsIterated(store.get(500L))).isEqualTo(1);
+    assertThat(keys(store.iterator(99L, true, NUM_KEYS - 100L, false, null)))
+        .containsExactly(99L, 500L);
+  }
+
+  @Test
+  public void comparesKeysOfDifferentNumericTypes() throws Exception {
+    store.addMapping(2, createRegionEntry(1, new Object()));
+    store.addMapping(1L, createRegionEntry(2, new Object()));
+    store.addMapping(1.5d, createRegionEntry(3, new Object()));
+    store.addMapping(3L, createRegionEntry(4, new Object()));
+
+    assertThat(keys(store.iterator(null))).containsExactly(1L, 1.5d, 2, 3L);
+    assertThat(numObjectsIterated(store.get(2L))).isEqualTo(1);
+    assertThat(numObjectsIterated(store.iterator(1, false, 3, false, null))).isEqualTo(2);
+  }
+
+  @Test
+  public void keepsTheEntriesOfAKeyWithManyEntries() throws Exception {
+    List<RegionEntry> entries = new ArrayList<>();
+    for (int i = 0; i < IndexManager.INDEX_ELEMARRAY_THRESHOLD * 2; i++) {
+      RegionEntry entry = createRegionEntry(i, new Object());
+      entries.add(entry);
+      store.addMapping("key", entry);
+      store.addMapping("key", entry);
+    }
+    assertThat(store.size("key")).isEqualTo(entries.size());
+
+    for (RegionEntry entry : entries) {
+      store.removeMapping("key", entry);
+    }
+    assertThat(store.size("key")).isEqualTo(0);
+    assertThat(store.size()).isEqualTo(0);
+  }
+
+  @Test
+  public void keepsAnEntryUpdatedToAnEqualKeyOfANarrowerType() throws Exception {
+    RegionEntry entry = createRegionEntry(1, new Object());
+    store.addMapping((short) 5, entry);
+    store.updateMapping((short) 5, (short) 5, entry, null);
+
+    assertThat(numObjectsIterated(store.get(5))).isEqualTo(1);
+  }
+
+  @Test
+  public void buildsAHistogramOfTheKeys() throws Exception {
+    addShuffled(IntStream.range(0, NUM_KEYS).boxed().collect(Collectors.toList()));
+
+    IndexHistogram histogram = store.buildHistogram(IndexHistogram.MAX_BUCKETS);
+
+    assertThat(histogram.getNumKeys()).isEqualTo(NUM_KEYS);
+    assertThat(histogram.getSizeEstimate(NUM_KEYS / 2, TOK_LT)).isEqualTo(NUM_KEYS / 2);
+  }
+
+  private List<RegionEntry> addShuffled(List<?> keys) throws Exception {
+    List<RegionEntry> entries = new ArrayList<>();
+    for (Object key : keys) {
+      entries.add(createRegionEntry(key, new Object()));
+    }
+    List<Integer> order =
+        IntStream.range(0, keys.size()).boxed().collect(Collectors.toList());
+    Collections.shuffle(order, new Random(0));
+    for (int i : order) {
+      store.addMapping(keys.get(i), entries.get(i));
+    }
+    return entries;
+  }
+
+  private static List<Object> keys(Iterator<IndexStore.IndexStoreEntry> iterator) {
+    List<Object> keys = new ArrayList<>();
+    while (iterator.hasNext()) {
+      keys.add(iterator.next().getDeserializedKey());
+    }
+    return keys;
+  }
+
+  private static List<Long> longs(long from, long to) {
+    return LongStream.range(from, to).boxed().collect(Collectors.toList());
+  }
+
+  private static <T> List<T> reversed(List<T> list) {
+    List<T> reversed = new ArrayList<>(list);
+    Collections.reverse(reversed);
+    return reversed;
+  }
+}
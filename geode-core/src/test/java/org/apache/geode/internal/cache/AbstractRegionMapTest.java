@@ -66,6 +66,7 @@ import org.apache.geode.internal.cache.versions.VersionStamp;
 import org.apache.geode.internal.cache.versions.VersionTag;
 import org.apache.geode.internal.util.concurrent.ConcurrentMapWithReusableEntries;
 import org.apache.geode.internal.util.concurrent.CustomEntryConcurrentHashMap;
+import org.apache.geode.internal.util.concurrent.OpenAddressingConcurrentHashMap;
 
 public class AbstractRegionMapTest {
 
@@ -133,6 +134,22 @@ public class AbstractRegionMapTest {
     verify(arm._getOwner(), never()).invokeInvalidateCallbacks(any(), any(), anyBoolean());
   }
 
+  @Test
+  public void invalidateOfUninitializedRegionCreatesEntryInOpenAddressingMap() {
+    TestableAbstractRegionMap arm = new TestableAbstractRegionMap();
+    RegionMap.Attributes attributes = new RegionMap.Attributes();
+    attributes.openAddressing = true;
+    arm.initialize(arm._getOwner(), attributes, null, false);
+    EntryEventImpl event = createEventForInvalidate(arm._getOwner());
+    when(arm._getOwner().isInitialized()).thenReturn(false);
+
+    assertThat(arm.getEntryMap()).isInstanceOf(OpenAddressingConcurrentHashMap.class);
+    assertThatThrownBy(() -> arm.invalidate(event, true, false, false))
+        .isInstanceOf(EntryNotFoundException.class);
+    assertThat(arm.getEntry(KEY).getKey()).isEqualTo(KEY);
+    assertThat(arm.getEntryMap().size()).isOne();
+  }
+
   @Test
   public void invalidateOfAlreadyInvalidEntryReturnsFalseWithForce() {
     AbstractRegionMap.FORCE_INVALIDATE_EVENT = true;
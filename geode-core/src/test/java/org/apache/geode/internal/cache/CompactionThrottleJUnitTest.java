@@ -0,0 +1,77 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.internal.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class CompactionThrottleJUnitTest {
+
+  private static final long MAX_RATE = 1024 * 1024;
+
+  private long now = TimeUnit.SECONDS.toNanos(100);
+
+  @Test
+  public void waitsOnceTheBudgetIsSpent() {
+    CompactionThrottle throttle = new CompactionThrottle(MAX_RATE, 0, () -> this.now);
+
+    // nothing has accumulated yet
+    assertThat(throttle.acquire(MAX_RATE / 2)).isEqualTo(TimeUnit.MILLISECONDS.toNanos(500));
+
+    this.now += TimeUnit.SECONDS.toNanos(10);
+    // the burst is capped at a second worth of bytes
+    assertThat(throttle.acquire(MAX_RATE)).isEqualTo(0);
+    assertThat(throttle.acquire(MAX_RATE / 4)).isEqualTo(TimeUnit.MILLISECONDS.toNanos(250));
+  }
+
+  @Test
+  public void backsOffWhileForegroundWritesAreSlow() {
+    CompactionThrottle throttle =
+        new CompactionThrottle(MAX_RATE, TimeUnit.MILLISECONDS.toNanos(1), () -> this.now);
+
+    for (int i = 0; i < 10; i++) {
+      throttle.foregroundWriteCompleted(TimeUnit.MILLISECONDS.toNanos(5));
+      this.now += CompactionThrottle.ADJUST_INTERVAL_NANOS;
+      throttle.acquire(0);
+    }
+    assertThat(throttle.getRate()).isEqualTo(MAX_RATE / 64);
+
+    throttle.foregroundWriteCompleted(TimeUnit.MICROSECONDS.toNanos(100));
+    this.now += CompactionThrottle.ADJUST_INTERVAL_NANOS;
+    throttle.acquire(0);
+    assertThat(throttle.getRate()).isEqualTo(MAX_RATE / 64 + MAX_RATE / 16);
+
+    for (int i = 0; i < 20; i++) {
+      this.now += CompactionThrottle.ADJUST_INTERVAL_NANOS;
+      throttle.acquire(0);
+    }
+    assertThat(throttle.getRate()).isEqualTo(MAX_RATE);
+  }
+
+  @Test
+  public void doesNotAdjustTheRateWithoutBackoff() {
+    CompactionThrottle throttle = new CompactionThrottle(MAX_RATE, 0, () -> this.now);
+
+    throttle.foregroundWriteCompleted(TimeUnit.SECONDS.toNanos(1));
+    this.now += CompactionThrottle.ADJUST_INTERVAL_NANOS;
+    throttle.acquire(0);
+
+    assertThat(throttle.isBackoffEnabled()).isFalse();
+    assertThat(throttle.getRate()).isEqualTo(MAX_RATE);
+  }
+}
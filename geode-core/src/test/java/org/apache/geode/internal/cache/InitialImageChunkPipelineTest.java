@@ -0,0 +1,82 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.internal.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class InitialImageChunkPipelineTest {
+
+  private final ExecutorService executor = Executors.newCachedThreadPool();
+
+  private final List<String> sent = Collections.synchronizedList(new ArrayList<>());
+
+  @After
+  public void tearDown() {
+    this.executor.shutdownNow();
+  }
+
+  @Test
+  public void sendsChunksInOrder() {
+    InitialImageChunkPipeline pipeline = new InitialImageChunkPipeline((chunk, last) -> {
+      this.sent.add(chunk + ":" + last);
+      return true;
+    }, this.executor);
+
+    for (int i = 0; i < 100; i++) {
+      assertThat(pipeline.send("chunk" + i, i == 99 ? 1 : 0)).isTrue();
+    }
+    assertThat(pipeline.awaitSent()).isTrue();
+
+    assertThat(this.sent).hasSize(100);
+    assertThat(this.sent.get(0)).isEqualTo("chunk0:0");
+    assertThat(this.sent.get(99)).isEqualTo("chunk99:1");
+  }
+
+  @Test
+  public void stopsOnceAChunkIsRejected() {
+    InitialImageChunkPipeline pipeline = new InitialImageChunkPipeline((chunk, last) -> {
+      this.sent.add((String) chunk);
+      return false;
+    }, this.executor);
+
+    assertThat(pipeline.send("chunk0", 0)).isTrue();
+    assertThat(pipeline.send("chunk1", 0)).isFalse();
+
+    assertThat(pipeline.awaitSent()).isFalse();
+    assertThat(this.sent).containsExactly("chunk0");
+  }
+
+  @Test
+  public void rethrowsWhatSendingThrew() {
+    InitialImageChunkPipeline pipeline = new InitialImageChunkPipeline((chunk, last) -> {
+      throw new IllegalStateException("send failed");
+    }, this.executor);
+
+    pipeline.send("chunk0", 0);
+
+    assertThatThrownBy(() -> pipeline.send("chunk1", 0))
+        .isInstanceOf(IllegalStateException.class).hasMessage("send failed");
+  }
+}
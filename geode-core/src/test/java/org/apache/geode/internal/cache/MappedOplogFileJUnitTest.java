@@ -0,0 +1,78 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.internal.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class MappedOplogFileJUnitTest {
+
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private final byte[] contents = new byte[1000];
+
+  private File file;
+
+  @Before
+  public void setUp() throws Exception {
+    for (int i = 0; i < this.contents.length; i++) {
+      this.contents[i] = (byte) i;
+    }
+    this.file = this.temporaryFolder.newFile("test.crf");
+    Files.write(this.file.toPath(), this.contents);
+  }
+
+  @Test
+  public void readsWithinASegment() throws Exception {
+    MappedOplogFile mapped = new MappedOplogFile(this.file, this.contents.length);
+
+    assertThat(mapped.read(10, 20)).isEqualTo(Arrays.copyOfRange(this.contents, 10, 30));
+  }
+
+  @Test
+  public void readsAcrossSegments() throws Exception {
+    MappedOplogFile mapped = new MappedOplogFile(this.file, this.contents.length, 64);
+
+    assertThat(mapped.read(60, 200)).isEqualTo(Arrays.copyOfRange(this.contents, 60, 260));
+    assertThat(mapped.read(936, 64)).isEqualTo(Arrays.copyOfRange(this.contents, 936, 1000));
+  }
+
+  @Test
+  public void doesNotReadPastTheGivenLength() throws Exception {
+    MappedOplogFile mapped = new MappedOplogFile(this.file, 500);
+
+    assertThat(mapped.length()).isEqualTo(500);
+    assertThat(mapped.read(490, 10)).isEqualTo(Arrays.copyOfRange(this.contents, 490, 500));
+    assertThat(mapped.read(490, 11)).isNull();
+    assertThat(mapped.read(-1, 10)).isNull();
+  }
+
+  @Test
+  public void lengthIsBoundedByTheFile() throws Exception {
+    MappedOplogFile mapped = new MappedOplogFile(this.file, 5000);
+
+    assertThat(mapped.length()).isEqualTo(this.contents.length);
+    assertThat(mapped.read(999, 2)).isNull();
+  }
+}
@@ -0,0 +1,125 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.internal.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class OplogGroupCommitterJUnitTest {
+
+  private final DiskStoreStats stats = mock(DiskStoreStats.class);
+
+  private final ExecutorService executor = Executors.newCachedThreadPool();
+
+  @After
+  public void tearDown() {
+    this.executor.shutdownNow();
+  }
+
+  @Test
+  public void singleWriterSyncsItsOwnRecord() throws Exception {
+    AtomicInteger syncs = new AtomicInteger();
+    OplogGroupCommitter committer = new OplogGroupCommitter(syncs::incrementAndGet, this.stats);
+
+    committer.awaitCommit(committer.append());
+    committer.awaitCommit(committer.append());
+
+    assertThat(syncs.get()).isEqualTo(2);
+    assertThat(committer.getCommitted()).isEqualTo(2);
+    verify(this.stats, times(2)).endGroupCommit(anyLong(), eq(1L));
+  }
+
+  @Test
+  public void writersAppendingDuringASyncShareTheNextOne() throws Exception {
+    int writers = 16;
+    CountDownLatch firstSyncStarted = new CountDownLatch(1);
+    CountDownLatch releaseFirstSync = new CountDownLatch(1);
+    AtomicInteger syncs = new AtomicInteger();
+    OplogGroupCommitter committer = new OplogGroupCommitter(() -> {
+      if (syncs.incrementAndGet() == 1) {
+        firstSyncStarted.countDown();
+        try {
+          releaseFirstSync.await();
+        } catch (InterruptedException e) {
+          throw new IOException(e);
+        }
+      }
+    }, this.stats);
+
+    long firstTicket = committer.append();
+    Future<?> first = this.executor.submit(() -> {
+      committer.awaitCommit(firstTicket);
+      return null;
+    });
+    assertThat(firstSyncStarted.await(30, TimeUnit.SECONDS)).isTrue();
+
+    List<Future<?>> others = new ArrayList<>();
+    CountDownLatch appended = new CountDownLatch(writers);
+    for (int i = 0; i < writers; i++) {
+      others.add(this.executor.submit(() -> {
+        long ticket = committer.append();
+        appended.countDown();
+        committer.awaitCommit(ticket);
+        return null;
+      }));
+    }
+    assertThat(appended.await(30, TimeUnit.SECONDS)).isTrue();
+    releaseFirstSync.countDown();
+
+    first.get(30, TimeUnit.SECONDS);
+    for (Future<?> other : others) {
+      other.get(30, TimeUnit.SECONDS);
+    }
+    assertThat(syncs.get()).isEqualTo(2);
+    assertThat(committer.getCommitted()).isEqualTo(writers + 1);
+    verify(this.stats).endGroupCommit(anyLong(), eq((long) writers));
+  }
+
+  @Test
+  public void failedSyncIsRetriedByTheNextWaiter() throws Exception {
+    AtomicInteger syncs = new AtomicInteger();
+    OplogGroupCommitter committer = new OplogGroupCommitter(() -> {
+      if (syncs.incrementAndGet() == 1) {
+        throw new IOException("sync failed");
+      }
+    }, this.stats);
+    long ticket = committer.append();
+
+    assertThatThrownBy(() -> committer.awaitCommit(ticket)).isInstanceOf(IOException.class);
+    assertThat(committer.getCommitted()).isEqualTo(0);
+
+    committer.awaitCommit(ticket);
+    assertThat(syncs.get()).isEqualTo(2);
+    assertThat(committer.getCommitted()).isEqualTo(1);
+  }
+}
@@ -0,0 +1,76 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.internal.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class OplogRecoveryReadAheadJUnitTest {
+
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  @Test
+  public void readsOnlyTheWindowAheadOfTheReplay() throws Exception {
+    List<File> files = Arrays.asList(createFile("a", 1000), null, createFile("c", 3000),
+        createFile("d", 4000), new File(this.temporaryFolder.getRoot(), "missing"));
+
+    try (OplogRecoveryReadAhead readAhead = new OplogRecoveryReadAhead("test", files, 2, 2)) {
+      awaitQuiescence(readAhead);
+      assertThat(readAhead.getBytesRead()).isEqualTo(1000);
+
+      readAhead.replayed(0);
+      awaitQuiescence(readAhead);
+      assertThat(readAhead.getBytesRead()).isEqualTo(4000);
+
+      readAhead.replayed(1);
+      readAhead.replayed(2);
+      readAhead.replayed(3);
+      awaitQuiescence(readAhead);
+      assertThat(readAhead.getBytesRead()).isEqualTo(8000);
+    }
+  }
+
+  @Test
+  public void readsNothingOnceClosed() throws Exception {
+    List<File> files = Arrays.asList(createFile("a", 1000), createFile("b", 2000));
+
+    OplogRecoveryReadAhead readAhead = new OplogRecoveryReadAhead("test", files, 1, 0);
+    readAhead.close();
+    readAhead.replayed(1);
+
+    assertThat(readAhead.getBytesRead()).isEqualTo(0);
+  }
+
+  private File createFile(String name, int length) throws IOException {
+    File file = this.temporaryFolder.newFile(name);
+    Files.write(file.toPath(), new byte[length]);
+    return file;
+  }
+
+  private static void awaitQuiescence(OplogRecoveryReadAhead readAhead) {
+    assertThat(readAhead.awaitQuiescence(30, TimeUnit.SECONDS)).isTrue();
+  }
+}
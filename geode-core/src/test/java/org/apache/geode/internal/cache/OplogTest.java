@@ -59,6 +59,7 @@ public class OplogTest {
   public void handlesNoLiveValuesIfNoLiveValueInOplog() {
     when(compactor.keepCompactorRunning()).thenReturn(true);
 
+    doReturn(mock(DiskStoreStats.class)).when(oplog).getStats();
     doReturn(true).when(oplog).hasNoLiveValues();
     assertThat(oplog.compact(compactor)).isEqualTo(0);
     verify(oplog, times(1)).handleNoLiveValues();
@@ -0,0 +1,56 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.internal.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.After;
+import org.junit.Test;
+
+import org.apache.geode.internal.cache.PRQueryProcessor.PRQueryExecutor;
+
+public class PRQueryProcessorTest {
+
+  @After
+  public void tearDown() {
+    PRQueryProcessor.TEST_PARALLELISM = 0;
+    PRQueryProcessor.shutdownNow();
+  }
+
+  @Test
+  public void sharesTheWorkStealingPool() {
+    PRQueryProcessor.TEST_PARALLELISM = 3;
+
+    ExecutorService pool = PRQueryExecutor.getWorkStealingPool();
+
+    assertThat(((ForkJoinPool) pool).getParallelism()).isEqualTo(3);
+    assertThat(PRQueryExecutor.getWorkStealingPool()).isSameAs(pool);
+  }
+
+  @Test
+  public void replacesTheWorkStealingPoolWhenTheParallelismChanges() {
+    PRQueryProcessor.TEST_PARALLELISM = 3;
+    ExecutorService pool = PRQueryExecutor.getWorkStealingPool();
+
+    PRQueryProcessor.TEST_PARALLELISM = 2;
+    ExecutorService resized = PRQueryExecutor.getWorkStealingPool();
+
+    assertThat(((ForkJoinPool) resized).getParallelism()).isEqualTo(2);
+    assertThat(pool.isShutdown()).isTrue();
+  }
+}
@@ -14,6 +14,7 @@
  */
 package org.apache.geode.internal.cache.eviction;
 
+import static org.apache.geode.internal.lang.SystemPropertyHelper.EVICTION_SAMPLED;
 import static org.apache.geode.internal.lang.SystemPropertyHelper.EVICTION_SCAN_ASYNC;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.mock;
@@ -28,9 +29,11 @@ import org.apache.geode.cache.EvictionAlgorithm;
 
 public class EvictionListBuilderTest {
   private static final String EVICTION_PROPERTY_NAME = "geode." + EVICTION_SCAN_ASYNC;
+  private static final String SAMPLED_PROPERTY_NAME = "geode." + EVICTION_SAMPLED;
 
   @Rule
-  public ClearSystemProperties clearProperties = new ClearSystemProperties(EVICTION_PROPERTY_NAME);
+  public ClearSystemProperties clearProperties =
+      new ClearSystemProperties(EVICTION_PROPERTY_NAME, SAMPLED_PROPERTY_NAME);
 
   private EvictionListBuilder builder;
   private EvictionController controller;
@@ -74,4 +77,12 @@ public class EvictionListBuilderTest {
     assertThat(builder.create()).isInstanceOf(LRUListWithSyncSorting.class);
 
   }
+
+  @Test
+  public void createsSampledListWhenSystemConfiguredToUseIt() {
+    System.setProperty(SAMPLED_PROPERTY_NAME, "true");
+    builder = new EvictionListBuilder(controller);
+
+    assertThat(builder.create()).isInstanceOf(SampledEvictionList.class);
+  }
 }
@@ -0,0 +1,66 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.internal.cache.eviction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.Test;
+
+public class FrequencySketchTest {
+
+  @Test
+  public void widthIsAPowerOfTwoAtLeastTheExpectedItems() {
+    assertThat(new FrequencySketch(0).width()).isEqualTo(16);
+    assertThat(new FrequencySketch(1000).width()).isEqualTo(1024);
+  }
+
+  @Test
+  public void countsUses() {
+    FrequencySketch sketch = new FrequencySketch(1000);
+
+    for (int i = 0; i < 5; i++) {
+      sketch.increment(42);
+    }
+
+    assertThat(sketch.frequency(42)).isEqualTo(5);
+    assertThat(sketch.frequency(43)).isZero();
+  }
+
+  @Test
+  public void frequencySaturatesAtFifteen() {
+    FrequencySketch sketch = new FrequencySketch(1000);
+
+    for (int i = 0; i < 20; i++) {
+      sketch.increment(42);
+    }
+
+    assertThat(sketch.frequency(42)).isEqualTo(15);
+  }
+
+  @Test
+  public void halvesFrequenciesAfterManyUses() {
+    FrequencySketch sketch = new FrequencySketch(0);
+    for (int i = 0; i < 10; i++) {
+      sketch.increment(42);
+    }
+
+    // 16 longs, so counters are halved after 160 uses
+    for (int i = 0; i < 150; i++) {
+      sketch.increment(1000 + i);
+    }
+
+    assertThat(sketch.frequency(42)).isLessThanOrEqualTo(5);
+  }
+}
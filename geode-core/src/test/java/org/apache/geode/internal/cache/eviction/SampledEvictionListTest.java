@@ -0,0 +1,262 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.internal.cache.eviction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.CALLS_REAL_METHODS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import org.apache.geode.internal.cache.BucketRegion;
+import org.apache.geode.internal.cache.RegionEntryContext;
+
+public class SampledEvictionListTest {
+
+  private BucketRegion bucketRegion;
+  private EvictionCounters stats;
+  private EvictionController controller;
+
+  @Before
+  public void setup() {
+    bucketRegion = mock(BucketRegion.class);
+    stats = mock(EvictionCounters.class);
+    controller = mock(EvictionController.class);
+    when(controller.getCounters()).thenReturn(stats);
+  }
+
+  @Test
+  public void evictingFromEmptyListReturnsNull() {
+    SampledEvictionList list = new SampledEvictionList(controller, 4, 8, 10);
+
+    assertThat(list.getEvictableEntry()).isNull();
+    assertThat(list.size()).isZero();
+  }
+
+  @Test
+  public void evictsTheOnlyEntry() {
+    SampledEvictionList list = new SampledEvictionList(controller, 4, 8, 10);
+    LinkedEntry node = newEntry(1);
+    list.appendEntry(node);
+    list.appendEntry(node);
+    assertThat(list.size()).isOne();
+
+    assertThat(list.getEvictableEntry()).isSameAs(node);
+    assertThat(list.size()).isZero();
+    assertThat(node.next()).isNull();
+  }
+
+  @Test
+  public void destroyRemovesTheEntry() {
+    SampledEvictionList list = new SampledEvictionList(controller, 4, 8, 10);
+    LinkedEntry node = newEntry(1);
+    list.appendEntry(node);
+
+    list.destroyEntry(node);
+    list.destroyEntry(node);
+
+    assertThat(list.size()).isZero();
+    verify(stats).incDestroys();
+    assertThat(list.getEvictableEntry()).isNull();
+  }
+
+  @Test
+  public void doesNotEvictRecentlyUsedEntry() {
+    SampledEvictionList list = new SampledEvictionList(controller, 1, 2, 10);
+    LinkedEntry recentlyUsed = newEntry(1);
+    LinkedEntry node = newEntry(2);
+    list.appendEntry(recentlyUsed);
+    list.appendEntry(node);
+    recentlyUsed.setRecentlyUsed(null);
+
+    assertThat(list.getEvictableEntry()).isSameAs(node);
+    assertThat(recentlyUsed.isRecentlyUsed()).isFalse();
+    assertThat(list.size()).isOne();
+  }
+
+  @Test
+  public void greedilyEvictsARecentlyUsedEntry() {
+    SampledEvictionList list = new SampledEvictionList(controller, 1, 1, 2);
+    LinkedEntry node = newEntry(1);
+    when(node.isRecentlyUsed()).thenReturn(true);
+    list.appendEntry(node);
+
+    assertThat(list.getEvictableEntry()).isSameAs(node);
+    verify(stats).incGreedyReturns(1);
+  }
+
+  @Test
+  public void doesNotEvictEntriesInTransactionOrAlreadyEvicted() {
+    SampledEvictionList list = new SampledEvictionList(controller, 1, 4, 10);
+    LinkedEntry inTransaction = newEntry(1);
+    when(inTransaction.isInUseByTransaction()).thenReturn(true);
+    LinkedEntry evicted = newEntry(2);
+    evicted.setEvicted();
+    LinkedEntry node = newEntry(3);
+    list.appendEntry(inTransaction);
+    list.appendEntry(evicted);
+    list.appendEntry(node);
+
+    assertThat(list.getEvictableEntry()).isSameAs(node);
+    assertThat(list.size()).isZero();
+  }
+
+  @Test
+  public void clearEmptiesTheList() {
+    SampledEvictionList list = new SampledEvictionList(controller, 4, 8, 10);
+    for (int i = 0; i < 10; i++) {
+      list.appendEntry(newEntry(i));
+    }
+
+    list.clear(null, bucketRegion);
+
+    assertThat(list.size()).isZero();
+    assertThat(list.getEvictableEntry()).isNull();
+    verify(bucketRegion).resetCounter();
+  }
+
+  @Test
+  public void keepsFrequentlyUsedEntriesThroughScans() {
+    double lruHitRatio = hitRatioWithScans(new LRUListWithSyncSorting(controller));
+    double sampledHitRatio = hitRatioWithScans(new SampledEvictionList(controller, 4, 8, 10));
+
+    assertThat(sampledHitRatio).isGreaterThan(lruHitRatio + 0.2);
+  }
+
+  /**
+   * Accesses 50 hot keys then 150 keys never used again, 40 times over, on a cache of 100 entries
+   */
+  private double hitRatioWithScans(EvictionList list) {
+    Map<Integer, LinkedEntry> cache = new HashMap<>();
+    int hits = 0;
+    int nextScanKey = 1000;
+    for (int round = 0; round < 40; round++) {
+      for (int key = 0; key < 50; key++) {
+        hits += access(list, cache, key) ? 1 : 0;
+      }
+      for (int i = 0; i < 150; i++) {
+        access(list, cache, nextScanKey++);
+      }
+    }
+    return (double) hits / (40 * 50);
+  }
+
+  private boolean access(EvictionList list, Map<Integer, LinkedEntry> cache, int key) {
+    LinkedEntry entry = cache.get(key);
+    if (entry != null) {
+      entry.setRecentlyUsed(null);
+      return true;
+    }
+    entry = newEntry(key);
+    cache.put(key, entry);
+    list.appendEntry(entry);
+    while (cache.size() > 100) {
+      cache.remove(list.getEvictableEntry().getKey());
+    }
+    return false;
+  }
+
+  private static LinkedEntry newEntry(int key) {
+    return mock(LinkedEntry.class,
+        withSettings().useConstructor(key).defaultAnswer(CALLS_REAL_METHODS));
+  }
+
+  /**
+   * An entry linked in an eviction list, with its own recently used and evicted bits
+   */
+  abstract static class LinkedEntry implements EvictableEntry {
+
+    private final Object key;
+
+    private EvictionNode next;
+
+    private EvictionNode previous;
+
+    private boolean recentlyUsed;
+
+    private boolean evicted;
+
+    LinkedEntry(Object key) {
+      this.key = key;
+    }
+
+    @Override
+    public Object getKey() {
+      return key;
+    }
+
+    @Override
+    public void setNext(EvictionNode next) {
+      this.next = next;
+    }
+
+    @Override
+    public void setPrevious(EvictionNode previous) {
+      this.previous = previous;
+    }
+
+    @Override
+    public EvictionNode next() {
+      return next;
+    }
+
+    @Override
+    public EvictionNode previous() {
+      return previous;
+    }
+
+    @Override
+    public boolean isRecentlyUsed() {
+      return recentlyUsed;
+    }
+
+    @Override
+    public void setRecentlyUsed(RegionEntryContext context) {
+      recentlyUsed = true;
+    }
+
+    @Override
+    public void unsetRecentlyUsed() {
+      recentlyUsed = false;
+    }
+
+    @Override
+    public void setEvicted() {
+      evicted = true;
+    }
+
+    @Override
+    public void unsetEvicted() {
+      evicted = false;
+    }
+
+    @Override
+    public boolean isEvicted() {
+      return evicted;
+    }
+
+    @Override
+    public boolean isInUseByTransaction() {
+      return false;
+    }
+  }
+}
@@ -0,0 +1,213 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.internal.cache.tier.sockets;
+
+import static org.apache.geode.internal.cache.tier.sockets.BaseCommand.MAXIMUM_CHUNK_SIZE;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import org.apache.geode.cache.query.SelectResults;
+import org.apache.geode.cache.query.internal.CqEntry;
+import org.apache.geode.cache.query.internal.DefaultQuery;
+import org.apache.geode.cache.query.internal.ResultsBag;
+import org.apache.geode.cache.query.internal.cq.ServerCQ;
+import org.apache.geode.cache.query.internal.types.ObjectTypeImpl;
+import org.apache.geode.internal.Version;
+import org.apache.geode.internal.cache.LocalRegion;
+import org.apache.geode.internal.cache.tier.CachedRegionHelper;
+import org.apache.geode.internal.security.SecurityService;
+
+public class BaseCommandQueryTest {
+
+  private static final String REGION_NAME = "region";
+
+  private ServerConnection serverConnection;
+  private ChunkedMessage queryResponseMessage;
+  private DefaultQuery query;
+  private SecurityService securityService;
+  private List<Chunk> chunks;
+
+  @Before
+  public void setUp() throws Exception {
+    chunks = new ArrayList<>();
+    queryResponseMessage = mock(ChunkedMessage.class);
+    boolean[] lastChunk = new boolean[1];
+    Object[] parts = new Object[1];
+    doAnswer(invocation -> lastChunk[0] = invocation.getArgument(0)).when(queryResponseMessage)
+        .setLastChunk(anyBoolean());
+    doAnswer(invocation -> parts[0] = invocation.getArgument(0)).when(queryResponseMessage)
+        .addObjPart(any(), anyBoolean());
+    doAnswer(invocation -> chunks.add(new Chunk(parts[0], lastChunk[0])))
+        .when(queryResponseMessage).sendChunk(any());
+
+    CachedRegionHelper cachedRegionHelper = mock(CachedRegionHelper.class);
+    when(cachedRegionHelper.getRegion(REGION_NAME)).thenReturn(mock(LocalRegion.class));
+    serverConnection = mock(ServerConnection.class);
+    when(serverConnection.getQueryResponseMessage()).thenReturn(queryResponseMessage);
+    when(serverConnection.getCacheServerStats()).thenReturn(mock(CacheServerStats.class));
+    when(serverConnection.getCachedRegionHelper()).thenReturn(cachedRegionHelper);
+    when(serverConnection.getClientVersion()).thenReturn(Version.CURRENT);
+
+    query = mock(DefaultQuery.class);
+    securityService = mock(SecurityService.class);
+    when(securityService.postProcess(any(), any(), any(), anyBoolean()))
+        .thenAnswer(invocation -> invocation.getArgument(2));
+  }
+
+  @Test
+  public void sendsOneEmptyLastChunkForEmptyResults() throws Exception {
+    processQuery(results(0), null);
+
+    assertThat(chunks).hasSize(1);
+    assertThat(chunks.get(0).size()).isZero();
+    assertThat(chunks.get(0).lastChunk).isTrue();
+  }
+
+  @Test
+  public void sendsNoTrailingEmptyChunkWhenResultsFillTheLastChunk() throws Exception {
+    processQuery(results(2 * MAXIMUM_CHUNK_SIZE), null);
+
+    assertFullChunksWithLastFlagOnSecond();
+  }
+
+  @Test
+  public void sendsNoTrailingEmptyChunkWhenSerializedResultsFillTheLastChunk() throws Exception {
+    when(query.isKeepSerialized()).thenReturn(true);
+
+    processQuery(results(2 * MAXIMUM_CHUNK_SIZE), null);
+
+    assertFullChunksWithLastFlagOnSecond();
+  }
+
+  @Test
+  public void doesNotCountTheResultsBeforeSendingThem() throws Exception {
+    SelectResults results = spy(results(MAXIMUM_CHUNK_SIZE + 5));
+
+    processQuery(results, null);
+
+    assertThat(chunks).hasSize(2);
+    verify(results, never()).size();
+  }
+
+  @Test
+  public void skipsInvalidatedCqEntriesWithoutCountingThem() throws Exception {
+    ServerCQ cqQuery = mock(ServerCQ.class);
+
+    processQuery(cqResults(MAXIMUM_CHUNK_SIZE + 10, 5), cqQuery);
+
+    assertThat(chunks).hasSize(2);
+    assertThat(chunks.get(0).size()).isEqualTo(MAXIMUM_CHUNK_SIZE);
+    assertThat(chunks.get(0).lastChunk).isFalse();
+    assertThat(chunks.get(1).size()).isEqualTo(5);
+    assertThat(chunks.get(1).lastChunk).isTrue();
+    verify(cqQuery, times(MAXIMUM_CHUNK_SIZE + 5)).addToCqResultKeys(any());
+  }
+
+  @Test
+  public void skipsInvalidatedSerializedCqEntriesWithoutCountingThem() throws Exception {
+    when(query.isKeepSerialized()).thenReturn(true);
+    ServerCQ cqQuery = mock(ServerCQ.class);
+
+    processQuery(cqResults(MAXIMUM_CHUNK_SIZE + 10, 5), cqQuery);
+
+    assertThat(chunks).hasSize(2);
+    assertThat(chunks.get(0).size()).isEqualTo(MAXIMUM_CHUNK_SIZE);
+    assertThat(chunks.get(0).lastChunk).isFalse();
+    assertThat(chunks.get(1).size()).isEqualTo(5);
+    assertThat(chunks.get(1).lastChunk).isTrue();
+    verify(cqQuery, times(MAXIMUM_CHUNK_SIZE + 5)).addToCqResultKeys(any());
+  }
+
+  private void assertFullChunksWithLastFlagOnSecond() {
+    assertThat(chunks).hasSize(2);
+    assertThat(chunks.get(0).size()).isEqualTo(MAXIMUM_CHUNK_SIZE);
+    assertThat(chunks.get(0).lastChunk).isFalse();
+    assertThat(chunks.get(1).size()).isEqualTo(MAXIMUM_CHUNK_SIZE);
+    assertThat(chunks.get(1).lastChunk).isTrue();
+  }
+
+  private void processQuery(SelectResults results, ServerCQ cqQuery) throws Exception {
+    when(query.execute()).thenReturn(results);
+    BaseCommandQuery command = new BaseCommandQuery() {
+      @Override
+      public void cmdExecute(Message clientMessage, ServerConnection serverConnection,
+          SecurityService securityService, long start) {}
+    };
+
+    boolean succeeded = command.processQuery(mock(Message.class), query, "query",
+        Collections.singleton(REGION_NAME), 0, cqQuery, null, serverConnection, true,
+        securityService);
+
+    assertThat(succeeded).isTrue();
+    verify(queryResponseMessage, times(chunks.size())).sendChunk(eq(serverConnection));
+  }
+
+  private SelectResults results(int size) {
+    ResultsBag results = new ResultsBag();
+    results.setElementType(new ObjectTypeImpl(Object.class));
+    for (int i = 0; i < size; i++) {
+      results.add("value" + i);
+    }
+    return results;
+  }
+
+  /**
+   * Returns CQ results with the given number of entries, of which the given number of entries
+   * spread across the results have been invalidated
+   */
+  private SelectResults cqResults(int size, int invalidated) {
+    ResultsBag results = new ResultsBag();
+    results.setElementType(new ObjectTypeImpl(Object.class));
+    for (int i = 0; i < size; i++) {
+      results.add(new CqEntry("key" + i, i % (size / invalidated) == 0 ? null : "value" + i));
+    }
+    return results;
+  }
+
+  private static class Chunk {
+
+    private final Object results;
+
+    private final boolean lastChunk;
+
+    Chunk(Object results, boolean lastChunk) {
+      this.results = results;
+      this.lastChunk = lastChunk;
+    }
+
+    int size() {
+      if (results instanceof ObjectPartList) {
+        return ((ObjectPartList) results).size();
+      }
+      return ((Object[]) results).length;
+    }
+  }
+}
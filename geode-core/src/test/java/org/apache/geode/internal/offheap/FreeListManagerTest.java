@@ -64,6 +64,11 @@ public class FreeListManagerTest {
     return new TestableFreeListManager(ma, slabs, maxCombine);
   }
 
+  private void setUpThreadCachingManager(int slabSize, int threadCacheSize) {
+    this.freeListManager =
+        new TestableFreeListManager(ma, new Slab[] {new SlabImpl(slabSize)}, 0, threadCacheSize);
+  }
+
   private void setUpSingleSlabManager() {
     setUpSingleSlabManager(DEFAULT_SLAB_SIZE);
   }
@@ -914,6 +919,74 @@ public class FreeListManagerTest {
     }
   }
 
+  @Test
+  public void allocateReusesChunkFreedToThreadCache() {
+    setUpThreadCachingManager(DEFAULT_SLAB_SIZE, 4);
+    OffHeapStoredObject c = this.freeListManager.allocate(24);
+    OffHeapStoredObject.release(c.getAddress(), this.freeListManager);
+
+    assertThat(this.freeListManager.getFreeTinyMemory()).isEqualTo(c.getSize());
+    assertThat(this.freeListManager.allocate(24).getAddress()).isEqualTo(c.getAddress());
+    assertThat(this.freeListManager.getFreeTinyMemory()).isZero();
+  }
+
+  @Test
+  public void fullThreadCacheGivesChunksBackToSharedFreeList() throws Exception {
+    setUpThreadCachingManager(DEFAULT_SLAB_SIZE, 4);
+    List<Long> freed = new ArrayList<>();
+    List<OffHeapStoredObject> chunks = new ArrayList<>();
+    for (int i = 0; i < 6; i++) {
+      chunks.add(this.freeListManager.allocate(24));
+    }
+    for (OffHeapStoredObject c : chunks) {
+      freed.add(c.getAddress());
+      OffHeapStoredObject.release(c.getAddress(), this.freeListManager);
+    }
+    assertThat(this.freeListManager.getFreeTinyMemory()).isEqualTo(6 * chunks.get(0).getSize());
+
+    List<Long> allocatedByOtherThread = new ArrayList<>();
+    Thread thread = new Thread(() -> {
+      for (int i = 0; i < 2; i++) {
+        allocatedByOtherThread.add(this.freeListManager.allocate(24).getAddress());
+      }
+    });
+    thread.start();
+    thread.join();
+
+    assertThat(freed).containsAll(allocatedByOtherThread);
+  }
+
+  @Test
+  public void chunksCachedByDeadThreadAreReclaimed() throws Exception {
+    setUpThreadCachingManager(DEFAULT_SLAB_SIZE, 4);
+    long[] address = new long[1];
+    Thread thread = new Thread(() -> {
+      OffHeapStoredObject c = this.freeListManager.allocate(24);
+      address[0] = c.getAddress();
+      OffHeapStoredObject.release(c.getAddress(), this.freeListManager);
+    });
+    thread.start();
+    thread.join();
+
+    assertThat(this.freeListManager.allocate(24).getAddress()).isEqualTo(address[0]);
+  }
+
+  @Test
+  public void defragmentCombinesChunksCachedByThreads() {
+    setUpThreadCachingManager(1024, 1000);
+    List<OffHeapStoredObject> chunks = new ArrayList<>();
+    for (int i = 0; i < 1024 / 32; i++) {
+      chunks.add(this.freeListManager.allocate(24));
+    }
+    for (OffHeapStoredObject c : chunks) {
+      OffHeapStoredObject.release(c.getAddress(), this.freeListManager);
+    }
+
+    this.freeListManager.firstDefragmentation = false;
+    assertThat(this.freeListManager.defragment(1024)).isTrue();
+    assertThat(this.freeListManager.getFreeTinyMemory()).isZero();
+  }
+
   private static class TestableFreeListManager extends FreeListManager {
     private boolean firstTime = true;
     private boolean firstDefragmentation = true;
@@ -928,6 +1001,12 @@ public class FreeListManagerTest {
       this.maxCombine = maxCombine;
     }
 
+    public TestableFreeListManager(MemoryAllocatorImpl ma, Slab[] slabs, int maxCombine,
+        int threadCacheSize) {
+      super(ma, slabs, threadCacheSize);
+      this.maxCombine = maxCombine;
+    }
+
     @Override
     protected Fragment createFragment(long addr, int size) {
       return new TestableFragment(addr, size);
@@ -22,6 +22,7 @@ import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.io.IOException;
 import java.nio.ByteBuffer;
 
 import org.junit.After;
@@ -36,6 +37,8 @@ import org.powermock.modules.junit4.PowerMockRunner;
 
 import org.apache.geode.compression.Compressor;
 import org.apache.geode.internal.DSCODE;
+import org.apache.geode.internal.HeapDataOutputStream;
+import org.apache.geode.internal.Version;
 import org.apache.geode.internal.cache.CachePerfStats;
 import org.apache.geode.internal.cache.DiskId;
 import org.apache.geode.internal.cache.EntryEventImpl;
@@ -43,7 +46,9 @@ import org.apache.geode.internal.cache.RegionEntryContext;
 import org.apache.geode.internal.cache.Token;
 import org.apache.geode.internal.cache.VMCachedDeserializable;
 import org.apache.geode.internal.cache.entries.DiskEntry;
+import org.apache.geode.internal.cache.entries.OffHeapKeyRegionEntry;
 import org.apache.geode.internal.cache.entries.OffHeapRegionEntry;
+import org.apache.geode.internal.cache.entries.VMThinRegionEntryOffHeapOffHeapStringKey;
 import org.apache.geode.internal.cache.entries.VersionedStatsDiskRegionEntryOffHeap;
 
 @RunWith(PowerMockRunner.class)
@@ -923,4 +928,130 @@ public class OffHeapRegionEntryHelperJUnitTest {
     // verify that threadlocal is reset after offheap is cleared
     assertThat(OffHeapRegionEntryHelper.doesClearNeedToCheckForOffHeap()).isFalse();
   }
+
+  private OffHeapKeyRegionEntry createOffHeapKeyEntry(String key) {
+    return new VMThinRegionEntryOffHeapOffHeapStringKey(mock(RegionEntryContext.class), key,
+        Token.REMOVED_PHASE1);
+  }
+
+  @Test
+  public void moveKeyOffHeapShouldStoreKeyOffHeap() {
+    String key = "a key that is too long to be inlined";
+    OffHeapKeyRegionEntry re = createOffHeapKeyEntry(key);
+    long usedMemory = ma.getUsedMemory();
+
+    assertThat(re.getKeyAddress()).isEqualTo(OffHeapRegionEntryHelper.HEAP_KEY_ADDRESS);
+    assertThat(re.getKey()).isSameAs(key);
+
+    OffHeapRegionEntryHelper.moveKeyOffHeap(re);
+
+    assertThat(OffHeapRegionEntryHelper.isOffHeap(re.getKeyAddress())).isTrue();
+    assertThat(re.getHeapKey()).isNull();
+    assertThat(ma.getUsedMemory()).isGreaterThan(usedMemory);
+    assertThat(re.isKeyEqual(key)).isTrue();
+    assertThat(re.isKeyEqual(new String(key))).isTrue();
+    assertThat(re.isKeyEqual("a key that is too long to be inlinee")).isFalse();
+    assertThat(re.isKeyEqual("a key that is too long to be inline")).isFalse();
+    assertThat(re.isKeyEqual(1)).isFalse();
+    assertThat(OffHeapRegionEntryHelper.getKeyHashCode(re)).isEqualTo(key.hashCode());
+    assertThat(OffHeapRegionEntryHelper.isOffHeap(re.getKeyAddress())).isTrue();
+  }
+
+  @Test
+  public void moveKeyOffHeapShouldStoreKeyWithNonAsciiCharsOffHeap() {
+    String key = "cl\u00e9 \u20ac\u4e2d\u6587";
+    OffHeapKeyRegionEntry re = createOffHeapKeyEntry(key);
+
+    OffHeapRegionEntryHelper.moveKeyOffHeap(re);
+
+    assertThat(OffHeapRegionEntryHelper.isOffHeap(re.getKeyAddress())).isTrue();
+    assertThat(re.isKeyEqual(key)).isTrue();
+    assertThat(re.isKeyEqual("cl\u00e9 \u20ac\u4e2d\u6588")).isFalse();
+    assertThat(OffHeapRegionEntryHelper.getKeyHashCode(re)).isEqualTo(key.hashCode());
+    assertThat(re.getKey()).isEqualTo(key);
+  }
+
+  @Test
+  public void offHeapKeysShouldRoundTrip() {
+    for (String key : new String[] {"", "ascii", "\u00ff\u0100\uffff"}) {
+      OffHeapKeyRegionEntry re = createOffHeapKeyEntry(key);
+      OffHeapRegionEntryHelper.moveKeyOffHeap(re);
+
+      assertThat(OffHeapRegionEntryHelper.getKeyHashCode(re)).isEqualTo(key.hashCode());
+      assertThat(re.getKey()).isEqualTo(key);
+    }
+  }
+
+  @Test
+  public void getKeyShouldDecodeOffHeapKeyWithoutMovingItBackToTheHeap() {
+    String key = "a key that is too long to be inlined";
+    OffHeapKeyRegionEntry re = createOffHeapKeyEntry(key);
+    OffHeapRegionEntryHelper.moveKeyOffHeap(re);
+    long keyAddress = re.getKeyAddress();
+    long usedMemory = ma.getUsedMemory();
+
+    Object heapKey = re.getKey();
+
+    assertThat(heapKey).isEqualTo(key);
+    assertThat(re.getKeyAddress()).isEqualTo(keyAddress);
+    assertThat(re.getHeapKey()).isNull();
+    assertThat(ma.getUsedMemory()).isEqualTo(usedMemory);
+    assertThat(re.getKey()).isEqualTo(key).isNotSameAs(heapKey);
+    assertThat(re.isKeyEqual(key)).isTrue();
+  }
+
+  @Test
+  public void serializeKeyShouldMatchSerializingTheKey() throws Exception {
+    for (String key : new String[] {"a key that is too long to be inlined", "", "with\u0000nul",
+        "cl\u00e9 \u20ac\u4e2d\u6587"}) {
+      OffHeapKeyRegionEntry re = createOffHeapKeyEntry(key);
+      byte[] expected = EntryEventImpl.serialize(key);
+
+      OffHeapRegionEntryHelper.moveKeyOffHeap(re);
+
+      assertThat(OffHeapRegionEntryHelper.isOffHeap(re.getKeyAddress())).isTrue();
+      assertThat(OffHeapRegionEntryHelper.serializeKey(re)).isEqualTo(expected);
+      assertThat(writeKey(re)).isEqualTo(expected);
+
+      OffHeapRegionEntryHelper.setValue(re, Token.REMOVED_PHASE2);
+
+      assertThat(OffHeapRegionEntryHelper.serializeKey(re)).isEqualTo(expected);
+      assertThat(writeKey(re)).isEqualTo(expected);
+    }
+  }
+
+  private static byte[] writeKey(OffHeapKeyRegionEntry re) throws IOException {
+    HeapDataOutputStream out = new HeapDataOutputStream(Version.CURRENT);
+    OffHeapRegionEntryHelper.writeKey(re, out);
+    return out.toByteArray();
+  }
+
+  @Test
+  public void settingValueToRemovedPhase2ShouldReleaseOffHeapKey() {
+    String key = "a key that is too long to be inlined";
+    OffHeapKeyRegionEntry re = createOffHeapKeyEntry(key);
+    long usedMemory = ma.getUsedMemory();
+    OffHeapRegionEntryHelper.moveKeyOffHeap(re);
+
+    OffHeapRegionEntryHelper.setValue(re, Token.REMOVED_PHASE2);
+
+    assertThat(re.getKeyAddress()).isEqualTo(OffHeapRegionEntryHelper.RELEASED_KEY_ADDRESS);
+    assertThat(ma.getUsedMemory()).isEqualTo(usedMemory);
+    assertThat(re.getKey()).isEqualTo(key);
+    assertThat(re.isKeyEqual(key)).isTrue();
+  }
+
+  @Test
+  public void moveKeyOffHeapShouldNotMoveReleasedKey() {
+    String key = "a key that is too long to be inlined";
+    OffHeapKeyRegionEntry re = createOffHeapKeyEntry(key);
+    long usedMemory = ma.getUsedMemory();
+    OffHeapRegionEntryHelper.setValue(re, Token.REMOVED_PHASE2);
+
+    OffHeapRegionEntryHelper.moveKeyOffHeap(re);
+
+    assertThat(re.getKeyAddress()).isEqualTo(OffHeapRegionEntryHelper.RELEASED_KEY_ADDRESS);
+    assertThat(ma.getUsedMemory()).isEqualTo(usedMemory);
+    assertThat(re.getKey()).isEqualTo(key);
+  }
 }
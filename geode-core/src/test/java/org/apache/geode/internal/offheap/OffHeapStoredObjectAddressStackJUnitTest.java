@@ -94,6 +94,32 @@ public class OffHeapStoredObjectAddressStackJUnitTest {
     }
   }
 
+  @Test
+  public void pollWithCountRemovesThatManyAddresses() {
+    SlabImpl slab = new SlabImpl(1024);
+    try {
+      MemoryAllocatorImpl ma =
+          MemoryAllocatorImpl.createForUnitTest(new NullOutOfOffHeapMemoryListener(),
+              new NullOffHeapMemoryStats(), new SlabImpl[] {slab});
+      long[] addresses = new long[3];
+      for (int i = 0; i < addresses.length; i++) {
+        addresses[i] = ((OffHeapStoredObject) ma.allocate(100)).getAddress();
+      }
+      OffHeapStoredObjectAddressStack stack = new OffHeapStoredObjectAddressStack();
+      stack.offer(addresses);
+
+      long first = stack.poll(2);
+      assertEquals(addresses[2], first);
+      assertEquals(addresses[1], OffHeapStoredObject.getNext(first));
+      assertEquals(0L, OffHeapStoredObject.getNext(addresses[1]));
+      assertEquals(addresses[0], stack.poll(2));
+      assertEquals(true, stack.isEmpty());
+      assertEquals(0L, stack.poll(2));
+    } finally {
+      MemoryAllocatorImpl.freeOffHeapMemory();
+    }
+  }
+
   @Test
   public void stackWithChunkIsNotEmpty() {
     SlabImpl slab = new SlabImpl(1024);
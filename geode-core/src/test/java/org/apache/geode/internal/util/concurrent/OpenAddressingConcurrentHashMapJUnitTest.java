@@ -0,0 +1,302 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.internal.util.concurrent;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import org.apache.geode.internal.util.concurrent.CustomEntryConcurrentHashMap.HashEntry;
+import org.apache.geode.internal.util.concurrent.CustomEntryConcurrentHashMap.HashEntryCreator;
+
+public class OpenAddressingConcurrentHashMapJUnitTest {
+
+  @Test
+  public void putGetAndRemove() {
+    OpenAddressingConcurrentHashMap<String, String> map = new OpenAddressingConcurrentHashMap<>();
+
+    assertThat(map.put("key", "value")).isNull();
+    assertThat(map.put("key", "value2")).isEqualTo("value");
+    assertThat(map.get("key")).isEqualTo("value2");
+    assertThat(map.containsKey("key")).isTrue();
+    assertThat(map.size()).isOne();
+
+    assertThat(map.remove("key")).isEqualTo("value2");
+    assertThat(map.get("key")).isNull();
+    assertThat(map.isEmpty()).isTrue();
+  }
+
+  @Test
+  public void conditionalOperationsCheckTheCurrentValue() {
+    OpenAddressingConcurrentHashMap<String, String> map = new OpenAddressingConcurrentHashMap<>();
+
+    assertThat(map.putIfAbsent("key", "value")).isNull();
+    assertThat(map.putIfAbsent("key", "other")).isEqualTo("value");
+    assertThat(map.replace("key", "other", "value2")).isFalse();
+    assertThat(map.replace("key", "value", "value2")).isTrue();
+    assertThat(map.replace("missing", "value")).isNull();
+    assertThat(map.remove("key", "value")).isFalse();
+    assertThat(map.remove("key", "value2")).isTrue();
+    assertThat(map).isEmpty();
+  }
+
+  @Test
+  public void growsAndKeepsAllEntries() {
+    OpenAddressingConcurrentHashMap<Integer, Integer> map =
+        new OpenAddressingConcurrentHashMap<>(0, 0.75f, 4);
+    for (int i = 0; i < 10000; i++) {
+      map.put(i, i);
+    }
+    for (int i = 0; i < 10000; i += 2) {
+      map.remove(i);
+    }
+
+    assertThat(map.size()).isEqualTo(5000);
+    for (int i = 0; i < 10000; i++) {
+      assertThat(map.get(i)).isEqualTo(i % 2 == 0 ? null : i);
+    }
+  }
+
+  @Test
+  public void findsCollidingKeysAfterRemovalsAndReinserts() {
+    OpenAddressingConcurrentHashMap<CollidingKey, Integer> map =
+        new OpenAddressingConcurrentHashMap<>(16, 0.75f, 1);
+    for (int i = 0; i < 10; i++) {
+      map.put(new CollidingKey(i), i);
+    }
+    for (int i = 0; i < 10; i += 3) {
+      map.remove(new CollidingKey(i));
+    }
+    for (int i = 0; i < 10; i += 3) {
+      map.put(new CollidingKey(i + 100), i + 100);
+    }
+
+    assertThat(map.size()).isEqualTo(10);
+    for (int i = 0; i < 10; i++) {
+      assertThat(map.get(new CollidingKey(i))).isEqualTo(i % 3 == 0 ? null : i);
+      assertThat(map.containsKey(new CollidingKey(i + 100))).isEqualTo(i % 3 == 0);
+    }
+  }
+
+  @Test
+  public void repeatedPutsAndRemovesDoNotFillTheTable() {
+    OpenAddressingConcurrentHashMap<Integer, Integer> map =
+        new OpenAddressingConcurrentHashMap<>(16, 0.75f, 1);
+    map.put(-1, -1);
+    for (int i = 0; i < 100000; i++) {
+      map.put(i, i);
+      map.put(i + 1, i + 1);
+      map.remove(i);
+      map.remove(i + 1);
+    }
+
+    assertThat(map).containsOnlyKeys(-1);
+  }
+
+  @Test
+  public void storesTheEntriesOfTheEntryCreator() {
+    OpenAddressingConcurrentHashMap<Object, Object> map =
+        new OpenAddressingConcurrentHashMap<>(16, 0.75f, 16, new SelfEntryCreator());
+    SelfEntry entry = new SelfEntry("key");
+
+    assertThat(map.putIfAbsent("key", entry)).isNull();
+    assertThat(map.get("key")).isSameAs(entry);
+    assertThat(entry.hash).isEqualTo(CustomEntryConcurrentHashMap.keyHash("key", true));
+    assertThat(map.values()).containsExactly(entry);
+  }
+
+  @Test
+  public void iteratorsReturnAllEntriesAndRemoveThem() {
+    OpenAddressingConcurrentHashMap<Integer, Integer> map = new OpenAddressingConcurrentHashMap<>();
+    Map<Integer, Integer> expected = new HashMap<>();
+    for (int i = 0; i < 1000; i++) {
+      map.put(i, i * 2);
+      expected.put(i, i * 2);
+    }
+
+    assertThat(map).isEqualTo(expected);
+    assertThat(map.keySet()).isEqualTo(expected.keySet());
+    assertThat(new ArrayList<>(map.values()))
+        .containsExactlyInAnyOrderElementsOf(expected.values());
+
+    for (Iterator<Integer> it = map.keySet().iterator(); it.hasNext();) {
+      if (it.next() % 2 == 0) {
+        it.remove();
+      }
+    }
+    assertThat(map.size()).isEqualTo(500);
+    assertThat(map.keySet()).allMatch(key -> key % 2 == 1);
+  }
+
+  @Test
+  public void entrySetWithReusableEntriesReusesTheEntry() {
+    OpenAddressingConcurrentHashMap<Integer, Integer> map = new OpenAddressingConcurrentHashMap<>();
+    map.put(1, 1);
+    map.put(2, 2);
+
+    Iterator<Map.Entry<Integer, Integer>> it = map.entrySetWithReusableEntries().iterator();
+    Map.Entry<Integer, Integer> first = it.next();
+    int firstKey = first.getKey();
+    Map.Entry<Integer, Integer> second = it.next();
+
+    assertThat(second).isSameAs(first);
+    assertThat(second.getKey()).isNotEqualTo(firstKey);
+    assertThat(it.hasNext()).isFalse();
+  }
+
+  @Test
+  public void clearEmptiesTheMap() {
+    OpenAddressingConcurrentHashMap<Integer, Integer> map = new OpenAddressingConcurrentHashMap<>();
+    for (int i = 0; i < 100; i++) {
+      map.put(i, i);
+    }
+
+    map.clear();
+
+    assertThat(map).isEmpty();
+    assertThat(map.get(1)).isNull();
+    map.put(1, 1);
+    assertThat(map).containsOnlyKeys(1);
+  }
+
+  @Test
+  public void concurrentUpdatesKeepTheirEntries() throws Exception {
+    OpenAddressingConcurrentHashMap<Integer, Integer> map =
+        new OpenAddressingConcurrentHashMap<>(16, 0.75f, 4);
+    int threads = 4;
+    int keysPerThread = 20000;
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int t = 0; t < threads; t++) {
+        int start = t * keysPerThread;
+        futures.add(executor.submit(() -> {
+          for (int i = start; i < start + keysPerThread; i++) {
+            map.put(i, i);
+            assertThat(map.get(i)).isEqualTo(i);
+            if (i % 2 == 1) {
+              assertThat(map.remove(i)).isEqualTo(i);
+            }
+          }
+        }));
+      }
+      for (Future<?> future : futures) {
+        future.get(1, TimeUnit.MINUTES);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    assertThat(map.size()).isEqualTo(threads * keysPerThread / 2);
+    for (int i = 0; i < threads * keysPerThread; i++) {
+      assertThat(map.get(i)).isEqualTo(i % 2 == 0 ? i : null);
+    }
+  }
+
+  private static class CollidingKey {
+
+    private final int id;
+
+    CollidingKey(int id) {
+      this.id = id;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      return o instanceof CollidingKey && ((CollidingKey) o).id == this.id;
+    }
+
+    @Override
+    public int hashCode() {
+      return 42;
+    }
+  }
+
+  /**
+   * A value that is its own map entry, like region entries are
+   */
+  private static class SelfEntry implements HashEntry<Object, Object> {
+
+    private final Object key;
+
+    private int hash;
+
+    SelfEntry(Object key) {
+      this.key = key;
+    }
+
+    @Override
+    public Object getKey() {
+      return this.key;
+    }
+
+    @Override
+    public boolean isKeyEqual(Object k) {
+      return this.key.equals(k);
+    }
+
+    @Override
+    public Object getMapValue() {
+      return this;
+    }
+
+    @Override
+    public void setMapValue(Object newValue) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public int getEntryHash() {
+      return this.hash;
+    }
+
+    @Override
+    public HashEntry<Object, Object> getNextEntry() {
+      return null;
+    }
+
+    @Override
+    public void setNextEntry(HashEntry<Object, Object> n) {
+      assertThat(n).isNull();
+    }
+  }
+
+  private static class SelfEntryCreator implements HashEntryCreator<Object, Object> {
+
+    @Override
+    public HashEntry<Object, Object> newEntry(Object key, int hash, HashEntry<Object, Object> next,
+        Object value) {
+      SelfEntry entry = (SelfEntry) value;
+      entry.hash = hash;
+      entry.setNextEntry(next);
+      return entry;
+    }
+
+    @Override
+    public int keyHashCode(Object key, boolean compareValues) {
+      return CustomEntryConcurrentHashMap.keyHash(key, compareValues);
+    }
+  }
+}
@@ -0,0 +1,122 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.redis.internal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.DataInputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import org.apache.geode.DataSerializer;
+import org.apache.geode.internal.HeapDataOutputStream;
+import org.apache.geode.internal.Version;
+import org.apache.geode.test.junit.categories.RedisTest;
+
+@Category({RedisTest.class})
+public class RedisHashTest {
+
+  private RedisHash hash;
+
+  @Before
+  public void setUp() {
+    hash = new RedisHash();
+    hash.put("a".getBytes(), "1".getBytes());
+    hash.put("b".getBytes(), "2".getBytes());
+  }
+
+  @Test
+  public void putReturnsTrueOnlyForNewFields() {
+    assertThat(hash.put("c".getBytes(), "3".getBytes())).isTrue();
+    assertThat(hash.put("c".getBytes(), "4".getBytes())).isFalse();
+    assertThat(hash.putIfAbsent("c".getBytes(), "5".getBytes())).isFalse();
+    assertThat(hash.size()).isEqualTo(3);
+    assertThat(new String(hash.get("c".getBytes()))).isEqualTo("4");
+  }
+
+  @Test
+  public void removeDeletesField() {
+    assertThat(hash.remove("a".getBytes())).isTrue();
+    assertThat(hash.remove("a".getBytes())).isFalse();
+    assertThat(hash.containsField("a".getBytes())).isFalse();
+    assertThat(hash.get("b".getBytes())).isEqualTo("2".getBytes());
+    assertThat(hash.size()).isEqualTo(1);
+  }
+
+  @Test
+  public void matchesHashMapUnderRandomOperations() {
+    Random random = new Random(11);
+    Map<String, String> expected = new HashMap<>();
+    expected.put("a", "1");
+    expected.put("b", "2");
+    for (int i = 0; i < 20000; i++) {
+      String field = String.valueOf(random.nextInt(500));
+      if (random.nextInt(3) == 0) {
+        assertThat(hash.remove(field.getBytes())).isEqualTo(expected.remove(field) != null);
+      } else {
+        String value = String.valueOf(i);
+        assertThat(hash.put(field.getBytes(), value.getBytes()))
+            .isEqualTo(expected.put(field, value) == null);
+      }
+    }
+    assertThat(toMap(hash)).isEqualTo(expected);
+  }
+
+  @Test
+  public void deltaReproducesChanges() throws Exception {
+    RedisHash copy = copy(hash);
+    hash.resetDelta();
+
+    hash.put("c".getBytes(), "3".getBytes());
+    hash.put("a".getBytes(), "9".getBytes());
+    hash.remove("b".getBytes());
+
+    HeapDataOutputStream out = new HeapDataOutputStream(Version.CURRENT);
+    hash.toDelta(out);
+    copy.fromDelta(new DataInputStream(out.getInputStream()));
+
+    assertThat(toMap(copy)).containsOnlyKeys("a", "c").containsEntry("a", "9");
+    assertThat(copy.getVersion()).isEqualTo(hash.getVersion());
+  }
+
+  @Test
+  public void serializationPreservesEntries() throws Exception {
+    for (int i = 0; i < 100; i++) {
+      hash.put(("f" + i).getBytes(), ("v" + i).getBytes());
+    }
+
+    assertThat(toMap(copy(hash))).isEqualTo(toMap(hash));
+  }
+
+  private static RedisHash copy(RedisHash hash) throws Exception {
+    HeapDataOutputStream out = new HeapDataOutputStream(Version.CURRENT);
+    DataSerializer.writeObject(hash, out);
+    return DataSerializer.readObject(new DataInputStream(out.getInputStream()));
+  }
+
+  private static Map<String, String> toMap(RedisHash hash) {
+    Map<String, String> map = new HashMap<>();
+    for (Entry<ByteArrayWrapper, ByteArrayWrapper> entry : hash.entries()) {
+      map.put(entry.getKey().toString(), entry.getValue().toString());
+    }
+    return map;
+  }
+}
@@ -0,0 +1,208 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.redis.internal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.DataInputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import org.apache.geode.DataSerializer;
+import org.apache.geode.InvalidDeltaException;
+import org.apache.geode.internal.HeapDataOutputStream;
+import org.apache.geode.internal.Version;
+import org.apache.geode.test.junit.categories.RedisTest;
+
+@Category({RedisTest.class})
+public class RedisListTest {
+
+  private RedisList list;
+
+  @Before
+  public void setUp() {
+    list = new RedisList();
+    list.pushRight(values("b", "c"));
+    list.pushLeft(values("a"));
+  }
+
+  @Test
+  public void pushLeftReversesTheValues() {
+    assertThat(list.pushLeft(values("x", "y"))).isEqualTo(5);
+    assertThat(strings(list.range(0, 10))).containsExactly("y", "x", "a", "b", "c");
+  }
+
+  @Test
+  public void popRemovesFromBothEnds() {
+    assertThat(new String(list.popLeft())).isEqualTo("a");
+    assertThat(new String(list.popRight())).isEqualTo("c");
+    assertThat(new String(list.popRight())).isEqualTo("b");
+    assertThat(list.popLeft()).isNull();
+    assertThat(list.isEmpty()).isTrue();
+  }
+
+  @Test
+  public void getAndSetByIndex() {
+    assertThat(new String(list.get(1))).isEqualTo("b");
+    assertThat(list.get(3)).isNull();
+    assertThat(list.set(2, "z".getBytes())).isTrue();
+    assertThat(list.set(3, "z".getBytes())).isFalse();
+    assertThat(strings(list.range(0, 2))).containsExactly("a", "b", "z");
+  }
+
+  @Test
+  public void removeFollowsCountDirection() {
+    list.pushRight(values("a", "b", "a"));
+
+    assertThat(list.remove("a".getBytes(), 1)).isEqualTo(1);
+    assertThat(strings(list.range(0, 10))).containsExactly("b", "c", "a", "b", "a");
+    assertThat(list.remove("b".getBytes(), -1)).isEqualTo(1);
+    assertThat(strings(list.range(0, 10))).containsExactly("b", "c", "a", "a");
+    assertThat(list.remove("a".getBytes(), 0)).isEqualTo(2);
+    assertThat(strings(list.range(0, 10))).containsExactly("b", "c");
+  }
+
+  @Test
+  public void trimKeepsInclusiveRange() {
+    list.trim(1, 1);
+    assertThat(strings(list.range(0, 10))).containsExactly("b");
+    list.trim(1, 0);
+    assertThat(list.isEmpty()).isTrue();
+  }
+
+  @Test
+  public void matchesLinkedListUnderRandomOperations() {
+    Random random = new Random(7);
+    LinkedList<String> expected = new LinkedList<>(Arrays.asList("a", "b", "c"));
+    for (int i = 0; i < 10000; i++) {
+      String value = String.valueOf(random.nextInt(50));
+      switch (random.nextInt(4)) {
+        case 0:
+          list.pushLeft(values(value));
+          expected.addFirst(value);
+          break;
+        case 1:
+          list.pushRight(values(value));
+          expected.addLast(value);
+          break;
+        case 2:
+          byte[] left = list.popLeft();
+          assertThat(left == null ? null : new String(left)).isEqualTo(expected.pollFirst());
+          break;
+        default:
+          byte[] right = list.popRight();
+          assertThat(right == null ? null : new String(right)).isEqualTo(expected.pollLast());
+      }
+    }
+    assertThat(strings(list.range(0, list.size()))).isEqualTo(expected);
+  }
+
+  @Test
+  public void deltaReproducesChanges() throws Exception {
+    RedisList copy = copy(list);
+    list.resetDelta();
+
+    list.pushLeft(values("x"));
+    list.pushRight(values("y", "z"));
+    list.popLeft();
+    list.set(0, "q".getBytes());
+    list.remove("c".getBytes(), 0);
+    list.trim(0, 2);
+    assertThat(list.hasDelta()).isTrue();
+
+    copy.fromDelta(delta(list));
+
+    assertThat(list.hasDelta()).isFalse();
+    assertThat(strings(copy.range(0, 10))).containsExactly("q", "b", "y");
+    assertThat(copy.getVersion()).isEqualTo(list.getVersion());
+  }
+
+  @Test
+  public void deltaIsRejectedByValueOfAnotherVersion() throws Exception {
+    RedisList copy = copy(list);
+    list.pushLeft(values("x"));
+    list.resetDelta();
+    list.pushLeft(values("y"));
+
+    assertThatThrownBy(() -> copy.fromDelta(delta(list)))
+        .isInstanceOf(InvalidDeltaException.class);
+  }
+
+  @Test
+  public void serializationPreservesOrder() throws Exception {
+    list.popLeft();
+    list.pushLeft(values("x", "y"));
+
+    RedisList copy = copy(list);
+
+    assertThat(strings(copy.range(0, 10))).containsExactly("y", "x", "b", "c");
+    assertThat(copy.getVersion()).isEqualTo(list.getVersion());
+  }
+
+  @Test
+  public void changesToACopyDoNotChangeTheOriginal() throws Exception {
+    RedisList original = copy(list);
+    list.resetDelta();
+
+    RedisList copy = list.copy();
+    copy.pushLeft(values("x"));
+    copy.popRight();
+
+    assertThat(strings(list.range(0, 10))).containsExactly("a", "b", "c");
+    assertThat(list.hasDelta()).isFalse();
+    assertThat(strings(copy.range(0, 10))).containsExactly("x", "a", "b");
+
+    original.fromDelta(delta(copy));
+
+    assertThat(strings(original.range(0, 10))).containsExactly("x", "a", "b");
+    assertThat(original.getVersion()).isEqualTo(copy.getVersion());
+  }
+
+  private static RedisList copy(RedisList list) throws Exception {
+    HeapDataOutputStream out = new HeapDataOutputStream(Version.CURRENT);
+    DataSerializer.writeObject(list, out);
+    return DataSerializer.readObject(new DataInputStream(out.getInputStream()));
+  }
+
+  private static DataInputStream delta(RedisList list) throws Exception {
+    HeapDataOutputStream out = new HeapDataOutputStream(Version.CURRENT);
+    list.toDelta(out);
+    return new DataInputStream(out.getInputStream());
+  }
+
+  private static List<byte[]> values(String... values) {
+    List<byte[]> result = new ArrayList<>();
+    for (String value : values) {
+      result.add(value.getBytes());
+    }
+    return result;
+  }
+
+  private static List<String> strings(List<ByteArrayWrapper> values) {
+    List<String> result = new ArrayList<>();
+    for (ByteArrayWrapper value : values) {
+      result.add(value.toString());
+    }
+    return result;
+  }
+}
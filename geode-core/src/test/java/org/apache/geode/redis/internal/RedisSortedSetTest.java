@@ -0,0 +1,202 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.redis.internal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.DataInputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import org.apache.geode.DataSerializer;
+import org.apache.geode.internal.HeapDataOutputStream;
+import org.apache.geode.internal.Version;
+import org.apache.geode.test.junit.categories.RedisTest;
+
+@Category({RedisTest.class})
+public class RedisSortedSetTest {
+
+  private RedisSortedSet sortedSet;
+
+  @Before
+  public void setUp() {
+    sortedSet = new RedisSortedSet();
+    sortedSet.add(member("d"), 4D);
+    sortedSet.add(member("a"), 1D);
+    sortedSet.add(member("c"), 3D);
+    sortedSet.add(member("b"), 2D);
+    sortedSet.add(member("e"), 5D);
+  }
+
+  @Test
+  public void addReturnsTrueOnlyForNewMembers() {
+    assertThat(sortedSet.add(member("f"), 6D)).isTrue();
+    assertThat(sortedSet.add(member("f"), 0D)).isFalse();
+    assertThat(sortedSet.size()).isEqualTo(6);
+    assertThat(sortedSet.getScore(member("f"))).isEqualTo(0D);
+    assertThat(sortedSet.rank(member("f"), false)).isEqualTo(0);
+  }
+
+  @Test
+  public void rankIsOrderedByScoreThenMember() {
+    sortedSet.add(member("bb"), 2D);
+
+    assertThat(sortedSet.rank(member("a"), false)).isEqualTo(0);
+    assertThat(sortedSet.rank(member("b"), false)).isEqualTo(1);
+    assertThat(sortedSet.rank(member("bb"), false)).isEqualTo(2);
+    assertThat(sortedSet.rank(member("e"), false)).isEqualTo(5);
+    assertThat(sortedSet.rank(member("e"), true)).isEqualTo(0);
+    assertThat(sortedSet.rank(member("missing"), false)).isEqualTo(-1);
+  }
+
+  @Test
+  public void removeUpdatesRanks() {
+    assertThat(sortedSet.remove(member("b"))).isTrue();
+    assertThat(sortedSet.remove(member("b"))).isFalse();
+
+    assertThat(sortedSet.size()).isEqualTo(4);
+    assertThat(sortedSet.rank(member("c"), false)).isEqualTo(1);
+    assertThat(members(sortedSet.entries())).containsExactly("a", "c", "d", "e");
+  }
+
+  @Test
+  public void rangeByRank() {
+    assertThat(members(sortedSet.rangeByRank(1, 3, false))).containsExactly("b", "c", "d");
+    assertThat(members(sortedSet.rangeByRank(0, 1, true))).containsExactly("e", "d");
+  }
+
+  @Test
+  public void rangeByScoreHonorsInclusivityOffsetAndLimit() {
+    assertThat(sortedSet.countByScore(2D, true, 4D, true)).isEqualTo(3);
+    assertThat(sortedSet.countByScore(2D, false, 4D, false)).isEqualTo(1);
+    assertThat(sortedSet.countByScore(6D, true, 10D, true)).isEqualTo(0);
+    assertThat(sortedSet.countByScore(4D, true, 2D, true)).isEqualTo(0);
+
+    assertThat(members(sortedSet.rangeByScore(Double.NEGATIVE_INFINITY, true,
+        Double.POSITIVE_INFINITY, true, 1, 2, false))).containsExactly("b", "c");
+    assertThat(members(sortedSet.rangeByScore(2D, true, 5D, false, 1, -1, true)))
+        .containsExactly("c", "b");
+  }
+
+  @Test
+  public void lexRangesWithEqualScores() {
+    RedisSortedSet lexSet = new RedisSortedSet();
+    for (String m : new String[] {"e", "c", "a", "d", "b"})
+      lexSet.add(member(m), 0D);
+
+    assertThat(lexSet.countByLex(member("b"), true, member("d"), false)).isEqualTo(2);
+    assertThat(lexSet.countByLex(null, true, null, true)).isEqualTo(5);
+    assertThat(lexSet.rangeByLex(member("b"), false, null, true, 1, 2))
+        .containsExactly(member("d"), member("e"));
+    assertThat(lexSet.removeRangeByLex(null, true, member("b"), true)).isEqualTo(2);
+    assertThat(members(lexSet.entries())).containsExactly("c", "d", "e");
+  }
+
+  @Test
+  public void removeRanges() {
+    assertThat(sortedSet.removeRangeByRank(1, 2)).isEqualTo(2);
+    assertThat(members(sortedSet.entries())).containsExactly("a", "d", "e");
+
+    assertThat(sortedSet.removeRangeByScore(4D, true, 5D, true)).isEqualTo(2);
+    assertThat(members(sortedSet.entries())).containsExactly("a");
+  }
+
+  @Test
+  public void matchesSortedListForRandomOperations() {
+    Random random = new Random(42);
+    RedisSortedSet randomSet = new RedisSortedSet();
+    List<String> expected = new ArrayList<>();
+    for (int i = 0; i < 2000; i++) {
+      String m = String.format("%04d", random.nextInt(500));
+      if (random.nextInt(4) == 0) {
+        assertThat(randomSet.remove(member(m))).isEqualTo(expected.remove(m));
+      } else if (!expected.contains(m)) {
+        randomSet.add(member(m), Integer.parseInt(m));
+        expected.add(m);
+      }
+    }
+    Collections.sort(expected);
+
+    assertThat(members(randomSet.entries())).isEqualTo(expected);
+    for (int i = 0; i < expected.size(); i++) {
+      assertThat(randomSet.rank(member(expected.get(i)), false)).isEqualTo(i);
+    }
+  }
+
+  @Test
+  public void serializationPreservesOrdering() throws Exception {
+    HeapDataOutputStream out = new HeapDataOutputStream(Version.CURRENT);
+    DataSerializer.writeObject(sortedSet, out);
+    RedisSortedSet copy =
+        DataSerializer.readObject(new DataInputStream(out.getInputStream()));
+
+    assertThat(copy.size()).isEqualTo(5);
+    assertThat(members(copy.entries())).containsExactly("a", "b", "c", "d", "e");
+    assertThat(copy.rank(member("d"), false)).isEqualTo(3);
+  }
+
+  @Test
+  public void deltaReproducesChanges() throws Exception {
+    RedisSortedSet copy = copy(sortedSet);
+    sortedSet.resetDelta();
+
+    sortedSet.add(member("f"), 0.5D);
+    sortedSet.add(member("a"), 6D);
+    sortedSet.remove(member("c"));
+    sortedSet.removeRangeByScore(4D, true, 4D, true);
+
+    HeapDataOutputStream out = new HeapDataOutputStream(Version.CURRENT);
+    sortedSet.toDelta(out);
+    copy.fromDelta(new DataInputStream(out.getInputStream()));
+
+    assertThat(members(copy.entries())).containsExactly("f", "b", "e", "a");
+    assertThat(copy.getScore(member("a"))).isEqualTo(6D);
+    assertThat(copy.getVersion()).isEqualTo(sortedSet.getVersion());
+  }
+
+  @Test
+  public void unchangedScoreIsNotRecorded() {
+    sortedSet.resetDelta();
+
+    assertThat(sortedSet.add(member("a"), 1D)).isFalse();
+    assertThat(sortedSet.remove(member("z"))).isFalse();
+
+    assertThat(sortedSet.hasDelta()).isFalse();
+  }
+
+  private static RedisSortedSet copy(RedisSortedSet sortedSet) throws Exception {
+    HeapDataOutputStream out = new HeapDataOutputStream(Version.CURRENT);
+    DataSerializer.writeObject(sortedSet, out);
+    return DataSerializer.readObject(new DataInputStream(out.getInputStream()));
+  }
+
+  private static ByteArrayWrapper member(String member) {
+    return Coder.stringToByteArrayWrapper(member);
+  }
+
+  private static List<String> members(List<Entry<ByteArrayWrapper, DoubleWrapper>> entries) {
+    List<String> members = new ArrayList<>();
+    for (Entry<ByteArrayWrapper, DoubleWrapper> entry : entries)
+      members.add(entry.getKey().toString());
+    return members;
+  }
+}